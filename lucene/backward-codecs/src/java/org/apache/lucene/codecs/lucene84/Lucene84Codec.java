@@ -30,6 +30,7 @@ import org.apache.lucene.codecs.PostingsFormat;
 import org.apache.lucene.codecs.SegmentInfoFormat;
 import org.apache.lucene.codecs.StoredFieldsFormat;
 import org.apache.lucene.codecs.TermVectorsFormat;
+import org.apache.lucene.codecs.VectorFormat;
 import org.apache.lucene.codecs.lucene50.Lucene50CompoundFormat;
 import org.apache.lucene.codecs.lucene50.Lucene50LiveDocsFormat;
 import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat;
@@ -136,6 +137,11 @@ public class Lucene84Codec extends Codec {
     return new Lucene60PointsFormat();
   }
 
+  @Override
+  public VectorFormat vectorFormat() {
+    return VectorFormat.EMPTY;
+  }
+
   /** Returns the postings format that should be used for writing
    *  new segments of <code>field</code>.
    *
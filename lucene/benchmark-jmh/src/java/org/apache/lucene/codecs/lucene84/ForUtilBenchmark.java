@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene84;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding speed of a single 128-integer postings block with {@link ForUtil},
+ * {@link ForDeltaUtil} and {@link PForUtil}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ForUtilBenchmark {
+
+  @Param({"1", "4", "7", "8", "12", "16", "20", "24", "31"})
+  int bitsPerValue;
+
+  private final ForUtil forUtil = new ForUtil();
+  private final ForDeltaUtil forDeltaUtil = new ForDeltaUtil(forUtil);
+  private final PForUtil pforUtil = new PForUtil(forUtil);
+
+  private final long[] longs = new long[ForUtil.BLOCK_SIZE];
+  private final ByteArrayDataInput in = new ByteArrayDataInput();
+
+  private byte[] forBytes;
+  private byte[] forDeltaBytes;
+  private byte[] forDeltaDenseBytes;
+  private byte[] pforBytes;
+
+  @Setup
+  public void setup() throws IOException {
+    final Random random = new Random(0);
+    final long max = (1L << bitsPerValue) - 1;
+    final long[] values = new long[ForUtil.BLOCK_SIZE];
+
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = 1 + (long) (random.nextDouble() * max);
+    }
+    ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+    forUtil.encode(values.clone(), bitsPerValue, out);
+    forBytes = out.toArrayCopy();
+
+    out = new ByteBuffersDataOutput();
+    forDeltaUtil.encodeDeltas(values.clone(), out);
+    forDeltaBytes = out.toArrayCopy();
+
+    // all deltas equal to 1, as found in very dense postings
+    final long[] ones = new long[ForUtil.BLOCK_SIZE];
+    Arrays.fill(ones, 1L);
+    out = new ByteBuffersDataOutput();
+    forDeltaUtil.encodeDeltas(ones, out);
+    forDeltaDenseBytes = out.toArrayCopy();
+
+    // mostly small values with a few large ones so that PFor needs to patch exceptions
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = random.nextInt(i % 40 == 0 ? Integer.MAX_VALUE : 16);
+    }
+    out = new ByteBuffersDataOutput();
+    pforUtil.encode(values.clone(), out);
+    pforBytes = out.toArrayCopy();
+  }
+
+  @Benchmark
+  public long forDecode() throws IOException {
+    in.reset(forBytes);
+    forUtil.decode(bitsPerValue, in, longs);
+    return longs[ForUtil.BLOCK_SIZE - 1];
+  }
+
+  @Benchmark
+  public long forDecodeAndPrefixSum() throws IOException {
+    in.reset(forBytes);
+    forUtil.decodeAndPrefixSum(bitsPerValue, in, 42L, longs);
+    return longs[ForUtil.BLOCK_SIZE - 1];
+  }
+
+  @Benchmark
+  public long forDeltaDecodeAndPrefixSum() throws IOException {
+    in.reset(forDeltaBytes);
+    forDeltaUtil.decodeAndPrefixSum(in, 42L, longs);
+    return longs[ForUtil.BLOCK_SIZE - 1];
+  }
+
+  @Benchmark
+  public long forDeltaDenseDecodeAndPrefixSum() throws IOException {
+    in.reset(forDeltaDenseBytes);
+    forDeltaUtil.decodeAndPrefixSum(in, 42L, longs);
+    return longs[ForUtil.BLOCK_SIZE - 1];
+  }
+
+  @Benchmark
+  public long pforDecode() throws IOException {
+    in.reset(pforBytes);
+    pforUtil.decode(in, longs);
+    return longs[ForUtil.BLOCK_SIZE - 1];
+  }
+
+}
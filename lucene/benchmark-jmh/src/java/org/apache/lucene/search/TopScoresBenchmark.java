@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Top-k disjunctions and conjunctions over an on-disk index. With a low total hits
+ * threshold the queries run with {@link ScoreMode#TOP_SCORES} and exercise
+ * {@link WANDScorer} and {@link BlockMaxConjunctionScorer}; with an exact hit count
+ * they fall back to exhaustive evaluation, which is the baseline to compare with.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TopScoresBenchmark {
+
+  private static final int NUM_DOCS = 1_000_000;
+  private static final int VOCABULARY_SIZE = 10_000;
+  private static final int TOP_N = 10;
+
+  /** Total hits threshold: 1000 enables dynamic pruning, MAX_VALUE counts all hits. */
+  @Param({"1000", "2147483647"})
+  int totalHitsThreshold;
+
+  /** Comma-separated terms, from most to least frequent. */
+  @Param({"t0,t1", "t1,t50", "t3,t200,t2000"})
+  String terms;
+
+  private Path path;
+  private Directory dir;
+  private IndexReader reader;
+  private IndexSearcher searcher;
+  private Query disjunction;
+  private Query conjunction;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    path = Files.createTempDirectory("topscores");
+    dir = FSDirectory.open(path);
+    final Random random = new Random(0);
+    try (IndexWriter w = new IndexWriter(dir, new IndexWriterConfig(new StandardAnalyzer()))) {
+      final Document doc = new Document();
+      final Field body = new TextField("body", "", Field.Store.NO);
+      doc.add(body);
+      final StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < NUM_DOCS; ++i) {
+        sb.setLength(0);
+        final int numTokens = 5 + random.nextInt(50);
+        for (int j = 0; j < numTokens; ++j) {
+          // approximate Zipf, so that t0 is very frequent and t9999 very rare
+          final double d = random.nextDouble();
+          sb.append('t').append((int) (d * d * d * VOCABULARY_SIZE)).append(' ');
+        }
+        body.setStringValue(sb.toString());
+        w.addDocument(doc);
+      }
+      w.forceMerge(1);
+    }
+    reader = DirectoryReader.open(dir);
+    searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(null);
+
+    final BooleanQuery.Builder or = new BooleanQuery.Builder();
+    final BooleanQuery.Builder and = new BooleanQuery.Builder();
+    for (String term : terms.split(",")) {
+      or.add(new TermQuery(new Term("body", term)), BooleanClause.Occur.SHOULD);
+      and.add(new TermQuery(new Term("body", term)), BooleanClause.Occur.MUST);
+    }
+    disjunction = or.build();
+    conjunction = and.build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    IOUtils.close(reader, dir);
+    IOUtils.rm(path);
+  }
+
+  @Benchmark
+  public TopDocs disjunction() throws IOException {
+    final TopScoreDocCollector collector = TopScoreDocCollector.create(TOP_N, totalHitsThreshold);
+    searcher.search(disjunction, collector);
+    return collector.topDocs();
+  }
+
+  @Benchmark
+  public TopDocs conjunction() throws IOException {
+    final TopScoreDocCollector collector = TopScoreDocCollector.create(TOP_N, totalHitsThreshold);
+    searcher.search(conjunction, collector);
+    return collector.topDocs();
+  }
+
+}
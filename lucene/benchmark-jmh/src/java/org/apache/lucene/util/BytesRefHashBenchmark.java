@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link BytesRefHash#add} as done by the indexing chain for every token: the
+ * stream of terms follows a skewed distribution, so most adds hit an existing entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class BytesRefHashBenchmark {
+
+  private static final int NUM_ADDS = 1 << 16;
+
+  /** Number of distinct terms. */
+  @Param({"1000", "100000"})
+  int numUniqueTerms;
+
+  private BytesRef[] stream;
+  private BytesRefHash hash;
+
+  @Setup(Level.Trial)
+  public void setupTerms() {
+    final Random random = new Random(0);
+    final BytesRef[] unique = new BytesRef[numUniqueTerms];
+    for (int i = 0; i < unique.length; ++i) {
+      final byte[] bytes = new byte[2 + random.nextInt(10)];
+      random.nextBytes(bytes);
+      unique[i] = new BytesRef(bytes);
+    }
+    stream = new BytesRef[NUM_ADDS];
+    for (int i = 0; i < stream.length; ++i) {
+      // approximate Zipf: low ords are much more frequent than high ones
+      final double d = random.nextDouble();
+      stream[i] = unique[(int) (d * d * d * numUniqueTerms)];
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void setupHash() {
+    hash = new BytesRefHash();
+  }
+
+  /** {@value #NUM_ADDS} adds into a hash that is reset on every call, like on every flush. */
+  @Benchmark
+  public int addFresh() {
+    hash.clear();
+    hash.reinit();
+    int ords = 0;
+    for (BytesRef term : stream) {
+      ords += hash.add(term);
+    }
+    return ords;
+  }
+
+  /** {@value #NUM_ADDS} adds of terms that are all already present in the hash. */
+  @Benchmark
+  public int addExisting() {
+    int ords = 0;
+    for (BytesRef term : stream) {
+      ords += hash.add(term);
+    }
+    return ords;
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.compress;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link LZ4} compression and decompression of stored-fields-like blocks, with and
+ * without a preset dictionary.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class LZ4Benchmark {
+
+  private static final String[] WORDS = {
+      "\"timestamp\":", "\"level\":", "\"message\":", "\"host\":", "\"INFO\"", "\"WARN\"",
+      "request", "completed", "in", "ms", "user", "session", "opened", "closed", "for",
+      "{", "}", ",", " ", "0", "1", "2", "3", "4", "5", "6", "7", "8", "9"
+  };
+
+  /** Length of the block to compress. */
+  @Param({"1024", "16384", "61440"})
+  int length;
+
+  /** Length of the preset dictionary, 0 to disable. */
+  @Param({"0", "4096"})
+  int dictLength;
+
+  private final LZ4.FastCompressionHashTable fastHashTable = new LZ4.FastCompressionHashTable();
+  private final LZ4.HighCompressionHashTable highHashTable = new LZ4.HighCompressionHashTable();
+
+  private byte[] uncompressed;
+  private byte[] compressed;
+  private int compressedLength;
+  private byte[] restored;
+  private final ByteArrayDataOutput out = new ByteArrayDataOutput();
+  private final ByteArrayDataInput in = new ByteArrayDataInput();
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    final Random random = new Random(0);
+    final StringBuilder sb = new StringBuilder();
+    while (sb.length() < dictLength + length) {
+      sb.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    uncompressed = Arrays.copyOf(sb.toString().getBytes(StandardCharsets.UTF_8), dictLength + length);
+    // worst case for incompressible data, plus some slack
+    compressed = new byte[length + length / 255 + 16];
+    out.reset(compressed);
+    LZ4.compressWithDictionary(uncompressed, 0, dictLength, length, out, fastHashTable);
+    compressedLength = out.getPosition();
+    restored = new byte[dictLength + length];
+    System.arraycopy(uncompressed, 0, restored, 0, dictLength);
+  }
+
+  @Benchmark
+  public int compressFast() throws IOException {
+    out.reset(compressed);
+    LZ4.compressWithDictionary(uncompressed, 0, dictLength, length, out, fastHashTable);
+    return out.getPosition();
+  }
+
+  @Benchmark
+  public int compressHigh() throws IOException {
+    out.reset(compressed);
+    LZ4.compressWithDictionary(uncompressed, 0, dictLength, length, out, highHashTable);
+    return out.getPosition();
+  }
+
+  @Benchmark
+  public int decompress() throws IOException {
+    in.reset(compressed, 0, compressedLength);
+    return LZ4.decompress(in, length, restored, dictLength);
+  }
+
+}
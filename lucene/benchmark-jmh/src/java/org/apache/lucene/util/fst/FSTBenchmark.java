@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.fst;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exact-match lookups through {@link FST#findTargetArc}, which is what the terms index
+ * and most FST consumers do on every seek. The FST is read either from heap or off-heap
+ * from a memory-mapped file, like {@code BlockTreeTermsReader} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class FSTBenchmark {
+
+  private static final int NUM_LOOKUPS = 1 << 10;
+
+  @Param({"10000", "1000000"})
+  int numTerms;
+
+  @Param({"heap", "offheap"})
+  String store;
+
+  private Path path;
+  private Directory dir;
+  private IndexInput in;
+  private FST<Long> fst;
+  private FST.BytesReader bytesReader;
+  private final FST.Arc<Long> arc = new FST.Arc<>();
+  private BytesRef[] existing;
+  private BytesRef[] random;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    final Random r = new Random(0);
+    final TreeSet<BytesRef> terms = new TreeSet<>();
+    while (terms.size() < numTerms) {
+      terms.add(randomTerm(r));
+    }
+
+    final PositiveIntOutputs outputs = PositiveIntOutputs.getSingleton();
+    final FSTCompiler<Long> compiler = new FSTCompiler<>(FST.INPUT_TYPE.BYTE1, outputs);
+    final IntsRefBuilder scratch = new IntsRefBuilder();
+    long ord = 0;
+    for (BytesRef term : terms) {
+      compiler.add(Util.toIntsRef(term, scratch), ord++);
+    }
+    fst = compiler.compile();
+
+    if (store.equals("offheap")) {
+      path = Files.createTempDirectory("fst");
+      dir = new MMapDirectory(path);
+      try (IndexOutput out = dir.createOutput("fst", IOContext.DEFAULT)) {
+        fst.save(out, out);
+      }
+      in = dir.openInput("fst", IOContext.DEFAULT);
+      fst = new FST<>(in, in, outputs, new OffHeapFSTStore());
+    }
+    bytesReader = fst.getBytesReader();
+
+    final BytesRef[] all = terms.toArray(new BytesRef[0]);
+    existing = new BytesRef[NUM_LOOKUPS];
+    random = new BytesRef[NUM_LOOKUPS];
+    for (int i = 0; i < NUM_LOOKUPS; ++i) {
+      existing[i] = all[r.nextInt(all.length)];
+      random[i] = randomTerm(r);
+    }
+  }
+
+  private static BytesRef randomTerm(Random r) {
+    // ids-like terms over a small alphabet, so that prefixes are shared
+    final byte[] bytes = new byte[4 + r.nextInt(12)];
+    for (int i = 0; i < bytes.length; ++i) {
+      bytes[i] = (byte) ('a' + r.nextInt(16));
+    }
+    return new BytesRef(bytes);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    IOUtils.close(in, dir);
+    if (path != null) {
+      IOUtils.rm(path);
+    }
+  }
+
+  private long lookup(BytesRef term) throws IOException {
+    fst.getFirstArc(arc);
+    long output = 0;
+    for (int i = 0; i < term.length; ++i) {
+      if (fst.findTargetArc(term.bytes[term.offset + i] & 0xff, arc, arc, bytesReader) == null) {
+        return -1;
+      }
+      output += arc.output();
+    }
+    return arc.isFinal() ? output + arc.nextFinalOutput() : -1;
+  }
+
+  /** {@value #NUM_LOOKUPS} lookups of terms that exist in the FST. */
+  @Benchmark
+  public long lookupExisting() throws IOException {
+    long sum = 0;
+    for (BytesRef term : existing) {
+      sum += lookup(term);
+    }
+    return sum;
+  }
+
+  /** {@value #NUM_LOOKUPS} lookups of random terms, most of which terminate early. */
+  @Benchmark
+  public long lookupRandom() throws IOException {
+    long sum = 0;
+    for (BytesRef term : random) {
+      sum += lookup(term);
+    }
+    return sum;
+  }
+
+}
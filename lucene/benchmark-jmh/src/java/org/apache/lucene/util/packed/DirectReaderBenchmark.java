@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.packed;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.LongValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Random-access lookups through {@link DirectReader} and {@link DirectMonotonicReader},
+ * the building blocks of numeric and sorted doc values. Values are read either from a
+ * heap-backed directory or from a memory-mapped file on disk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class DirectReaderBenchmark {
+
+  private static final int NUM_VALUES = 1 << 20;
+  private static final int NUM_LOOKUPS = 1 << 10;
+  private static final int BLOCK_SHIFT = 16;
+
+  @Param({"1", "4", "8", "12", "16", "20", "24", "32", "40", "64"})
+  int bitsPerValue;
+
+  @Param({"heap", "mmap"})
+  String directory;
+
+  private Path path;
+  private Directory dir;
+  private IndexInput packedIn, monotonicMetaIn, monotonicDataIn;
+  private LongValues packedValues;
+  private LongValues monotonicValues;
+  private final int[] docs = new int[NUM_LOOKUPS];
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    if (directory.equals("mmap")) {
+      path = Files.createTempDirectory("directreader");
+      dir = new MMapDirectory(path);
+    } else {
+      dir = new ByteBuffersDirectory();
+    }
+    final Random random = new Random(0);
+    final long maxValue = bitsPerValue == 64 ? Long.MAX_VALUE : (1L << bitsPerValue) - 1;
+
+    try (IndexOutput out = dir.createOutput("packed", IOContext.DEFAULT)) {
+      DirectWriter writer = DirectWriter.getInstance(out, NUM_VALUES, bitsPerValue);
+      for (int i = 0; i < NUM_VALUES; ++i) {
+        writer.add((long) (random.nextDouble() * maxValue));
+      }
+      writer.finish();
+    }
+
+    try (IndexOutput metaOut = dir.createOutput("monotonic.meta", IOContext.DEFAULT);
+         IndexOutput dataOut = dir.createOutput("monotonic.data", IOContext.DEFAULT)) {
+      DirectMonotonicWriter writer = DirectMonotonicWriter.getInstance(metaOut, dataOut, NUM_VALUES, BLOCK_SHIFT);
+      // small random deltas, like addresses of variable-length binary values
+      final int maxDelta = 1 << Math.min(bitsPerValue, 16);
+      long value = 0;
+      for (int i = 0; i < NUM_VALUES; ++i) {
+        value += random.nextInt(maxDelta);
+        writer.add(value);
+      }
+      writer.finish();
+    }
+
+    packedIn = dir.openInput("packed", IOContext.DEFAULT);
+    packedValues = DirectReader.getInstance(packedIn.randomAccessSlice(0, packedIn.length()), bitsPerValue);
+
+    monotonicMetaIn = dir.openInput("monotonic.meta", IOContext.READONCE);
+    DirectMonotonicReader.Meta meta = DirectMonotonicReader.loadMeta(monotonicMetaIn, NUM_VALUES, BLOCK_SHIFT);
+    monotonicDataIn = dir.openInput("monotonic.data", IOContext.DEFAULT);
+    monotonicValues = DirectMonotonicReader.getInstance(meta, monotonicDataIn.randomAccessSlice(0, monotonicDataIn.length()));
+
+    for (int i = 0; i < docs.length; ++i) {
+      docs[i] = random.nextInt(NUM_VALUES);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    IOUtils.close(packedIn, monotonicMetaIn, monotonicDataIn, dir);
+    if (path != null) {
+      IOUtils.rm(path);
+    }
+  }
+
+  /** Sum of {@value #NUM_LOOKUPS} random lookups; divide the score by that number for a per-call cost. */
+  @Benchmark
+  public long directReaderRandom() {
+    long sum = 0;
+    for (int doc : docs) {
+      sum += packedValues.get(doc);
+    }
+    return sum;
+  }
+
+  /** Sum of {@value #NUM_LOOKUPS} consecutive lookups, which is the common case when iterating doc values. */
+  @Benchmark
+  public long directReaderSequential() {
+    long sum = 0;
+    final int start = docs[0] & ~(NUM_LOOKUPS - 1);
+    for (int i = 0; i < NUM_LOOKUPS; ++i) {
+      sum += packedValues.get(start + i);
+    }
+    return sum;
+  }
+
+  /** Sum of {@value #NUM_LOOKUPS} random lookups into a monotonic sequence. */
+  @Benchmark
+  public long directMonotonicReaderRandom() {
+    long sum = 0;
+    for (int doc : docs) {
+      sum += monotonicValues.get(doc);
+    }
+    return sum;
+  }
+
+}
@@ -110,6 +110,9 @@ public abstract class Codec implements NamedSPILoader.NamedSPI {
 
   /** Encodes/decodes points index */
   public abstract PointsFormat pointsFormat();
+
+  /** Encodes/decodes numeric vector fields */
+  public abstract VectorFormat vectorFormat();
   
   /** looks up a codec by name */
   public static Codec forName(String name) {
@@ -21,6 +21,7 @@ import java.io.Closeable;
 import java.io.IOException;
 
 import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedDocValues;
@@ -64,6 +65,15 @@ public abstract class DocValuesProducer implements Closeable, Accountable {
    *  used by a single thread. */
   public abstract SortedSetDocValues getSortedSet(FieldInfo field) throws IOException;
   
+  /** Returns a {@link DocValuesSkipper} for this field, or null if this
+   *  producer doesn't record a skip index for it. Only called on fields that
+   *  have numeric, sorted, sorted numeric or sorted set doc values.
+   *  The returned instance need not be thread-safe: it will only be
+   *  used by a single thread. The default implementation returns null. */
+  public DocValuesSkipper getSkipper(FieldInfo field) throws IOException {
+    return null;
+  }
+
   /** 
    * Checks consistency of this producer
    * <p>
@@ -18,6 +18,7 @@ package org.apache.lucene.codecs;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.function.IntFunction;
 
 import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.util.Accountable;
@@ -39,6 +40,36 @@ public abstract class StoredFieldsReader implements Cloneable, Closeable, Accoun
   /** Visit the stored fields for document <code>docID</code> */
   public abstract void visitDocument(int docID, StoredFieldVisitor visitor) throws IOException;
 
+  /**
+   * Visit the stored fields of a batch of documents. {@code docIDs} must be
+   * sorted in non-decreasing order, and {@code visitors} is called once per
+   * document, in the order of {@code docIDs}, to get the visitor of that
+   * document right before its fields are visited. Implementations may be
+   * able to share work across documents, e.g. by decompressing a block of
+   * documents only once. The default implementation
+   * {@link #prefetch prefetches} all documents and then calls
+   * {@link #visitDocument} for each of them.
+   */
+  public void visitDocuments(int[] docIDs, IntFunction<? extends StoredFieldVisitor> visitors) throws IOException {
+    for (int docID : docIDs) {
+      prefetch(docID);
+    }
+    for (int docID : docIDs) {
+      visitDocument(docID, visitors.apply(docID));
+    }
+  }
+
+  /**
+   * Optional hint that the stored fields of document <code>docID</code> will be
+   * visited soon. Callers that need to visit a batch of documents should call
+   * this method for every document of the batch, in increasing doc ID order,
+   * before visiting any of them, so that implementations can start fetching
+   * the data of all documents in parallel rather than blocking on one document
+   * at a time. The default implementation does nothing.
+   */
+  public void prefetch(int docID) throws IOException {
+  }
+
   @Override
   public abstract StoredFieldsReader clone();
   
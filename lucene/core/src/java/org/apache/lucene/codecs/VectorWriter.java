@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs;
+
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.index.DocIDMerger;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.MergeState;
+import org.apache.lucene.index.RandomAccessVectorValues;
+import org.apache.lucene.index.RandomAccessVectorValuesProducer;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * Writes vectors to an index.
+ *
+ * @lucene.experimental
+ */
+public abstract class VectorWriter implements Closeable {
+
+  /** Sole constructor */
+  protected VectorWriter() {}
+
+  /** Write all values contained in the provided reader. When the field's search strategy is an
+   *  HNSW strategy, the values must also implement {@link RandomAccessVectorValuesProducer} so
+   *  that the graph can be built once all vectors have been seen. */
+  public abstract void writeField(FieldInfo fieldInfo, VectorValues values) throws IOException;
+
+  /** Called once at the end before close */
+  public abstract void finish() throws IOException;
+
+  /** Merge the vector values from multiple segments, for all fields */
+  public void merge(MergeState mergeState) throws IOException {
+    for (int i = 0; i < mergeState.fieldInfos.length; i++) {
+      VectorReader reader = mergeState.vectorReaders[i];
+      assert reader != null || mergeState.fieldInfos[i].hasVectorValues() == false;
+      if (reader != null) {
+        reader.checkIntegrity();
+      }
+    }
+    for (FieldInfo fieldInfo : mergeState.mergeFieldInfos) {
+      if (fieldInfo.hasVectorValues()) {
+        mergeVectors(fieldInfo, mergeState);
+      }
+    }
+    finish();
+  }
+
+  private void mergeVectors(FieldInfo mergeFieldInfo, final MergeState mergeState) throws IOException {
+    if (mergeState.infoStream.isEnabled("VV")) {
+      mergeState.infoStream.message("VV", "merging " + mergeState.segmentInfo);
+    }
+    List<VectorValuesSub> subs = new ArrayList<>();
+    for (int i = 0; i < mergeState.vectorReaders.length; i++) {
+      VectorReader vectorReader = mergeState.vectorReaders[i];
+      if (vectorReader == null) {
+        continue;
+      }
+      FieldInfo readerFieldInfo = mergeState.fieldInfos[i].fieldInfo(mergeFieldInfo.name);
+      if (readerFieldInfo == null || readerFieldInfo.hasVectorValues() == false) {
+        // This segment never saw this field, or the field did not index vectors in it
+        continue;
+      }
+      if (readerFieldInfo.getVectorDimension() != mergeFieldInfo.getVectorDimension()) {
+        throw new IllegalStateException("Varying dimensions for vector-valued field " + mergeFieldInfo.name
+            + ": " + mergeFieldInfo.getVectorDimension() + "!=" + readerFieldInfo.getVectorDimension());
+      }
+      if (readerFieldInfo.getVectorSearchStrategy() != mergeFieldInfo.getVectorSearchStrategy()) {
+        throw new IllegalStateException("Varying search strategies for vector-valued field " + mergeFieldInfo.name
+            + ": " + mergeFieldInfo.getVectorSearchStrategy() + "!=" + readerFieldInfo.getVectorSearchStrategy());
+      }
+      VectorValues values = vectorReader.getVectorValues(mergeFieldInfo.name);
+      if (values != null) {
+        subs.add(new VectorValuesSub(subs.size(), mergeState.docMaps[i], values));
+      }
+    }
+    // Create a new VectorValues by iterating over the sub vectors, mapping the resulting
+    // docids using docMaps in the mergeState.
+    if (subs.size() > 0) {
+      writeField(mergeFieldInfo, new VectorValuesMerger(subs, mergeState));
+    }
+    if (mergeState.infoStream.isEnabled("VV")) {
+      mergeState.infoStream.message("VV", "merge done " + mergeState.segmentInfo);
+    }
+  }
+
+  /** Tracks state of one sub-reader that we are merging */
+  private static class VectorValuesSub extends DocIDMerger.Sub {
+
+    final VectorValues values;
+    final int segmentIndex;
+    int count;
+
+    VectorValuesSub(int segmentIndex, MergeState.DocMap docMap, VectorValues values) {
+      super(docMap);
+      this.values = values;
+      this.segmentIndex = segmentIndex;
+      assert values.docID() == -1;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      int docId = values.nextDoc();
+      if (docId != VectorValues.NO_MORE_DOCS) {
+        // Note: this does count deleted docs since they are present in the to-be-merged segment
+        ++count;
+      }
+      return docId;
+    }
+  }
+
+  /**
+   * View over multiple VectorValues supporting iterator-style access via DocIdMerger. Maintains a reverse ordinal
+   * mapping for documents having values in order to support random access by dense ordinal.
+   */
+  private static class VectorValuesMerger extends VectorValues implements RandomAccessVectorValuesProducer {
+    private final List<VectorValuesSub> subs;
+    private final DocIDMerger<VectorValuesSub> docIdMerger;
+    private final int cost;
+    private final int size;
+
+    private int docId;
+    private VectorValuesSub current;
+    // For each doc with a vector, record the sub it came from and its ord in that sub. This enables
+    // random access into the unmerged segments using the ords from the merged segment.
+    private int[] subMap;
+    private int[] ordMap;
+    private int ord;
+
+    VectorValuesMerger(List<VectorValuesSub> subs, MergeState mergeState) throws IOException {
+      this.subs = subs;
+      docIdMerger = DocIDMerger.of(subs, mergeState.needsIndexSort);
+      int totalCost = 0, totalSize = 0;
+      for (VectorValuesSub sub : subs) {
+        totalCost += sub.values.cost();
+        totalSize += sub.values.size();
+      }
+      cost = totalCost;
+      size = totalSize;
+      subMap = new int[0];
+      ordMap = new int[0];
+      docId = -1;
+    }
+
+    @Override
+    public int docID() {
+      return docId;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      current = docIdMerger.next();
+      if (current == null) {
+        docId = NO_MORE_DOCS;
+      } else {
+        docId = current.mappedDocID;
+        if (ord == ordMap.length) {
+          ordMap = ArrayUtil.grow(ordMap, ord + 1);
+          subMap = ArrayUtil.growExact(subMap, ordMap.length);
+        }
+        subMap[ord] = current.segmentIndex;
+        ordMap[ord] = current.count - 1;
+        ++ord;
+      }
+      return docId;
+    }
+
+    @Override
+    public float[] vectorValue() throws IOException {
+      return current.values.vectorValue();
+    }
+
+    @Override
+    public BytesRef binaryValue() throws IOException {
+      return current.values.binaryValue();
+    }
+
+    @Override
+    public RandomAccessVectorValues randomAccess() throws IOException {
+      return new MergerRandomAccess();
+    }
+
+    @Override
+    public int advance(int target) {
+      throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns an upper bound of the number of merged vectors: documents that are deleted in the
+     * segments being merged are counted, even though they will be skipped while iterating.
+     */
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public long cost() {
+      return cost;
+    }
+
+    @Override
+    public int dimension() {
+      return subs.get(0).values.dimension();
+    }
+
+    @Override
+    public SearchStrategy searchStrategy() {
+      return subs.get(0).values.searchStrategy();
+    }
+
+    /** Random access view over the merged values; only valid once the merger has been fully iterated */
+    class MergerRandomAccess implements RandomAccessVectorValues {
+
+      private final List<RandomAccessVectorValues> raSubs;
+
+      MergerRandomAccess() throws IOException {
+        raSubs = new ArrayList<>(subs.size());
+        for (VectorValuesSub sub : subs) {
+          if (sub.values instanceof RandomAccessVectorValuesProducer) {
+            raSubs.add(((RandomAccessVectorValuesProducer) sub.values).randomAccess());
+          } else {
+            throw new IllegalStateException("Cannot merge VectorValues without support for random access");
+          }
+        }
+      }
+
+      @Override
+      public int size() {
+        return ord;
+      }
+
+      @Override
+      public int dimension() {
+        return VectorValuesMerger.this.dimension();
+      }
+
+      @Override
+      public float[] vectorValue(int target) throws IOException {
+        assert docId == NO_MORE_DOCS : "random access is only valid once all documents have been merged";
+        return raSubs.get(subMap[target]).vectorValue(ordMap[target]);
+      }
+    }
+  }
+}
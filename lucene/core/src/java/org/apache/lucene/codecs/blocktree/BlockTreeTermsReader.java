@@ -103,6 +103,26 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   /** Current terms format. */
   public static final int VERSION_CURRENT = VERSION_META_FILE;
 
+  /**
+   * {@link FieldInfo} attribute that records, per field, how the terms index
+   * should be loaded. Fields without this attribute are loaded {@link FSTLoadMode#OFF_HEAP off-heap}.
+   */
+  public static final String FST_MODE_KEY = BlockTreeTermsReader.class.getSimpleName() + ".fstMode";
+
+  /**
+   * How the terms index (FST) of a field is loaded when the segment is opened.
+   * @lucene.experimental
+   */
+  public enum FSTLoadMode {
+    /** Copy the terms index to the heap. Lookups never page-fault, at the cost
+     *  of heap usage and a slower segment open. Best for primary-key like fields. */
+    ON_HEAP,
+    /** Read the terms index directly from the index input, leaving caching to
+     *  the operating system. See {@link org.apache.lucene.index.IndexReader#warmTerms(String...)}
+     *  to load it eagerly. */
+    OFF_HEAP
+  }
+
   /** Extension of terms index file */
   static final String TERMS_INDEX_EXTENSION = "tip";
   final static String TERMS_INDEX_CODEC_NAME = "BlockTreeTermsIndex";
@@ -213,9 +233,10 @@ public final class BlockTreeTermsReader extends FieldsProducer {
               throw new CorruptIndexException("invalid sumTotalTermFreq: " + sumTotalTermFreq + " sumDocFreq: " + sumDocFreq, termsMetaIn);
             }
             final long indexStartFP = indexMetaIn.readVLong();
+            final FSTLoadMode fstLoadMode = getFSTLoadMode(fieldInfo, termsMetaIn);
             FieldReader previous = fieldMap.put(fieldInfo.name,
                 new FieldReader(this, fieldInfo, numTerms, rootCode, sumTotalTermFreq, sumDocFreq, docCount,
-                    indexStartFP, indexMetaIn, indexIn, minTerm, maxTerm));
+                    indexStartFP, indexMetaIn, indexIn, minTerm, maxTerm, fstLoadMode));
             if (previous != null) {
               throw new CorruptIndexException("duplicate field: " + fieldInfo.name, termsMetaIn);
             }
@@ -255,6 +276,18 @@ public final class BlockTreeTermsReader extends FieldsProducer {
     }
   }
 
+  private static FSTLoadMode getFSTLoadMode(FieldInfo fieldInfo, IndexInput in) throws IOException {
+    final String value = fieldInfo.getAttribute(FST_MODE_KEY);
+    if (value == null) {
+      return FSTLoadMode.OFF_HEAP;
+    }
+    try {
+      return FSTLoadMode.valueOf(value);
+    } catch (IllegalArgumentException e) {
+      throw new CorruptIndexException("invalid terms index load mode for field: " + fieldInfo.name + ", mode=" + value, in, e);
+    }
+  }
+
   private static BytesRef readBytesRef(IndexInput in) throws IOException {
     int numBytes = in.readVInt();
     if (numBytes < 0) {
@@ -28,6 +28,7 @@ import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.FieldsConsumer;
 import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PostingsWriterBase;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.Fields;
@@ -220,6 +221,7 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
 
   final PostingsWriterBase postingsWriter;
   final FieldInfos fieldInfos;
+  final FSTLoadMode fstLoadMode;
 
   private final List<ByteBuffersDataOutput> fields = new ArrayList<>();
 
@@ -232,10 +234,25 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
                               int minItemsInBlock,
                               int maxItemsInBlock)
     throws IOException
+  {
+    this(state, postingsWriter, minItemsInBlock, maxItemsInBlock, FSTLoadMode.OFF_HEAP);
+  }
+
+  /** Create a new writer whose terms index will be loaded according to
+   *  {@code fstLoadMode} when the segment is opened.
+   *  @see BlockTreeTermsReader#FST_MODE_KEY */
+  public BlockTreeTermsWriter(SegmentWriteState state,
+                              PostingsWriterBase postingsWriter,
+                              int minItemsInBlock,
+                              int maxItemsInBlock,
+                              FSTLoadMode fstLoadMode)
+    throws IOException
   {
     validateSettings(minItemsInBlock,
                      maxItemsInBlock);
 
+    this.fstLoadMode = Objects.requireNonNull(fstLoadMode);
+
     this.minItemsInBlock = minItemsInBlock;
     this.maxItemsInBlock = maxItemsInBlock;
 
@@ -303,8 +320,14 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
         continue;
       }
 
+      final FieldInfo fieldInfo = fieldInfos.fieldInfo(field);
+      if (fstLoadMode != FSTLoadMode.OFF_HEAP || fieldInfo.getAttribute(BlockTreeTermsReader.FST_MODE_KEY) != null) {
+        // only record non-default modes, or overwrite a mode that the field carries over from a merged segment
+        fieldInfo.putAttribute(BlockTreeTermsReader.FST_MODE_KEY, fstLoadMode.name());
+      }
+
       TermsEnum termsEnum = terms.iterator();
-      TermsWriter termsWriter = new TermsWriter(fieldInfos.fieldInfo(field));
+      TermsWriter termsWriter = new TermsWriter(fieldInfo);
       while (true) {
         BytesRef term = termsEnum.next();
         //if (DEBUG) System.out.println("BTTW: next term " + term);
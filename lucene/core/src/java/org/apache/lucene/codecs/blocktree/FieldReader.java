@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.Terms;
@@ -57,12 +58,13 @@ public final class FieldReader extends Terms implements Accountable {
   final BytesRef minTerm;
   final BytesRef maxTerm;
   final BlockTreeTermsReader parent;
+  final FSTLoadMode fstLoadMode;
 
   final FST<BytesRef> index;
   //private boolean DEBUG;
 
   FieldReader(BlockTreeTermsReader parent, FieldInfo fieldInfo, long numTerms, BytesRef rootCode, long sumTotalTermFreq, long sumDocFreq, int docCount,
-              long indexStartFP, IndexInput metaIn, IndexInput indexIn, BytesRef minTerm, BytesRef maxTerm) throws IOException {
+              long indexStartFP, IndexInput metaIn, IndexInput indexIn, BytesRef minTerm, BytesRef maxTerm, FSTLoadMode fstLoadMode) throws IOException {
     assert numTerms > 0;
     this.fieldInfo = fieldInfo;
     //DEBUG = BlockTreeTermsReader.DEBUG && fieldInfo.name.equals("id");
@@ -74,17 +76,18 @@ public final class FieldReader extends Terms implements Accountable {
     this.rootCode = rootCode;
     this.minTerm = minTerm;
     this.maxTerm = maxTerm;
+    this.fstLoadMode = fstLoadMode;
     // if (DEBUG) {
     //   System.out.println("BTTR: seg=" + segment + " field=" + fieldInfo.name + " rootBlockCode=" + rootCode + " divisor=" + indexDivisor);
     // }
     rootBlockFP = (new ByteArrayDataInput(rootCode.bytes, rootCode.offset, rootCode.length)).readVLong() >>> BlockTreeTermsReader.OUTPUT_FLAGS_NUM_BITS;
-    // Initialize FST always off-heap.
     final IndexInput clone = indexIn.clone();
     clone.seek(indexStartFP);
-    if (metaIn == indexIn) { // Only true before Lucene 8.6
-      index = new FST<>(clone, clone, ByteSequenceOutputs.getSingleton(), new OffHeapFSTStore());
+    final IndexInput fstMetaIn = metaIn == indexIn ? clone : metaIn; // metaIn == indexIn only before Lucene 8.6
+    if (fstLoadMode == FSTLoadMode.ON_HEAP) {
+      index = new FST<>(fstMetaIn, clone, ByteSequenceOutputs.getSingleton());
     } else {
-      index = new FST<>(metaIn, clone, ByteSequenceOutputs.getSingleton(), new OffHeapFSTStore());
+      index = new FST<>(fstMetaIn, clone, ByteSequenceOutputs.getSingleton(), new OffHeapFSTStore());
     }
     /*
       if (false) {
@@ -117,6 +120,17 @@ public final class FieldReader extends Terms implements Accountable {
     }
   }
 
+  /** Returns how the terms index of this field was loaded. */
+  public FSTLoadMode getFSTLoadMode() {
+    return fstLoadMode;
+  }
+
+  /** Loads the pages of an off-heap terms index; this is a no-op for on-heap terms indexes. */
+  @Override
+  public void warm() throws IOException {
+    index.warm();
+  }
+
   /** For debugging -- used by CheckIndex too*/
   @Override
   public Stats getStats() throws IOException {
@@ -19,6 +19,7 @@ package org.apache.lucene.codecs.blocktree;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.Arrays;
 
 import org.apache.lucene.codecs.BlockTermState;
 import org.apache.lucene.index.BaseTermsEnum;
@@ -30,6 +31,7 @@ import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.BytesRefIterator;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.lucene.util.fst.FST;
 import org.apache.lucene.util.fst.Util;
@@ -329,6 +331,12 @@ final class SegmentTermsEnum extends BaseTermsEnum {
 
     assert clearEOF();
 
+    if (canScanCurrentBlock(target)) {
+      // Common case when looking up sorted terms: the target can only be in the block we are
+      // already positioned in, so scan forward from the current term and skip the terms index
+      return currentFrame.scanToTerm(target, true) == SeekStatus.FOUND;
+    }
+
     // if (DEBUG) {
     //   System.out.println("\nBTTR.seekExact seg=" + fr.parent.segment + " target=" + fr.fieldInfo.name + ":" + brToString(target) + " current=" + brToString(term) + " (exists?=" + termExists + ") validIndexPrefix=" + validIndexPrefix);
     //   printSeekState(System.out);
@@ -575,6 +583,53 @@ final class SegmentTermsEnum extends BaseTermsEnum {
     }
   }
 
+  /**
+   * Returns true if the current term exists and is in a loaded leaf block, and the target sorts
+   * after the current term and within this block's bounds. All terms of a leaf block share its
+   * prefix and there are no sub-blocks, so the target, if it exists, is one of the entries
+   * following the current term.
+   * <p>
+   * The upper bound of a floor block is only known from the floor data of frames that were
+   * pushed while seeking (with an arc); it may lag behind after {@link #next}, which only makes
+   * this check more conservative.
+   */
+  private boolean canScanCurrentBlock(BytesRef target) {
+    final SegmentTermsEnumFrame f = currentFrame;
+    if (termExists == false || f == staticFrame || f.nextEnt == -1 || f.isLeafBlock == false) {
+      return false;
+    }
+    final int prefix = f.prefix;
+    if (target.length < prefix || term.length() < prefix
+        || Arrays.mismatch(term.bytes(), 0, prefix, target.bytes, target.offset, target.offset + prefix) != -1) {
+      return false;
+    }
+    if (f.isLastInFloor == false
+        && (f.arc == null || target.length == prefix || (target.bytes[target.offset + prefix] & 0xFF) >= f.nextFloorLabel)) {
+      // target may be in a following floor block
+      return false;
+    }
+    return Arrays.compareUnsigned(term.bytes(), prefix, term.length(),
+        target.bytes, target.offset + prefix, target.offset + target.length) < 0;
+  }
+
+  @Override
+  public boolean seekExactNext(BytesRefIterator sortedTargets) throws IOException {
+    if (fr.size() == 0) {
+      return false;
+    }
+    final BytesRef max = fr.getMax();
+    for (BytesRef target = sortedTargets.next(); target != null; target = sortedTargets.next()) {
+      if (target.compareTo(max) > 0) {
+        // targets are sorted, so none of the remaining ones can exist in this field
+        return false;
+      }
+      if (seekExact(target)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public SeekStatus seekCeil(BytesRef target) throws IOException {
 
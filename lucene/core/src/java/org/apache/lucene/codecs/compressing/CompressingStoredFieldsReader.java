@@ -39,6 +39,7 @@ import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter
 import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.VERSION_CURRENT;
 import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.VERSION_META;
 import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.VERSION_OFFHEAP_INDEX;
+import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.VERSION_SHARED_DICT;
 import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.VERSION_START;
 
 import java.io.EOFException;
@@ -46,6 +47,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.function.IntFunction;
 
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.StoredFieldsReader;
@@ -84,6 +86,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   private final long maxPointer;
   private final IndexInput fieldsStream;
   private final int chunkSize;
+  private long lastPrefetchedPointer = -1;
   private final int packedIntsVersion;
   private final CompressionMode compressionMode;
   private final Decompressor decompressor;
@@ -143,7 +146,6 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
         packedIntsVersion = fieldsStream.readVInt();
       }
 
-      decompressor = compressionMode.newDecompressor();
       this.merging = false;
       this.state = new BlockState();
 
@@ -198,6 +200,18 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
         throw new CorruptIndexException("invalid chunk counts: dirty=" + numDirtyChunks + ", total=" + numChunks, fieldsStream);
       }
 
+      if (version >= VERSION_SHARED_DICT) {
+        final int dictLength = metaIn.readVInt();
+        if (dictLength < 0 || dictLength > compressionMode.maxDictionaryLength()) {
+          throw new CorruptIndexException("invalid dictionary length: " + dictLength, metaIn);
+        }
+        final byte[] dict = new byte[dictLength];
+        metaIn.readBytes(dict, 0, dictLength);
+        decompressor = compressionMode.newDecompressor(new BytesRef(dict));
+      } else {
+        decompressor = compressionMode.newDecompressor();
+      }
+
       if (metaIn != null) {
         CodecUtil.checkFooter(metaIn, null);
         metaIn.close();
@@ -609,6 +623,56 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
       return new SerializedDocument(documentInput, length, numStoredFields);
     }
 
+    /**
+     * Get the serialized representation of the documents of
+     * {@code docIDs[from:to]}, which must be sorted and all be contained in
+     * the current block. The bytes that these documents span are decompressed
+     * at once.
+     */
+    SerializedDocument[] documents(int[] docIDs, int from, int to) throws IOException {
+      assert merging == false && sliced == false;
+      assert assertSortedInBlock(docIDs, from, to);
+      final SerializedDocument[] docs = new SerializedDocument[to - from];
+      final int totalLength = offsets[chunkDocs];
+      final int start = offsets[docIDs[from] - docBase];
+      final int end = offsets[docIDs[to - 1] - docBase + 1];
+      final BytesRef bytes = new BytesRef();
+      if (end > start) {
+        fieldsStream.seek(startPointer);
+        decompressor.decompress(fieldsStream, totalLength, start, end - start, bytes);
+        assert bytes.length == end - start;
+      }
+      for (int i = from; i < to; ++i) {
+        final int index = docIDs[i] - docBase;
+        final int offset = offsets[index];
+        final int length = offsets[index+1] - offset;
+        final DataInput documentInput = new ByteArrayDataInput(bytes.bytes, bytes.offset + offset - start, length);
+        docs[i - from] = new SerializedDocument(documentInput, length, numStoredFields[index]);
+      }
+      return docs;
+    }
+
+    private boolean assertSortedInBlock(int[] docIDs, int from, int to) {
+      for (int i = from; i < to; ++i) {
+        assert contains(docIDs[i]) : "doc " + docIDs[i] + " is not in block [" + docBase + ", " + (docBase + chunkDocs) + ")";
+        assert i == from || docIDs[i] >= docIDs[i - 1] : "docIDs must be sorted, got " + docIDs[i - 1] + " before " + docIDs[i];
+      }
+      return true;
+    }
+
+  }
+
+  @Override
+  public void prefetch(int docID) throws IOException {
+    if (state.contains(docID)) {
+      return;
+    }
+    final long startPointer = indexReader.getStartPointer(docID);
+    if (startPointer != lastPrefetchedPointer) {
+      // chunks hold about chunkSize bytes before compression, so this covers most chunks entirely
+      fieldsStream.prefetch(startPointer, Math.min(chunkSize, maxPointer - startPointer));
+      lastPrefetchedPointer = startPointer;
+    }
   }
 
   SerializedDocument document(int docID) throws IOException {
@@ -623,9 +687,44 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   @Override
   public void visitDocument(int docID, StoredFieldVisitor visitor)
       throws IOException {
+    visitDocument(document(docID), visitor);
+  }
 
-    final SerializedDocument doc = document(docID);
+  @Override
+  public void visitDocuments(int[] docIDs, IntFunction<? extends StoredFieldVisitor> visitors) throws IOException {
+    for (int docID : docIDs) {
+      prefetch(docID);
+    }
+    for (int i = 0; i < docIDs.length; ) {
+      final int docID = docIDs[i];
+      if (i > 0 && docID < docIDs[i - 1]) {
+        throw new IllegalArgumentException("docIDs must be sorted, got " + docIDs[i - 1] + " before " + docID);
+      }
+      if (state.contains(docID) == false) {
+        fieldsStream.seek(indexReader.getStartPointer(docID));
+        state.reset(docID);
+      }
+      int end = i + 1;
+      while (end < docIDs.length && docIDs[end] >= docIDs[end - 1] && state.contains(docIDs[end])) {
+        ++end;
+      }
+      if (end - i == 1 || merging || state.sliced) {
+        // nothing to share, or the block is not decompressed into a single buffer
+        for (int j = i; j < end; ++j) {
+          visitDocument(state.document(docIDs[j]), visitors.apply(docIDs[j]));
+        }
+      } else {
+        // decompress the bytes of all docs of the batch that are in this block only once
+        final SerializedDocument[] docs = state.documents(docIDs, i, end);
+        for (int j = i; j < end; ++j) {
+          visitDocument(docs[j - i], visitors.apply(docIDs[j]));
+        }
+      }
+      i = end;
+    }
+  }
 
+  private void visitDocument(SerializedDocument doc, StoredFieldVisitor visitor) throws IOException {
     for (int fieldIDX = 0; fieldIDX < doc.numStoredFields; fieldIDX++) {
       final long infoAndBits = doc.in.readVLong();
       final int fieldNumber = (int) (infoAndBits >>> TYPE_BITS);
@@ -77,21 +77,25 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
   static final int VERSION_OFFHEAP_INDEX = 2;
   /** Version where all metadata were moved to the meta file. */
   static final int VERSION_META = 3;
-  static final int VERSION_CURRENT = VERSION_META;
+  // the meta file stores the dictionary that the compression mode trained on the segment
+  static final int VERSION_SHARED_DICT = 4;
+  static final int VERSION_CURRENT = VERSION_SHARED_DICT;
   static final int META_VERSION_START = 0;
 
   private final String segment;
   private FieldsIndexWriter indexWriter;
   private IndexOutput metaStream, fieldsStream;
 
-  private Compressor compressor;
+  private Compressor compressor; // null until the dictionary is trained, if the compression mode uses one
   private final CompressionMode compressionMode;
+  private BytesRef dictionary;
   private final int chunkSize;
   private final int maxDocsPerChunk;
 
   private final ByteBuffersDataOutput bufferedDocs;
   private int[] numStoredFields; // number of stored fields
   private int[] endOffsets; // end offsets in bufferedDocs
+  private int[] lengths = new int[16]; // scratch space for doc lengths
   private int docBase; // doc ID at the beginning of the chunk
   private int numBufferedDocs; // docBase + numBufferedDocs == current doc ID
   
@@ -104,7 +108,10 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     assert directory != null;
     this.segment = si.name;
     this.compressionMode = compressionMode;
-    this.compressor = compressionMode.newCompressor();
+    if (compressionMode.maxDictionaryLength() == 0) {
+      this.dictionary = new BytesRef();
+      this.compressor = compressionMode.newCompressor();
+    }
     this.chunkSize = chunkSize;
     this.maxDocsPerChunk = maxDocsPerChunk;
     this.docBase = 0;
@@ -215,23 +222,20 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     saveInts(lengths, numBufferedDocs, fieldsStream);
   }
 
+  // how much data to buffer in order to train a dictionary, relatively to the max dictionary length
+  private static final int DICTIONARY_SAMPLE_FACTOR = 16;
+
   private boolean triggerFlush() {
+    if (compressor == null) {
+      // buffer enough docs to train the dictionary that all chunks of the segment will share
+      return bufferedDocs.size() >= DICTIONARY_SAMPLE_FACTOR * compressionMode.maxDictionaryLength() ||
+          numBufferedDocs >= DICTIONARY_SAMPLE_FACTOR * maxDocsPerChunk;
+    }
     return bufferedDocs.size() >= chunkSize || // chunks of at least chunkSize bytes
         numBufferedDocs >= maxDocsPerChunk;
   }
 
   private void flush() throws IOException {
-    indexWriter.writeIndex(numBufferedDocs, fieldsStream.getFilePointer());
-
-    // transform end offsets into lengths
-    final int[] lengths = endOffsets;
-    for (int i = numBufferedDocs - 1; i > 0; --i) {
-      lengths[i] = endOffsets[i] - endOffsets[i - 1];
-      assert lengths[i] >= 0;
-    }
-    final boolean sliced = bufferedDocs.size() >= 2 * chunkSize;
-    writeHeader(docBase, numBufferedDocs, numStoredFields, lengths, sliced);
-
     // compress stored fields to fieldsStream.
     //
     // TODO: do we need to slice it since we already have the slices in the buffer? Perhaps
@@ -239,19 +243,53 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     byte [] content = bufferedDocs.toArrayCopy();
     bufferedDocs.reset();
 
-    if (sliced) {
-      // big chunk, slice it
-      for (int compressed = 0; compressed < content.length; compressed += chunkSize) {
-        compressor.compress(content, compressed, Math.min(chunkSize, content.length - compressed), fieldsStream);
+    if (compressor == null) {
+      // first flush: train the dictionary on buffered docs, which may span several chunks
+      dictionary = new BytesRef(compressionMode.trainDictionary(content, endOffsets, numBufferedDocs));
+      compressor = compressionMode.newCompressor(dictionary);
+      int from = 0;
+      for (int to = 1; to <= numBufferedDocs; ++to) {
+        final int startOffset = from == 0 ? 0 : endOffsets[from - 1];
+        if (to == numBufferedDocs || endOffsets[to - 1] - startOffset >= chunkSize || to - from >= maxDocsPerChunk) {
+          writeChunk(content, from, to);
+          from = to;
+        }
       }
     } else {
-      compressor.compress(content, 0, content.length, fieldsStream);
+      writeChunk(content, 0, numBufferedDocs);
     }
 
     // reset
-    docBase += numBufferedDocs;
     numBufferedDocs = 0;
-    bufferedDocs.reset();
+  }
+
+  /** Write buffered docs {@code [from, to)} as a new chunk. */
+  private void writeChunk(byte[] content, int from, int to) throws IOException {
+    final int numDocs = to - from;
+    indexWriter.writeIndex(numDocs, fieldsStream.getFilePointer());
+
+    // transform end offsets into lengths
+    final int startOffset = from == 0 ? 0 : endOffsets[from - 1];
+    final int endOffset = endOffsets[to - 1];
+    lengths = ArrayUtil.grow(lengths, numDocs);
+    for (int i = from; i < to; ++i) {
+      lengths[i - from] = endOffsets[i] - (i == 0 ? 0 : endOffsets[i - 1]);
+      assert lengths[i - from] >= 0;
+    }
+    final int[] numStoredFields = from == 0 ? this.numStoredFields : ArrayUtil.copyOfSubArray(this.numStoredFields, from, to);
+    final boolean sliced = endOffset - startOffset >= 2 * chunkSize;
+    writeHeader(docBase, numDocs, numStoredFields, lengths, sliced);
+
+    if (sliced) {
+      // big chunk, slice it
+      for (int compressed = startOffset; compressed < endOffset; compressed += chunkSize) {
+        compressor.compress(content, compressed, Math.min(chunkSize, endOffset - compressed), fieldsStream);
+      }
+    } else {
+      compressor.compress(content, startOffset, endOffset - startOffset, fieldsStream);
+    }
+
+    docBase += numDocs;
     numChunks++;
   }
   
@@ -479,6 +517,12 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     indexWriter.finish(numDocs, fieldsStream.getFilePointer(), metaStream);
     metaStream.writeVLong(numChunks);
     metaStream.writeVLong(numDirtyChunks);
+    if (dictionary == null) {
+      // no docs were written, so the dictionary was never trained
+      dictionary = new BytesRef();
+    }
+    metaStream.writeVInt(dictionary.length);
+    metaStream.writeBytes(dictionary.bytes, dictionary.offset, dictionary.length);
     CodecUtil.writeFooter(metaStream);
     CodecUtil.writeFooter(fieldsStream);
     assert bufferedDocs.size() == 0;
@@ -570,6 +614,7 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
           ++docCount;
         }
       } else if (matchingFieldsReader.getCompressionMode() == compressionMode && 
+                 compressionMode.maxDictionaryLength() == 0 && // chunks are compressed against another dictionary
                  matchingFieldsReader.getChunkSize() == chunkSize && 
                  matchingFieldsReader.getPackedIntsVersion() == PackedInts.VERSION_CURRENT &&
                  liveDocs == null &&
@@ -696,6 +741,6 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
 
   @Override
   public long ramBytesUsed() {
-    return bufferedDocs.ramBytesUsed() + numStoredFields.length * Integer.BYTES + endOffsets.length * Integer.BYTES;
+    return bufferedDocs.ramBytesUsed() + (numStoredFields.length + endOffsets.length + lengths.length) * Integer.BYTES;
   }
 }
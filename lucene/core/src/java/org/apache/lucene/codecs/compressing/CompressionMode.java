@@ -127,6 +127,50 @@ public abstract class CompressionMode {
    */
   public abstract Decompressor newDecompressor();
 
+  /**
+   * Returns the maximum length of the dictionary that this mode trains on a
+   * sample of the data of a segment with {@link #trainDictionary} in order to
+   * share it across all blocks of the segment, or {@code 0} if this mode
+   * doesn't use such a dictionary. The default implementation returns {@code 0}.
+   */
+  public int maxDictionaryLength() {
+    return 0;
+  }
+
+  /**
+   * Train a dictionary of at most {@link #maxDictionaryLength()} bytes on the
+   * given samples, which are stored contiguously in {@code samples}, sample
+   * {@code i} ending at offset {@code sampleEnds[i]}. This is only called if
+   * {@link #maxDictionaryLength()} is positive.
+   */
+  public byte[] trainDictionary(byte[] samples, int[] sampleEnds, int numSamples) {
+    throw new UnsupportedOperationException(this + " doesn't use dictionaries");
+  }
+
+  /**
+   * Create a new {@link Compressor} instance that compresses data against the
+   * given dictionary, as returned by {@link #trainDictionary}. The default
+   * implementation only supports empty dictionaries.
+   */
+  public Compressor newCompressor(BytesRef dictionary) {
+    if (dictionary.length != 0) {
+      throw new UnsupportedOperationException(this + " doesn't use dictionaries");
+    }
+    return newCompressor();
+  }
+
+  /**
+   * Create a new {@link Decompressor} instance for data that has been
+   * compressed by a {@link #newCompressor(BytesRef) compressor} that used
+   * the given dictionary.
+   */
+  public Decompressor newDecompressor(BytesRef dictionary) {
+    if (dictionary.length != 0) {
+      throw new UnsupportedOperationException(this + " doesn't use dictionaries");
+    }
+    return newDecompressor();
+  }
+
   private static final Decompressor LZ4_DECOMPRESSOR = new Decompressor() {
 
     @Override
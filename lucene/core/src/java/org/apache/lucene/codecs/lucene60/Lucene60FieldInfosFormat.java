@@ -31,6 +31,7 @@ import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.VectorValues;
 import org.apache.lucene.store.ChecksumIndexInput;
 import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.store.Directory;
@@ -42,14 +43,14 @@ import org.apache.lucene.store.IndexOutput;
  * Lucene 6.0 Field Infos format.
  * <p>Field names are stored in the field info file, with suffix <code>.fnm</code>.
  * <p>FieldInfos (.fnm) --&gt; Header,FieldsCount, &lt;FieldName,FieldNumber,
- * FieldBits,DocValuesBits,DocValuesGen,Attributes,DimensionCount,DimensionNumBytes&gt; <sup>FieldsCount</sup>,Footer
+ * FieldBits,DocValuesBits,DocValuesGen,Attributes,DimensionCount,DimensionNumBytes,VectorDimension,VectorSearchStrategy&gt; <sup>FieldsCount</sup>,Footer
  * <p>Data types:
  * <ul>
  *   <li>Header --&gt; {@link CodecUtil#checkIndexHeader IndexHeader}</li>
  *   <li>FieldsCount --&gt; {@link DataOutput#writeVInt VInt}</li>
  *   <li>FieldName --&gt; {@link DataOutput#writeString String}</li>
- *   <li>FieldBits, IndexOptions, DocValuesBits --&gt; {@link DataOutput#writeByte Byte}</li>
- *   <li>FieldNumber, DimensionCount, DimensionNumBytes --&gt; {@link DataOutput#writeInt VInt}</li>
+ *   <li>FieldBits, IndexOptions, DocValuesBits, VectorSearchStrategy --&gt; {@link DataOutput#writeByte Byte}</li>
+ *   <li>FieldNumber, DimensionCount, DimensionNumBytes, VectorDimension --&gt; {@link DataOutput#writeInt VInt}</li>
  *   <li>Attributes --&gt; {@link DataOutput#writeMapOfStrings Map&lt;String,String&gt;}</li>
  *   <li>DocValuesGen --&gt; {@link DataOutput#writeLong(long) Int64}</li>
  *   <li>Footer --&gt; {@link CodecUtil#writeFooter CodecFooter}</li>
@@ -97,6 +98,10 @@ import org.apache.lucene.store.IndexOutput;
  *   <li>Attributes: a key-value map of codec-private attributes.</li>
  *   <li>PointDimensionCount, PointNumBytes: these are non-zero only if the field is
  *       indexed as points, e.g. using {@link org.apache.lucene.document.LongPoint}</li>
+ *   <li>VectorDimension: it is non-zero only if the field is indexed as vectors, e.g. using
+ *       {@link org.apache.lucene.document.VectorField}.</li>
+ *   <li>VectorSearchStrategy: the ordinal of the {@link VectorValues.SearchStrategy} used to compare
+ *       the field's vectors, only written when VectorDimension is non-zero.</li>
  * </ul>
  *
  * @lucene.experimental
@@ -160,11 +165,20 @@ public final class Lucene60FieldInfosFormat extends FieldInfosFormat {
           } else {
             pointNumBytes = 0;
           }
+          int vectorDimension = 0;
+          VectorValues.SearchStrategy vectorSearchStrategy = VectorValues.SearchStrategy.NONE;
+          if (version >= Lucene60FieldInfosFormat.FORMAT_VECTOR_VALUES) {
+            vectorDimension = input.readVInt();
+            if (vectorDimension != 0) {
+              vectorSearchStrategy = getVectorSearchStrategy(input, input.readByte());
+            }
+          }
 
           try {
             infos[i] = new FieldInfo(name, fieldNumber, storeTermVector, omitNorms, storePayloads, 
                                      indexOptions, docValuesType, dvGen, attributes,
-                                     pointDataDimensionCount, pointIndexDimensionCount, pointNumBytes, isSoftDeletesField);
+                                     pointDataDimensionCount, pointIndexDimensionCount, pointNumBytes,
+                                     vectorDimension, vectorSearchStrategy, isSoftDeletesField);
           } catch (IllegalStateException e) {
             throw new CorruptIndexException("invalid fieldinfo for field: " + name + ", fieldNumber=" + fieldNumber, input, e);
           }
@@ -265,6 +279,13 @@ public final class Lucene60FieldInfosFormat extends FieldInfosFormat {
     }
   }
 
+  private static VectorValues.SearchStrategy getVectorSearchStrategy(IndexInput input, byte b) throws IOException {
+    if (b < 0 || b >= VectorValues.SearchStrategy.values().length) {
+      throw new CorruptIndexException("invalid vector search strategy byte: " + b, input);
+    }
+    return VectorValues.SearchStrategy.values()[b];
+  }
+
   @Override
   public void write(Directory directory, SegmentInfo segmentInfo, String segmentSuffix, FieldInfos infos, IOContext context) throws IOException {
     final String fileName = IndexFileNames.segmentFileName(segmentInfo.name, segmentSuffix, EXTENSION);
@@ -295,6 +316,10 @@ public final class Lucene60FieldInfosFormat extends FieldInfosFormat {
           output.writeVInt(fi.getPointIndexDimensionCount());
           output.writeVInt(fi.getPointNumBytes());
         }
+        output.writeVInt(fi.getVectorDimension());
+        if (fi.getVectorDimension() != 0) {
+          output.writeByte((byte) fi.getVectorSearchStrategy().ordinal());
+        }
       }
       CodecUtil.writeFooter(output);
     }
@@ -308,7 +333,8 @@ public final class Lucene60FieldInfosFormat extends FieldInfosFormat {
   static final int FORMAT_START = 0;
   static final int FORMAT_SOFT_DELETES = 1;
   static final int FORMAT_SELECTIVE_INDEXING = 2;
-  static final int FORMAT_CURRENT = FORMAT_SELECTIVE_INDEXING;
+  static final int FORMAT_VECTOR_VALUES = 3;
+  static final int FORMAT_CURRENT = FORMAT_VECTOR_VALUES;
   
   // Field flags
   static final byte STORE_TERMVECTOR = 0x1;
@@ -20,10 +20,6 @@ package org.apache.lucene.codecs.lucene80;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.DocValuesConsumer;
@@ -50,6 +46,8 @@ import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.LongHashSet;
+import org.apache.lucene.util.LongIntHashMap;
 import org.apache.lucene.util.MathUtil;
 import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.compress.LZ4;
@@ -67,12 +65,15 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
   IndexOutput data, meta;
   final int maxDoc;
   private final SegmentWriteState state;
+  private final boolean writeSkipIndex;
 
   /** expert: Creates a new writer */
-  public Lucene80DocValuesConsumer(SegmentWriteState state, String dataCodec, String dataExtension, String metaCodec, String metaExtension) throws IOException {
+  public Lucene80DocValuesConsumer(SegmentWriteState state, String dataCodec, String dataExtension, String metaCodec, String metaExtension,
+                                   boolean writeSkipIndex) throws IOException {
     boolean success = false;
     try {
       this.state = state;
+      this.writeSkipIndex = writeSkipIndex;
       String dataName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, dataExtension);
       data = state.directory.createOutput(dataName, state.context);
       CodecUtil.writeIndexHeader(data, dataCodec, Lucene80DocValuesFormat.VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
@@ -121,6 +122,99 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
         return DocValues.singleton(valuesProducer.getNumeric(field));
       }
     });
+    if (writeSkipIndexFlag()) {
+      writeSkipIndex(DocValues.singleton(valuesProducer.getNumeric(field)));
+    }
+  }
+
+  /** Accumulates the range of values of blocks of {@link Lucene80DocValuesFormat#SKIP_INDEX_BLOCK_SIZE} docs. */
+  private static class SkipIndexAccumulator {
+    final ByteBuffersDataOutput blocks = new ByteBuffersDataOutput();
+    int numBlocks;
+    int block = -1;
+    long blockMin, blockMax;
+    int blockDocCount;
+    long globalMin = Long.MAX_VALUE, globalMax = Long.MIN_VALUE;
+    int globalDocCount;
+
+    /** Record that {@code doc} has values between {@code min} and {@code max}, docs must come in order. */
+    void accumulate(int doc, long min, long max) throws IOException {
+      final int b = doc >>> Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SHIFT;
+      if (b != block) {
+        finishBlock();
+        block = b;
+        blockMin = Long.MAX_VALUE;
+        blockMax = Long.MIN_VALUE;
+        blockDocCount = 0;
+      }
+      blockMin = Math.min(blockMin, min);
+      blockMax = Math.max(blockMax, max);
+      blockDocCount++;
+      globalMin = Math.min(globalMin, min);
+      globalMax = Math.max(globalMax, max);
+      globalDocCount++;
+    }
+
+    private void finishBlock() throws IOException {
+      if (block == -1) {
+        return;
+      }
+      // blocks are addressed by index, so write empty entries for blocks without values
+      for (; numBlocks < block; ++numBlocks) {
+        blocks.writeLong(0L);
+        blocks.writeLong(0L);
+        blocks.writeInt(0);
+      }
+      blocks.writeLong(blockMin);
+      blocks.writeLong(blockMax);
+      blocks.writeInt(blockDocCount);
+      numBlocks++;
+    }
+
+    void finish(IndexOutput meta, IndexOutput data) throws IOException {
+      finishBlock();
+      final long offset = data.getFilePointer();
+      blocks.copyTo(data);
+      meta.writeLong(offset); // skipIndexOffset
+      meta.writeInt(numBlocks);
+      meta.writeInt(globalDocCount);
+      meta.writeLong(globalMin);
+      meta.writeLong(globalMax);
+    }
+  }
+
+  /** Record whether a skip index follows, and return it. */
+  private boolean writeSkipIndexFlag() throws IOException {
+    meta.writeByte(writeSkipIndex ? (byte) 1 : (byte) 0);
+    return writeSkipIndex;
+  }
+
+  private void writeSkipIndex(SortedNumericDocValues values) throws IOException {
+    SkipIndexAccumulator accumulator = new SkipIndexAccumulator();
+    for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+      long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+      for (int i = 0, count = values.docValueCount(); i < count; ++i) {
+        final long v = values.nextValue();
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+      }
+      accumulator.accumulate(doc, min, max);
+    }
+    accumulator.finish(meta, data);
+  }
+
+  private void writeSkipIndex(SortedSetDocValues values) throws IOException {
+    SkipIndexAccumulator accumulator = new SkipIndexAccumulator();
+    for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+      // ords come in increasing order
+      final long min = values.nextOrd();
+      long max = min;
+      for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
+        max = ord;
+      }
+      accumulator.accumulate(doc, min, max);
+    }
+    accumulator.finish(meta, data);
   }
 
   private static class MinMaxTracker {
@@ -164,7 +258,7 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
     MinMaxTracker minMax = new MinMaxTracker();
     MinMaxTracker blockMinMax = new MinMaxTracker();
     long gcd = 0;
-    Set<Long> uniqueValues = new HashSet<>();
+    LongHashSet uniqueValues = new LongHashSet();
     for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
       for (int i = 0, count = values.docValueCount(); i < count; ++i) {
         long v = values.nextValue();
@@ -227,7 +321,7 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
     meta.writeLong(numValues);
     final int numBitsPerValue;
     boolean doBlocks = false;
-    Map<Long, Integer> encode = null;
+    LongIntHashMap encode = null;
     if (min >= max) {                         // meta[-1]: All values are 0
       numBitsPerValue = 0;
       meta.writeInt(-1); // tablesize
@@ -236,13 +330,13 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
           && uniqueValues.size() > 1
           && DirectWriter.unsignedBitsRequired(uniqueValues.size() - 1) < DirectWriter.unsignedBitsRequired((max - min) / gcd)) {
         numBitsPerValue = DirectWriter.unsignedBitsRequired(uniqueValues.size() - 1);
-        final Long[] sortedUniqueValues = uniqueValues.toArray(new Long[0]);
+        final long[] sortedUniqueValues = uniqueValues.toArray();
         Arrays.sort(sortedUniqueValues);
         meta.writeInt(sortedUniqueValues.length); // tablesize
-        for (Long v : sortedUniqueValues) {
+        for (long v : sortedUniqueValues) {
           meta.writeLong(v); // table[] entry
         }
-        encode = new HashMap<>();
+        encode = new LongIntHashMap(sortedUniqueValues.length);
         for (int i = 0; i < sortedUniqueValues.length; ++i) {
           encode.put(sortedUniqueValues[i], i);
         }
@@ -283,7 +377,7 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
   }
 
   private void writeValuesSingleBlock(SortedNumericDocValues values, long numValues, int numBitsPerValue,
-      long min, long gcd, Map<Long, Integer> encode) throws IOException {
+      long min, long gcd, LongIntHashMap encode) throws IOException {
     DirectWriter writer = DirectWriter.getInstance(data, numValues, numBitsPerValue);
     for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
       for (int i = 0, count = values.docValueCount(); i < count; ++i) {
@@ -552,6 +646,9 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
     meta.writeInt(field.number);
     meta.writeByte(Lucene80DocValuesFormat.SORTED);
     doAddSortedField(field, valuesProducer);
+    if (writeSkipIndexFlag()) {
+      writeSkipIndex(DocValues.singleton(valuesProducer.getSorted(field)));
+    }
   }
 
   private void doAddSortedField(FieldInfo field, DocValuesProducer valuesProducer) throws IOException {
@@ -724,6 +821,9 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
       addressesWriter.finish();
       meta.writeLong(data.getFilePointer() - start);
     }
+    if (writeSkipIndexFlag()) {
+      writeSkipIndex(valuesProducer.getSortedNumeric(field));
+    }
   }
 
   @Override
@@ -749,6 +849,9 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
           return SortedSetSelector.wrap(valuesProducer.getSortedSet(field), SortedSetSelector.Type.MIN);
         }
       });
+      if (writeSkipIndexFlag()) {
+        writeSkipIndex(valuesProducer.getSortedSet(field));
+      }
       return;
     }
     meta.writeByte((byte) 1);  // multiValued (1 = multiValued)
@@ -804,5 +907,8 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
     meta.writeLong(data.getFilePointer() - start); // addressesLength
 
     addTermsDict(values);
+    if (writeSkipIndexFlag()) {
+      writeSkipIndex(valuesProducer.getSortedSet(field));
+    }
   }
 }
@@ -122,6 +122,14 @@ import org.apache.lucene.util.packed.DirectWriter;
  *        strategies above.
  * </ul>
  * <p>
+ * Optionally, all types but {@link DocValuesType#BINARY BINARY} also record a skip index, see
+ * {@link #Lucene80DocValuesFormat(boolean)}: doc IDs are split into blocks of 4096 documents, and
+ * the minimum value, maximum value and number of documents that have a value are written for each
+ * block, as well as for the whole segment. Ordinals are recorded for
+ * {@link DocValuesType#SORTED SORTED} and {@link DocValuesType#SORTED_SET SORTED_SET} fields. This
+ * allows queries and comparators to skip blocks whose values can't match, see
+ * {@link org.apache.lucene.index.DocValuesSkipper}.
+ * <p>
  * Files:
  * <ol>
  *   <li><code>.dvd</code>: DocValues data</li>
@@ -131,14 +139,26 @@ import org.apache.lucene.util.packed.DirectWriter;
  */
 public final class Lucene80DocValuesFormat extends DocValuesFormat {
 
-  /** Sole Constructor */
+  private final boolean writeSkipIndex;
+
+  /** Default constructor, which doesn't write a skip index. */
   public Lucene80DocValuesFormat() {
+    this(false);
+  }
+
+  /**
+   * Creates a format that writes a skip index for all fields but binary fields if
+   * {@code writeSkipIndex} is true. The skip index costs an additional pass over the values of
+   * each field on flush and merge, and 20 bytes per block of 4096 documents.
+   */
+  public Lucene80DocValuesFormat(boolean writeSkipIndex) {
     super("Lucene80");
+    this.writeSkipIndex = writeSkipIndex;
   }
 
   @Override
   public DocValuesConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
-    return new Lucene80DocValuesConsumer(state, DATA_CODEC, DATA_EXTENSION, META_CODEC, META_EXTENSION);
+    return new Lucene80DocValuesConsumer(state, DATA_CODEC, DATA_EXTENSION, META_CODEC, META_EXTENSION, writeSkipIndex);
   }
 
   @Override
@@ -152,7 +172,8 @@ public final class Lucene80DocValuesFormat extends DocValuesFormat {
   static final String META_EXTENSION = "dvm";
   static final int VERSION_START = 0;
   static final int VERSION_BIN_COMPRESSED = 1;  
-  static final int VERSION_CURRENT = VERSION_BIN_COMPRESSED;
+  static final int VERSION_SKIP_INDEX = 2;
+  static final int VERSION_CURRENT = VERSION_SKIP_INDEX;
 
   // indicates docvalues type
   static final byte NUMERIC = 0;
@@ -163,6 +184,9 @@ public final class Lucene80DocValuesFormat extends DocValuesFormat {
 
   static final int DIRECT_MONOTONIC_BLOCK_SHIFT = 16;
 
+  static final int SKIP_INDEX_BLOCK_SHIFT = 12;
+  static final int SKIP_INDEX_BLOCK_SIZE = 1 << SKIP_INDEX_BLOCK_SHIFT;
+
   static final int NUMERIC_BLOCK_SHIFT = 14;
   static final int NUMERIC_BLOCK_SIZE = 1 << NUMERIC_BLOCK_SHIFT;
 
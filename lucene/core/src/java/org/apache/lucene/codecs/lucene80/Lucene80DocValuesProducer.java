@@ -27,6 +27,7 @@ import org.apache.lucene.index.BaseTermsEnum;
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.ImpactsEnum;
@@ -39,6 +40,7 @@ import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.index.TermsEnum.SeekStatus;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.ChecksumIndexInput;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.RandomAccessInput;
@@ -57,6 +59,7 @@ final class Lucene80DocValuesProducer extends DocValuesProducer implements Close
   private final Map<String,SortedEntry> sorted = new HashMap<>();
   private final Map<String,SortedSetEntry> sortedSets = new HashMap<>();
   private final Map<String,SortedNumericEntry> sortedNumerics = new HashMap<>();
+  private final Map<String,SkipIndexEntry> skipIndexes = new HashMap<>();
   private long ramBytesUsed;
   private final IndexInput data;
   private final int maxDoc;
@@ -133,9 +136,30 @@ final class Lucene80DocValuesProducer extends DocValuesProducer implements Close
       } else {
         throw new CorruptIndexException("invalid type: " + type, meta);
       }
+      if (version >= Lucene80DocValuesFormat.VERSION_SKIP_INDEX && type != Lucene80DocValuesFormat.BINARY) {
+        final byte hasSkipIndex = meta.readByte();
+        if (hasSkipIndex == 1) {
+          skipIndexes.put(info.name, readSkipIndex(meta));
+        } else if (hasSkipIndex != 0) {
+          throw new CorruptIndexException("invalid skip index flag: " + hasSkipIndex, meta);
+        }
+      }
     }
   }
 
+  private SkipIndexEntry readSkipIndex(ChecksumIndexInput meta) throws IOException {
+    SkipIndexEntry entry = new SkipIndexEntry();
+    entry.offset = meta.readLong();
+    entry.numBlocks = meta.readInt();
+    entry.docCount = meta.readInt();
+    entry.minValue = meta.readLong();
+    entry.maxValue = meta.readLong();
+    if (entry.numBlocks < 0 || (long) (entry.numBlocks - 1) << Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SHIFT >= maxDoc) {
+      throw new CorruptIndexException("invalid number of skip index blocks: " + entry.numBlocks, meta);
+    }
+    return entry;
+  }
+
   private NumericEntry readNumeric(ChecksumIndexInput meta) throws IOException {
     NumericEntry entry = new NumericEntry();
     readNumeric(meta, entry);
@@ -370,6 +394,90 @@ final class Lucene80DocValuesProducer extends DocValuesProducer implements Close
     long addressesLength;
   }
 
+  private static class SkipIndexEntry {
+    long offset;
+    int numBlocks;
+    int docCount;
+    long minValue;
+    long maxValue;
+  }
+
+  // min value, max value and doc count
+  private static final int SKIP_INDEX_ENTRY_BYTES = 2 * Long.BYTES + Integer.BYTES;
+
+  @Override
+  public DocValuesSkipper getSkipper(FieldInfo field) throws IOException {
+    final SkipIndexEntry entry = skipIndexes.get(field.name);
+    if (entry == null || entry.docCount == 0) {
+      return null;
+    }
+    final RandomAccessInput slice = data.randomAccessSlice(entry.offset, (long) entry.numBlocks * SKIP_INDEX_ENTRY_BYTES);
+    return new DocValuesSkipper() {
+      int minDocID = -1;
+      int maxDocID = -1;
+      long minValue, maxValue;
+      int docCount;
+
+      @Override
+      public void advance(int target) throws IOException {
+        final int firstBlock = target >= maxDoc ? entry.numBlocks : target >>> Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SHIFT;
+        for (int b = firstBlock; b < entry.numBlocks; ++b) {
+          final long offset = (long) b * SKIP_INDEX_ENTRY_BYTES;
+          final int count = slice.readInt(offset + 2 * Long.BYTES);
+          if (count > 0) {
+            minDocID = b << Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SHIFT;
+            maxDocID = Math.min(maxDoc, minDocID + Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SIZE) - 1;
+            minValue = slice.readLong(offset);
+            maxValue = slice.readLong(offset + Long.BYTES);
+            docCount = count;
+            return;
+          }
+        }
+        minDocID = maxDocID = DocIdSetIterator.NO_MORE_DOCS;
+      }
+
+      @Override
+      public int minDocID() {
+        return minDocID;
+      }
+
+      @Override
+      public int maxDocID() {
+        return maxDocID;
+      }
+
+      @Override
+      public long minValue() {
+        return minValue;
+      }
+
+      @Override
+      public long maxValue() {
+        return maxValue;
+      }
+
+      @Override
+      public int docCount() {
+        return docCount;
+      }
+
+      @Override
+      public long globalMinValue() {
+        return entry.minValue;
+      }
+
+      @Override
+      public long globalMaxValue() {
+        return entry.maxValue;
+      }
+
+      @Override
+      public int globalDocCount() {
+        return entry.docCount;
+      }
+    };
+  }
+
   @Override
   public long ramBytesUsed() {
     return ramBytesUsed;
@@ -17,6 +17,7 @@
 package org.apache.lucene.codecs.lucene84;
 
 import java.io.IOException;
+import java.util.Objects;
 
 import org.apache.lucene.codecs.BlockTermState;
 import org.apache.lucene.codecs.CodecUtil;
@@ -27,6 +28,7 @@ import org.apache.lucene.codecs.PostingsFormat;
 import org.apache.lucene.codecs.PostingsReaderBase;
 import org.apache.lucene.codecs.PostingsWriterBase;
 import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
 import org.apache.lucene.codecs.blocktree.BlockTreeTermsWriter;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.SegmentReadState;
@@ -392,6 +394,7 @@ public final class Lucene84PostingsFormat extends PostingsFormat {
 
   private final int minTermBlockSize;
   private final int maxTermBlockSize;
+  private final FSTLoadMode fstLoadMode;
 
   /** Creates {@code Lucene84PostingsFormat} with default
    *  settings. */
@@ -404,10 +407,21 @@ public final class Lucene84PostingsFormat extends PostingsFormat {
    *  maxBlockSize} passed to block terms dictionary.
    *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int) */
   public Lucene84PostingsFormat(int minTermBlockSize, int maxTermBlockSize) {
+    this(minTermBlockSize, maxTermBlockSize, FSTLoadMode.OFF_HEAP);
+  }
+
+  /** Creates {@code Lucene84PostingsFormat} with custom
+   *  block sizes and a custom {@link FSTLoadMode} for the terms
+   *  index of the fields that it writes. Use it through
+   *  {@link org.apache.lucene.codecs.perfield.PerFieldPostingsFormat}
+   *  to keep the terms index of a few lookup-heavy fields on heap.
+   *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int,FSTLoadMode) */
+  public Lucene84PostingsFormat(int minTermBlockSize, int maxTermBlockSize, FSTLoadMode fstLoadMode) {
     super("Lucene84");
     BlockTreeTermsWriter.validateSettings(minTermBlockSize, maxTermBlockSize);
     this.minTermBlockSize = minTermBlockSize;
     this.maxTermBlockSize = maxTermBlockSize;
+    this.fstLoadMode = Objects.requireNonNull(fstLoadMode);
   }
 
   @Override
@@ -423,7 +437,8 @@ public final class Lucene84PostingsFormat extends PostingsFormat {
       FieldsConsumer ret = new BlockTreeTermsWriter(state, 
                                                     postingsWriter,
                                                     minTermBlockSize, 
-                                                    maxTermBlockSize);
+                                                    maxTermBlockSize,
+                                                    fstLoadMode);
       success = true;
       return ret;
     } finally {
@@ -37,7 +37,12 @@ final class PForUtil {
     return true;
   }
 
+  // The number of exceptions is stored on 3 bits
+  private static final int MAX_EXCEPTIONS = 7;
+
   private final ForUtil forUtil;
+  // buffer for reading exception positions and values in a single call
+  private final byte[] exceptionBuff = new byte[MAX_EXCEPTIONS * 2];
 
   PForUtil(ForUtil forUtil) {
     this.forUtil = forUtil;
@@ -47,7 +52,7 @@ final class PForUtil {
    * Encode 128 integers from {@code longs} into {@code out}.
    */
   void encode(long[] longs, DataOutput out) throws IOException {
-    // At most 3 exceptions
+    // At most 3 exceptions, well below MAX_EXCEPTIONS
     final long[] top4 = new long[4];
     Arrays.fill(top4, -1L);
     for (int i = 0; i < ForUtil.BLOCK_SIZE; ++i) {
@@ -107,8 +112,16 @@ final class PForUtil {
     } else {
       forUtil.decode(bitsPerValue, in, longs);
     }
+    if (numExceptions > 0) {
+      patchExceptions(in, bitsPerValue, numExceptions, longs);
+    }
+  }
+
+  private void patchExceptions(DataInput in, int bitsPerValue, int numExceptions, long[] longs) throws IOException {
+    // read all exceptions at once rather than calling readByte() twice per exception
+    in.readBytes(exceptionBuff, 0, numExceptions << 1);
     for (int i = 0; i < numExceptions; ++i) {
-      longs[Byte.toUnsignedInt(in.readByte())] |= Byte.toUnsignedLong(in.readByte()) << bitsPerValue;
+      longs[Byte.toUnsignedInt(exceptionBuff[i << 1])] |= Byte.toUnsignedLong(exceptionBuff[(i << 1) + 1]) << bitsPerValue;
     }
   }
 
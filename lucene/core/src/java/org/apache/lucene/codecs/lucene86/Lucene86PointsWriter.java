@@ -117,7 +117,8 @@ public class Lucene86PointsWriter extends PointsWriter implements Closeable {
                                           writeState.segmentInfo.name,
                                           config,
                                           maxMBSortInHeap,
-                                          values.size())) {
+                                          values.size(),
+                                          writeState.executor)) {
 
       if (values instanceof MutablePointValues) {
         Runnable finalizer = writer.writeField(metaOut, indexOut, dataOut, fieldInfo.name, (MutablePointValues) values);
@@ -155,17 +156,6 @@ public class Lucene86PointsWriter extends PointsWriter implements Closeable {
 
   @Override
   public void merge(MergeState mergeState) throws IOException {
-    /**
-     * If indexSort is activated and some of the leaves are not sorted the next test will catch that and the non-optimized merge will run.
-     * If the readers are all sorted then it's safe to perform a bulk merge of the points.
-     **/
-    for(PointsReader reader : mergeState.pointsReaders) {
-      if (reader instanceof Lucene86PointsReader == false) {
-        // We can only bulk merge when all to-be-merged segments use our format:
-        super.merge(mergeState);
-        return;
-      }
-    }
     for (PointsReader reader : mergeState.pointsReaders) {
       if (reader != null) {
         reader.checkIntegrity();
@@ -175,78 +165,77 @@ public class Lucene86PointsWriter extends PointsWriter implements Closeable {
     for (FieldInfo fieldInfo : mergeState.mergeFieldInfos) {
       if (fieldInfo.getPointDimensionCount() != 0) {
         if (fieldInfo.getPointDimensionCount() == 1) {
-
-          // Worst case total maximum size (if none of the points are deleted):
-          long totMaxSize = 0;
-          for(int i=0;i<mergeState.pointsReaders.length;i++) {
-            PointsReader reader = mergeState.pointsReaders[i];
-            if (reader != null) {
-              FieldInfos readerFieldInfos = mergeState.fieldInfos[i];
-              FieldInfo readerFieldInfo = readerFieldInfos.fieldInfo(fieldInfo.name);
-              if (readerFieldInfo != null && readerFieldInfo.getPointDimensionCount() > 0) {
-                PointValues values = reader.getValues(fieldInfo.name);
-                if (values != null) {
-                  totMaxSize += values.size();
-                }
-              }
-            }
-          }
-
-          BKDConfig config = new BKDConfig(fieldInfo.getPointDimensionCount(),
-                                           fieldInfo.getPointIndexDimensionCount(),
-                                           fieldInfo.getPointNumBytes(),
-                                           maxPointsInLeafNode);
-
-          //System.out.println("MERGE: field=" + fieldInfo.name);
-          // Optimize the 1D case to use BKDWriter.merge, which does a single merge sort of the
+          // Optimize the 1D case to use BKDWriter.merge, which does a single streaming merge sort of the
           // already sorted incoming segments, instead of trying to sort all points again as if
           // we were simply reindexing them:
-          try (BKDWriter writer = new BKDWriter(writeState.segmentInfo.maxDoc(),
-                                                writeState.directory,
-                                                writeState.segmentInfo.name,
-                                                config,
-                                                maxMBSortInHeap,
-                                                totMaxSize)) {
-            List<BKDReader> bkdReaders = new ArrayList<>();
-            List<MergeState.DocMap> docMaps = new ArrayList<>();
-            for(int i=0;i<mergeState.pointsReaders.length;i++) {
-              PointsReader reader = mergeState.pointsReaders[i];
-
-              if (reader != null) {
+          if (mergeOneDimField(mergeState, fieldInfo) == false) {
+            mergeOneField(mergeState, fieldInfo);
+          }
+        } else {
+          mergeOneField(mergeState, fieldInfo);
+        }
+      }
+    }
 
-                // we confirmed this up above
-                assert reader instanceof Lucene86PointsReader;
-                Lucene86PointsReader reader60 = (Lucene86PointsReader) reader;
+    finish();
+  }
 
-                // NOTE: we cannot just use the merged fieldInfo.number (instead of resolving to this
-                // reader's FieldInfo as we do below) because field numbers can easily be different
-                // when addIndexes(Directory...) copies over segments from another index:
+  /**
+   * Merges a 1D field by merge sorting the leaf blocks of the incoming BKD trees, without any temporary files.
+   * Deleted documents and index sorting are handled by the doc maps of the merge. This returns false if the
+   * points of some incoming segment are not backed by a {@link BKDReader}, e.g. because the segment uses
+   * another format or is wrapped to be sorted on the fly, in which case the caller must fall back to
+   * re-indexing the points of this field.
+   **/
+  private boolean mergeOneDimField(MergeState mergeState, FieldInfo fieldInfo) throws IOException {
+    List<BKDReader> bkdReaders = new ArrayList<>();
+    List<MergeState.DocMap> docMaps = new ArrayList<>();
+    // Worst case total maximum size (if none of the points are deleted):
+    long totMaxSize = 0;
+    for(int i=0;i<mergeState.pointsReaders.length;i++) {
+      PointsReader reader = mergeState.pointsReaders[i];
 
-                FieldInfos readerFieldInfos = mergeState.fieldInfos[i];
-                FieldInfo readerFieldInfo = readerFieldInfos.fieldInfo(fieldInfo.name);
-                if (readerFieldInfo != null && readerFieldInfo.getPointDimensionCount() > 0) {
-                  BKDReader bkdReader = reader60.readers.get(readerFieldInfo.number);
-                  if (bkdReader != null) {
-                    bkdReaders.add(bkdReader);
-                    docMaps.add(mergeState.docMaps[i]);
-                  }
-                }
-              }
-            }
+      if (reader != null) {
 
-            Runnable finalizer = writer.merge(metaOut, indexOut, dataOut, docMaps, bkdReaders);
-            if (finalizer != null) {
-              metaOut.writeInt(fieldInfo.number);
-              finalizer.run();
-            }
+        // NOTE: we cannot just use the merged fieldInfo.number (instead of resolving to this
+        // reader's FieldInfo as we do below) because field numbers can easily be different
+        // when addIndexes(Directory...) copies over segments from another index:
+
+        FieldInfos readerFieldInfos = mergeState.fieldInfos[i];
+        FieldInfo readerFieldInfo = readerFieldInfos.fieldInfo(fieldInfo.name);
+        if (readerFieldInfo != null && readerFieldInfo.getPointDimensionCount() > 0) {
+          PointValues values = reader.getValues(fieldInfo.name);
+          if (values instanceof BKDReader) {
+            bkdReaders.add((BKDReader) values);
+            docMaps.add(mergeState.docMaps[i]);
+            totMaxSize += values.size();
+          } else if (values != null) {
+            // the points of this segment are not sorted on disk the way we need them
+            return false;
           }
-        } else {
-          mergeOneField(mergeState, fieldInfo);
         }
       }
     }
 
-    finish();
+    BKDConfig config = new BKDConfig(fieldInfo.getPointDimensionCount(),
+                                     fieldInfo.getPointIndexDimensionCount(),
+                                     fieldInfo.getPointNumBytes(),
+                                     maxPointsInLeafNode);
+
+    //System.out.println("MERGE: field=" + fieldInfo.name);
+    try (BKDWriter writer = new BKDWriter(writeState.segmentInfo.maxDoc(),
+                                          writeState.directory,
+                                          writeState.segmentInfo.name,
+                                          config,
+                                          maxMBSortInHeap,
+                                          totMaxSize)) {
+      Runnable finalizer = writer.merge(metaOut, indexOut, dataOut, docMaps, bkdReaders);
+      if (finalizer != null) {
+        metaOut.writeInt(fieldInfo.number);
+        finalizer.run();
+      }
+    }
+    return true;
   }
 
   @Override
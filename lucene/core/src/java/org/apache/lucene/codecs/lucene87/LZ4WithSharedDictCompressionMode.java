@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene87;
+
+import java.io.IOException;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+import org.apache.lucene.codecs.compressing.Decompressor;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.compress.DictionaryTrainer;
+import org.apache.lucene.util.compress.LZ4;
+
+/**
+ * A compression mode for small documents that compresses small blocks with
+ * LZ4 against a dictionary that is trained on a sample of the documents of
+ * each segment and shared by all its blocks. Unlike
+ * {@link LZ4WithPresetDictCompressionMode}, which uses the first bytes of each
+ * block of documents as a dictionary, documents that don't have much in common
+ * with their neighbors can still be compressed efficiently, and retrieving a
+ * single document only requires decompressing a small block.
+ * @lucene.internal
+ */
+public final class LZ4WithSharedDictCompressionMode extends CompressionMode {
+
+  // Small blocks, so that retrieving a single small document is cheap
+  private static final int BLOCK_LENGTH = 4 * 1024;
+  // And a dictionary that is larger than blocks since it is the main source of redundancy
+  private static final int DICT_LENGTH = 8 * 1024;
+
+  /** Sole constructor. */
+  public LZ4WithSharedDictCompressionMode() {}
+
+  @Override
+  public Compressor newCompressor() {
+    return newCompressor(new BytesRef());
+  }
+
+  @Override
+  public Decompressor newDecompressor() {
+    return newDecompressor(new BytesRef());
+  }
+
+  @Override
+  public int maxDictionaryLength() {
+    return DICT_LENGTH;
+  }
+
+  @Override
+  public byte[] trainDictionary(byte[] samples, int[] sampleEnds, int numSamples) {
+    return DictionaryTrainer.train(samples, sampleEnds, numSamples, DICT_LENGTH);
+  }
+
+  @Override
+  public Compressor newCompressor(BytesRef dictionary) {
+    return new LZ4WithSharedDictCompressor(dictionary);
+  }
+
+  @Override
+  public Decompressor newDecompressor(BytesRef dictionary) {
+    return new LZ4WithSharedDictDecompressor(dictionary);
+  }
+
+  @Override
+  public String toString() {
+    return "SMALL_DOCS";
+  }
+
+  private static final class LZ4WithSharedDictDecompressor extends Decompressor {
+
+    private final BytesRef dictionary;
+    private int[] compressedLengths;
+    private byte[] buffer;
+
+    LZ4WithSharedDictDecompressor(BytesRef dictionary) {
+      this.dictionary = dictionary;
+      compressedLengths = new int[0];
+      // the dictionary always sits at the beginning of the buffer
+      buffer = ArrayUtil.copyOfSubArray(dictionary.bytes, dictionary.offset, dictionary.offset + dictionary.length);
+    }
+
+    @Override
+    public void decompress(DataInput in, int originalLength, int offset, int length, BytesRef bytes) throws IOException {
+      assert offset + length <= originalLength;
+
+      if (length == 0) {
+        bytes.length = 0;
+        return;
+      }
+
+      final int dictLength = dictionary.length;
+      final int blockLength = in.readVInt();
+      if (blockLength <= 0) {
+        throw new CorruptIndexException("Illegal block length: " + blockLength, in);
+      }
+      final int numBlocks = (originalLength + blockLength - 1) / blockLength;
+      compressedLengths = ArrayUtil.grow(compressedLengths, numBlocks);
+      for (int i = 0; i < numBlocks; ++i) {
+        compressedLengths[i] = in.readVInt();
+      }
+
+      // Skip unneeded blocks
+      final int firstBlock = offset / blockLength;
+      long numBytesToSkip = 0;
+      for (int i = 0; i < firstBlock; ++i) {
+        numBytesToSkip += compressedLengths[i];
+      }
+      in.skipBytes(numBytesToSkip);
+
+      buffer = ArrayUtil.grow(buffer, dictLength + blockLength);
+      bytes.length = 0;
+      // Read blocks that intersect with the interval we need
+      for (int offsetInBlock = firstBlock * blockLength; offsetInBlock < offset + length; offsetInBlock += blockLength) {
+        final int bytesToDecompress = Math.min(blockLength, offset + length - offsetInBlock);
+        LZ4.decompress(in, bytesToDecompress, buffer, dictLength);
+        bytes.bytes = ArrayUtil.grow(bytes.bytes, bytes.length + bytesToDecompress);
+        System.arraycopy(buffer, dictLength, bytes.bytes, bytes.length, bytesToDecompress);
+        bytes.length += bytesToDecompress;
+      }
+
+      bytes.offset = offset - firstBlock * blockLength;
+      bytes.length = length;
+      assert bytes.isValid();
+    }
+
+    @Override
+    public Decompressor clone() {
+      return new LZ4WithSharedDictDecompressor(dictionary);
+    }
+
+  }
+
+  private static class LZ4WithSharedDictCompressor extends Compressor {
+
+    final int dictLength;
+    final ByteBuffersDataOutput compressed;
+    final LZ4.FastCompressionHashTable hashTable;
+    byte[] buffer;
+
+    LZ4WithSharedDictCompressor(BytesRef dictionary) {
+      dictLength = dictionary.length;
+      compressed = ByteBuffersDataOutput.newResettableInstance();
+      hashTable = new LZ4.FastCompressionHashTable();
+      buffer = new byte[dictLength + BLOCK_LENGTH];
+      System.arraycopy(dictionary.bytes, dictionary.offset, buffer, 0, dictLength);
+    }
+
+    @Override
+    public void compress(byte[] bytes, int off, int len, DataOutput out) throws IOException {
+      out.writeVInt(BLOCK_LENGTH);
+      final int end = off + len;
+
+      compressed.reset();
+      for (int start = off; start < end; start += BLOCK_LENGTH) {
+        final int l = Math.min(BLOCK_LENGTH, end - start);
+        System.arraycopy(bytes, start, buffer, dictLength, l);
+        final long prevCompressedSize = compressed.size();
+        LZ4.compressWithDictionary(buffer, 0, dictLength, l, compressed, hashTable);
+        // Write the number of compressed bytes
+        out.writeVInt(Math.toIntExact(compressed.size() - prevCompressedSize));
+      }
+
+      // We only wrote lengths so far, now write compressed data
+      compressed.copyTo(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+      // no-op
+    }
+  }
+}
@@ -191,6 +191,11 @@
  * numeric range filtering and large numeric values like BigInteger and BigDecimal (1D)
  * and geographic shape intersection (2D, 3D).
  * </li>
+ * <li>
+ * {@link org.apache.lucene.codecs.lucene90.Lucene90VectorFormat Vector values}.
+ * Optional set of files, recording numeric vector fields and the graph used for
+ * approximate nearest-neighbor search.
+ * </li>
  * </ul>
  * <p>Details on each of these are provided in their linked pages.</p>
  * </div>
@@ -314,6 +319,11 @@
  * <td>.dii, .dim</td>
  * <td>Holds indexed points, if any</td>
  * </tr>
+ * <tr>
+ * <td>{@link org.apache.lucene.codecs.lucene90.Lucene90VectorFormat Vector values}</td>
+ * <td>.vec, .vex, .vem</td>
+ * <td>Holds indexed vectors and their nearest-neighbor graph, if any</td>
+ * </tr>
  * </table>
  * </div>
  * <a id="Lock_File"></a>
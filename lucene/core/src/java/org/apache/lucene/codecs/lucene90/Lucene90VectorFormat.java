@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene90;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.codecs.VectorFormat;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.codecs.VectorWriter;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+
+/**
+ * Lucene 9.0 vector format, which encodes numeric vector values and an optional associated graph
+ * connecting the documents having values. The graph is used to power HNSW search. The format
+ * consists of three files:
+ * <h2>.vec (vector data) file</h2>
+ * <p>This file stores all the floating-point vector data ordered by field, document ordinal, and
+ * vector dimension. The floats are stored in little-endian byte order.</p>
+ *
+ * <h2>.vex (vector index) file</h2>
+ * <p>Stores the graph connecting the documents for each field, level by level. On each level,
+ * every node present on that level has a fixed-size slot made of:</p>
+ * <ul>
+ *   <li><b>[int]</b> the number of neighbors of the node on this level</li>
+ *   <li><b>array[int]</b> the neighbor ordinals, padded to the maximum number of connections</li>
+ * </ul>
+ * <p>Fixed-size slots allow the neighbors of any node to be read without loading the graph
+ * on heap.</p>
+ *
+ * <h2>.vem (vector metadata) file</h2>
+ * <p>For each field:</p>
+ * <ul>
+ *   <li><b>[int32]</b> field number</li>
+ *   <li><b>[int32]</b> vector search strategy ordinal</li>
+ *   <li><b>[vlong]</b> offset to this field's vectors in the .vec file</li>
+ *   <li><b>[vlong]</b> length of this field's vectors, in bytes</li>
+ *   <li><b>[vlong]</b> offset to this field's graph in the .vex file</li>
+ *   <li><b>[vlong]</b> length of this field's graph, in bytes</li>
+ *   <li><b>[int]</b> dimension of this field's vectors</li>
+ *   <li><b>[int]</b> the number of documents having values for this field</li>
+ *   <li><b>array[vint]</b> the docids of documents having vectors, in order, delta-encoded</li>
+ *   <li>if the field is indexed with an HNSW strategy:
+ *     <ul>
+ *       <li><b>[int]</b> the maximum number of connections of a node on a level</li>
+ *       <li><b>[int]</b> the number of levels of the graph</li>
+ *       <li><b>[int]</b> the entry node of the graph</li>
+ *       <li>for each level above 0: <b>[int]</b> the number of nodes on the level, followed by
+ *         <b>array[vint]</b> the ordinals of these nodes, in order, delta-encoded</li>
+ *     </ul>
+ *   </li>
+ * </ul>
+ * <p>The list of fields is terminated by a field number of -1.</p>
+ *
+ * @lucene.experimental
+ */
+public final class Lucene90VectorFormat extends VectorFormat {
+
+  static final String META_CODEC_NAME = "Lucene90VectorFormatMeta";
+  static final String VECTOR_DATA_CODEC_NAME = "Lucene90VectorFormatData";
+  static final String VECTOR_INDEX_CODEC_NAME = "Lucene90VectorFormatIndex";
+  static final String META_EXTENSION = "vem";
+  static final String VECTOR_DATA_EXTENSION = "vec";
+  static final String VECTOR_INDEX_EXTENSION = "vex";
+
+  static final int VERSION_START = 0;
+  static final int VERSION_CURRENT = VERSION_START;
+
+  /** Default number of maximum connections per node and per level */
+  public static final int DEFAULT_MAX_CONN = 16;
+
+  /** Default size of the beam used when searching for the neighbors of a new node while building the graph */
+  public static final int DEFAULT_BEAM_WIDTH = 100;
+
+  private final int maxConn;
+  private final int beamWidth;
+
+  /** Sole constructor, using default graph construction parameters */
+  public Lucene90VectorFormat() {
+    this(DEFAULT_MAX_CONN, DEFAULT_BEAM_WIDTH);
+  }
+
+  /**
+   * Constructor with custom graph construction parameters.
+   * @param maxConn the maximum number of connections of a node on each level of the graph
+   * @param beamWidth the size of the beam search used to find the neighbors of new nodes
+   */
+  public Lucene90VectorFormat(int maxConn, int beamWidth) {
+    if (maxConn <= 0) {
+      throw new IllegalArgumentException("maxConn must be positive; got " + maxConn);
+    }
+    if (beamWidth <= 0) {
+      throw new IllegalArgumentException("beamWidth must be positive; got " + beamWidth);
+    }
+    this.maxConn = maxConn;
+    this.beamWidth = beamWidth;
+  }
+
+  @Override
+  public VectorWriter fieldsWriter(SegmentWriteState state) throws IOException {
+    return new Lucene90VectorWriter(state, maxConn, beamWidth);
+  }
+
+  @Override
+  public VectorReader fieldsReader(SegmentReadState state) throws IOException {
+    return new Lucene90VectorReader(state);
+  }
+
+  @Override
+  public String toString() {
+    return "Lucene90VectorFormat(maxConn=" + maxConn + ", beamWidth=" + beamWidth + ")";
+  }
+}
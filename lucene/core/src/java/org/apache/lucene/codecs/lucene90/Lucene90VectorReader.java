@@ -0,0 +1,479 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene90;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.RandomAccessVectorValues;
+import org.apache.lucene.index.RandomAccessVectorValuesProducer;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.hnsw.HnswGraph;
+import org.apache.lucene.util.hnsw.NeighborQueue;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/**
+ * Reads vectors from the index segments along with index data structures supporting KNN search.
+ *
+ * @lucene.experimental
+ */
+public final class Lucene90VectorReader extends VectorReader {
+
+  private final FieldInfos fieldInfos;
+  private final Map<String, FieldEntry> fields = new HashMap<>();
+  private final IndexInput vectorData;
+  private final IndexInput vectorIndex;
+
+  Lucene90VectorReader(SegmentReadState state) throws IOException {
+    this.fieldInfos = state.fieldInfos;
+
+    int versionMeta = -1;
+    String metaFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene90VectorFormat.META_EXTENSION);
+    try (ChecksumIndexInput meta = state.directory.openChecksumInput(metaFileName, state.context)) {
+      Throwable priorE = null;
+      try {
+        versionMeta = CodecUtil.checkIndexHeader(meta,
+            Lucene90VectorFormat.META_CODEC_NAME,
+            Lucene90VectorFormat.VERSION_START,
+            Lucene90VectorFormat.VERSION_CURRENT,
+            state.segmentInfo.getId(),
+            state.segmentSuffix);
+        readFields(meta, state.fieldInfos);
+      } catch (Throwable exception) {
+        priorE = exception;
+      } finally {
+        CodecUtil.checkFooter(meta, priorE);
+      }
+    }
+
+    boolean success = false;
+    try {
+      vectorData = openDataInput(state, versionMeta, Lucene90VectorFormat.VECTOR_DATA_EXTENSION, Lucene90VectorFormat.VECTOR_DATA_CODEC_NAME);
+      vectorIndex = openDataInput(state, versionMeta, Lucene90VectorFormat.VECTOR_INDEX_EXTENSION, Lucene90VectorFormat.VECTOR_INDEX_CODEC_NAME);
+      success = true;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(this);
+      }
+    }
+  }
+
+  private static IndexInput openDataInput(SegmentReadState state, int versionMeta, String fileExtension, String codecName) throws IOException {
+    String fileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, fileExtension);
+    IndexInput in = state.directory.openInput(fileName, state.context);
+    boolean success = false;
+    try {
+      int versionVectorData = CodecUtil.checkIndexHeader(in,
+          codecName,
+          Lucene90VectorFormat.VERSION_START,
+          Lucene90VectorFormat.VERSION_CURRENT,
+          state.segmentInfo.getId(),
+          state.segmentSuffix);
+      if (versionMeta != versionVectorData) {
+        throw new CorruptIndexException("Format versions mismatch: meta=" + versionMeta + ", " + codecName + "=" + versionVectorData, in);
+      }
+      CodecUtil.retrieveChecksum(in);
+      success = true;
+      return in;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(in);
+      }
+    }
+  }
+
+  private void readFields(ChecksumIndexInput meta, FieldInfos infos) throws IOException {
+    for (int fieldNumber = meta.readInt(); fieldNumber != -1; fieldNumber = meta.readInt()) {
+      FieldInfo info = infos.fieldInfo(fieldNumber);
+      if (info == null) {
+        throw new CorruptIndexException("Invalid field number: " + fieldNumber, meta);
+      }
+      int searchStrategyId = meta.readInt();
+      if (searchStrategyId < 0 || searchStrategyId >= VectorValues.SearchStrategy.values().length) {
+        throw new CorruptIndexException("Invalid search strategy id: " + searchStrategyId, meta);
+      }
+      VectorValues.SearchStrategy searchStrategy = VectorValues.SearchStrategy.values()[searchStrategyId];
+      if (searchStrategy != info.getVectorSearchStrategy()) {
+        throw new CorruptIndexException("Inconsistent search strategy for field=\"" + info.name + "\"; "
+            + searchStrategy + " != " + info.getVectorSearchStrategy(), meta);
+      }
+      FieldEntry fieldEntry = new FieldEntry(meta, searchStrategy);
+      if (fieldEntry.dimension != info.getVectorDimension()) {
+        throw new CorruptIndexException("Inconsistent vector dimension for field=\"" + info.name + "\"; "
+            + fieldEntry.dimension + " != " + info.getVectorDimension(), meta);
+      }
+      fields.put(info.name, fieldEntry);
+    }
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    long totalBytes = RamUsageEstimator.shallowSizeOfInstance(Lucene90VectorReader.class);
+    totalBytes += RamUsageEstimator.sizeOfMap(fields, RamUsageEstimator.shallowSizeOfInstance(FieldEntry.class));
+    for (FieldEntry entry : fields.values()) {
+      totalBytes += RamUsageEstimator.sizeOf(entry.ordToDoc);
+      for (int[] nodes : entry.nodesByLevel) {
+        totalBytes += RamUsageEstimator.sizeOf(nodes);
+      }
+    }
+    return totalBytes;
+  }
+
+  @Override
+  public void checkIntegrity() throws IOException {
+    CodecUtil.checksumEntireFile(vectorData);
+    CodecUtil.checksumEntireFile(vectorIndex);
+  }
+
+  @Override
+  public VectorValues getVectorValues(String field) throws IOException {
+    FieldInfo info = fieldInfos.fieldInfo(field);
+    if (info == null) {
+      return null;
+    }
+    int dimension = info.getVectorDimension();
+    if (dimension == 0) {
+      return VectorValues.EMPTY;
+    }
+    FieldEntry fieldEntry = fields.get(field);
+    if (fieldEntry == null) {
+      // There is a FieldInfo, but no vectors. Should we have deleted the FieldInfo?
+      return null;
+    }
+    return getOffHeapVectorValues(fieldEntry);
+  }
+
+  @Override
+  public TopDocs search(String field, float[] target, int k, Bits acceptDocs) throws IOException {
+    FieldEntry fieldEntry = fields.get(field);
+    if (fieldEntry == null || fieldEntry.size() == 0) {
+      return new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+    }
+    if (fieldEntry.searchStrategy.isHnsw() == false) {
+      throw new IllegalArgumentException("field=\"" + field + "\" was not indexed with an HNSW search strategy");
+    }
+    if (target.length != fieldEntry.dimension) {
+      throw new IllegalArgumentException("vector dimensions differ: query=" + target.length + " field=" + fieldEntry.dimension);
+    }
+    OffHeapVectorValues vectorValues = getOffHeapVectorValues(fieldEntry);
+    Bits acceptOrds = getAcceptOrds(acceptDocs, fieldEntry);
+    // explore twice as many candidates as requested on the bottom level, which improves recall
+    // significantly for small values of k
+    int numSeed = (int) Math.max(k, Math.min(2L * k, fieldEntry.size()));
+    NeighborQueue results = HnswGraph.search(target, k, numSeed, vectorValues, fieldEntry.searchStrategy,
+        getGraphValues(fieldEntry), acceptOrds);
+    int i = 0;
+    ScoreDoc[] scoreDocs = new ScoreDoc[Math.min(results.size(), k)];
+    while (results.size() > 0) {
+      float score = results.topScore();
+      int node = results.pop();
+      // results pop least similar first
+      scoreDocs[scoreDocs.length - ++i] = new ScoreDoc(fieldEntry.ordToDoc[node], score);
+    }
+    // the total hits is the number of vectors that were compared to the target
+    return new TopDocs(new TotalHits(results.visitedCount(), TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO), scoreDocs);
+  }
+
+  private OffHeapVectorValues getOffHeapVectorValues(FieldEntry fieldEntry) throws IOException {
+    IndexInput bytesSlice = vectorData.slice("vector-data", fieldEntry.vectorDataOffset, fieldEntry.vectorDataLength);
+    return new OffHeapVectorValues(fieldEntry, bytesSlice);
+  }
+
+  private Bits getAcceptOrds(Bits acceptDocs, FieldEntry fieldEntry) {
+    if (acceptDocs == null) {
+      return null;
+    }
+    return new Bits() {
+      @Override
+      public boolean get(int index) {
+        return acceptDocs.get(fieldEntry.ordToDoc[index]);
+      }
+
+      @Override
+      public int length() {
+        return fieldEntry.ordToDoc.length;
+      }
+    };
+  }
+
+  private HnswGraph getGraphValues(FieldEntry entry) throws IOException {
+    IndexInput bytesSlice = vectorIndex.slice("graph-data", entry.indexDataOffset, entry.indexDataLength);
+    return new OffHeapHnswGraph(entry, bytesSlice);
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOUtils.close(vectorData, vectorIndex);
+  }
+
+  private static class FieldEntry {
+
+    final int dimension;
+    final VectorValues.SearchStrategy searchStrategy;
+
+    final long vectorDataOffset;
+    final long vectorDataLength;
+    final long indexDataOffset;
+    final long indexDataLength;
+    final int[] ordToDoc;
+    final int maxConn;
+    final int numLevels;
+    final int entryNode;
+    // nodes present on each level, in increasing order; nodesByLevel[0] is empty since all nodes are on level 0
+    final int[][] nodesByLevel;
+    // offset of each level's slots in the graph data
+    final long[] levelOffsets;
+
+    FieldEntry(DataInput input, VectorValues.SearchStrategy searchStrategy) throws IOException {
+      this.searchStrategy = searchStrategy;
+      vectorDataOffset = input.readVLong();
+      vectorDataLength = input.readVLong();
+      indexDataOffset = input.readVLong();
+      indexDataLength = input.readVLong();
+      dimension = input.readInt();
+      int size = input.readInt();
+      ordToDoc = new int[size];
+      int lastDocID = 0;
+      for (int i = 0; i < size; i++) {
+        int doc = lastDocID + input.readVInt();
+        ordToDoc[i] = doc;
+        lastDocID = doc;
+      }
+      if (searchStrategy.isHnsw()) {
+        maxConn = input.readInt();
+        numLevels = input.readInt();
+      } else {
+        maxConn = 0;
+        numLevels = 0;
+      }
+      if (numLevels > 0) {
+        entryNode = input.readInt();
+        nodesByLevel = new int[numLevels][];
+        nodesByLevel[0] = new int[0];
+        for (int level = 1; level < numLevels; level++) {
+          int numNodes = input.readInt();
+          int[] nodes = new int[numNodes];
+          int lastNode = 0;
+          for (int i = 0; i < numNodes; i++) {
+            nodes[i] = lastNode + input.readVInt();
+            lastNode = nodes[i];
+          }
+          nodesByLevel[level] = nodes;
+        }
+      } else {
+        entryNode = -1;
+        nodesByLevel = new int[0][];
+      }
+      levelOffsets = new long[numLevels];
+      long slotBytes = (1L + maxConn) * Integer.BYTES;
+      long offset = 0;
+      for (int level = 0; level < numLevels; level++) {
+        levelOffsets[level] = offset;
+        offset += slotBytes * (level == 0 ? size : nodesByLevel[level].length);
+      }
+    }
+
+    int size() {
+      return ordToDoc.length;
+    }
+  }
+
+  /** Read the vector values from the index input. This supports both iterated and random access. */
+  private final static class OffHeapVectorValues extends VectorValues implements RandomAccessVectorValuesProducer, RandomAccessVectorValues {
+
+    final FieldEntry fieldEntry;
+    final IndexInput dataIn;
+
+    final BytesRef binaryValue;
+    final ByteBuffer byteBuffer;
+    final FloatBuffer floatBuffer;
+    final int byteSize;
+    final float[] value;
+
+    int ord = -1;
+    int doc = -1;
+
+    OffHeapVectorValues(FieldEntry fieldEntry, IndexInput dataIn) {
+      this.fieldEntry = fieldEntry;
+      this.dataIn = dataIn;
+      byteSize = Float.BYTES * fieldEntry.dimension;
+      byteBuffer = ByteBuffer.allocate(byteSize).order(ByteOrder.LITTLE_ENDIAN);
+      floatBuffer = byteBuffer.asFloatBuffer();
+      value = new float[fieldEntry.dimension];
+      binaryValue = new BytesRef(byteBuffer.array(), byteBuffer.arrayOffset(), byteSize);
+    }
+
+    @Override
+    public int dimension() {
+      return fieldEntry.dimension;
+    }
+
+    @Override
+    public int size() {
+      return fieldEntry.size();
+    }
+
+    @Override
+    public SearchStrategy searchStrategy() {
+      return fieldEntry.searchStrategy;
+    }
+
+    @Override
+    public float[] vectorValue() throws IOException {
+      return vectorValue(ord);
+    }
+
+    @Override
+    public BytesRef binaryValue() throws IOException {
+      readValue(ord);
+      return binaryValue;
+    }
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public int nextDoc() {
+      if (++ord >= size()) {
+        doc = NO_MORE_DOCS;
+      } else {
+        doc = fieldEntry.ordToDoc[ord];
+      }
+      return doc;
+    }
+
+    @Override
+    public int advance(int target) {
+      // We could use a skip list here, but the ords are dense, so a binary search is good enough
+      assert docID() < target;
+      ord = Arrays.binarySearch(fieldEntry.ordToDoc, ord + 1, fieldEntry.ordToDoc.length, target);
+      if (ord < 0) {
+        ord = -(ord + 1);
+      }
+      assert ord <= fieldEntry.ordToDoc.length;
+      if (ord == fieldEntry.ordToDoc.length) {
+        doc = NO_MORE_DOCS;
+      } else {
+        doc = fieldEntry.ordToDoc[ord];
+      }
+      return doc;
+    }
+
+    @Override
+    public long cost() {
+      return fieldEntry.size();
+    }
+
+    @Override
+    public RandomAccessVectorValues randomAccess() {
+      return new OffHeapVectorValues(fieldEntry, dataIn.clone());
+    }
+
+    @Override
+    public float[] vectorValue(int targetOrd) throws IOException {
+      readValue(targetOrd);
+      floatBuffer.position(0);
+      floatBuffer.get(value, 0, fieldEntry.dimension);
+      return value;
+    }
+
+    private void readValue(int targetOrd) throws IOException {
+      long offset = (long) targetOrd * byteSize;
+      dataIn.seek(offset);
+      dataIn.readBytes(byteBuffer.array(), byteBuffer.arrayOffset(), byteSize);
+    }
+  }
+
+  /** Read the nearest-neighbors graph from the index input */
+  private static final class OffHeapHnswGraph extends HnswGraph {
+
+    final FieldEntry entry;
+    final IndexInput dataIn;
+
+    int arcCount;
+    int arcUpTo;
+
+    OffHeapHnswGraph(FieldEntry entry, IndexInput dataIn) {
+      this.entry = entry;
+      this.dataIn = dataIn;
+    }
+
+    @Override
+    public void seek(int level, int targetNode) throws IOException {
+      long slot;
+      if (level == 0) {
+        slot = targetNode;
+      } else {
+        slot = Arrays.binarySearch(entry.nodesByLevel[level], targetNode);
+        assert slot >= 0 : "node " + targetNode + " is not present on level " + level;
+      }
+      dataIn.seek(entry.levelOffsets[level] + slot * (1L + entry.maxConn) * Integer.BYTES);
+      arcCount = dataIn.readInt();
+      arcUpTo = 0;
+    }
+
+    @Override
+    public int nextNeighbor() throws IOException {
+      if (arcUpTo >= arcCount) {
+        return NO_MORE_DOCS;
+      }
+      ++arcUpTo;
+      return dataIn.readInt();
+    }
+
+    @Override
+    public int size() {
+      return entry.size();
+    }
+
+    @Override
+    public int numLevels() {
+      return entry.numLevels;
+    }
+
+    @Override
+    public int entryNode() {
+      return entry.entryNode;
+    }
+  }
+}
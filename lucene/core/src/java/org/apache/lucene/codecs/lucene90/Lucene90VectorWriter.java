@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene90;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.VectorWriter;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.RandomAccessVectorValuesProducer;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.hnsw.HnswGraphBuilder;
+import org.apache.lucene.util.hnsw.NeighborArray;
+import org.apache.lucene.util.hnsw.OnHeapHnswGraph;
+
+/**
+ * Writes vector values and knn graphs to index segments.
+ *
+ * @lucene.experimental
+ */
+public final class Lucene90VectorWriter extends VectorWriter {
+
+  private final SegmentWriteState segmentWriteState;
+  private final IndexOutput meta, vectorData, vectorIndex;
+  private final int maxConn;
+  private final int beamWidth;
+
+  private boolean finished;
+
+  Lucene90VectorWriter(SegmentWriteState state, int maxConn, int beamWidth) throws IOException {
+    assert state.fieldInfos.hasVectorValues();
+    segmentWriteState = state;
+    this.maxConn = maxConn;
+    this.beamWidth = beamWidth;
+
+    String metaFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene90VectorFormat.META_EXTENSION);
+    String vectorDataFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene90VectorFormat.VECTOR_DATA_EXTENSION);
+    String indexDataFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene90VectorFormat.VECTOR_INDEX_EXTENSION);
+
+    boolean success = false;
+    try {
+      meta = state.directory.createOutput(metaFileName, state.context);
+      vectorData = state.directory.createOutput(vectorDataFileName, state.context);
+      vectorIndex = state.directory.createOutput(indexDataFileName, state.context);
+
+      CodecUtil.writeIndexHeader(meta,
+          Lucene90VectorFormat.META_CODEC_NAME,
+          Lucene90VectorFormat.VERSION_CURRENT,
+          state.segmentInfo.getId(), state.segmentSuffix);
+      CodecUtil.writeIndexHeader(vectorData,
+          Lucene90VectorFormat.VECTOR_DATA_CODEC_NAME,
+          Lucene90VectorFormat.VERSION_CURRENT,
+          state.segmentInfo.getId(), state.segmentSuffix);
+      CodecUtil.writeIndexHeader(vectorIndex,
+          Lucene90VectorFormat.VECTOR_INDEX_CODEC_NAME,
+          Lucene90VectorFormat.VERSION_CURRENT,
+          state.segmentInfo.getId(), state.segmentSuffix);
+      success = true;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(this);
+      }
+    }
+  }
+
+  @Override
+  public void writeField(FieldInfo fieldInfo, VectorValues vectors) throws IOException {
+    final int dimension = fieldInfo.getVectorDimension();
+    final VectorValues.SearchStrategy searchStrategy = fieldInfo.getVectorSearchStrategy();
+    if (vectors.dimension() != dimension) {
+      throw new IllegalArgumentException("field=\"" + fieldInfo.name + "\": vector dimension " + vectors.dimension()
+          + " does not match the field's dimension " + dimension);
+    }
+    if (searchStrategy.isHnsw() && vectors instanceof RandomAccessVectorValuesProducer == false) {
+      throw new IllegalArgumentException("Indexing an HNSW graph requires a random access vector values, got " + vectors);
+    }
+
+    long vectorDataOffset = vectorData.getFilePointer();
+    int[] docIds = new int[Math.max(vectors.size(), 1)];
+    int count = 0;
+    ByteBuffer buffer = ByteBuffer.allocate(dimension * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    for (int docV = vectors.nextDoc(); docV != VectorValues.NO_MORE_DOCS; docV = vectors.nextDoc()) {
+      // write vector
+      buffer.asFloatBuffer().put(vectors.vectorValue());
+      vectorData.writeBytes(buffer.array(), buffer.limit());
+      if (count == docIds.length) {
+        docIds = ArrayUtil.grow(docIds, count + 1);
+      }
+      docIds[count++] = docV;
+    }
+    long vectorDataLength = vectorData.getFilePointer() - vectorDataOffset;
+
+    long vectorIndexOffset = vectorIndex.getFilePointer();
+    OnHeapHnswGraph graph = null;
+    if (searchStrategy.isHnsw() && count > 0) {
+      RandomAccessVectorValuesProducer producer = (RandomAccessVectorValuesProducer) vectors;
+      HnswGraphBuilder builder = new HnswGraphBuilder(producer, searchStrategy, maxConn, beamWidth, HnswGraphBuilder.randSeed);
+      builder.setInfoStream(segmentWriteState.infoStream);
+      graph = builder.build(producer.randomAccess());
+      assert graph.size() == count;
+      writeGraph(vectorIndex, graph);
+    }
+    long vectorIndexLength = vectorIndex.getFilePointer() - vectorIndexOffset;
+
+    meta.writeInt(fieldInfo.number);
+    meta.writeInt(searchStrategy.ordinal());
+    meta.writeVLong(vectorDataOffset);
+    meta.writeVLong(vectorDataLength);
+    meta.writeVLong(vectorIndexOffset);
+    meta.writeVLong(vectorIndexLength);
+    meta.writeInt(dimension);
+    meta.writeInt(count);
+    int lastDocID = 0;
+    for (int i = 0; i < count; i++) {
+      // write docIds, delta-encoded
+      meta.writeVInt(docIds[i] - lastDocID);
+      lastDocID = docIds[i];
+    }
+    if (searchStrategy.isHnsw()) {
+      meta.writeInt(maxConn);
+      if (graph == null) {
+        meta.writeInt(0);
+      } else {
+        meta.writeInt(graph.numLevels());
+        meta.writeInt(graph.entryNode());
+        for (int level = 1; level < graph.numLevels(); level++) {
+          int[] nodes = graph.getNodesOnLevel(level);
+          meta.writeInt(nodes.length);
+          int lastNode = 0;
+          for (int node : nodes) {
+            meta.writeVInt(node - lastNode);
+            lastNode = node;
+          }
+        }
+      }
+    }
+  }
+
+  private void writeGraph(IndexOutput graphData, OnHeapHnswGraph graph) throws IOException {
+    for (int level = 0; level < graph.numLevels(); level++) {
+      for (int node : graph.getNodesOnLevel(level)) {
+        NeighborArray neighbors = graph.getNeighbors(level, node);
+        int size = neighbors.size();
+        assert size <= maxConn;
+        graphData.writeInt(size);
+        int[] nodes = neighbors.node();
+        for (int i = 0; i < size; i++) {
+          graphData.writeInt(nodes[i]);
+        }
+        // pad to a fixed size slot, so that neighbors can be located without an index
+        for (int i = size; i < maxConn; i++) {
+          graphData.writeInt(0);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void finish() throws IOException {
+    if (finished) {
+      throw new IllegalStateException("already finished");
+    }
+    finished = true;
+
+    if (meta != null) {
+      // write end of fields marker
+      meta.writeInt(-1);
+      CodecUtil.writeFooter(meta);
+    }
+    if (vectorData != null) {
+      CodecUtil.writeFooter(vectorData);
+      CodecUtil.writeFooter(vectorIndex);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOUtils.close(meta, vectorData, vectorIndex);
+  }
+}
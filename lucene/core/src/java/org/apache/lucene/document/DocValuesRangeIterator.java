@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.document;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.DocValuesSkipper;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.TwoPhaseIterator;
+
+/**
+ * Wrapper around a {@link TwoPhaseIterator} that checks whether doc values are
+ * within a range, which uses a {@link DocValuesSkipper} to skip blocks whose
+ * values can't match and to match blocks whose values are all within the range
+ * without checking every document.
+ */
+final class DocValuesRangeIterator extends TwoPhaseIterator {
+
+  enum Match {
+    /** All docs in the block have a value and match. */
+    YES,
+    /** All docs in the block that have a value match. */
+    IF_DOC_HAS_VALUE,
+    /** Docs in the block need to be checked one by one. */
+    MAYBE
+  }
+
+  private final Approximation rangeApproximation;
+  private final TwoPhaseIterator innerTwoPhase;
+
+  DocValuesRangeIterator(TwoPhaseIterator twoPhase, DocValuesSkipper skipper, long lowerValue, long upperValue, int maxDoc) {
+    super(new Approximation(twoPhase.approximation(), skipper, lowerValue, upperValue, maxDoc));
+    this.rangeApproximation = (Approximation) approximation;
+    this.innerTwoPhase = twoPhase;
+  }
+
+  /**
+   * Return the number of documents that have a value in blocks whose range of
+   * values intersects with {@code [lowerValue, upperValue]}.
+   */
+  static long cost(DocValuesSkipper skipper, long lowerValue, long upperValue) throws IOException {
+    long cost = 0;
+    for (skipper.advance(0, lowerValue, upperValue);
+        skipper.minDocID() != DocIdSetIterator.NO_MORE_DOCS;
+        skipper.advance(skipper.maxDocID() + 1, lowerValue, upperValue)) {
+      cost += skipper.docCount();
+    }
+    return cost;
+  }
+
+  private static final class Approximation extends DocIdSetIterator {
+
+    private final DocIdSetIterator innerApproximation;
+    private final DocValuesSkipper skipper;
+    private final long lowerValue, upperValue;
+    private final int maxDoc;
+
+    private int doc = -1;
+    // last doc ID of the current block, inclusive
+    private int upTo = -1;
+    private Match match;
+
+    Approximation(DocIdSetIterator innerApproximation, DocValuesSkipper skipper, long lowerValue, long upperValue, int maxDoc) {
+      this.innerApproximation = innerApproximation;
+      this.skipper = skipper;
+      this.lowerValue = lowerValue;
+      this.upperValue = upperValue;
+      this.maxDoc = maxDoc;
+    }
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      return advance(doc + 1);
+    }
+
+    @Override
+    public int advance(int target) throws IOException {
+      while (true) {
+        if (target > upTo) {
+          if (target >= maxDoc) {
+            return doc = NO_MORE_DOCS;
+          }
+          skipper.advance(target, lowerValue, upperValue);
+          if (skipper.minDocID() == NO_MORE_DOCS) {
+            return doc = NO_MORE_DOCS;
+          }
+          target = Math.max(target, skipper.minDocID());
+          upTo = skipper.maxDocID();
+          match = match(skipper);
+        }
+        if (match == Match.YES) {
+          return doc = target;
+        }
+        final int next = innerApproximation.docID() < target ? innerApproximation.advance(target) : innerApproximation.docID();
+        if (next <= upTo) {
+          return doc = next;
+        } else if (next == NO_MORE_DOCS) {
+          return doc = NO_MORE_DOCS;
+        }
+        // the current block has no more docs with a value, move to the block of the next doc
+        target = next;
+      }
+    }
+
+    private Match match(DocValuesSkipper skipper) {
+      if (skipper.minValue() >= lowerValue && skipper.maxValue() <= upperValue) {
+        if (skipper.docCount() == skipper.maxDocID() - skipper.minDocID() + 1) {
+          return Match.YES;
+        } else {
+          return Match.IF_DOC_HAS_VALUE;
+        }
+      } else {
+        return Match.MAYBE;
+      }
+    }
+
+    @Override
+    public long cost() {
+      return innerApproximation.cost();
+    }
+  }
+
+  @Override
+  public boolean matches() throws IOException {
+    switch (rangeApproximation.match) {
+      case YES:
+      case IF_DOC_HAS_VALUE:
+        return true;
+      case MAYBE:
+        return innerTwoPhase.matches();
+      default:
+        throw new AssertionError();
+    }
+  }
+
+  @Override
+  public float matchCost() {
+    return innerTwoPhase.matchCost();
+  }
+}
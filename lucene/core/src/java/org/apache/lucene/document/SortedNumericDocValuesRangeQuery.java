@@ -17,9 +17,11 @@
 package org.apache.lucene.document;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Objects;
 
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
@@ -27,12 +29,14 @@ import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.search.ConstantScoreScorer;
 import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryVisitor;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
 import org.apache.lucene.search.TwoPhaseIterator;
 import org.apache.lucene.search.Weight;
 
@@ -111,47 +115,106 @@ abstract class SortedNumericDocValuesRangeQuery extends Query {
 
       @Override
       public Scorer scorer(LeafReaderContext context) throws IOException {
-        SortedNumericDocValues values = getValues(context.reader(), field);
+        ScorerSupplier scorerSupplier = scorerSupplier(context);
+        if (scorerSupplier == null) {
+          return null;
+        }
+        return scorerSupplier.get(Long.MAX_VALUE);
+      }
+
+      @Override
+      public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+        final LeafReader reader = context.reader();
+        final SortedNumericDocValues values = getValues(reader, field);
         if (values == null) {
           return null;
         }
-        final NumericDocValues singleton = DocValues.unwrapSingleton(values);
-        final TwoPhaseIterator iterator;
-        if (singleton != null) {
-          iterator = new TwoPhaseIterator(singleton) {
-            @Override
-            public boolean matches() throws IOException {
-              final long value = singleton.longValue();
-              return value >= lowerValue && value <= upperValue;
+        final DocValuesSkipper skipper = reader.getDocValuesSkipper(field);
+        if (skipper != null
+            && (skipper.globalMinValue() > upperValue || skipper.globalMaxValue() < lowerValue)) {
+          // no value in this segment is within the range
+          return null;
+        }
+
+        final Weight weight = this;
+        return new ScorerSupplier() {
+          long cost = -1;
+
+          @Override
+          public Scorer get(long leadCost) throws IOException {
+            if (skipper != null
+                && skipper.globalMinValue() >= lowerValue && skipper.globalMaxValue() <= upperValue) {
+              // all values in this segment are within the range
+              final DocIdSetIterator iterator;
+              if (skipper.globalDocCount() == reader.maxDoc()) {
+                iterator = DocIdSetIterator.all(reader.maxDoc());
+              } else {
+                iterator = values;
+              }
+              return new ConstantScoreScorer(weight, score(), scoreMode, iterator);
             }
 
-            @Override
-            public float matchCost() {
-              return 2; // 2 comparisons
+            final NumericDocValues singleton = DocValues.unwrapSingleton(values);
+            TwoPhaseIterator iterator;
+            if (singleton != null) {
+              iterator = new TwoPhaseIterator(singleton) {
+                @Override
+                public boolean matches() throws IOException {
+                  final long value = singleton.longValue();
+                  return value >= lowerValue && value <= upperValue;
+                }
+
+                @Override
+                public float matchCost() {
+                  return 2; // 2 comparisons
+                }
+              };
+            } else {
+              iterator = new TwoPhaseIterator(values) {
+                @Override
+                public boolean matches() throws IOException {
+                  for (int i = 0, count = values.docValueCount(); i < count; ++i) {
+                    final long value = values.nextValue();
+                    if (value < lowerValue) {
+                      continue;
+                    }
+                    // Values are sorted, so the first value that is >= lowerValue is our best candidate
+                    return value <= upperValue;
+                  }
+                  return false; // all values were < lowerValue
+                }
+
+                @Override
+                public float matchCost() {
+                  return 2; // 2 comparisons
+                }
+              };
             }
-          };
-        } else {
-          iterator = new TwoPhaseIterator(values) {
-            @Override
-            public boolean matches() throws IOException {
-              for (int i = 0, count = values.docValueCount(); i < count; ++i) {
-                final long value = values.nextValue();
-                if (value < lowerValue) {
-                  continue;
+            if (skipper != null) {
+              // skip blocks that don't match and match blocks that are within the range without checking values
+              iterator = new DocValuesRangeIterator(iterator, skipper, lowerValue, upperValue, reader.maxDoc());
+            }
+            return new ConstantScoreScorer(weight, score(), scoreMode, iterator);
+          }
+
+          @Override
+          public long cost() {
+            if (cost == -1) {
+              if (skipper == null) {
+                cost = values.cost();
+              } else {
+                // the skip index can tell how many docs are in blocks that may match, which is a better
+                // estimate than the number of docs that have a value, but it takes a pass over all blocks
+                try {
+                  cost = DocValuesRangeIterator.cost(skipper, lowerValue, upperValue);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
                 }
-                // Values are sorted, so the first value that is >= lowerValue is our best candidate
-                return value <= upperValue;
               }
-              return false; // all values were < lowerValue
-            }
-
-            @Override
-            public float matchCost() {
-              return 2; // 2 comparisons
             }
-          };
-        }
-        return new ConstantScoreScorer(this, score(), scoreMode, iterator);
+            return cost;
+          }
+        };
       }
 
     };
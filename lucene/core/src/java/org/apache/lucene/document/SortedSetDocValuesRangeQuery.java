@@ -17,9 +17,11 @@
 package org.apache.lucene.document;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Objects;
 
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
@@ -27,12 +29,14 @@ import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.ConstantScoreScorer;
 import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryVisitor;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
 import org.apache.lucene.search.TwoPhaseIterator;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.BytesRef;
@@ -116,7 +120,17 @@ abstract class SortedSetDocValuesRangeQuery extends Query {
     return new ConstantScoreWeight(this, boost) {
       @Override
       public Scorer scorer(LeafReaderContext context) throws IOException {
-        SortedSetDocValues values = getValues(context.reader(), field);
+        ScorerSupplier scorerSupplier = scorerSupplier(context);
+        if (scorerSupplier == null) {
+          return null;
+        }
+        return scorerSupplier.get(Long.MAX_VALUE);
+      }
+
+      @Override
+      public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+        final LeafReader reader = context.reader();
+        final SortedSetDocValues values = getValues(reader, field);
         if (values == null) {
           return null;
         }
@@ -153,42 +167,91 @@ abstract class SortedSetDocValuesRangeQuery extends Query {
           return null;
         }
 
-        final SortedDocValues singleton = DocValues.unwrapSingleton(values);
-        final TwoPhaseIterator iterator;
-        if (singleton != null) {
-          iterator = new TwoPhaseIterator(singleton) {
-            @Override
-            public boolean matches() throws IOException {
-              final long ord = singleton.ordValue();
-              return ord >= minOrd && ord <= maxOrd;
-            }
+        final DocValuesSkipper skipper = reader.getDocValuesSkipper(field);
+        if (skipper != null
+            && (skipper.globalMinValue() > maxOrd || skipper.globalMaxValue() < minOrd)) {
+          // no ord in this segment is within the range
+          return null;
+        }
+
+        final Weight weight = this;
+        return new ScorerSupplier() {
+          long cost = -1;
 
-            @Override
-            public float matchCost() {
-              return 2; // 2 comparisons
+          @Override
+          public Scorer get(long leadCost) throws IOException {
+            if (skipper != null
+                && skipper.globalMinValue() >= minOrd && skipper.globalMaxValue() <= maxOrd) {
+              // all ords in this segment are within the range
+              final DocIdSetIterator iterator;
+              if (skipper.globalDocCount() == reader.maxDoc()) {
+                iterator = DocIdSetIterator.all(reader.maxDoc());
+              } else {
+                iterator = values;
+              }
+              return new ConstantScoreScorer(weight, score(), scoreMode, iterator);
             }
-          };
-        } else {
-          iterator = new TwoPhaseIterator(values) {
-            @Override
-            public boolean matches() throws IOException {
-              for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
-                if (ord < minOrd) {
-                  continue;
+
+            final SortedDocValues singleton = DocValues.unwrapSingleton(values);
+            TwoPhaseIterator iterator;
+            if (singleton != null) {
+              iterator = new TwoPhaseIterator(singleton) {
+                @Override
+                public boolean matches() throws IOException {
+                  final long ord = singleton.ordValue();
+                  return ord >= minOrd && ord <= maxOrd;
                 }
-                // Values are sorted, so the first ord that is >= minOrd is our best candidate
-                return ord <= maxOrd;
-              }
-              return false; // all ords were < minOrd
+
+                @Override
+                public float matchCost() {
+                  return 2; // 2 comparisons
+                }
+              };
+            } else {
+              iterator = new TwoPhaseIterator(values) {
+                @Override
+                public boolean matches() throws IOException {
+                  for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
+                    if (ord < minOrd) {
+                      continue;
+                    }
+                    // Values are sorted, so the first ord that is >= minOrd is our best candidate
+                    return ord <= maxOrd;
+                  }
+                  return false; // all ords were < minOrd
+                }
+
+                @Override
+                public float matchCost() {
+                  return 2; // 2 comparisons
+                }
+              };
             }
+            if (skipper != null) {
+              // skip blocks that don't match and match blocks that are within the range without checking ords
+              iterator = new DocValuesRangeIterator(iterator, skipper, minOrd, maxOrd, reader.maxDoc());
+            }
+            return new ConstantScoreScorer(weight, score(), scoreMode, iterator);
+          }
 
-            @Override
-            public float matchCost() {
-              return 2; // 2 comparisons
+          @Override
+          public long cost() {
+            if (cost == -1) {
+              if (skipper == null) {
+                cost = values.cost();
+              } else {
+                // the skip index can tell how many docs are in blocks that may match, which is a better
+                // estimate than the number of docs that have a value, but it takes a pass over all blocks
+                try {
+                  cost = DocValuesRangeIterator.cost(skipper, minOrd, maxOrd);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              }
             }
-          };
-        }
-        return new ConstantScoreScorer(this, score(), scoreMode, iterator);
+            return cost;
+          }
+        };
       }
 
       @Override
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 /** Base class for implementing {@link CompositeReader}s based on an array
  * of sub-readers. The implementing class has to add code for
@@ -134,6 +135,29 @@ public abstract class BaseCompositeReader<R extends IndexReader> extends Composi
     subReaders[i].document(docID - starts[i], visitor);    // dispatch to subreader
   }
 
+  @Override
+  public final void documents(int[] docIDs, IntFunction<? extends StoredFieldVisitor> visitors) throws IOException {
+    ensureOpen();
+    for (int from = 0; from < docIDs.length; ) {
+      if (from > 0 && docIDs[from] < docIDs[from - 1]) {
+        throw new IllegalArgumentException("docIDs must be sorted, got " + docIDs[from - 1] + " before " + docIDs[from]);
+      }
+      final int i = readerIndex(docIDs[from]);           // find subreader num
+      final int docBase = starts[i];
+      final int docEnd = starts[i + 1];
+      int to = from + 1;
+      while (to < docIDs.length && docIDs[to] >= docIDs[to - 1] && docIDs[to] < docEnd) {
+        ++to;
+      }
+      final int[] subDocIDs = new int[to - from];
+      for (int j = from; j < to; ++j) {
+        subDocIDs[j - from] = docIDs[j] - docBase;
+      }
+      subReaders[i].documents(subDocIDs, subDocID -> visitors.apply(docBase + subDocID)); // dispatch to subreader
+      from = to;
+    }
+  }
+
   @Override
   public final int docFreq(Term term) throws IOException {
     ensureOpen();
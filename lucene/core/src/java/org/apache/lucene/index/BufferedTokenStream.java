@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.util.AttributeSource;
+
+/**
+ * A {@link TokenStream} that replays the tokens of another stream, which it consumes entirely when
+ * it is created. Unlike {@link org.apache.lucene.analysis.CachingTokenFilter}, this stream does not share
+ * attributes with the consumed stream, so that stream may be closed and reused by another thread
+ * while this one is being read.
+ */
+final class BufferedTokenStream extends TokenStream {
+  private final List<AttributeSource.State> states;
+  private final AttributeSource.State finalState;
+  private Iterator<AttributeSource.State> iterator;
+
+  private BufferedTokenStream(AttributeSource attributes, List<AttributeSource.State> states, AttributeSource.State finalState) {
+    super(attributes);
+    this.states = states;
+    this.finalState = finalState;
+  }
+
+  /** Consumes all tokens of the given stream, which the caller is responsible for closing. */
+  static BufferedTokenStream consume(TokenStream in) throws IOException {
+    List<AttributeSource.State> states = new ArrayList<>();
+    in.reset();
+    while (in.incrementToken()) {
+      states.add(in.captureState());
+    }
+    in.end();
+    // clone attributes last, in case the stream added some while it was consumed
+    return new BufferedTokenStream(in.cloneAttributes(), states, in.captureState());
+  }
+
+  @Override
+  public void reset() {
+    iterator = states.iterator();
+  }
+
+  @Override
+  public boolean incrementToken() {
+    if (iterator.hasNext() == false) {
+      return false;
+    }
+    restoreState(iterator.next());
+    return true;
+  }
+
+  @Override
+  public void end() {
+    restoreState(finalState);
+  }
+}
@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntFunction;
 
 import org.apache.lucene.codecs.DocValuesProducer;
 import org.apache.lucene.codecs.FieldsProducer;
@@ -30,8 +31,11 @@ import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsReader;
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.TermVectorsReader;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.Bits;
 
 /**
  * LeafReader implemented by codec APIs.
@@ -77,12 +81,26 @@ public abstract class CodecReader extends LeafReader implements Accountable {
    * @lucene.internal
    */
   public abstract PointsReader getPointsReader();
+
+  /**
+   * Expert: retrieve underlying VectorReader
+   * @lucene.internal
+   */
+  public abstract VectorReader getVectorReader();
   
   @Override
   public final void document(int docID, StoredFieldVisitor visitor) throws IOException {
     checkBounds(docID);
     getFieldsReader().visitDocument(docID, visitor);
   }
+
+  @Override
+  public final void documents(int[] docIDs, IntFunction<? extends StoredFieldVisitor> visitors) throws IOException {
+    for (int docID : docIDs) {
+      checkBounds(docID);
+    }
+    getFieldsReader().visitDocuments(docIDs, visitors);
+  }
   
   @Override
   public final Fields getTermVectors(int docID) throws IOException {
@@ -178,6 +196,17 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     return getDocValuesReader().getSortedSet(fi);
   }
   
+  @Override
+  public final DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    ensureOpen();
+    FieldInfo fi = getFieldInfos().fieldInfo(field);
+    if (fi == null || fi.getDocValuesType() == DocValuesType.NONE || fi.getDocValuesType() == DocValuesType.BINARY) {
+      // Field does not exist or does not index numeric or sorted doc values
+      return null;
+    }
+    return getDocValuesReader().getSkipper(fi);
+  }
+
   @Override
   public final NumericDocValues getNormValues(String field) throws IOException {
     ensureOpen();
@@ -202,6 +231,30 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     return getPointsReader().getValues(field);
   }
 
+  @Override
+  public final VectorValues getVectorValues(String field) throws IOException {
+    ensureOpen();
+    FieldInfo fi = getFieldInfos().fieldInfo(field);
+    if (fi == null || fi.getVectorDimension() == 0) {
+      // Field does not exist or does not index vectors
+      return null;
+    }
+
+    return getVectorReader().getVectorValues(field);
+  }
+
+  @Override
+  public final TopDocs searchNearestVectors(String field, float[] target, int k, Bits acceptDocs) throws IOException {
+    ensureOpen();
+    FieldInfo fi = getFieldInfos().fieldInfo(field);
+    if (fi == null || fi.getVectorDimension() == 0) {
+      // Field does not exist or does not index vectors
+      return null;
+    }
+
+    return getVectorReader().search(field, target, k, acceptDocs);
+  }
+
   @Override
   protected void doClose() throws IOException {
   }
@@ -237,6 +290,11 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     if (getPointsReader() != null) {
       ramBytesUsed += getPointsReader().ramBytesUsed();
     }
+
+    // vectors
+    if (getVectorReader() != null) {
+      ramBytesUsed += getVectorReader().ramBytesUsed();
+    }
     
     return ramBytesUsed;
   }
@@ -244,7 +302,7 @@ public abstract class CodecReader extends LeafReader implements Accountable {
   @Override
   public Collection<Accountable> getChildResources() {
     ensureOpen();
-    final List<Accountable> resources = new ArrayList<>(6);
+    final List<Accountable> resources = new ArrayList<>(7);
     
     // terms/postings
     resources.add(Accountables.namedAccountable("postings", getPostingsReader()));
@@ -273,6 +331,11 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     if (getPointsReader() != null) {
       resources.add(Accountables.namedAccountable("points", getPointsReader()));
     }
+
+    // vectors
+    if (getVectorReader() != null) {
+      resources.add(Accountables.namedAccountable("vectors", getVectorReader()));
+    }
     
     return Collections.unmodifiableList(resources);
   }
@@ -308,5 +371,10 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     if (getPointsReader() != null) {
       getPointsReader().checkIntegrity();
     }
+
+    // vectors
+    if (getVectorReader() != null) {
+      getVectorReader().checkIntegrity();
+    }
   }
 }
@@ -22,6 +22,7 @@ import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.store.AlreadyClosedException;
@@ -122,6 +123,8 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
   private double forceMergeMBPerSec = Double.POSITIVE_INFINITY;
 
+  private volatile Executor intraMergeExecutor;
+
   /** Sole constructor, with all settings set to default
    *  values. */
   public ConcurrentMergeScheduler() {
@@ -247,6 +250,27 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     return maxMergeCount;
   }
 
+  /**
+   * Expert: sets the {@link Executor} that each merge uses to merge postings,
+   * stored fields, doc values, points, etc. of the new segment concurrently,
+   * or {@code null} (the default) to merge them sequentially on the merge
+   * thread. This helps large merges complete sooner on machines that have
+   * more cores than {@link #getMaxThreadCount() merge threads}. The IO
+   * throttling of a merge applies to the combined writes of all its tasks.
+   * Formats may also use this executor to merge a single data structure with
+   * several tasks, see {@link SegmentWriteState#executor}.
+   *
+   * @see MergeScheduler#getIntraMergeExecutor(OneMerge)
+   */
+  public void setIntraMergeExecutor(Executor executor) {
+    this.intraMergeExecutor = executor;
+  }
+
+  @Override
+  public Executor getIntraMergeExecutor(OneMerge merge) {
+    return intraMergeExecutor;
+  }
+
   /** Removes the calling thread from the active merge threads. */
   synchronized void removeMergeThread() {
     Thread currentThread = Thread.currentThread();
@@ -282,9 +306,9 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
         assert context.context == IOContext.Context.MERGE: "got context=" + context.context;
         
         // Because rateLimiter is bound to a particular merge thread, this method should
-        // always be called from that context. Verify this.
-        assert mergeThread == Thread.currentThread() : "Not the same merge thread, current="
-          + Thread.currentThread() + ", expected=" + mergeThread;
+        // always be called from that context, or from a thread that helps with that merge. Verify this.
+        assert mergeThread == Thread.currentThread() || merge.getMergeProgress().isWorkerThread(Thread.currentThread())
+          : "Not the same merge thread, current=" + Thread.currentThread() + ", expected=" + mergeThread;
 
         return new RateLimitedIndexOutput(rateLimiter, in.createOutput(name, context));
       }
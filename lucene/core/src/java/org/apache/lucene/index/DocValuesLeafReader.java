@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.Bits;
 
 abstract class DocValuesLeafReader extends LeafReader {
@@ -47,6 +48,16 @@ abstract class DocValuesLeafReader extends LeafReader {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public final VectorValues getVectorValues(String field) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final TopDocs searchNearestVectors(String field, float[] target, int k, Bits acceptDocs) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public final void checkIntegrity() throws IOException {
     throw new UnsupportedOperationException();
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+
+import org.apache.lucene.search.DocIdSetIterator;
+
+/**
+ * Skip index for doc values: summarizes consecutive blocks of documents with
+ * the range of values that they hold, so that queries and comparators can
+ * skip over blocks whose values can't match without reading per-document
+ * values. For {@link SortedDocValues} and {@link SortedSetDocValues}, values
+ * are ordinals.
+ * <p>
+ * A skipper is unpositioned until {@link #advance(int)} is called, and is
+ * exhausted once {@link #minDocID()} returns {@link DocIdSetIterator#NO_MORE_DOCS}.
+ * Blocks that have no values are never returned.
+ *
+ * @lucene.experimental
+ */
+public abstract class DocValuesSkipper {
+
+  /** Sole constructor. (For invocation by subclass
+   *  constructors, typically implicit.) */
+  protected DocValuesSkipper() {}
+
+  /**
+   * Move to the first block that contains documents that are greater than or
+   * equal to {@code target} and have a value. The target may be before or
+   * after the current block.
+   */
+  public abstract void advance(int target) throws IOException;
+
+  /**
+   * Return the first doc ID of the current block, {@code -1} if the skipper
+   * is unpositioned or {@link DocIdSetIterator#NO_MORE_DOCS} if it is exhausted.
+   */
+  public abstract int minDocID();
+
+  /** Return the last doc ID of the current block, inclusive. */
+  public abstract int maxDocID();
+
+  /** Return the minimum value of the current block. */
+  public abstract long minValue();
+
+  /** Return the maximum value of the current block. */
+  public abstract long maxValue();
+
+  /** Return the number of documents that have a value in the current block. */
+  public abstract int docCount();
+
+  /** Return the minimum value across all documents. */
+  public abstract long globalMinValue();
+
+  /** Return the maximum value across all documents. */
+  public abstract long globalMaxValue();
+
+  /** Return the number of documents that have a value. */
+  public abstract int globalDocCount();
+
+  /**
+   * Move to the first block at or after the current block whose range of
+   * values intersects with {@code [minValue, maxValue]}, starting with the
+   * block that contains {@code target}.
+   */
+  public final void advance(int target, long minValue, long maxValue) throws IOException {
+    for (advance(target); minDocID() != DocIdSetIterator.NO_MORE_DOCS; advance(maxDocID() + 1)) {
+      if (minValue() <= maxValue && maxValue() >= minValue) {
+        return;
+      }
+    }
+  }
+}
@@ -252,6 +252,23 @@ final class DocumentsWriter implements Closeable, Accountable {
     return false; // we didn't flush anything here
   }
 
+  /**
+   * Marks DWPTs that buffer documents for longer than the flush policy allows
+   * as flush pending and flushes the pending DWPTs.
+   */
+  final boolean flushOldDWPTs() throws IOException {
+    if (infoStream.isEnabled("DW")) {
+      infoStream.message("DW", "startFlushOldDWPTs");
+    }
+    flushControl.doOnAgeCheck();
+    final DocumentsWriterPerThread documentsWriterPerThread = flushControl.nextPendingFlush();
+    if (documentsWriterPerThread != null) {
+      // doFlush keeps flushing pending DWPTs until there are none left
+      return doFlush(documentsWriterPerThread);
+    }
+    return false; // we didn't flush anything here
+  }
+
   /** Locks all currently active DWPT and aborts them.
    *  The returned Closeable should be closed once the locks for the aborted
    *  DWPTs can be released. */
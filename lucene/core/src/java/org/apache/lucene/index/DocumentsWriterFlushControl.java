@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -379,16 +380,25 @@ final class DocumentsWriterFlushControl implements Accountable, Closeable {
       numPending = this.numPending;
     }
     if (numPending > 0 && fullFlush == false) { // don't check if we are doing a full flush
+      final List<DocumentsWriterPerThread> pending = new ArrayList<>(numPending);
       for (final DocumentsWriterPerThread next : perThreadPool) {
         if (next.isFlushPending()) {
-          if (next.tryLock()) {
-            try {
-              if (perThreadPool.isRegistered(next)) {
-                return checkOutForFlush(next);
-              }
-            } finally {
-              next.unlock();
+          pending.add(next);
+        }
+      }
+      // flush the largest pending DWPT first, it frees up the most RAM. Sort under the lock so that
+      // commitPerThreadBytes can't change the committed bytes while they are being compared
+      synchronized (this) {
+        pending.sort(Comparator.comparingLong(DocumentsWriterPerThread::getLastCommittedBytesUsed).reversed());
+      }
+      for (final DocumentsWriterPerThread next : pending) {
+        if (next.tryLock()) {
+          try {
+            if (perThreadPool.isRegistered(next)) {
+              return checkOutForFlush(next);
             }
+          } finally {
+            next.unlock();
           }
         }
       }
@@ -414,6 +424,12 @@ final class DocumentsWriterFlushControl implements Accountable, Closeable {
     flushPolicy.onDelete(this, null);
   }
 
+  synchronized void doOnAgeCheck() {
+    if (fullFlush == false && closed == false) { // a full flush takes care of all buffered documents
+      flushPolicy.onAgeCheck(this);
+    }
+  }
+
   /** Returns heap bytes currently consumed by buffered deletes/updates that would be
    *  freed if we pushed all deletes.  This does not include bytes consumed by
    *  already pushed delete/update packets. */
@@ -424,7 +440,8 @@ final class DocumentsWriterFlushControl implements Accountable, Closeable {
   @Override
   public long ramBytesUsed() {
     // TODO: improve this to return more detailed info?
-    return getDeleteBytesUsed() + netBytes();
+    // blocks that the allocator retains for reuse are not part of the RAM buffer, but still use memory
+    return getDeleteBytesUsed() + netBytes() + config.getIndexingBlockAllocator().ramBytesUsed();
   }
   
   synchronized int numFlushingDWPT() {
@@ -115,6 +115,7 @@ final class DocumentsWriterPerThread implements Accountable {
   private final FieldInfos.Builder fieldInfos;
   private final InfoStream infoStream;
   private int numDocsInRAM;
+  private volatile long firstDocNanos;
   final DocumentsWriterDeleteQueue deleteQueue;
   private final DeleteSlice deleteSlice;
   private final NumberFormat nf = NumberFormat.getInstance(Locale.ROOT);
@@ -173,6 +174,9 @@ final class DocumentsWriterPerThread implements Accountable {
         infoStream.message("DWPT", Thread.currentThread().getName() + " update delTerm=" + deleteNode + " docID=" + numDocsInRAM + " seg=" + segmentInfo.name);
       }
       final int docsInRamBefore = numDocsInRAM;
+      if (docsInRamBefore == 0) {
+        firstDocNanos = System.nanoTime();
+      }
       boolean allDocsIndexed = false;
       try {
         for (Iterable<? extends IndexableField> doc : docs) {
@@ -263,6 +267,15 @@ final class DocumentsWriterPerThread implements Accountable {
     return numDocsInRAM;
   }
 
+  /**
+   * Returns the {@link System#nanoTime()} at which the first RAM resident document of this
+   * {@link DocumentsWriterPerThread} was added. This method can be called without acquiring
+   * the DWPTs lock, and is only meaningful if {@link #getNumDocsInRAM()} is greater than 0.
+   */
+  long getFirstDocNanos() {
+    return firstDocNanos;
+  }
+
   /**
    * Prepares this DWPT for flushing. This method will freeze and return the
    * {@link DocumentsWriterDeleteQueue}s global buffer and apply all pending
@@ -290,6 +303,7 @@ final class DocumentsWriterPerThread implements Accountable {
     segmentInfo.setMaxDoc(numDocsInRAM);
     final SegmentWriteState flushState = new SegmentWriteState(infoStream, directory, segmentInfo, fieldInfos.finish(),
         pendingUpdates, new IOContext(new FlushInfo(numDocsInRAM, ramBytesUsed())));
+    flushState.executor = indexWriterConfig.getFlushExecutor();
     final double startMBUsed = ramBytesUsed() / 1024. / 1024.;
 
     // Apply delete-by-docID now (delete-byDocID only
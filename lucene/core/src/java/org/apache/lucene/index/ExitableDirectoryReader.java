@@ -268,6 +268,11 @@ public class ExitableDirectoryReader extends FilterDirectoryReader {
       }: sortedNumericDocValues;
     }
 
+    @Override
+    public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+      return in.getDocValuesSkipper(field);
+    }
+
     @Override
     public SortedSetDocValues getSortedSetDocValues(String field) throws IOException {
       final SortedSetDocValues sortedSetDocValues = super.getSortedSetDocValues(field);
@@ -54,6 +54,11 @@ public final class FieldInfo {
   private int pointIndexDimensionCount;
   private int pointNumBytes;
 
+  /** If this is positive it means this field indexed vectors
+   *  (see {@link org.apache.lucene.codecs.VectorFormat}). */
+  private int vectorDimension;
+  private VectorValues.SearchStrategy vectorSearchStrategy = VectorValues.SearchStrategy.NONE;
+
   // whether this field is used as the soft-deletes field
   private final boolean softDeletesField;
 
@@ -64,7 +69,8 @@ public final class FieldInfo {
    */
   public FieldInfo(String name, int number, boolean storeTermVector, boolean omitNorms, boolean storePayloads,
                    IndexOptions indexOptions, DocValuesType docValues, long dvGen, Map<String,String> attributes,
-                   int pointDimensionCount, int pointIndexDimensionCount, int pointNumBytes, boolean softDeletesField) {
+                   int pointDimensionCount, int pointIndexDimensionCount, int pointNumBytes,
+                   int vectorDimension, VectorValues.SearchStrategy vectorSearchStrategy, boolean softDeletesField) {
     this.name = Objects.requireNonNull(name);
     this.number = number;
     this.docValuesType = Objects.requireNonNull(docValues, "DocValuesType must not be null (field: \"" + name + "\")");
@@ -83,6 +89,8 @@ public final class FieldInfo {
     this.pointDimensionCount = pointDimensionCount;
     this.pointIndexDimensionCount = pointIndexDimensionCount;
     this.pointNumBytes = pointNumBytes;
+    this.vectorDimension = vectorDimension;
+    this.vectorSearchStrategy = Objects.requireNonNull(vectorSearchStrategy, "SearchStrategy must not be null (field: \"" + name + "\")");
     this.softDeletesField = softDeletesField;
     this.checkConsistency();
   }
@@ -133,6 +141,14 @@ public final class FieldInfo {
       throw new IllegalStateException("pointDimensionCount must be > 0 when pointNumBytes=" + pointNumBytes);
     }
     
+    if (vectorDimension < 0) {
+      throw new IllegalStateException("vectorDimension must be >= 0; got " + vectorDimension);
+    }
+
+    if (vectorDimension == 0 && vectorSearchStrategy != VectorValues.SearchStrategy.NONE) {
+      throw new IllegalStateException("vector search strategy must be NONE when dimension = 0; got " + vectorSearchStrategy);
+    }
+
     if (dvGen != -1 && docValuesType == DocValuesType.NONE) {
       throw new IllegalStateException("field '" + name + "' cannot have a docvalues update generation without having docvalues");
     }
@@ -142,7 +158,8 @@ public final class FieldInfo {
 
   // should only be called by FieldInfos#addOrUpdate
   void update(boolean storeTermVector, boolean omitNorms, boolean storePayloads, IndexOptions indexOptions,
-              Map<String, String> attributes, int dimensionCount, int indexDimensionCount, int dimensionNumBytes) {
+              Map<String, String> attributes, int dimensionCount, int indexDimensionCount, int dimensionNumBytes,
+              int vectorDimension, VectorValues.SearchStrategy vectorSearchStrategy) {
     if (indexOptions == null) {
       throw new NullPointerException("IndexOptions must not be null (field: \"" + name + "\")");
     }
@@ -163,6 +180,13 @@ public final class FieldInfo {
       throw new IllegalArgumentException("cannot change field \"" + name + "\" from points dimensionCount=" + this.pointDimensionCount + ", indexDimensionCount=" + this.pointIndexDimensionCount + ", numBytes=" + this.pointNumBytes + " to inconsistent dimensionCount=" + dimensionCount +", indexDimensionCount=" + indexDimensionCount + ", numBytes=" + dimensionNumBytes);
     }
 
+    if (this.vectorDimension == 0 && vectorDimension != 0) {
+      this.vectorDimension = vectorDimension;
+      this.vectorSearchStrategy = vectorSearchStrategy;
+    } else if (vectorDimension != 0 && (this.vectorDimension != vectorDimension || this.vectorSearchStrategy != vectorSearchStrategy)) {
+      throw new IllegalArgumentException("cannot change field \"" + name + "\" from vector dimension=" + this.vectorDimension + ", search strategy=" + this.vectorSearchStrategy + " to inconsistent vector dimension=" + vectorDimension + ", search strategy=" + vectorSearchStrategy);
+    }
+
     if (this.indexOptions != IndexOptions.NONE) { // if updated field data is not for indexing, leave the updates out
       this.storeTermVector |= storeTermVector;                // once vector, always vector
       this.storePayloads |= storePayloads;
@@ -232,6 +256,45 @@ public final class FieldInfo {
     return pointNumBytes;
   }
 
+  /** Record that this field is indexed with vectors, with the specified number of dimensions and search strategy. */
+  public void setVectorDimensionAndSearchStrategy(int dimension, VectorValues.SearchStrategy searchStrategy) {
+    if (dimension <= 0) {
+      throw new IllegalArgumentException("vector dimension must be > 0; got " + dimension + " for field=\"" + name + "\"");
+    }
+    if (dimension > VectorValues.MAX_DIMENSIONS) {
+      throw new IllegalArgumentException("vector dimension must be <= VectorValues.MAX_DIMENSIONS (= " + VectorValues.MAX_DIMENSIONS + "); got " + dimension + " for field=\"" + name + "\"");
+    }
+    if (searchStrategy == null) {
+      throw new NullPointerException("SearchStrategy must not be null (field: \"" + name + "\")");
+    }
+    if (vectorDimension != 0 && vectorDimension != dimension) {
+      throw new IllegalArgumentException("cannot change vector dimension from " + vectorDimension + " to " + dimension + " for field=\"" + name + "\"");
+    }
+    if (vectorDimension != 0 && vectorSearchStrategy != searchStrategy) {
+      throw new IllegalArgumentException("cannot change vector search strategy from " + vectorSearchStrategy + " to " + searchStrategy + " for field=\"" + name + "\"");
+    }
+
+    vectorDimension = dimension;
+    vectorSearchStrategy = searchStrategy;
+
+    this.checkConsistency();
+  }
+
+  /** Returns the number of dimensions of the vector value */
+  public int getVectorDimension() {
+    return vectorDimension;
+  }
+
+  /** Returns {@link VectorValues.SearchStrategy} for the field */
+  public VectorValues.SearchStrategy getVectorSearchStrategy() {
+    return vectorSearchStrategy;
+  }
+
+  /** Returns true if this field indexes vector values. */
+  public boolean hasVectorValues() {
+    return vectorDimension > 0;
+  }
+
   /** Record that this field is indexed with docvalues, with the specified type */
   public void setDocValuesType(DocValuesType type) {
     if (type == null) {
@@ -340,7 +403,7 @@ public final class FieldInfo {
   /**
    * Get a codec attribute value, or null if it does not exist
    */
-  public String getAttribute(String key) {
+  public synchronized String getAttribute(String key) {
     return attributes.get(key);
   }
   
@@ -355,7 +418,7 @@ public final class FieldInfo {
    * the new value. If the value of the attributes for a same field is changed between
    * the documents, the behaviour after merge is undefined.
    */
-  public String putAttribute(String key, String value) {
+  public synchronized String putAttribute(String key, String value) {
     return attributes.put(key, value);
   }
   
@@ -16,6 +16,11 @@
  */
 package org.apache.lucene.index;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Default {@link FlushPolicy} implementation that flushes new segments based on
@@ -52,9 +57,28 @@ package org.apache.lucene.index;
  * largest ram consuming {@link DocumentsWriterPerThread} will be marked as
  * pending iff the global active RAM consumption is {@code >=} the configured max RAM
  * buffer.
+ * <p>
+ * If {@link IndexWriterConfig#setMaxBufferedAgeMillis(long)} is enabled, every
+ * {@link DocumentsWriterPerThread} whose first RAM resident document was added
+ * at least that long ago is marked as pending, so that documents do not stay
+ * buffered indefinitely when indexing is slow. The age is checked on every added
+ * document and on {@link IndexWriter#flushOldBuffers()}.
+ * <p>
+ * If {@link IndexWriterConfig#setHeapUsageFlushThreshold(double)} is enabled,
+ * the largest ram consuming {@link DocumentsWriterPerThread} will be marked as
+ * pending iff the used heap reported by the {@link MemoryMXBean} is {@code >=}
+ * the configured fraction of the max heap. The heap usage is sampled at most
+ * every {@value #HEAP_USAGE_CHECK_INTERVAL_MILLIS} milliseconds.
  */
 class FlushByRamOrCountsPolicy extends FlushPolicy {
 
+  /** Minimum time between two samples of the heap usage. */
+  static final long HEAP_USAGE_CHECK_INTERVAL_MILLIS = 100;
+
+  private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+  private long lastHeapUsageCheckNanos;
+  private boolean heapUsageChecked;
+
   @Override
   public void onDelete(DocumentsWriterFlushControl control, DocumentsWriterPerThread perThread) {
     if ((flushOnRAM() && control.getDeleteBytesUsed() > 1024*1024*indexWriterConfig.getRAMBufferSizeMB())) {
@@ -65,6 +89,13 @@ class FlushByRamOrCountsPolicy extends FlushPolicy {
     }
   }
 
+  @Override
+  public void onAgeCheck(DocumentsWriterFlushControl control) {
+    if (flushOnAge()) {
+      markOldWritersPending(control);
+    }
+  }
+
   @Override
   public void onInsert(DocumentsWriterFlushControl control, DocumentsWriterPerThread perThread) {
     if (flushOnDocCount()
@@ -82,6 +113,48 @@ class FlushByRamOrCountsPolicy extends FlushPolicy {
         markLargestWriterPending(control, perThread);
       }
     }
+    if (flushOnAge()) {
+      markOldWritersPending(control);
+    }
+    if (flushOnHeapUsage()) {
+      final long now = System.nanoTime();
+      if (heapUsageChecked == false
+          || now - lastHeapUsageCheckNanos >= TimeUnit.MILLISECONDS.toNanos(HEAP_USAGE_CHECK_INTERVAL_MILLIS)) {
+        heapUsageChecked = true;
+        lastHeapUsageCheckNanos = now;
+        final MemoryUsage heapUsage = memoryMXBean.getHeapMemoryUsage();
+        final long maxHeap = heapUsage.getMax() == -1 ? heapUsage.getCommitted() : heapUsage.getMax();
+        final double threshold = indexWriterConfig.getHeapUsageFlushThreshold();
+        if (heapUsage.getUsed() >= threshold * maxHeap) {
+          if (infoStream.isEnabled("FP")) {
+            infoStream.message("FP", "trigger flush: heapUsed=" + heapUsage.getUsed() + " vs limit=" + (long) (threshold * maxHeap) + " (maxHeap=" + maxHeap + ")");
+          }
+          markLargestWriterPending(control, perThread);
+        }
+      }
+    }
+  }
+
+  /**
+   * Marks all active {@link DocumentsWriterPerThread}s whose first RAM resident
+   * document is older than {@link IndexWriterConfig#getMaxBufferedAgeMillis()}
+   * flush pending
+   */
+  protected void markOldWritersPending(DocumentsWriterFlushControl control) {
+    final long now = System.nanoTime();
+    final long maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(indexWriterConfig.getMaxBufferedAgeMillis());
+    for (Iterator<DocumentsWriterPerThread> it = control.allActiveWriters(); it.hasNext(); ) {
+      final DocumentsWriterPerThread next = it.next();
+      if (next.isFlushPending() == false && next.getNumDocsInRAM() > 0) {
+        final long ageNanos = now - next.getFirstDocNanos();
+        if (ageNanos >= maxAgeNanos) {
+          if (infoStream.isEnabled("FP")) {
+            infoStream.message("FP", "trigger flush: ageMillis=" + TimeUnit.NANOSECONDS.toMillis(ageNanos) + " docInRAM=" + next.getNumDocsInRAM() + " vs maxBufferedAgeMillis=" + indexWriterConfig.getMaxBufferedAgeMillis());
+          }
+          control.setFlushPending(next);
+        }
+      }
+    }
   }
   
   /**
@@ -113,4 +186,22 @@ class FlushByRamOrCountsPolicy extends FlushPolicy {
   protected boolean flushOnRAM() {
     return indexWriterConfig.getRAMBufferSizeMB() != IndexWriterConfig.DISABLE_AUTO_FLUSH;
   }
+
+  /**
+   * Returns <code>true</code> if this {@link FlushPolicy} flushes on
+   * {@link IndexWriterConfig#getMaxBufferedAgeMillis()}, otherwise
+   * <code>false</code>.
+   */
+  protected boolean flushOnAge() {
+    return indexWriterConfig.getMaxBufferedAgeMillis() != IndexWriterConfig.DISABLE_AUTO_FLUSH;
+  }
+
+  /**
+   * Returns <code>true</code> if this {@link FlushPolicy} flushes on
+   * {@link IndexWriterConfig#getHeapUsageFlushThreshold()}, otherwise
+   * <code>false</code>.
+   */
+  protected boolean flushOnHeapUsage() {
+    return indexWriterConfig.getHeapUsageFlushThreshold() != IndexWriterConfig.DISABLE_AUTO_FLUSH;
+  }
 }
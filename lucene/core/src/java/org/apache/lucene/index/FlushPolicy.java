@@ -83,6 +83,17 @@ abstract class FlushPolicy {
   public abstract void onInsert(DocumentsWriterFlushControl control,
                                 DocumentsWriterPerThread perThread);
 
+  /**
+   * Called by {@link IndexWriter#flushOldBuffers()} to mark buffers that have
+   * been holding documents for too long as flush pending, independently of
+   * documents being added. The default implementation does nothing.
+   * <p>
+   * Note: This method is called synchronized on the given
+   * {@link DocumentsWriterFlushControl}
+   */
+  public void onAgeCheck(DocumentsWriterFlushControl control) {
+  }
+
   /**
    * Called by DocumentsWriter to initialize the FlushPolicy
    */
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.ThreadInterruptedException;
+
+/**
+ * Helper to run independent units of work that write different files of the
+ * same segment, such as the per-format stages of a flush or a merge.
+ */
+final class IOTasks {
+
+  private IOTasks() {} // no instance
+
+  /** A unit of work that may throw an {@link IOException}. */
+  @FunctionalInterface
+  interface IOTask {
+    void run() throws IOException;
+  }
+
+  /**
+   * Runs the given tasks on the given executor, or sequentially on the current
+   * thread if the executor is null. The first task always runs on the current
+   * thread. This method only returns once all tasks are done, even if some of
+   * them failed, so that no task is still writing files once the caller handles
+   * the exception.
+   */
+  static void run(Executor executor, List<IOTask> tasks) throws IOException {
+    if (executor == null || tasks.size() <= 1) {
+      for (IOTask task : tasks) {
+        task.run();
+      }
+      return;
+    }
+
+    List<FutureTask<Void>> futures = new ArrayList<>();
+    for (IOTask task : tasks.subList(1, tasks.size())) {
+      FutureTask<Void> future = new FutureTask<>(() -> {
+        task.run();
+        return null;
+      });
+      futures.add(future);
+      try {
+        executor.execute(future);
+      } catch (RejectedExecutionException e) {
+        // Execute on caller thread
+        future.run();
+      }
+    }
+
+    Throwable th = null;
+    try {
+      tasks.get(0).run();
+    } catch (Throwable t) {
+      th = t;
+    }
+    InterruptedException interrupted = null;
+    for (FutureTask<Void> future : futures) {
+      // keep waiting if interrupted: the task may still be writing files
+      while (true) {
+        try {
+          future.get();
+          break;
+        } catch (InterruptedException e) {
+          if (interrupted == null) {
+            interrupted = e;
+          }
+        } catch (ExecutionException e) {
+          th = IOUtils.useOrSuppress(th, e.getCause());
+          break;
+        }
+      }
+    }
+    if (interrupted != null) {
+      if (th == null) {
+        throw new ThreadInterruptedException(interrupted);
+      }
+      // another failure is rethrown, don't lose the interrupt
+      Thread.currentThread().interrupt();
+    }
+    if (th != null) {
+      throw IOUtils.rethrowAlways(th);
+    }
+  }
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.DocumentStoredFieldVisitor;
@@ -324,6 +325,23 @@ public abstract class IndexReader implements Closeable {
    *  #document(int)}.  If you want to load a subset, use
    *  {@link DocumentStoredFieldVisitor}.  */
   public abstract void document(int docID, StoredFieldVisitor visitor) throws IOException;
+
+  /** Expert: visits the stored fields of a batch of documents.
+   *  {@code docIDs} must be sorted in non-decreasing order. {@code visitors}
+   *  is called once per document, in the order of {@code docIDs}, to get the
+   *  {@link StoredFieldVisitor} of this document right before its fields are
+   *  visited. This is typically more efficient than calling
+   *  {@link #document(int, StoredFieldVisitor)} for each document, as stored
+   *  fields formats may share work across documents that are stored close to
+   *  each other. The default implementation does just that. */
+  public void documents(int[] docIDs, IntFunction<? extends StoredFieldVisitor> visitors) throws IOException {
+    for (int i = 0; i < docIDs.length; ++i) {
+      if (i > 0 && docIDs[i] < docIDs[i - 1]) {
+        throw new IllegalArgumentException("docIDs must be sorted, got " + docIDs[i - 1] + " before " + docIDs[i]);
+      }
+      document(docIDs[i], visitors.apply(docIDs[i]));
+    }
+  }
   
   /**
    * Returns the stored fields of the <code>n</code><sup>th</sup>
@@ -420,6 +438,26 @@ public abstract class IndexReader implements Closeable {
     return getContext().leaves();
   }
 
+  /**
+   * Expert: warms the terms dictionaries of the given fields in all leaves of
+   * this reader, see {@link Terms#warm()}. Calling this on a newly (re)opened
+   * reader, for instance from a {@link org.apache.lucene.search.SearcherFactory},
+   * before it is used for searching avoids page faults on the terms index in
+   * the first queries that run against it.
+   * @lucene.experimental
+   */
+  public final void warmTerms(String... fields) throws IOException {
+    ensureOpen();
+    for (LeafReaderContext context : leaves()) {
+      for (String field : fields) {
+        Terms terms = context.reader().terms(field);
+        if (terms != null) {
+          terms.warm();
+        }
+      }
+    }
+  }
+
   /**
    * Optional method: Return a {@link CacheHelper} that can be used to cache
    * based on the content of this reader. Two readers that have different data
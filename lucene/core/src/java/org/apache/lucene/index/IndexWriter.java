@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -1183,7 +1184,8 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
     for(SegmentCommitInfo info : segmentInfos) {
       FieldInfos fis = readFieldInfos(info);
       for(FieldInfo fi : fis) {
-        map.addOrGet(fi.name, fi.number, fi.getIndexOptions(), fi.getDocValuesType(), fi.getPointDimensionCount(), fi.getPointIndexDimensionCount(), fi.getPointNumBytes(), fi.isSoftDeletesField());
+        map.addOrGet(fi.name, fi.number, fi.getIndexOptions(), fi.getDocValuesType(), fi.getPointDimensionCount(), fi.getPointIndexDimensionCount(), fi.getPointNumBytes(),
+                     fi.getVectorDimension(), fi.getVectorSearchStrategy(), fi.isSoftDeletesField());
       }
     }
 
@@ -1920,7 +1922,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
       if (globalFieldNumberMap.contains(f.name(), dvType) == false) {
         // if this field doesn't exists we try to add it. if it exists and the DV type doesn't match we
         // get a consistent error message as if you try to do that during an indexing operation.
-        globalFieldNumberMap.addOrGet(f.name(), -1, IndexOptions.NONE, dvType, 0, 0, 0, f.name().equals(config.softDeletesField));
+        globalFieldNumberMap.addOrGet(f.name(), -1, IndexOptions.NONE, dvType, 0, 0, 0, 0, VectorValues.SearchStrategy.NONE, f.name().equals(config.softDeletesField));
         assert globalFieldNumberMap.contains(f.name(), dvType);
       }
       if (config.getIndexSortFields().contains(f.name())) {
@@ -2965,7 +2967,8 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
             FieldInfos fis = readFieldInfos(info);
             for(FieldInfo fi : fis) {
               // This will throw exceptions if any of the incoming fields have an illegal schema change:
-              globalFieldNumberMap.addOrGet(fi.name, fi.number, fi.getIndexOptions(), fi.getDocValuesType(), fi.getPointDimensionCount(), fi.getPointIndexDimensionCount(), fi.getPointNumBytes(), fi.isSoftDeletesField());
+              globalFieldNumberMap.addOrGet(fi.name, fi.number, fi.getIndexOptions(), fi.getDocValuesType(), fi.getPointDimensionCount(), fi.getPointIndexDimensionCount(), fi.getPointNumBytes(),
+                                            fi.getVectorDimension(), fi.getVectorSearchStrategy(), fi.isSoftDeletesField());
             }
             infos.add(copySegmentAsIs(info, newSegName, context));
           }
@@ -3310,6 +3313,34 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
     }
   }
 
+  /**
+   * <p>Expert: Flushes the writer per thread buffers whose first buffered document was added more than
+   * {@link IndexWriterConfig#getMaxBufferedAgeMillis()} ago, as well as buffers that are already flush-pending,
+   * in the calling thread. The age of buffered documents is otherwise only checked when documents are added,
+   * so applications that may stop indexing for a while but want documents to be flushed within the configured
+   * age can call this method periodically, for instance from a scheduled executor.
+   *
+   * Note: this method is best-effort and does nothing unless {@link IndexWriterConfig#setMaxBufferedAgeMillis(long)}
+   * is enabled, or a custom {@link FlushPolicy} implements the age check.
+   * </p>
+   * @return <code>true</code> iff this method flushed at least one segment to disk.
+   * @lucene.experimental
+   */
+  public final boolean flushOldBuffers() throws IOException {
+    try {
+      if (docWriter.flushOldDWPTs()) {
+        processEvents(true);
+        return true; // we wrote a segment
+      }
+      return false;
+    } catch (VirtualMachineError tragedy) {
+      tragicEvent(tragedy, "flushOldBuffers");
+      throw tragedy;
+    } finally {
+      maybeCloseOnTragicEvent();
+    }
+  }
+
   private long prepareCommitInternal() throws IOException {
     startCommitTime = System.nanoTime();
     synchronized(commitLock) {
@@ -4729,10 +4760,14 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
         }
         mergeReaders.add(wrappedReader);
       }
+      Executor intraMergeExecutor = mergeScheduler.getIntraMergeExecutor(merge);
+      if (intraMergeExecutor != null) {
+        intraMergeExecutor = merge.getMergeProgress().wrapIntraMergeExecutor(intraMergeExecutor);
+      }
       final SegmentMerger merger = new SegmentMerger(mergeReaders,
                                                      merge.info.info, infoStream, dirWrapper,
                                                      globalFieldNumberMap,
-                                                     context);
+                                                     context, intraMergeExecutor);
       merge.info.setSoftDelCount(Math.toIntExact(softDeleteCount.get()));
       merge.checkAborted();
 
@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.PrintStream;
 import java.util.Arrays;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -433,6 +434,11 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
     return (IndexWriterConfig) super.setMergePolicy(mergePolicy);
   }
   
+  @Override
+  public IndexWriterConfig setAnalysisExecutor(Executor analysisExecutor) {
+    return (IndexWriterConfig) super.setAnalysisExecutor(analysisExecutor);
+  }
+
   @Override
   public IndexWriterConfig setMaxBufferedDocs(int maxBufferedDocs) {
     return (IndexWriterConfig) super.setMaxBufferedDocs(maxBufferedDocs);
@@ -447,6 +453,16 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
   public IndexWriterConfig setRAMBufferSizeMB(double ramBufferSizeMB) {
     return (IndexWriterConfig) super.setRAMBufferSizeMB(ramBufferSizeMB);
   }
+
+  @Override
+  public IndexWriterConfig setMaxBufferedAgeMillis(long maxBufferedAgeMillis) {
+    return (IndexWriterConfig) super.setMaxBufferedAgeMillis(maxBufferedAgeMillis);
+  }
+
+  @Override
+  public IndexWriterConfig setHeapUsageFlushThreshold(double heapUsageFlushThreshold) {
+    return (IndexWriterConfig) super.setHeapUsageFlushThreshold(heapUsageFlushThreshold);
+  }
   
   @Override
   public IndexWriterConfig setUseCompoundFile(boolean useCompoundFile) {
@@ -478,6 +494,42 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
     return this;
   }
 
+  /**
+   * Expert: Sets an executor that is used to write the different data structures of a segment concurrently when it
+   * gets flushed: postings and term vectors, doc values, points, vectors and stored fields are then written by
+   * separate tasks. This mostly helps when an {@link #setIndexSort index sort} is configured, since every data
+   * structure needs to be reordered before it is written. The flushing thread always writes postings itself, and
+   * runs tasks that the executor rejects. By default, no executor is configured and all data structures are
+   * written sequentially by the flushing thread. Formats may also use this executor to write a single data
+   * structure with several tasks, see {@link SegmentWriteState#executor}.
+   * <p>
+   * NOTE: this executor should not be shared with indexing threads that might block on flushes, for instance
+   * because indexing is stalled.
+   * @lucene.experimental
+   */
+  public IndexWriterConfig setFlushExecutor(Executor flushExecutor) {
+    this.flushExecutor = flushExecutor;
+    return this;
+  }
+
+  /**
+   * Expert: Sets the allocator for the byte and int blocks that indexing threads buffer postings, term vectors
+   * and points in until they are flushed. The allocator is shared by all indexing threads. By default, blocks
+   * are allocated on the heap and left to the garbage collector once a segment is flushed;
+   * {@link RecyclingIndexingBlockAllocator} reuses them across segments instead, which reduces garbage
+   * collection pressure with large RAM buffers.
+   * <p>
+   * Only takes effect when IndexWriter is first created.
+   * @lucene.experimental
+   */
+  public IndexWriterConfig setIndexingBlockAllocator(IndexingBlockAllocator indexingBlockAllocator) {
+    if (indexingBlockAllocator == null) {
+      throw new IllegalArgumentException("indexingBlockAllocator must not be null");
+    }
+    this.indexingBlockAllocator = indexingBlockAllocator;
+    return this;
+  }
+
   /**
    * Set the {@link Sort} order to use for all (flushed and merged) segments.
    */
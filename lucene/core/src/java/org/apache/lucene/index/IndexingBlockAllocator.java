@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.ByteBlockPool;
+import org.apache.lucene.util.Counter;
+import org.apache.lucene.util.IntBlockPool;
+
+/**
+ * Allocates the byte and int blocks that {@link IndexWriter} buffers postings, term vectors and points
+ * in until a segment is flushed. Every {@link DocumentsWriterPerThread} gets its own allocators, which
+ * must record the blocks that are handed out and released in the given {@link Counter} so that they count
+ * towards the RAM buffer.
+ * <p>
+ * This default implementation allocates new blocks on the heap and leaves released blocks to the garbage
+ * collector. {@link RecyclingIndexingBlockAllocator} keeps released blocks around instead so that they can
+ * be reused by the next segments.
+ *
+ * @see IndexWriterConfig#setIndexingBlockAllocator(IndexingBlockAllocator)
+ * @lucene.experimental
+ */
+public class IndexingBlockAllocator implements Accountable {
+
+  /** Sole constructor. */
+  public IndexingBlockAllocator() {
+  }
+
+  /**
+   * Returns a new allocator for byte blocks of {@link ByteBlockPool#BYTE_BLOCK_SIZE} bytes that records
+   * the bytes it hands out in {@code bytesUsed}. The returned allocator may be used by several threads
+   * while a segment is flushed.
+   */
+  public ByteBlockPool.Allocator newByteBlockAllocator(Counter bytesUsed) {
+    return new ByteBlockPool.DirectTrackingAllocator(bytesUsed);
+  }
+
+  /**
+   * Returns a new allocator for int blocks of {@link IntBlockPool#INT_BLOCK_SIZE} ints that records
+   * the bytes it hands out in {@code bytesUsed}. The returned allocator may be used by several threads
+   * while a segment is flushed.
+   */
+  public IntBlockPool.Allocator newIntBlockAllocator(Counter bytesUsed) {
+    return new DirectTrackingIntBlockAllocator(bytesUsed);
+  }
+
+  /**
+   * Returns the memory that this allocator retains for blocks that are not in use by any
+   * {@link DocumentsWriterPerThread}. Blocks that are in use are accounted for by the
+   * {@link DocumentsWriterPerThread} that holds them.
+   */
+  @Override
+  public long ramBytesUsed() {
+    return 0;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
+
+  private static class DirectTrackingIntBlockAllocator extends IntBlockPool.Allocator {
+    private final Counter bytesUsed;
+
+    DirectTrackingIntBlockAllocator(Counter bytesUsed) {
+      super(IntBlockPool.INT_BLOCK_SIZE);
+      this.bytesUsed = bytesUsed;
+    }
+
+    @Override
+    public int[] getIntBlock() {
+      int[] b = new int[blockSize];
+      bytesUsed.addAndGet(blockSize * Integer.BYTES);
+      return b;
+    }
+
+    @Override
+    public void recycleIntBlocks(int[][] blocks, int start, int end) {
+      bytesUsed.addAndGet(-((end - start) * (blockSize * Integer.BYTES)));
+    }
+  }
+}
@@ -23,9 +23,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -37,7 +43,10 @@ import org.apache.lucene.codecs.NormsFormat;
 import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsFormat;
 import org.apache.lucene.codecs.PointsWriter;
+import org.apache.lucene.codecs.VectorFormat;
+import org.apache.lucene.codecs.VectorWriter;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.VectorField;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
@@ -54,12 +63,13 @@ import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
 import org.apache.lucene.util.IntBlockPool;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.ThreadInterruptedException;
 
 /** Default general purpose indexing chain, which handles
  *  indexing all types of fields. */
 final class IndexingChain implements Accountable {
 
-  final Counter bytesUsed = Counter.newCounter();
+  final Counter bytesUsed;
   final FieldInfos.Builder fieldInfos;
 
   // Writes postings and term vectors:
@@ -90,8 +100,11 @@ final class IndexingChain implements Accountable {
   IndexingChain(int indexCreatedVersionMajor, SegmentInfo segmentInfo, Directory directory, FieldInfos.Builder fieldInfos, LiveIndexWriterConfig indexWriterConfig,
                 Consumer<Throwable> abortingExceptionConsumer) {
     this.indexCreatedVersionMajor = indexCreatedVersionMajor;
-    byteBlockAllocator = new ByteBlockPool.DirectTrackingAllocator(bytesUsed);
-    IntBlockPool.Allocator intBlockAllocator = new IntBlockAllocator(bytesUsed);
+    // flush tasks may run concurrently and update RAM accounting from several threads
+    bytesUsed = Counter.newCounter(indexWriterConfig.getFlushExecutor() != null);
+    IndexingBlockAllocator blockAllocator = indexWriterConfig.getIndexingBlockAllocator();
+    byteBlockAllocator = blockAllocator.newByteBlockAllocator(bytesUsed);
+    IntBlockPool.Allocator intBlockAllocator = blockAllocator.newIntBlockAllocator(bytesUsed);
     this.indexWriterConfig = indexWriterConfig;
     assert segmentInfo.getIndexSort() == indexWriterConfig.getIndexSort();
     this.fieldInfos = fieldInfos;
@@ -212,34 +225,67 @@ final class IndexingChain implements Accountable {
     // aborting on any exception from this method
     Sorter.DocMap sortMap = maybeSortSegment(state);
     int maxDoc = state.segmentInfo.maxDoc();
+
+    // Norms must be written before postings since the postings format may read them to compute impacts,
+    // all other data structures are written to their own files and are independent from each other:
+    List<IOTasks.IOTask> tasks = new ArrayList<>();
+    tasks.add(() -> {
+      long t0 = System.nanoTime();
+      writeNorms(state, sortMap);
+      if (infoStream.isEnabled("IW")) {
+        infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write norms");
+      }
+      writePostings(state, sortMap);
+    });
+    tasks.add(() -> {
+      long t0 = System.nanoTime();
+      writeDocValues(state, sortMap);
+      if (infoStream.isEnabled("IW")) {
+        infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write docValues");
+      }
+    });
+    tasks.add(() -> {
+      long t0 = System.nanoTime();
+      writePoints(state, sortMap);
+      if (infoStream.isEnabled("IW")) {
+        infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write points");
+      }
+    });
+    tasks.add(() -> {
+      long t0 = System.nanoTime();
+      writeVectors(state, sortMap);
+      if (infoStream.isEnabled("IW")) {
+        infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write vectors");
+      }
+    });
+    tasks.add(() -> {
+      // it's possible all docs hit non-aborting exceptions...
+      long t0 = System.nanoTime();
+      storedFieldsConsumer.finish(maxDoc);
+      storedFieldsConsumer.flush(state, sortMap);
+      if (infoStream.isEnabled("IW")) {
+        infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to finish stored fields");
+      }
+    });
+    IOTasks.run(indexWriterConfig.getFlushExecutor(), tasks);
+
+    // Important to save after asking consumer to flush so
+    // consumer can alter the FieldInfo* if necessary.  EG,
+    // FreqProxTermsWriter does this with
+    // FieldInfo.storePayload.
     long t0 = System.nanoTime();
-    writeNorms(state, sortMap);
-    if (infoStream.isEnabled("IW")) {
-      infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write norms");
-    }
-    SegmentReadState readState = new SegmentReadState(state.directory, state.segmentInfo, state.fieldInfos, IOContext.READ, state.segmentSuffix);
-    
-    t0 = System.nanoTime();
-    writeDocValues(state, sortMap);
+    indexWriterConfig.getCodec().fieldInfosFormat().write(state.directory, state.segmentInfo, "", state.fieldInfos, IOContext.DEFAULT);
     if (infoStream.isEnabled("IW")) {
-      infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write docValues");
+      infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write fieldInfos");
     }
 
-    t0 = System.nanoTime();
-    writePoints(state, sortMap);
-    if (infoStream.isEnabled("IW")) {
-      infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write points");
-    }
-    
-    // it's possible all docs hit non-aborting exceptions...
-    t0 = System.nanoTime();
-    storedFieldsConsumer.finish(maxDoc);
-    storedFieldsConsumer.flush(state, sortMap);
-    if (infoStream.isEnabled("IW")) {
-      infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to finish stored fields");
-    }
+    return sortMap;
+  }
 
-    t0 = System.nanoTime();
+  /** Writes postings and term vectors, this expects norms to be written already. */
+  private void writePostings(SegmentWriteState state, Sorter.DocMap sortMap) throws IOException {
+    long t0 = System.nanoTime();
+    SegmentReadState readState = new SegmentReadState(state.directory, state.segmentInfo, state.fieldInfos, IOContext.READ, state.segmentSuffix);
     Map<String,TermsHashPerField> fieldsToFlush = new HashMap<>();
     for (int i=0;i<fieldHash.length;i++) {
       PerField perField = fieldHash[i];
@@ -261,21 +307,11 @@ final class IndexingChain implements Accountable {
       }
       termsHash.flush(fieldsToFlush, state, sortMap, normsMergeInstance);
     }
+    // postings are written: give the buffered blocks back to the allocator
+    termsHash.reset();
     if (infoStream.isEnabled("IW")) {
       infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write postings and finish vectors");
     }
-
-    // Important to save after asking consumer to flush so
-    // consumer can alter the FieldInfo* if necessary.  EG,
-    // FreqProxTermsWriter does this with
-    // FieldInfo.storePayload.
-    t0 = System.nanoTime();
-    indexWriterConfig.getCodec().fieldInfosFormat().write(state.directory, state.segmentInfo, "", state.fieldInfos, IOContext.DEFAULT);
-    if (infoStream.isEnabled("IW")) {
-      infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write fieldInfos");
-    }
-
-    return sortMap;
   }
 
   /** Writes all buffered points. */
@@ -322,6 +358,50 @@ final class IndexingChain implements Accountable {
     }
   }
 
+  /** Writes all buffered vectors. */
+  private void writeVectors(SegmentWriteState state, Sorter.DocMap sortMap) throws IOException {
+    VectorWriter vectorWriter = null;
+    boolean success = false;
+    try {
+      for (int i=0;i<fieldHash.length;i++) {
+        PerField perField = fieldHash[i];
+        while (perField != null) {
+          if (perField.vectorValuesWriter != null) {
+            if (perField.fieldInfo.getVectorDimension() == 0) {
+              // BUG
+              throw new AssertionError("segment=" + state.segmentInfo + ": field=\"" + perField.fieldInfo.name + "\" has no vectors but wrote them");
+            }
+            if (vectorWriter == null) {
+              // lazy init
+              VectorFormat fmt = state.segmentInfo.getCodec().vectorFormat();
+              if (fmt == null) {
+                throw new IllegalStateException("field=\"" + perField.fieldInfo.name + "\" was indexed as vectors but codec does not support vectors");
+              }
+              vectorWriter = fmt.fieldsWriter(state);
+            }
+
+            perField.vectorValuesWriter.flush(sortMap, vectorWriter);
+            perField.vectorValuesWriter = null;
+          } else if (perField.fieldInfo.getVectorDimension() != 0) {
+            // BUG
+            throw new AssertionError("segment=" + state.segmentInfo + ": field=\"" + perField.fieldInfo.name + "\" has vectors but did not write them");
+          }
+          perField = perField.next;
+        }
+      }
+      if (vectorWriter != null) {
+        vectorWriter.finish();
+      }
+      success = true;
+    } finally {
+      if (success) {
+        IOUtils.close(vectorWriter);
+      } else {
+        IOUtils.closeWhileHandlingException(vectorWriter);
+      }
+    }
+  }
+
   /** Writes all buffered doc values (called from {@link #flush}). */
   private void writeDocValues(SegmentWriteState state, Sorter.DocMap sortMap) throws IOException {
     DocValuesConsumer dvConsumer = null;
@@ -478,12 +558,17 @@ final class IndexingChain implements Accountable {
 
     termsHash.startDocument();
 
+    final AtomicBoolean abandoned = new AtomicBoolean();
+    final Map<IndexableField,FutureTask<TokenStream>> analyzedFields = analyzeConcurrently(document, abandoned);
     startStoredFields(docID);
     try {
       for (IndexableField field : document) {
-        fieldCount = processField(docID, field, fieldGen, fieldCount);
+        fieldCount = processField(docID, field, fieldGen, fieldCount, analyzedFields);
       }
     } finally {
+      if (analyzedFields != null) {
+        awaitAnalysis(analyzedFields, abandoned);
+      }
       if (hasHitAbortingException == false) {
         // Finish each indexed field name seen in the document:
         for (int i=0;i<fieldCount;i++) {
@@ -503,7 +588,90 @@ final class IndexingChain implements Accountable {
     }
   }
 
-  private int processField(int docID, IndexableField field, long fieldGen, int fieldCount) throws IOException {
+  /**
+   * Starts analyzing the tokenized fields of the given document concurrently if an analysis executor is configured
+   * and the document has several such fields, and returns the pending analysis of each field. The caller inverts
+   * the analyzed fields in order, analyzing those that the executor has not started yet itself. Returns null if
+   * fields should be analyzed when they are inverted.
+   */
+  private Map<IndexableField,FutureTask<TokenStream>> analyzeConcurrently(Iterable<? extends IndexableField> document,
+                                                                          AtomicBoolean abandoned) {
+    final Executor executor = indexWriterConfig.getAnalysisExecutor();
+    final Analyzer analyzer = indexWriterConfig.getAnalyzer();
+    if (executor == null || analyzer == null) {
+      return null;
+    }
+    List<IndexableField> toAnalyze = new ArrayList<>();
+    for (IndexableField field : document) {
+      IndexableFieldType fieldType = field.fieldType();
+      // only analyze values that the analyzer will tokenize, user-supplied TokenStreams are left alone
+      if (fieldType.indexOptions() != null && fieldType.indexOptions() != IndexOptions.NONE && fieldType.tokenized()
+          && (field.stringValue() != null || field.readerValue() != null)) {
+        toAnalyze.add(field);
+      }
+    }
+    if (toAnalyze.size() < 2) {
+      return null;
+    }
+
+    Map<IndexableField,FutureTask<TokenStream>> analyzedFields = new IdentityHashMap<>();
+    for (int i = 0; i < toAnalyze.size(); i++) {
+      final IndexableField field = toAnalyze.get(i);
+      if (analyzedFields.containsKey(field)) {
+        // the same field instance was added several times, its tokens can be replayed
+        continue;
+      }
+      FutureTask<TokenStream> task = new FutureTask<>(() -> {
+        if (abandoned.get()) {
+          return null;
+        }
+        try (TokenStream stream = field.tokenStream(analyzer, null)) {
+          return BufferedTokenStream.consume(stream);
+        }
+      });
+      analyzedFields.put(field, task);
+      if (i > 0) { // the first field is analyzed by the indexing thread right away
+        try {
+          executor.execute(task);
+        } catch (RejectedExecutionException e) {
+          // the indexing thread will analyze this field when it gets inverted
+        }
+      }
+    }
+    return analyzedFields;
+  }
+
+  /** Returns the tokens of a field that {@link #analyzeConcurrently} started analyzing. */
+  private static TokenStream getAnalyzed(FutureTask<TokenStream> task) throws IOException {
+    // analyze on the current thread unless the executor already started
+    task.run();
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      throw new ThreadInterruptedException(e);
+    } catch (ExecutionException e) {
+      throw IOUtils.rethrowAlways(e.getCause());
+    }
+  }
+
+  /** Waits for analysis tasks that are still running, so that none of them reads from the document once it's indexed. */
+  private static void awaitAnalysis(Map<IndexableField,FutureTask<TokenStream>> analyzedFields, AtomicBoolean abandoned) {
+    // tasks that have not started yet have nothing left to do
+    abandoned.set(true);
+    for (FutureTask<TokenStream> task : analyzedFields.values()) {
+      task.run();
+      try {
+        task.get();
+      } catch (ExecutionException e) {
+        // this field was not inverted because another field failed first
+      } catch (InterruptedException e) {
+        throw new ThreadInterruptedException(e);
+      }
+    }
+  }
+
+  private int processField(int docID, IndexableField field, long fieldGen, int fieldCount,
+                           Map<IndexableField,FutureTask<TokenStream>> analyzedFields) throws IOException {
     String fieldName = field.name();
     IndexableFieldType fieldType = field.fieldType();
 
@@ -517,7 +685,7 @@ final class IndexingChain implements Accountable {
     if (fieldType.indexOptions() != IndexOptions.NONE) {
       fp = getOrAddField(fieldName, fieldType, true);
       boolean first = fp.fieldGen != fieldGen;
-      fp.invert(docID, field, first);
+      fp.invert(docID, field, first, analyzedFields == null ? null : analyzedFields.get(field));
 
       if (first) {
         fields[fieldCount++] = fp;
@@ -562,6 +730,12 @@ final class IndexingChain implements Accountable {
       }
       indexPoint(docID, fp, field);
     }
+    if (fieldType.vectorDimension() != 0) {
+      if (fp == null) {
+        fp = getOrAddField(fieldName, fieldType, false);
+      }
+      indexVector(docID, fp, field);
+    }
     
     return fieldCount;
   }
@@ -606,6 +780,27 @@ final class IndexingChain implements Accountable {
     fp.pointValuesWriter.addPackedValue(docID, field.binaryValue());
   }
 
+  /** Called from processDocument to index one field's vector value */
+  private void indexVector(int docID, PerField pf, IndexableField field) {
+    if (field instanceof VectorField == false) {
+      throw new IllegalArgumentException("field=\"" + pf.fieldInfo.name + "\": vector values must be indexed with a VectorField");
+    }
+    int dimension = field.fieldType().vectorDimension();
+    VectorValues.SearchStrategy searchStrategy = field.fieldType().vectorSearchStrategy();
+
+    // Record dimensions and distance function for this field; this setter will throw IllegalArgExc if
+    // the dimensions or distance function were already set to something different:
+    if (pf.fieldInfo.getVectorDimension() == 0) {
+      fieldInfos.globalFieldNumbers.setVectorDimensionsAndSearchStrategy(pf.fieldInfo.number, pf.fieldInfo.name, dimension, searchStrategy);
+    }
+    pf.fieldInfo.setVectorDimensionAndSearchStrategy(dimension, searchStrategy);
+
+    if (pf.vectorValuesWriter == null) {
+      pf.vectorValuesWriter = new VectorValuesWriter(pf.fieldInfo, bytesUsed);
+    }
+    pf.vectorValuesWriter.addValue(docID, ((VectorField) field).vectorValue());
+  }
+
   private void validateIndexSortDVType(Sort indexSort, String fieldToValidate, DocValuesType dvType) throws IOException {
     for (SortField sortField : indexSort.getSort()) {
       IndexSorter sorter = sortField.getIndexSorter();
@@ -820,6 +1015,9 @@ final class IndexingChain implements Accountable {
     // Non-null if this field ever had points in this segment:
     PointValuesWriter pointValuesWriter;
 
+    // Non-null if this field ever had vector values in this segment:
+    VectorValuesWriter vectorValuesWriter;
+
     /** We use this to know when a PerField is seen for the
      *  first time in the current document. */
     long fieldGen = -1;
@@ -883,8 +1081,10 @@ final class IndexingChain implements Accountable {
 
     /** Inverts one field for one document; first is true
      *  if this is the first time we are seeing this field
-     *  name in this document. */
-    public void invert(int docID, IndexableField field, boolean first) throws IOException {
+     *  name in this document. If {@code preAnalyzed} is not
+     *  null, the tokens of the field are taken from it rather
+     *  than from {@link IndexableField#tokenStream}. */
+    public void invert(int docID, IndexableField field, boolean first, FutureTask<TokenStream> preAnalyzed) throws IOException {
       if (first) {
         // First time we're seeing this field (indexed) in
         // this document:
@@ -908,7 +1108,7 @@ final class IndexingChain implements Accountable {
        * but rather a finally that takes note of the problem.
        */
       boolean succeededInProcessingField = false;
-      try (TokenStream stream = tokenStream = field.tokenStream(analyzer, tokenStream)) {
+      try (TokenStream stream = preAnalyzed != null ? getAnalyzed(preAnalyzed) : (tokenStream = field.tokenStream(analyzer, tokenStream))) {
         // reset the TokenStream to the first token
         stream.reset();
         invertState.setAttributeSource(stream);
@@ -1018,27 +1218,4 @@ final class IndexingChain implements Accountable {
     return null;
   }
 
-  private static class IntBlockAllocator extends IntBlockPool.Allocator {
-    private final Counter bytesUsed;
-
-    IntBlockAllocator(Counter bytesUsed) {
-      super(IntBlockPool.INT_BLOCK_SIZE);
-      this.bytesUsed = bytesUsed;
-    }
-
-    /* Allocate another int[] from the shared pool */
-    @Override
-    public int[] getIntBlock() {
-      int[] b = new int[IntBlockPool.INT_BLOCK_SIZE];
-      bytesUsed.addAndGet(IntBlockPool.INT_BLOCK_SIZE * Integer.BYTES);
-      return b;
-    }
-
-    @Override
-    public void recycleIntBlocks(int[][] blocks, int offset, int length) {
-      bytesUsed.addAndGet(-(length * (IntBlockPool.INT_BLOCK_SIZE * Integer.BYTES)));
-    }
-
-  }
-
 }
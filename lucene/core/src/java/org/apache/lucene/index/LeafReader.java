@@ -18,6 +18,7 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.Bits;
 
 /** {@code LeafReader} is an abstract class, providing an interface for accessing an
@@ -203,6 +204,15 @@ public abstract class LeafReader extends IndexReader {
    *  used by a single thread. */
   public abstract NumericDocValues getNormValues(String field) throws IOException;
 
+  /** Returns a {@link DocValuesSkipper} that summarizes the values of this
+   *  field by blocks of documents, or null if the field has no doc values or
+   *  if the codec doesn't record a skip index for them. The returned instance
+   *  should only be used by a single thread. The default implementation
+   *  returns null. */
+  public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    return null;
+  }
+
   /**
    * Get the {@link FieldInfos} describing all fields in
    * this reader.
@@ -231,6 +241,31 @@ public abstract class LeafReader extends IndexReader {
    *  are no point fields. */
   public abstract PointValues getPointValues(String field) throws IOException;
 
+  /**
+   * Returns {@link VectorValues} for this field, or null if no {@link VectorValues} were indexed.
+   * The returned instance should only be used by a single thread.
+   *
+   * @lucene.experimental
+   */
+  public abstract VectorValues getVectorValues(String field) throws IOException;
+
+  /**
+   * Return the k nearest neighbor documents as determined by comparison of their vector values
+   * for this field, to the given vector, by the field's search strategy. Higher scores indicate
+   * nearer vectors. The search is approximate: the results may not be the true nearest
+   * neighbors. Documents that are not accepted by {@code acceptDocs} are not returned.
+   *
+   * @param field the vector field to search
+   * @param target the vector-valued query
+   * @param k the number of docs to return
+   * @param acceptDocs {@link Bits} that represents the allowed documents to match, or
+   *     {@code null} if they are all allowed to match.
+   * @return the k nearest neighbor documents, along with their (searchStrategy-specific) scores,
+   *     or null if the field has no vector values.
+   * @lucene.experimental
+   */
+  public abstract TopDocs searchNearestVectors(String field, float[] target, int k, Bits acceptDocs) throws IOException;
+
   /**
    * Checks consistency of this reader.
    * <p>
@@ -18,6 +18,7 @@ package org.apache.lucene.index;
 
 
 import java.util.Collections;
+import java.util.concurrent.Executor;
 import java.util.Set;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -107,6 +108,21 @@ public class LiveIndexWriterConfig {
   /** Amount of time to wait for merges returned by MergePolicy.findFullFlushMerges(...) */
   protected volatile long maxFullFlushMergeWaitMillis;
 
+  /** Maximum time documents may stay buffered in RAM before they are flushed, or -1 if disabled */
+  protected volatile long maxBufferedAgeMillis;
+
+  /** Fraction of the max heap whose use triggers a flush, or -1 if disabled */
+  protected volatile double heapUsageFlushThreshold;
+
+  /** Executor used to write the data structures of a flushed segment concurrently, or null */
+  protected Executor flushExecutor = null;
+
+  /** Executor used to analyze the fields of a document concurrently, or null */
+  protected volatile Executor analysisExecutor = null;
+
+  /** Allocator for the byte and int blocks that indexing threads buffer postings, term vectors and points in */
+  protected IndexingBlockAllocator indexingBlockAllocator;
+
   // used by IndexWriterConfig
   LiveIndexWriterConfig(Analyzer analyzer) {
     this.analyzer = analyzer;
@@ -120,6 +136,7 @@ public class LiveIndexWriterConfig {
     similarity = IndexSearcher.getDefaultSimilarity();
     mergeScheduler = new ConcurrentMergeScheduler();
     codec = Codec.getDefault();
+    indexingBlockAllocator = new IndexingBlockAllocator();
     if (codec == null) {
       throw new NullPointerException();
     }
@@ -129,6 +146,8 @@ public class LiveIndexWriterConfig {
     readerPooling = IndexWriterConfig.DEFAULT_READER_POOLING;
     perThreadHardLimitMB = IndexWriterConfig.DEFAULT_RAM_PER_THREAD_HARD_LIMIT_MB;
     maxFullFlushMergeWaitMillis = IndexWriterConfig.DEFAULT_MAX_FULL_FLUSH_MERGE_WAIT_MILLIS;
+    maxBufferedAgeMillis = IndexWriterConfig.DISABLE_AUTO_FLUSH;
+    heapUsageFlushThreshold = IndexWriterConfig.DISABLE_AUTO_FLUSH;
   }
   
   /** Returns the default analyzer to use for indexing documents. */
@@ -243,6 +262,83 @@ public class LiveIndexWriterConfig {
     return maxBufferedDocs;
   }
 
+  /**
+   * Determines the maximum time in milliseconds that added documents may stay
+   * buffered in RAM before they are flushed as a new segment. This bounds the
+   * time until documents are written to the Directory when documents are added
+   * slowly and neither the RAM buffer nor the maximum number of buffered
+   * documents are reached. Pass in {@link IndexWriterConfig#DISABLE_AUTO_FLUSH}
+   * to prevent triggering a flush due to the age of buffered documents.
+   * <p>
+   * The age of buffered documents is only checked when a document is added or
+   * updated, and when {@link IndexWriter#flushOldBuffers()} is called. Documents
+   * may stay buffered longer than this if no documents are indexed in the
+   * meantime, unless the application calls {@link IndexWriter#flushOldBuffers()}
+   * periodically.
+   * <p>
+   * Disabled by default.
+   * <p>
+   * Takes effect immediately, but only the next time a document is added or
+   * updated.
+   *
+   * @throws IllegalArgumentException
+   *           if maxBufferedAgeMillis is enabled but non-positive
+   */
+  public LiveIndexWriterConfig setMaxBufferedAgeMillis(long maxBufferedAgeMillis) {
+    if (maxBufferedAgeMillis != IndexWriterConfig.DISABLE_AUTO_FLUSH && maxBufferedAgeMillis <= 0) {
+      throw new IllegalArgumentException("maxBufferedAgeMillis should be > 0 when enabled");
+    }
+    this.maxBufferedAgeMillis = maxBufferedAgeMillis;
+    return this;
+  }
+
+  /**
+   * Returns the maximum time in milliseconds that documents may stay buffered
+   * in RAM if enabled.
+   *
+   * @see #setMaxBufferedAgeMillis(long)
+   */
+  public long getMaxBufferedAgeMillis() {
+    return maxBufferedAgeMillis;
+  }
+
+  /**
+   * Determines the fraction of the maximum heap size that, once used, triggers
+   * a flush of the largest buffered segment. This helps avoid running out of
+   * memory when the JVM is shared with other heap consumers and the RAM buffer
+   * alone does not reflect the memory pressure. The heap usage is sampled from
+   * the {@link java.lang.management.MemoryMXBean}, and includes garbage that
+   * has not been collected yet. Pass in
+   * {@link IndexWriterConfig#DISABLE_AUTO_FLUSH} to prevent triggering a flush
+   * due to heap usage.
+   * <p>
+   * Disabled by default.
+   * <p>
+   * Takes effect immediately, but only the next time a document is added or
+   * updated.
+   *
+   * @throws IllegalArgumentException
+   *           if heapUsageFlushThreshold is enabled but not in the range (0, 1]
+   */
+  public LiveIndexWriterConfig setHeapUsageFlushThreshold(double heapUsageFlushThreshold) {
+    if (heapUsageFlushThreshold != IndexWriterConfig.DISABLE_AUTO_FLUSH
+        && (heapUsageFlushThreshold <= 0.0 || heapUsageFlushThreshold > 1.0)) {
+      throw new IllegalArgumentException("heapUsageFlushThreshold should be > 0.0 and <= 1.0 when enabled");
+    }
+    this.heapUsageFlushThreshold = heapUsageFlushThreshold;
+    return this;
+  }
+
+  /**
+   * Returns the fraction of the maximum heap size whose use triggers a flush
+   * if enabled.
+   *
+   * @see #setHeapUsageFlushThreshold(double)
+   */
+  public double getHeapUsageFlushThreshold() {
+    return heapUsageFlushThreshold;
+  }
+
   /**
    * Expert: {@link MergePolicy} is invoked whenever there are changes to the
    * segments in the index. Its role is to select which merges to do, if any,
@@ -460,12 +556,62 @@ public class LiveIndexWriterConfig {
     return maxFullFlushMergeWaitMillis;
   }
 
+  /**
+   * Expert: Returns the executor used to write the postings, doc values, points, vectors and stored fields of a
+   * segment concurrently on flush, or <code>null</code> if they are written sequentially by the flushing thread.
+   * See {@link IndexWriterConfig#setFlushExecutor(Executor)} for details.
+   * @lucene.experimental
+   */
+  public Executor getFlushExecutor() {
+    return flushExecutor;
+  }
+
+  /**
+   * Expert: Returns the executor used to analyze the tokenized fields of a document concurrently, or
+   * <code>null</code> if fields are analyzed sequentially by the indexing thread.
+   * See {@link #setAnalysisExecutor(Executor)} for details.
+   * @lucene.experimental
+   */
+  public Executor getAnalysisExecutor() {
+    return analysisExecutor;
+  }
+
+  /**
+   * Expert: Sets an executor that is used to analyze the tokenized fields of a document concurrently. When a
+   * document has several fields that the {@link Analyzer} needs to tokenize, their token streams are consumed by
+   * separate tasks and buffered, and the indexing thread then inverts the buffered tokens in field order, analyzing
+   * fields that the executor has not started yet itself. This helps reduce the latency of indexing documents with
+   * many large fields and expensive analysis chains, at the cost of buffering the tokens of each field. By default,
+   * no executor is configured and fields are analyzed by the indexing thread as they are inverted.
+   * <p>
+   * The {@link Analyzer} and the fields of the documents are then used from several threads. Fields that provide
+   * their own {@link org.apache.lucene.analysis.TokenStream} are always analyzed by the indexing thread.
+   * <p>
+   * Takes effect immediately, but only applies to documents added after this call.
+   * @lucene.experimental
+   */
+  public LiveIndexWriterConfig setAnalysisExecutor(Executor analysisExecutor) {
+    this.analysisExecutor = analysisExecutor;
+    return this;
+  }
+
+  /**
+   * Expert: Returns the allocator for the byte and int blocks that indexing threads buffer postings, term vectors
+   * and points in. See {@link IndexWriterConfig#setIndexingBlockAllocator(IndexingBlockAllocator)} for details.
+   * @lucene.experimental
+   */
+  public IndexingBlockAllocator getIndexingBlockAllocator() {
+    return indexingBlockAllocator;
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
     sb.append("analyzer=").append(analyzer == null ? "null" : analyzer.getClass().getName()).append("\n");
     sb.append("ramBufferSizeMB=").append(getRAMBufferSizeMB()).append("\n");
     sb.append("maxBufferedDocs=").append(getMaxBufferedDocs()).append("\n");
+    sb.append("maxBufferedAgeMillis=").append(getMaxBufferedAgeMillis()).append("\n");
+    sb.append("heapUsageFlushThreshold=").append(getHeapUsageFlushThreshold()).append("\n");
     sb.append("mergedSegmentWarmer=").append(getMergedSegmentWarmer()).append("\n");
     sb.append("delPolicy=").append(getIndexDeletionPolicy().getClass().getName()).append("\n");
     IndexCommit commit = getIndexCommit();
@@ -484,6 +630,9 @@ public class LiveIndexWriterConfig {
     sb.append("checkPendingFlushOnUpdate=").append(isCheckPendingFlushOnUpdate()).append("\n");
     sb.append("softDeletesField=").append(getSoftDeletesField()).append("\n");
     sb.append("maxFullFlushMergeWaitMillis=").append(getMaxFullFlushMergeWaitMillis()).append("\n");
+    sb.append("flushExecutor=").append(getFlushExecutor()).append("\n");
+    sb.append("analysisExecutor=").append(getAnalysisExecutor()).append("\n");
+    sb.append("indexingBlockAllocator=").append(getIndexingBlockAllocator()).append("\n");
     return sb.toString();
   }
 }
@@ -26,7 +26,9 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
@@ -109,6 +111,12 @@ public abstract class MergePolicy {
      */
     private Thread owner;
 
+    /**
+     * Threads that currently run a task of this merge on behalf of the owner thread,
+     * see {@link MergeScheduler#getIntraMergeExecutor}.
+     */
+    private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
+
     /** Creates a new merge progress info. */
     public OneMergeProgress() {
       // Place all the pause reasons in there immediately so that we can simply update values.
@@ -149,8 +157,8 @@ public abstract class MergePolicy {
      *      condition 
      */
     public void pauseNanos(long pauseNanos, PauseReason reason, BooleanSupplier condition) throws InterruptedException {
-      if (Thread.currentThread() != owner) {
-        throw new RuntimeException("Only the merge owner thread can call pauseNanos(). This thread: "
+      if (Thread.currentThread() != owner && isWorkerThread(Thread.currentThread()) == false) {
+        throw new RuntimeException("Only the merge owner thread or its workers can call pauseNanos(). This thread: "
             + Thread.currentThread().getName() + ", owner thread: "
             + owner);
       }
@@ -193,6 +201,29 @@ public abstract class MergePolicy {
       assert this.owner == null;
       this.owner = owner;
     }
+
+    /** Returns true if the given thread currently runs a task of this merge on behalf of its owner thread. */
+    final boolean isWorkerThread(Thread thread) {
+      return workers.contains(thread);
+    }
+
+    /**
+     * Wraps the given executor so that the threads running its tasks are recognized
+     * as workers of this merge while they run, and may be paused by its rate limiter.
+     */
+    final Executor wrapIntraMergeExecutor(Executor executor) {
+      return task -> executor.execute(() -> {
+        final Thread current = Thread.currentThread();
+        final boolean added = current != owner && workers.add(current);
+        try {
+          task.run();
+        } finally {
+          if (added) {
+            workers.remove(current);
+          }
+        }
+      });
+    }
   }
 
   /** OneMerge provides the information necessary to perform
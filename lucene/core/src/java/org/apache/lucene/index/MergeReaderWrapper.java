@@ -25,6 +25,7 @@ import org.apache.lucene.codecs.FieldsProducer;
 import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.TermVectorsReader;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.Bits;
 
 /** This is a hack to make index sorting fast, with a {@link LeafReader} that always returns merge instances when you ask for the codec readers. */
@@ -194,6 +195,16 @@ class MergeReaderWrapper extends LeafReader {
     return in.getPointValues(fieldName);
   }
 
+  @Override
+  public VectorValues getVectorValues(String fieldName) throws IOException {
+    return in.getVectorValues(fieldName);
+  }
+
+  @Override
+  public TopDocs searchNearestVectors(String fieldName, float[] target, int k, Bits acceptDocs) throws IOException {
+    return in.searchNearestVectors(fieldName, target, k, acceptDocs);
+  }
+
   @Override
   public int numDocs() {
     return in.numDocs();
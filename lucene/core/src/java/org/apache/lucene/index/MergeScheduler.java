@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.store.Directory;
@@ -52,6 +53,20 @@ public abstract class MergeScheduler implements Closeable {
     return in;
   }
 
+  /**
+   * Expert: returns the {@link Executor} that the given merge may use to merge
+   * the independent data structures of the new segment (postings, stored fields,
+   * doc values, points, ...) concurrently, or {@code null} to merge them
+   * sequentially on the merging thread, which is the default.
+   * <p>
+   * Tasks submitted to this executor write through the {@link Directory}
+   * returned by {@link #wrapForMerge} for the same merge, so merge throttling
+   * applies across all of them.
+   */
+  public Executor getIntraMergeExecutor(OneMerge merge) {
+    return null;
+  }
+
   /** Close this MergeScheduler. */
   @Override
   public abstract void close() throws IOException;
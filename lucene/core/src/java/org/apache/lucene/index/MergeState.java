@@ -28,6 +28,7 @@ import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsReader;
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.TermVectorsReader;
+import org.apache.lucene.codecs.VectorReader;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.InfoStream;
@@ -77,16 +78,48 @@ public class MergeState {
   /** Point readers to merge */
   public final PointsReader[] pointsReaders;
 
+  /** Vector readers to merge */
+  public final VectorReader[] vectorReaders;
+
   /** Max docs per reader */
   public final int[] maxDocs;
 
   /** InfoStream for debugging messages. */
   public final InfoStream infoStream;
 
+  /** The readers being merged, sorted if the index is sorted */
+  private final List<CodecReader> readers;
+
   /** Indicates if the index needs to be sorted **/
   public boolean needsIndexSort;
 
-  /** Sole constructor. */
+  /** Creates a copy of the given {@link MergeState} that shares its doc maps, but has its own
+   *  merge instances of the readers, which are acquired on the calling thread, and can have its
+   *  field infos and postings producers updated independently, see {@code PerFieldMergeState}.
+   *  This allows several data structures of the same merge to be merged concurrently. */
+  MergeState(MergeState other) throws IOException {
+    this.docMaps = other.docMaps;
+    this.leafDocMaps = other.leafDocMaps;
+    this.segmentInfo = other.segmentInfo;
+    this.mergeFieldInfos = other.mergeFieldInfos;
+    this.readers = other.readers;
+    final int numReaders = readers.size();
+    this.maxDocs = other.maxDocs;
+    this.liveDocs = other.liveDocs;
+    this.fieldInfos = other.fieldInfos.clone();
+    fieldsProducers = new FieldsProducer[numReaders];
+    normsProducers = new NormsProducer[numReaders];
+    storedFieldsReaders = new StoredFieldsReader[numReaders];
+    termVectorsReaders = new TermVectorsReader[numReaders];
+    docValuesProducers = new DocValuesProducer[numReaders];
+    pointsReaders = new PointsReader[numReaders];
+    vectorReaders = new VectorReader[numReaders];
+    initMergeInstances();
+    this.infoStream = other.infoStream;
+    this.needsIndexSort = other.needsIndexSort;
+  }
+
+  /** Creates a new merge state for the given readers. */
   MergeState(List<CodecReader> originalReaders, SegmentInfo segmentInfo, InfoStream infoStream) throws IOException {
 
     this.infoStream = infoStream;
@@ -94,7 +127,7 @@ public class MergeState {
     final Sort indexSort = segmentInfo.getIndexSort();
     int numReaders = originalReaders.size();
     leafDocMaps = new DocMap[numReaders];
-    List<CodecReader> readers = maybeSortReaders(originalReaders, segmentInfo);
+    readers = maybeSortReaders(originalReaders, segmentInfo);
 
     maxDocs = new int[numReaders];
     fieldsProducers = new FieldsProducer[numReaders];
@@ -103,6 +136,7 @@ public class MergeState {
     termVectorsReaders = new TermVectorsReader[numReaders];
     docValuesProducers = new DocValuesProducer[numReaders];
     pointsReaders = new PointsReader[numReaders];
+    vectorReaders = new VectorReader[numReaders];
     fieldInfos = new FieldInfos[numReaders];
     liveDocs = new Bits[numReaders];
 
@@ -113,6 +147,21 @@ public class MergeState {
       maxDocs[i] = reader.maxDoc();
       liveDocs[i] = reader.getLiveDocs();
       fieldInfos[i] = reader.getFieldInfos();
+      numDocs += reader.numDocs();
+    }
+    initMergeInstances();
+
+    segmentInfo.setMaxDoc(numDocs);
+
+    this.segmentInfo = segmentInfo;
+    this.docMaps = buildDocMaps(readers, indexSort);
+  }
+
+  /** Fills the reader arrays with merge instances of the readers being merged. Merge instances
+   *  may only be consumed by the thread that acquired them. */
+  private void initMergeInstances() throws IOException {
+    for (int i = 0; i < readers.size(); i++) {
+      final CodecReader reader = readers.get(i);
 
       normsProducers[i] = reader.getNormsReader();
       if (normsProducers[i] != null) {
@@ -139,13 +188,12 @@ public class MergeState {
       if (pointsReaders[i] != null) {
         pointsReaders[i] = pointsReaders[i].getMergeInstance();
       }
-      numDocs += reader.numDocs();
-    }
-
-    segmentInfo.setMaxDoc(numDocs);
 
-    this.segmentInfo = segmentInfo;
-    this.docMaps = buildDocMaps(readers, indexSort);
+      vectorReaders[i] = reader.getVectorReader();
+      if (vectorReaders[i] != null) {
+        vectorReaders[i] = vectorReaders[i].getMergeInstance();
+      }
+    }
   }
 
   // Remap docIDs around deletions
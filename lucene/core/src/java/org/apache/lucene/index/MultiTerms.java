@@ -176,6 +176,13 @@ public final class MultiTerms extends Terms {
     return maxTerm;
   }
 
+  @Override
+  public void warm() throws IOException {
+    for(Terms terms : subs) {
+      terms.warm();
+    }
+  }
+
   @Override
   public TermsEnum iterator() throws IOException {
 
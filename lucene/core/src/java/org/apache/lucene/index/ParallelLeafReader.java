@@ -29,6 +29,7 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.Version;
 
@@ -354,6 +355,13 @@ public class ParallelLeafReader extends LeafReader {
     return reader == null ? null : reader.getSortedSetDocValues(field);
   }
 
+  @Override
+  public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    ensureOpen();
+    LeafReader reader = fieldToReader.get(field);
+    return reader == null ? null : reader.getDocValuesSkipper(field);
+  }
+
   @Override
   public NumericDocValues getNormValues(String field) throws IOException {
     ensureOpen();
@@ -369,6 +377,20 @@ public class ParallelLeafReader extends LeafReader {
     return reader == null ? null : reader.getPointValues(fieldName);
   }
 
+  @Override
+  public VectorValues getVectorValues(String fieldName) throws IOException {
+    ensureOpen();
+    LeafReader reader = fieldToReader.get(fieldName);
+    return reader == null ? null : reader.getVectorValues(fieldName);
+  }
+
+  @Override
+  public TopDocs searchNearestVectors(String fieldName, float[] target, int k, Bits acceptDocs) throws IOException {
+    ensureOpen();
+    LeafReader reader = fieldToReader.get(fieldName);
+    return reader == null ? null : reader.searchNearestVectors(fieldName, target, k, acceptDocs);
+  }
+
   @Override
   public void checkIntegrity() throws IOException {
     ensureOpen();
@@ -186,6 +186,8 @@ class PointValuesWriter {
       }
     };
     writer.writeField(fieldInfo, reader);
+    // points are written: give the buffered blocks back to the allocator
+    bytes.reset(false, false);
   }
 
   static final class MutableSortingPointValues extends MutablePointValues {
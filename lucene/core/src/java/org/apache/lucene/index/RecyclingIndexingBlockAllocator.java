@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import org.apache.lucene.util.ByteBlockPool;
+import org.apache.lucene.util.Counter;
+import org.apache.lucene.util.IntBlockPool;
+
+/**
+ * An {@link IndexingBlockAllocator} that keeps the blocks released by flushed or aborted segments
+ * in a pool that is shared by all {@link DocumentsWriterPerThread}s of an {@link IndexWriter}, and
+ * hands them out again to the next segments. With large RAM buffers, this prevents the indexing buffer
+ * from turning into garbage, which has usually been promoted to the old generation by the time it
+ * gets flushed, on every flush.
+ * <p>
+ * The pool retains up to a configurable amount of memory, which is reported by
+ * {@link IndexWriter#ramBytesUsed()} in addition to the RAM buffer, but does not count towards
+ * flushing. A good value is the size of the RAM buffer, so that indexing after a flush does not
+ * allocate new blocks.
+ *
+ * @lucene.experimental
+ */
+public final class RecyclingIndexingBlockAllocator extends IndexingBlockAllocator {
+
+  private static final int BYTE_BLOCK_BYTES = ByteBlockPool.BYTE_BLOCK_SIZE;
+  private static final int INT_BLOCK_BYTES = IntBlockPool.INT_BLOCK_SIZE * Integer.BYTES;
+
+  private final long maxRetainedBytes;
+  private final Deque<byte[]> freeByteBlocks = new ArrayDeque<>();
+  private final Deque<int[]> freeIntBlocks = new ArrayDeque<>();
+  private long retainedBytes;
+
+  /**
+   * Creates a new allocator that retains up to {@code maxRetainedMB} of released blocks.
+   */
+  public RecyclingIndexingBlockAllocator(double maxRetainedMB) {
+    if (maxRetainedMB < 0) {
+      throw new IllegalArgumentException("maxRetainedMB must be >= 0, got " + maxRetainedMB);
+    }
+    this.maxRetainedBytes = (long) (maxRetainedMB * 1024 * 1024);
+  }
+
+  @Override
+  public ByteBlockPool.Allocator newByteBlockAllocator(Counter bytesUsed) {
+    return new ByteBlockPool.Allocator(ByteBlockPool.BYTE_BLOCK_SIZE) {
+      @Override
+      public byte[] getByteBlock() {
+        bytesUsed.addAndGet(BYTE_BLOCK_BYTES);
+        byte[] block = pollByteBlock();
+        return block == null ? new byte[BYTE_BLOCK_BYTES] : block;
+      }
+
+      @Override
+      public void recycleByteBlocks(byte[][] blocks, int start, int end) {
+        bytesUsed.addAndGet(-((end - start) * BYTE_BLOCK_BYTES));
+        for (int i = start; i < end; i++) {
+          byte[] block = blocks[i];
+          blocks[i] = null;
+          // only recycle blocks that we could have handed out
+          if (block != null && block.length == BYTE_BLOCK_BYTES && reserve(BYTE_BLOCK_BYTES)) {
+            // the byte pool relies on fresh blocks being filled with zeros
+            Arrays.fill(block, (byte) 0);
+            offerByteBlock(block);
+          }
+        }
+      }
+    };
+  }
+
+  @Override
+  public IntBlockPool.Allocator newIntBlockAllocator(Counter bytesUsed) {
+    return new IntBlockPool.Allocator(IntBlockPool.INT_BLOCK_SIZE) {
+      @Override
+      public int[] getIntBlock() {
+        bytesUsed.addAndGet(INT_BLOCK_BYTES);
+        int[] block = pollIntBlock();
+        return block == null ? new int[IntBlockPool.INT_BLOCK_SIZE] : block;
+      }
+
+      @Override
+      public void recycleIntBlocks(int[][] blocks, int start, int end) {
+        bytesUsed.addAndGet(-((end - start) * INT_BLOCK_BYTES));
+        for (int i = start; i < end; i++) {
+          int[] block = blocks[i];
+          blocks[i] = null;
+          if (block != null && block.length == IntBlockPool.INT_BLOCK_SIZE && reserve(INT_BLOCK_BYTES)) {
+            Arrays.fill(block, 0);
+            offerIntBlock(block);
+          }
+        }
+      }
+    };
+  }
+
+  /** Reserves room for a released block, or returns false if the pool is full. */
+  private synchronized boolean reserve(int bytes) {
+    if (retainedBytes + bytes > maxRetainedBytes) {
+      return false;
+    }
+    retainedBytes += bytes;
+    return true;
+  }
+
+  private synchronized void offerByteBlock(byte[] block) {
+    freeByteBlocks.push(block);
+  }
+
+  private synchronized byte[] pollByteBlock() {
+    byte[] block = freeByteBlocks.poll();
+    if (block != null) {
+      retainedBytes -= BYTE_BLOCK_BYTES;
+    }
+    return block;
+  }
+
+  private synchronized void offerIntBlock(int[] block) {
+    freeIntBlocks.push(block);
+  }
+
+  private synchronized int[] pollIntBlock() {
+    int[] block = freeIntBlocks.poll();
+    if (block != null) {
+      retainedBytes -= INT_BLOCK_BYTES;
+    }
+    return block;
+  }
+
+  /** Returns the maximum amount of memory that this allocator retains, in MB. */
+  public double getMaxRetainedMB() {
+    return maxRetainedBytes / 1024. / 1024.;
+  }
+
+  @Override
+  public synchronized long ramBytesUsed() {
+    return retainedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(maxRetainedMB=" + getMaxRetainedMB() + ")";
+  }
+}
@@ -18,7 +18,9 @@ package org.apache.lucene.index;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesConsumer;
@@ -28,6 +30,7 @@ import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsWriter;
 import org.apache.lucene.codecs.StoredFieldsWriter;
 import org.apache.lucene.codecs.TermVectorsWriter;
+import org.apache.lucene.codecs.VectorWriter;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.util.InfoStream;
@@ -50,9 +53,21 @@ final class SegmentMerger {
   final MergeState mergeState;
   private final FieldInfos.Builder fieldInfosBuilder;
 
+  private final Executor intraMergeExecutor;
+
   // note, just like in codec apis Directory 'dir' is NOT the same as segmentInfo.dir!!
   SegmentMerger(List<CodecReader> readers, SegmentInfo segmentInfo, InfoStream infoStream, Directory dir,
                 FieldInfos.FieldNumbers fieldNumbers, IOContext context) throws IOException {
+    this(readers, segmentInfo, infoStream, dir, fieldNumbers, context, null);
+  }
+
+  /**
+   * Creates a merger that merges the independent data structures of the new segment
+   * (postings, stored fields, doc values, ...) concurrently on the given executor,
+   * or sequentially on the current thread if it is null.
+   */
+  SegmentMerger(List<CodecReader> readers, SegmentInfo segmentInfo, InfoStream infoStream, Directory dir,
+                FieldInfos.FieldNumbers fieldNumbers, IOContext context, Executor intraMergeExecutor) throws IOException {
     if (context.context != IOContext.Context.MERGE) {
       throw new IllegalArgumentException("IOContext.context should be MERGE; got: " + context.context);
     }
@@ -61,6 +76,7 @@ final class SegmentMerger {
     this.codec = segmentInfo.getCodec();
     this.context = context;
     this.fieldInfosBuilder = new FieldInfos.Builder(fieldNumbers);
+    this.intraMergeExecutor = intraMergeExecutor;
     Version minVersion = Version.LATEST;
     for (CodecReader reader : readers) {
       Version leafMinVersion = reader.getMetaData().getMinVersion();
@@ -98,111 +114,119 @@ final class SegmentMerger {
       throw new IllegalStateException("Merge would result in 0 document segment");
     }
     mergeFieldInfos();
-    long t0 = 0;
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
-    int numMerged = mergeFields();
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge stored fields [" + numMerged + " docs]");
-    }
-    assert numMerged == mergeState.segmentInfo.maxDoc(): "numMerged=" + numMerged + " vs mergeState.segmentInfo.maxDoc()=" + mergeState.segmentInfo.maxDoc();
+    final int maxDoc = mergeState.segmentInfo.maxDoc();
 
     final SegmentWriteState segmentWriteState = new SegmentWriteState(mergeState.infoStream, directory, mergeState.segmentInfo,
                                                                       mergeState.mergeFieldInfos, null, context);
+    segmentWriteState.executor = intraMergeExecutor;
     final SegmentReadState segmentReadState = new SegmentReadState(directory, mergeState.segmentInfo, mergeState.mergeFieldInfos,
         IOContext.READ, segmentWriteState.segmentSuffix);
 
-    if (mergeState.mergeFieldInfos.hasNorms()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
+    // Norms must be merged before postings since the postings format may read them to compute impacts,
+    // all other data structures are written to their own files and are independent from each other.
+    // Each task gets its own copy of the merge state since per-field formats temporarily modify it
+    // and since merge instances of the readers may only be consumed by the thread that acquired them:
+    List<IOTasks.IOTask> tasks = new ArrayList<>();
+    tasks.add(() -> {
+      MergeState taskMergeState = new MergeState(mergeState);
+      if (mergeState.mergeFieldInfos.hasNorms()) {
+        long t0 = System.nanoTime();
+        mergeNorms(segmentWriteState, taskMergeState);
+        logElapsed("norms", maxDoc, t0);
       }
-      mergeNorms(segmentWriteState);
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge norms [" + numMerged + " docs]");
-      }
-    }
 
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
-    try (NormsProducer norms = mergeState.mergeFieldInfos.hasNorms()
-        ? codec.normsFormat().normsProducer(segmentReadState)
-        : null) {
-      NormsProducer normsMergeInstance = null;
-      if (norms != null) {
-        // Use the merge instance in order to reuse the same IndexInput for all terms
-        normsMergeInstance = norms.getMergeInstance();
+      long t0 = System.nanoTime();
+      try (NormsProducer norms = mergeState.mergeFieldInfos.hasNorms()
+          ? codec.normsFormat().normsProducer(segmentReadState)
+          : null) {
+        NormsProducer normsMergeInstance = null;
+        if (norms != null) {
+          // Use the merge instance in order to reuse the same IndexInput for all terms
+          normsMergeInstance = norms.getMergeInstance();
+        }
+        mergeTerms(segmentWriteState, taskMergeState, normsMergeInstance);
       }
-      mergeTerms(segmentWriteState, normsMergeInstance);
-    }
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge postings [" + numMerged + " docs]");
-    }
-
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
+      logElapsed("postings", maxDoc, t0);
+    });
+    tasks.add(() -> {
+      MergeState taskMergeState = new MergeState(mergeState);
+      long t0 = System.nanoTime();
+      int numMerged = mergeFields(taskMergeState);
+      logElapsed("stored fields", numMerged, t0);
+      assert numMerged == maxDoc: "numMerged=" + numMerged + " vs mergeState.segmentInfo.maxDoc()=" + maxDoc;
+    });
     if (mergeState.mergeFieldInfos.hasDocValues()) {
-      mergeDocValues(segmentWriteState);
-    }
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge doc values [" + numMerged + " docs]");
-    }
-
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
+      tasks.add(() -> {
+        MergeState taskMergeState = new MergeState(mergeState);
+        long t0 = System.nanoTime();
+        mergeDocValues(segmentWriteState, taskMergeState);
+        logElapsed("doc values", maxDoc, t0);
+      });
     }
     if (mergeState.mergeFieldInfos.hasPointValues()) {
-      mergePoints(segmentWriteState);
+      tasks.add(() -> {
+        MergeState taskMergeState = new MergeState(mergeState);
+        long t0 = System.nanoTime();
+        mergePoints(segmentWriteState, taskMergeState);
+        logElapsed("points", maxDoc, t0);
+      });
     }
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge points [" + numMerged + " docs]");
+    if (mergeState.mergeFieldInfos.hasVectorValues()) {
+      tasks.add(() -> {
+        MergeState taskMergeState = new MergeState(mergeState);
+        long t0 = System.nanoTime();
+        mergeVectorValues(segmentWriteState, taskMergeState);
+        logElapsed("vector values", maxDoc, t0);
+      });
     }
-
     if (mergeState.mergeFieldInfos.hasVectors()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
-      }
-      numMerged = mergeVectors();
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge vectors [" + numMerged + " docs]");
-      }
-      assert numMerged == mergeState.segmentInfo.maxDoc();
+      tasks.add(() -> {
+        MergeState taskMergeState = new MergeState(mergeState);
+        long t0 = System.nanoTime();
+        int numMerged = mergeVectors(taskMergeState);
+        logElapsed("vectors", numMerged, t0);
+        assert numMerged == maxDoc;
+      });
     }
-    
+    IOTasks.run(intraMergeExecutor, tasks);
+
     // write the merged infos
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
+    long t0 = System.nanoTime();
     codec.fieldInfosFormat().write(directory, mergeState.segmentInfo, "", mergeState.mergeFieldInfos, context);
     if (mergeState.infoStream.isEnabled("SM")) {
       long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to write field infos [" + numMerged + " docs]");
+      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to write field infos [" + maxDoc + " docs]");
     }
 
     return mergeState;
   }
 
-  private void mergeDocValues(SegmentWriteState segmentWriteState) throws IOException {
+  private void logElapsed(String what, int numDocs, long t0) {
+    if (mergeState.infoStream.isEnabled("SM")) {
+      long t1 = System.nanoTime();
+      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge " + what + " [" + numDocs + " docs]");
+    }
+  }
+
+  private void mergeDocValues(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
     try (DocValuesConsumer consumer = codec.docValuesFormat().fieldsConsumer(segmentWriteState)) {
       consumer.merge(mergeState);
     }
   }
 
-  private void mergePoints(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergePoints(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
     try (PointsWriter writer = codec.pointsFormat().fieldsWriter(segmentWriteState)) {
       writer.merge(mergeState);
     }
   }
 
-  private void mergeNorms(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergeVectorValues(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
+    try (VectorWriter writer = codec.vectorFormat().fieldsWriter(segmentWriteState)) {
+      writer.merge(mergeState);
+    }
+  }
+
+  private void mergeNorms(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
     try (NormsConsumer consumer = codec.normsFormat().normsConsumer(segmentWriteState)) {
       consumer.merge(mergeState);
     }
@@ -223,7 +247,7 @@ final class SegmentMerger {
    * @throws CorruptIndexException if the index is corrupt
    * @throws IOException if there is a low-level IO error
    */
-  private int mergeFields() throws IOException {
+  private int mergeFields(MergeState mergeState) throws IOException {
     try (StoredFieldsWriter fieldsWriter = codec.storedFieldsFormat().fieldsWriter(directory, mergeState.segmentInfo, context)) {
       return fieldsWriter.merge(mergeState);
     }
@@ -233,13 +257,13 @@ final class SegmentMerger {
    * Merge the TermVectors from each of the segments into the new one.
    * @throws IOException if there is a low-level IO error
    */
-  private int mergeVectors() throws IOException {
+  private int mergeVectors(MergeState mergeState) throws IOException {
     try (TermVectorsWriter termVectorsWriter = codec.termVectorsFormat().vectorsWriter(directory, mergeState.segmentInfo, context)) {
       return termVectorsWriter.merge(mergeState);
     }
   }
 
-  private void mergeTerms(SegmentWriteState segmentWriteState, NormsProducer norms) throws IOException {
+  private void mergeTerms(SegmentWriteState segmentWriteState, MergeState mergeState, NormsProducer norms) throws IOException {
     try (FieldsConsumer consumer = codec.postingsFormat().fieldsConsumer(segmentWriteState)) {
       consumer.merge(mergeState, norms);
     }
@@ -17,6 +17,8 @@
 package org.apache.lucene.index;
 
 
+import java.util.concurrent.Executor;
+
 import org.apache.lucene.codecs.PostingsFormat; // javadocs
 import org.apache.lucene.codecs.perfield.PerFieldPostingsFormat; // javadocs
 import org.apache.lucene.store.Directory;
@@ -76,6 +78,11 @@ public class SegmentWriteState {
    *  to {@link Directory#createOutput(String,IOContext)}. */
   public final IOContext context;
 
+  /** {@link Executor} that formats may use to split the writing of
+   *  a single data structure into concurrent tasks, or {@code null}
+   *  if it should be written by the calling thread. */
+  public Executor executor;
+
   /** Sole constructor. */
   public SegmentWriteState(InfoStream infoStream, Directory directory, SegmentInfo segmentInfo, FieldInfos fieldInfos,
       BufferedUpdates segUpdates, IOContext context) {
@@ -111,6 +118,7 @@ public class SegmentWriteState {
     segUpdates = state.segUpdates;
     delCountOnFlush = state.delCountOnFlush;
     liveDocs = state.liveDocs;
+    executor = state.executor;
   }
   
   // currently only used by assert? clean up and make real check?
@@ -29,7 +29,10 @@ import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsReader;
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.TermVectorsReader;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.FixedBitSet;
 
@@ -148,6 +151,105 @@ public final class SortingCodecReader extends FilterCodecReader {
     }
   }
 
+  /** Sorting VectorValues that iterate over documents in the order of the provided sortMap */
+  private static class SortingVectorValues extends VectorValues implements RandomAccessVectorValuesProducer {
+
+    private final VectorValues delegate;
+    // the vectors, indexed by their new ordinal
+    private final float[][] vectors;
+    // the new doc ids of the documents having vectors, in increasing order
+    private final int[] docs;
+    private int ord = -1;
+    private int doc = -1;
+
+    SortingVectorValues(VectorValues delegate, Sorter.DocMap sortMap) throws IOException {
+      this.delegate = delegate;
+      int size = delegate.size();
+      long[] docAndOrd = new long[size];
+      float[][] oldVectors = new float[size][];
+      int count = 0;
+      for (int oldDoc = delegate.nextDoc(); oldDoc != NO_MORE_DOCS; oldDoc = delegate.nextDoc()) {
+        int newDoc = sortMap.oldToNew(oldDoc);
+        docAndOrd[count] = (((long) newDoc) << 32) | count;
+        oldVectors[count] = delegate.vectorValue().clone();
+        count++;
+      }
+      assert count == size;
+      Arrays.sort(docAndOrd);
+      docs = new int[size];
+      vectors = new float[size][];
+      for (int i = 0; i < size; i++) {
+        docs[i] = (int) (docAndOrd[i] >>> 32);
+        vectors[i] = oldVectors[(int) docAndOrd[i]];
+      }
+    }
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public int nextDoc() {
+      if (++ord >= docs.length) {
+        doc = NO_MORE_DOCS;
+      } else {
+        doc = docs[ord];
+      }
+      return doc;
+    }
+
+    @Override
+    public float[] vectorValue() {
+      return vectors[ord];
+    }
+
+    @Override
+    public SearchStrategy searchStrategy() {
+      return delegate.searchStrategy();
+    }
+
+    @Override
+    public int advance(int target) throws IOException {
+      return slowAdvance(target);
+    }
+
+    @Override
+    public int dimension() {
+      return delegate.dimension();
+    }
+
+    @Override
+    public int size() {
+      return docs.length;
+    }
+
+    @Override
+    public long cost() {
+      return docs.length;
+    }
+
+    @Override
+    public RandomAccessVectorValues randomAccess() {
+      return new RandomAccessVectorValues() {
+        @Override
+        public int size() {
+          return docs.length;
+        }
+
+        @Override
+        public int dimension() {
+          return delegate.dimension();
+        }
+
+        @Override
+        public float[] vectorValue(int targetOrd) {
+          return vectors[targetOrd];
+        }
+      };
+    }
+  }
+
 
 
 
@@ -313,6 +415,62 @@ public final class SortingCodecReader extends FilterCodecReader {
     };
   }
 
+  @Override
+  public VectorReader getVectorReader() {
+    final VectorReader delegate = in.getVectorReader();
+    return new VectorReader() {
+      @Override
+      public void checkIntegrity() throws IOException {
+        delegate.checkIntegrity();
+      }
+
+      @Override
+      public VectorValues getVectorValues(String field) throws IOException {
+        VectorValues values = delegate.getVectorValues(field);
+        if (values == null) {
+          return null;
+        }
+        return new SortingVectorValues(values, docMap);
+      }
+
+      @Override
+      public TopDocs search(String field, float[] target, int k, Bits acceptDocs) throws IOException {
+        Bits oldAcceptDocs = null;
+        if (acceptDocs != null) {
+          oldAcceptDocs = new Bits() {
+            @Override
+            public boolean get(int index) {
+              return acceptDocs.get(docMap.oldToNew(index));
+            }
+
+            @Override
+            public int length() {
+              return acceptDocs.length();
+            }
+          };
+        }
+        TopDocs topDocs = delegate.search(field, target, k, oldAcceptDocs);
+        if (topDocs == null) {
+          return null;
+        }
+        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+          scoreDoc.doc = docMap.oldToNew(scoreDoc.doc);
+        }
+        return topDocs;
+      }
+
+      @Override
+      public void close() throws IOException {
+        delegate.close();
+      }
+
+      @Override
+      public long ramBytesUsed() {
+        return delegate.ramBytesUsed();
+      }
+    };
+  }
+
   private final Map<String, NumericDocValuesWriter.CachedNumericDVs> cachedNorms = new HashMap<>();
 
   @Override
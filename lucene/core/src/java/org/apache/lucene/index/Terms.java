@@ -203,6 +203,17 @@ public abstract class Terms {
     }
   }
   
+  /**
+   * Expert: loads the data structures that are needed to seek into this terms
+   * dictionary, such as the terms index, into memory or the OS cache so that
+   * the first lookups don't have to wait for I/O. This is typically called on
+   * a newly opened reader before it is used for searching. The default
+   * implementation does nothing.
+   * @see IndexReader#warmTerms(String...)
+   */
+  public void warm() throws IOException {
+  }
+
   /** 
    * Expert: returns additional information about this Terms instance
    * for debugging purposes.
@@ -78,6 +78,28 @@ public abstract class TermsEnum implements BytesRefIterator {
    *  SeekStatus.END, the enum is unpositioned. */
   public abstract SeekStatus seekCeil(BytesRef text) throws IOException;
 
+  /**
+   * Looks up a batch of terms in a single forward pass: consumes terms from {@code sortedTargets}
+   * until one of them exists, and leaves this enum positioned on it. This is typically called in
+   * a loop to visit all terms of a large, sorted term list that exist in this enum, and is more
+   * efficient than calling {@link #seekExact(BytesRef)} for each term, as implementations may
+   * reuse state across lookups or stop before the targets are exhausted.
+   * <p>
+   * The targets must be in increasing order.
+   *
+   * @return true if the enum is positioned on one of the targets; false if no remaining target
+   *         exists, in which case the enum is unpositioned and {@code sortedTargets} may not be
+   *         fully consumed.
+   */
+  public boolean seekExactNext(BytesRefIterator sortedTargets) throws IOException {
+    for (BytesRef target = sortedTargets.next(); target != null; target = sortedTargets.next()) {
+      if (seekExact(target)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /** Seeks to the specified term by ordinal (position) as
    *  previously returned by {@link #ord}.  The target ord
    *  may be before or after the current ord, and must be
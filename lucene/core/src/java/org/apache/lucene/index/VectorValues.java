@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.BytesRef;
+
+import static org.apache.lucene.util.VectorUtil.dotProduct;
+import static org.apache.lucene.util.VectorUtil.squareDistance;
+
+/**
+ * This class provides access to per-document floating point vector values indexed as {@link
+ * org.apache.lucene.document.VectorField}.
+ *
+ * @lucene.experimental
+ */
+public abstract class VectorValues extends DocIdSetIterator {
+
+  /** The maximum length of a vector */
+  public static final int MAX_DIMENSIONS = 1024;
+
+  /** Sole constructor */
+  protected VectorValues() {}
+
+  /**
+   * Return the dimension of the vectors
+   */
+  public abstract int dimension();
+
+  /**
+   * Return the number of vectors returned by this iterator, which is exactly the number of
+   * documents that have a value for this field.
+   */
+  public abstract int size();
+
+  /**
+   * Return the search strategy used to compare these vectors
+   */
+  public abstract SearchStrategy searchStrategy();
+
+  /**
+   * Return the vector value for the current document ID.
+   * It is illegal to call this method when the iterator is not positioned: before advancing, or after failing to advance.
+   * The returned array may be shared across calls, re-used, and modified as the iterator advances.
+   * @return the vector value
+   */
+  public abstract float[] vectorValue() throws IOException;
+
+  /**
+   * Return the binary encoded vector value for the current document ID. These are the bytes
+   * corresponding to the float array return by {@link #vectorValue}.  It is illegal to call this
+   * method when the iterator is not positioned: before advancing, or after failing to advance.  The
+   * returned storage may be shared across calls, re-used and modified as the iterator advances.
+   * @return the binary value
+   */
+  public BytesRef binaryValue() throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Search strategy. This is a label describing the method used during indexing and searching of the vectors in order to
+   * determine the nearest neighbors.
+   */
+  public enum SearchStrategy {
+
+    /** No search strategy is provided. Note: {@link LeafReader#searchNearestVectors}
+     * is not supported for fields specifying this strategy. */
+    NONE,
+
+    /** HNSW graph built using Euclidean distance. Similarity is {@code 1 / (1 + squareDistance)} so that
+     * nearer vectors get higher scores. */
+    EUCLIDEAN_HNSW {
+      @Override
+      public float similarity(float[] v1, float[] v2) {
+        return 1 / (1 + squareDistance(v1, v2));
+      }
+    },
+
+    /** HNSW graph built using dot product. Vectors are expected to have unit length, so that the
+     * dot product is the cosine of the angle between them, and similarity is {@code (1 + dotProduct) / 2}. */
+    DOT_PRODUCT_HNSW {
+      @Override
+      public float similarity(float[] v1, float[] v2) {
+        return Math.max((1 + dotProduct(v1, v2)) / 2, 0);
+      }
+    };
+
+    /**
+     * Calculates a similarity score between the two vectors with a specified function. Higher
+     * similarity scores correspond to closer vectors, and scores are never negative.
+     * @param v1 a vector
+     * @param v2 another vector, of the same dimension
+     * @return the similarity of the two vectors
+     */
+    public float similarity(float[] v1, float[] v2) {
+      throw new IllegalStateException("Incomparable search strategy: " + this);
+    }
+
+    /** Return true if vectors indexed using this strategy will be indexed using an HNSW graph */
+    public boolean isHnsw() {
+      return this != NONE;
+    }
+  }
+
+  /**
+   * Represents the lack of vector values. It is returned by providers that do not
+   * support VectorValues.
+   */
+  public static final VectorValues EMPTY = new VectorValues() {
+
+    @Override
+    public int size() {
+      return 0;
+    }
+
+    @Override
+    public int dimension() {
+      return 0;
+    }
+
+    @Override
+    public SearchStrategy searchStrategy() {
+      return SearchStrategy.NONE;
+    }
+
+    @Override
+    public float[] vectorValue() {
+      throw new IllegalStateException("Attempt to get vectors from EMPTY values (which was not advanced)");
+    }
+
+    @Override
+    public int docID() {
+      throw new IllegalStateException("VectorValues is EMPTY, and not positioned on a doc");
+    }
+
+    @Override
+    public int nextDoc() {
+      return NO_MORE_DOCS;
+    }
+
+    @Override
+    public int advance(int target) {
+      return NO_MORE_DOCS;
+    }
+
+    @Override
+    public long cost() {
+      return 0;
+    }
+  };
+}
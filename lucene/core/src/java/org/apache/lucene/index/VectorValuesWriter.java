@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.codecs.VectorWriter;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.Counter;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/** Buffers up pending vector value(s) per doc, then flushes when segment flushes. */
+class VectorValuesWriter {
+
+  private final FieldInfo fieldInfo;
+  private final Counter iwBytesUsed;
+  private final List<float[]> vectors = new ArrayList<>();
+  private int[] docIDs;
+  private int lastDocID = -1;
+
+  private long bytesUsed;
+
+  VectorValuesWriter(FieldInfo fieldInfo, Counter iwBytesUsed) {
+    this.fieldInfo = fieldInfo;
+    this.iwBytesUsed = iwBytesUsed;
+    docIDs = new int[16];
+    updateBytesUsed();
+  }
+
+  /**
+   * Adds a value for the given document. Only a single value may be added.
+   * @param docID the value is added to this document
+   * @param vectorValue the value to add
+   * @throws IllegalArgumentException if a value has already been added to the given document
+   */
+  public void addValue(int docID, float[] vectorValue) {
+    if (docID == lastDocID) {
+      throw new IllegalArgumentException("VectorValuesField \"" + fieldInfo.name + "\" appears more than once in this document (only one value is allowed per field)");
+    }
+    if (vectorValue.length != fieldInfo.getVectorDimension()) {
+      throw new IllegalArgumentException("Attempt to index a vector of dimension " + vectorValue.length +
+          " but \"" + fieldInfo.name + "\" has dimension " + fieldInfo.getVectorDimension());
+    }
+    assert docID > lastDocID;
+    if (docIDs.length == vectors.size()) {
+      docIDs = ArrayUtil.grow(docIDs, vectors.size() + 1);
+    }
+    docIDs[vectors.size()] = docID;
+    vectors.add(ArrayUtil.copyOfSubArray(vectorValue, 0, vectorValue.length));
+    lastDocID = docID;
+    updateBytesUsed();
+  }
+
+  private void updateBytesUsed() {
+    final long newBytesUsed = RamUsageEstimator.sizeOf(docIDs)
+        + vectors.size() * (RamUsageEstimator.NUM_BYTES_OBJECT_REF + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER)
+        + vectors.size() * (long) fieldInfo.getVectorDimension() * Float.BYTES;
+    if (iwBytesUsed != null) {
+      iwBytesUsed.addAndGet(newBytesUsed - bytesUsed);
+    }
+    bytesUsed = newBytesUsed;
+  }
+
+  /**
+   * Flush this field's values to storage, sorting the values in accordance with sortMap
+   * @param sortMap specifies the order of documents being flushed, or null if they are to be flushed in docid order
+   * @param vectorWriter the Codec's vector writer that handles the actual encoding and I/O
+   * @throws IOException if there is an error writing the field and its values
+   */
+  public void flush(Sorter.DocMap sortMap, VectorWriter vectorWriter) throws IOException {
+    int[] docs = ArrayUtil.copyOfSubArray(docIDs, 0, vectors.size());
+    int[] ords = new int[docs.length];
+    for (int i = 0; i < ords.length; i++) {
+      ords[i] = i;
+    }
+    if (sortMap != null) {
+      // sort the ords by their new doc ids
+      long[] docAndOrd = new long[docs.length];
+      for (int i = 0; i < docs.length; i++) {
+        docAndOrd[i] = (((long) sortMap.oldToNew(docs[i])) << 32) | i;
+      }
+      Arrays.sort(docAndOrd);
+      for (int i = 0; i < docs.length; i++) {
+        docs[i] = (int) (docAndOrd[i] >>> 32);
+        ords[i] = (int) docAndOrd[i];
+      }
+    }
+    vectorWriter.writeField(fieldInfo, new BufferedVectorValues(docs, ords, vectors,
+        fieldInfo.getVectorSearchStrategy(), fieldInfo.getVectorDimension()));
+  }
+
+  /**
+   * Iterates over the buffered vectors, in the order given by the doc ids; also provides random
+   * access by (new) ordinal, which is needed to build the graph.
+   */
+  private static class BufferedVectorValues extends VectorValues implements RandomAccessVectorValues, RandomAccessVectorValuesProducer {
+
+    // the doc ids of the documents having values, in increasing order
+    final int[] docs;
+    // for each entry of docs, the index of its value in vectors
+    final int[] ords;
+    // the vectors, in the order they were added
+    final List<float[]> vectors;
+    final SearchStrategy searchStrategy;
+    final int dimension;
+
+    int upto = -1;
+
+    BufferedVectorValues(int[] docs, int[] ords, List<float[]> vectors, SearchStrategy searchStrategy, int dimension) {
+      this.docs = docs;
+      this.ords = ords;
+      this.vectors = vectors;
+      this.searchStrategy = searchStrategy;
+      this.dimension = dimension;
+    }
+
+    @Override
+    public RandomAccessVectorValues randomAccess() {
+      return new BufferedVectorValues(docs, ords, vectors, searchStrategy, dimension);
+    }
+
+    @Override
+    public int dimension() {
+      return dimension;
+    }
+
+    @Override
+    public int size() {
+      return docs.length;
+    }
+
+    @Override
+    public SearchStrategy searchStrategy() {
+      return searchStrategy;
+    }
+
+    @Override
+    public float[] vectorValue() {
+      return vectors.get(ords[upto]);
+    }
+
+    @Override
+    public float[] vectorValue(int targetOrd) {
+      return vectors.get(ords[targetOrd]);
+    }
+
+    @Override
+    public int docID() {
+      if (upto < 0) {
+        return -1;
+      }
+      return upto < docs.length ? docs[upto] : NO_MORE_DOCS;
+    }
+
+    @Override
+    public int nextDoc() {
+      if (upto < docs.length) {
+        upto++;
+      }
+      return docID();
+    }
+
+    @Override
+    public int advance(int target) throws IOException {
+      return slowAdvance(target);
+    }
+
+    @Override
+    public long cost() {
+      return docs.length;
+    }
+  }
+}
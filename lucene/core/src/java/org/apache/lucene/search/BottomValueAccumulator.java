@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * Maintains the most competitive bottom value of the priority queues of {@link TopFieldCollector}s
+ * concurrently. Since the queue of a collector only holds hits that compare better than or equal
+ * to its bottom, any hit that compares worse than the bottom of any full queue can't make it into
+ * the global top hits.
+ */
+final class BottomValueAccumulator {
+  // we use 2^10-1 to check the remainder with a bitwise operation
+  static final int DEFAULT_INTERVAL = 0x3ff;
+
+  private final AtomicReference<Object[]> bottom = new AtomicReference<>();
+
+  // non-final and visible for tests
+  long modInterval;
+
+  BottomValueAccumulator() {
+    this.modInterval = DEFAULT_INTERVAL;
+  }
+
+  /**
+   * Records the sort values of the given slot, which must be the bottom of a full queue,
+   * if they are more competitive than the current bottom.
+   */
+  void accumulate(FieldComparator<?>[] comparators, int[] reverseMul, int slot) {
+    final Object[] values = new Object[comparators.length];
+    for (int i = 0; i < comparators.length; ++i) {
+      Object value = comparators[i].value(slot);
+      if (value instanceof BytesRef) {
+        // the comparator may reuse the bytes of a slot
+        value = BytesRef.deepCopyOf((BytesRef) value);
+      }
+      values[i] = value;
+    }
+    while (true) {
+      final Object[] current = bottom.get();
+      if (current != null && compare(comparators, reverseMul, values, current) >= 0) {
+        return;
+      }
+      if (bottom.compareAndSet(current, values)) {
+        return;
+      }
+    }
+  }
+
+  /** Returns the sort values of the most competitive bottom, or null if no queue is full yet. */
+  Object[] get() {
+    return bottom.get();
+  }
+
+  /**
+   * Returns true if the sort values of the given slot compare strictly worse than the
+   * most competitive bottom. Ties are considered competitive since the order of hits
+   * that have the same sort values depends on how top hits are merged.
+   */
+  boolean isWorseThanBottom(FieldComparator<?>[] comparators, int[] reverseMul, int slot) {
+    final Object[] current = bottom.get();
+    if (current == null) {
+      return false;
+    }
+    for (int i = 0; i < comparators.length; ++i) {
+      final int cmp = reverseMul[i] * compareValues(comparators[i], comparators[i].value(slot), current[i]);
+      if (cmp != 0) {
+        return cmp > 0;
+      }
+    }
+    return false;
+  }
+
+  private static int compare(FieldComparator<?>[] comparators, int[] reverseMul, Object[] values1, Object[] values2) {
+    for (int i = 0; i < comparators.length; ++i) {
+      final int cmp = reverseMul[i] * compareValues(comparators[i], values1[i], values2[i]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compareValues(FieldComparator<?> comparator, Object first, Object second) {
+    return ((FieldComparator<Object>) comparator).compareValues(first, second);
+  }
+}
@@ -0,0 +1,791 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import static org.apache.lucene.util.RamUsageEstimator.HASHTABLE_RAM_BYTES_PER_ENTRY;
+import static org.apache.lucene.util.RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED;
+
+/**
+ * A {@link QueryCache} that is designed for highly concurrent workloads. Unlike
+ * {@link LRUQueryCache}, which guards all operations with a single lock and
+ * skips the cache when this lock is contended, this cache performs lookups
+ * without any locking:
+ * <ul>
+ *   <li>cached {@link DocIdSet}s are stored in one concurrent map per segment,
+ *   <li>the recency of a query is tracked with a logical clock that is only
+ *   advanced when the recency order changes, so that repeated hits on the
+ *   most recently used query don't need to write to shared state,
+ *   <li>queries are kept in a concurrent sorted map keyed by this clock, so
+ *   that the least recently used query can be found without sorting,
+ *   <li>evictions are performed by a single thread at a time, other threads
+ *   never wait for evictions to complete.
+ * </ul>
+ *
+ * As a consequence, the cache may temporarily exceed its configured maximum
+ * size or RAM usage while another thread is evicting entries.
+ *
+ * It can be used as a drop-in replacement of {@link LRUQueryCache}:
+ * <pre class="prettyprint">
+ *   final QueryCache queryCache = new ConcurrentQueryCache(maxNumberOfCachedQueries, maxRamBytesUsed);
+ *   indexSearcher.setQueryCache(queryCache);
+ * </pre>
+ *
+ * This cache exposes the same statistics as {@link LRUQueryCache}:
+ * {@link #getHitCount() hit count}, {@link #getMissCount() miss count},
+ * {@link #getCacheSize() number of cache entries}, {@link #getCacheCount()
+ * total number of DocIdSets that have ever been cached} and
+ * {@link #getEvictionCount() number of evicted entries}, and the same
+ * callbacks to compute more fine-grained statistics: {@link #onHit},
+ * {@link #onMiss}, {@link #onQueryCache}, {@link #onQueryEviction},
+ * {@link #onDocIdSetCache}, {@link #onDocIdSetEviction} and {@link #onClear}.
+ * Unlike with {@link LRUQueryCache}, these callbacks are not called under a
+ * lock, so they may be called concurrently and must be thread-safe.
+ *
+ * @see QueryCachingPolicy
+ * @lucene.experimental
+ */
+public class ConcurrentQueryCache implements QueryCache, Accountable {
+
+  // ram usage of a unique query, excluding the query itself: its entries in
+  // uniqueQueries and in the recency order, and its recency tracker
+  static final long QUERY_ENTRY_RAM_BYTES_USED = 2 * HASHTABLE_RAM_BYTES_PER_ENTRY
+      + RamUsageEstimator.shallowSizeOfInstance(QueryEntry.class);
+
+  private final int maxSize;
+  private final long maxRamBytesUsed;
+  private final Predicate<LeafReaderContext> leavesToCache;
+  private final float skipCacheFactor;
+
+  // maps queries that are contained in the cache to a singleton so that this
+  // cache does not store several copies of the same query
+  private final Map<Query, QueryEntry> uniqueQueries;
+  // per-leaf caches may only store queries that are contained in uniqueQueries,
+  // see #putIfAbsent and #evict for how this is guaranteed without locking
+  private final Map<IndexReader.CacheKey, LeafCache> cache;
+  // logical clock, incremented every time a query becomes the most recently used one
+  private final AtomicLong clock;
+  // the queries of uniqueQueries, keyed by the value of the clock when they were last used
+  private final ConcurrentSkipListMap<Long, QueryEntry> recency;
+  // only one thread evicts at a time, other threads don't wait for it
+  private final ReentrantLock evictionLock;
+
+  private final AtomicLong ramBytesUsed;
+  private final LongAdder hitCount;
+  private final LongAdder missCount;
+  private final AtomicLong cacheCount;
+  private final AtomicLong cacheSize;
+
+  /**
+   * Expert: Create a new instance that will cache at most <code>maxSize</code>
+   * queries with at most <code>maxRamBytesUsed</code> bytes of memory, only on
+   * leaves that satisfy {@code leavesToCache}.
+   *
+   * Also, clauses whose cost is {@code skipCacheFactor} times more than the cost of the top-level query
+   * will not be cached in order to not slow down queries too much.
+   */
+  public ConcurrentQueryCache(int maxSize, long maxRamBytesUsed,
+                              Predicate<LeafReaderContext> leavesToCache, float skipCacheFactor) {
+    this.maxSize = maxSize;
+    this.maxRamBytesUsed = maxRamBytesUsed;
+    this.leavesToCache = leavesToCache;
+    if (skipCacheFactor >= 1 == false) { // NaN >= 1 evaluates false
+      throw new IllegalArgumentException("skipCacheFactor must be no less than 1, get " + skipCacheFactor);
+    }
+    this.skipCacheFactor = skipCacheFactor;
+
+    uniqueQueries = new ConcurrentHashMap<>();
+    cache = new ConcurrentHashMap<>();
+    clock = new AtomicLong();
+    recency = new ConcurrentSkipListMap<>();
+    evictionLock = new ReentrantLock();
+    ramBytesUsed = new AtomicLong();
+    hitCount = new LongAdder();
+    missCount = new LongAdder();
+    cacheCount = new AtomicLong();
+    cacheSize = new AtomicLong();
+  }
+
+  /**
+   * Create a new instance that will cache at most <code>maxSize</code> queries
+   * with at most <code>maxRamBytesUsed</code> bytes of memory. Like
+   * {@link LRUQueryCache#LRUQueryCache(int, long)}, queries will only be cached
+   * on leaves that have more than 10k documents and have more than 3% of the
+   * total number of documents in the index, and only clauses whose cost is at
+   * most 250x the cost of the top-level query will be cached.
+   */
+  public ConcurrentQueryCache(int maxSize, long maxRamBytesUsed) {
+    this(maxSize, maxRamBytesUsed, new LRUQueryCache.MinSegmentSizePredicate(10000, .03f), 250);
+  }
+
+  // pkg-private for testing
+  static long getRamBytesUsed(Query query) {
+    return QUERY_ENTRY_RAM_BYTES_USED
+        + (query instanceof Accountable ? ((Accountable) query).ramBytesUsed() : QUERY_DEFAULT_RAM_BYTES_USED);
+  }
+
+  /**
+   * Expert: callback when there is a cache hit on a given query.
+   * Implementing this method is typically useful in order to compute more
+   * fine-grained statistics about the query cache.
+   * @see #onMiss
+   * @lucene.experimental
+   */
+  protected void onHit(Object readerCoreKey, Query query) {
+    hitCount.increment();
+  }
+
+  /**
+   * Expert: callback when there is a cache miss on a given query.
+   * @see #onHit
+   * @lucene.experimental
+   */
+  protected void onMiss(Object readerCoreKey, Query query) {
+    assert query != null;
+    missCount.increment();
+  }
+
+  /**
+   * Expert: callback when a query is added to this cache.
+   * Implementing this method is typically useful in order to compute more
+   * fine-grained statistics about the query cache.
+   * @see #onQueryEviction
+   * @lucene.experimental
+   */
+  protected void onQueryCache(Query query, long ramBytesUsed) {
+    this.ramBytesUsed.addAndGet(ramBytesUsed);
+  }
+
+  /**
+   * Expert: callback when a query is evicted from this cache.
+   * @see #onQueryCache
+   * @lucene.experimental
+   */
+  protected void onQueryEviction(Query query, long ramBytesUsed) {
+    this.ramBytesUsed.addAndGet(-ramBytesUsed);
+  }
+
+  /**
+   * Expert: callback when a {@link DocIdSet} is added to this cache.
+   * Implementing this method is typically useful in order to compute more
+   * fine-grained statistics about the query cache.
+   * @see #onDocIdSetEviction
+   * @lucene.experimental
+   */
+  protected void onDocIdSetCache(Object readerCoreKey, long ramBytesUsed) {
+    cacheSize.incrementAndGet();
+    cacheCount.incrementAndGet();
+    this.ramBytesUsed.addAndGet(ramBytesUsed);
+  }
+
+  /**
+   * Expert: callback when one or more {@link DocIdSet}s are removed from this
+   * cache.
+   * @see #onDocIdSetCache
+   * @lucene.experimental
+   */
+  protected void onDocIdSetEviction(Object readerCoreKey, int numEntries, long sumRamBytesUsed) {
+    this.ramBytesUsed.addAndGet(-sumRamBytesUsed);
+    cacheSize.addAndGet(-numEntries);
+  }
+
+  /**
+   * Expert: callback when the cache is completely cleared. The removed
+   * queries and {@link DocIdSet}s have already been reported to
+   * {@link #onQueryEviction} and {@link #onDocIdSetEviction}.
+   * @lucene.experimental
+   */
+  protected void onClear() {
+  }
+
+  /** Whether evictions are required. */
+  boolean requiresEviction() {
+    final int size = uniqueQueries.size();
+    if (size == 0) {
+      return false;
+    } else {
+      return size > maxSize || ramBytesUsed() > maxRamBytesUsed;
+    }
+  }
+
+  DocIdSet get(Query key, IndexReader.CacheHelper cacheHelper) {
+    assert key instanceof BoostQuery == false;
+    assert key instanceof ConstantScoreQuery == false;
+    final IndexReader.CacheKey readerKey = cacheHelper.getKey();
+    final LeafCache leafCache = cache.get(readerKey);
+    if (leafCache == null) {
+      onMiss(readerKey, key);
+      return null;
+    }
+    final QueryEntry entry = uniqueQueries.get(key);
+    if (entry == null) {
+      onMiss(readerKey, key);
+      return null;
+    }
+    touch(entry);
+    final DocIdSet cached = leafCache.get(entry.query);
+    if (cached == null) {
+      onMiss(readerKey, entry.query);
+    } else {
+      onHit(readerKey, entry.query);
+    }
+    return cached;
+  }
+
+  private void putIfAbsent(Query query, DocIdSet set, IndexReader.CacheHelper cacheHelper) {
+    assert query instanceof BoostQuery == false;
+    assert query instanceof ConstantScoreQuery == false;
+    QueryEntry entry = uniqueQueries.get(query);
+    if (entry == null) {
+      final QueryEntry newEntry = new QueryEntry(query, getRamBytesUsed(query));
+      entry = uniqueQueries.putIfAbsent(query, newEntry);
+      if (entry == null) {
+        onQueryCache(query, newEntry.ramBytesUsed);
+        entry = newEntry;
+      }
+    }
+    moveToFront(entry);
+
+    final IndexReader.CacheKey key = cacheHelper.getKey();
+    LeafCache leafCache = cache.get(key);
+    if (leafCache == null) {
+      final LeafCache newLeafCache = new LeafCache(key);
+      leafCache = cache.putIfAbsent(key, newLeafCache);
+      if (leafCache == null) {
+        ramBytesUsed.addAndGet(HASHTABLE_RAM_BYTES_PER_ENTRY);
+        leafCache = newLeafCache;
+        // we just created a new leaf cache, need to register a close listener
+        cacheHelper.addClosedListener(this::clearCoreCacheKey);
+      }
+    }
+
+    if (leafCache.putIfAbsent(entry.query, set)) {
+      // The query might have been evicted, or the segment closed, concurrently, in which
+      // case the thread that evicted may have missed the entry that we just added. Both
+      // flags are set before entries get removed, so at least one of the two threads
+      // notices the other one and removes the entry.
+      if (entry.evicted || leafCache.closed) {
+        leafCache.remove(entry.query);
+      }
+    }
+    evictIfNecessary();
+  }
+
+  private void touch(QueryEntry entry) {
+    // avoid contention on the clock when this query is already the most recently used one
+    if (entry.lastAccess != clock.get()) {
+      moveToFront(entry);
+    }
+  }
+
+  private void moveToFront(QueryEntry entry) {
+    // synchronized so that the recency order has exactly one key per query that is not evicted
+    synchronized (entry) {
+      if (entry.evicted == false) {
+        recency.remove(entry.lastAccess, entry);
+        entry.lastAccess = clock.incrementAndGet();
+        recency.put(entry.lastAccess, entry);
+      }
+    }
+  }
+
+  private void evictIfNecessary() {
+    // re-check after releasing the lock in case another thread added entries
+    // while this thread was evicting
+    while (requiresEviction()) {
+      if (evictionLock.tryLock() == false) {
+        // another thread is evicting
+        return;
+      }
+      try {
+        while (requiresEviction()) {
+          final Map.Entry<Long, QueryEntry> eldest = recency.firstEntry();
+          if (eldest == null) {
+            // the remaining queries are being added by other threads, which evict once they are done
+            return;
+          }
+          if (evict(eldest.getValue()) == false) {
+            // concurrently evicted
+            recency.remove(eldest.getKey(), eldest.getValue());
+          }
+        }
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  /** Return whether this call evicted the entry. */
+  private boolean evict(QueryEntry entry) {
+    if (uniqueQueries.remove(entry.query, entry)) {
+      synchronized (entry) {
+        entry.evicted = true;
+        recency.remove(entry.lastAccess, entry);
+      }
+      onQueryEviction(entry.query, entry.ramBytesUsed);
+      for (LeafCache leafCache : cache.values()) {
+        leafCache.remove(entry.query);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Remove all cache entries for the given core cache key.
+   */
+  public void clearCoreCacheKey(Object coreKey) {
+    final LeafCache leafCache = cache.remove(coreKey);
+    if (leafCache != null) {
+      leafCache.closed = true;
+      ramBytesUsed.addAndGet(-HASHTABLE_RAM_BYTES_PER_ENTRY);
+      for (Query query : leafCache.cache.keySet()) {
+        leafCache.remove(query);
+      }
+    }
+  }
+
+  /**
+   * Remove all cache entries for the given query.
+   */
+  public void clearQuery(Query query) {
+    final QueryEntry entry = uniqueQueries.get(query);
+    if (entry != null) {
+      evict(entry);
+    }
+  }
+
+  /**
+   * Clear the content of this cache.
+   */
+  public void clear() {
+    for (QueryEntry entry : uniqueQueries.values()) {
+      evict(entry);
+    }
+    for (IndexReader.CacheKey key : cache.keySet()) {
+      clearCoreCacheKey(key);
+    }
+    onClear();
+  }
+
+  // pkg-private for testing
+  // must not be called concurrently with other operations
+  void assertConsistent() {
+    if (requiresEviction()) {
+      throw new AssertionError("requires evictions: size=" + uniqueQueries.size()
+          + ", maxSize=" + maxSize + ", ramBytesUsed=" + ramBytesUsed() + ", maxRamBytesUsed=" + maxRamBytesUsed);
+    }
+    if (recency.size() != uniqueQueries.size()) {
+      throw new AssertionError("recency order has " + recency.size() + " queries, but the cache has " + uniqueQueries.size());
+    }
+    long recomputedRamBytesUsed = HASHTABLE_RAM_BYTES_PER_ENTRY * cache.size();
+    for (QueryEntry entry : uniqueQueries.values()) {
+      recomputedRamBytesUsed += entry.ramBytesUsed;
+    }
+    long recomputedCacheSize = 0;
+    for (LeafCache leafCache : cache.values()) {
+      for (Map.Entry<Query, DocIdSet> entry : leafCache.cache.entrySet()) {
+        if (uniqueQueries.containsKey(entry.getKey()) == false) {
+          throw new AssertionError("One leaf cache contains a key that the top-level cache doesn't have: " + entry.getKey());
+        }
+        recomputedRamBytesUsed += HASHTABLE_RAM_BYTES_PER_ENTRY + entry.getValue().ramBytesUsed();
+        recomputedCacheSize++;
+      }
+    }
+    if (recomputedRamBytesUsed != ramBytesUsed()) {
+      throw new AssertionError("ramBytesUsed mismatch : " + ramBytesUsed() + " != " + recomputedRamBytesUsed);
+    }
+    if (recomputedCacheSize != getCacheSize()) {
+      throw new AssertionError("cacheSize mismatch : " + getCacheSize() + " != " + recomputedCacheSize);
+    }
+  }
+
+  // pkg-private for testing
+  // return the list of cached queries, from least to most recently used
+  List<Query> cachedQueries() {
+    final List<Query> queries = new ArrayList<>(recency.size());
+    for (QueryEntry entry : recency.values()) {
+      queries.add(entry.query);
+    }
+    return queries;
+  }
+
+  @Override
+  public Weight doCache(Weight weight, QueryCachingPolicy policy) {
+    while (weight instanceof CachingWrapperWeight) {
+      weight = ((CachingWrapperWeight) weight).in;
+    }
+
+    return new CachingWrapperWeight(weight, policy);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return ramBytesUsed.get();
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    return Accountables.namedAccountables("segment", cache);
+  }
+
+  /**
+   * Default cache implementation: uses {@link org.apache.lucene.util.RoaringDocIdSet} for sets that
+   * have a density &lt; 1% and a {@link org.apache.lucene.util.BitDocIdSet} over a
+   * {@link org.apache.lucene.util.FixedBitSet} otherwise.
+   */
+  protected DocIdSet cacheImpl(BulkScorer scorer, int maxDoc) throws IOException {
+    if (scorer.cost() * 100 >= maxDoc) {
+      // FixedBitSet is faster for dense sets and will enable the random-access
+      // optimization in ConjunctionDISI
+      return LRUQueryCache.cacheIntoBitSet(scorer, maxDoc);
+    } else {
+      return LRUQueryCache.cacheIntoRoaringDocIdSet(scorer, maxDoc);
+    }
+  }
+
+  /**
+   * Return the total number of times that a {@link Query} has been looked up
+   * in this {@link QueryCache}.
+   * @see LRUQueryCache#getTotalCount()
+   */
+  public final long getTotalCount() {
+    return getHitCount() + getMissCount();
+  }
+
+  /**
+   * Over the {@link #getTotalCount() total} number of times that a query has
+   * been looked up, return how many times a cached {@link DocIdSet} has been
+   * found and returned.
+   * @see LRUQueryCache#getHitCount()
+   */
+  public final long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * Over the {@link #getTotalCount() total} number of times that a query has
+   * been looked up, return how many times this query was not contained in the
+   * cache.
+   * @see LRUQueryCache#getMissCount()
+   */
+  public final long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * Return the total number of {@link DocIdSet}s which are currently stored
+   * in the cache.
+   * @see LRUQueryCache#getCacheSize()
+   */
+  public final long getCacheSize() {
+    return cacheSize.get();
+  }
+
+  /**
+   * Return the total number of cache entries that have been generated and put
+   * in the cache.
+   * @see LRUQueryCache#getCacheCount()
+   */
+  public final long getCacheCount() {
+    return cacheCount.get();
+  }
+
+  /**
+   * Return the number of cache entries that have been removed from the cache
+   * either in order to stay under the maximum configured size/ram usage, or
+   * because a segment has been closed.
+   * @see LRUQueryCache#getEvictionCount()
+   */
+  public final long getEvictionCount() {
+    return getCacheCount() - getCacheSize();
+  }
+
+  private static final class QueryEntry {
+
+    final Query query;
+    final long ramBytesUsed;
+    // value of the clock when this query was last used, 0 if it was never used
+    volatile long lastAccess;
+    volatile boolean evicted;
+
+    QueryEntry(Query query, long ramBytesUsed) {
+      this.query = query;
+      this.ramBytesUsed = ramBytesUsed;
+    }
+  }
+
+  private class LeafCache implements Accountable {
+
+    private final Object key;
+    private final Map<Query, DocIdSet> cache;
+    private final AtomicLong ramBytesUsed;
+    volatile boolean closed;
+
+    LeafCache(Object key) {
+      this.key = key;
+      cache = new ConcurrentHashMap<>();
+      ramBytesUsed = new AtomicLong();
+    }
+
+    DocIdSet get(Query query) {
+      return cache.get(query);
+    }
+
+    /** Return whether the set was actually added. */
+    boolean putIfAbsent(Query query, DocIdSet set) {
+      if (cache.putIfAbsent(query, set) == null) {
+        final long ramBytesUsed = HASHTABLE_RAM_BYTES_PER_ENTRY + set.ramBytesUsed();
+        this.ramBytesUsed.addAndGet(ramBytesUsed);
+        onDocIdSetCache(key, ramBytesUsed);
+        return true;
+      }
+      return false;
+    }
+
+    void remove(Query query) {
+      final DocIdSet removed = cache.remove(query);
+      if (removed != null) {
+        final long ramBytesUsed = HASHTABLE_RAM_BYTES_PER_ENTRY + removed.ramBytesUsed();
+        this.ramBytesUsed.addAndGet(-ramBytesUsed);
+        onDocIdSetEviction(key, 1, ramBytesUsed);
+      }
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return ramBytesUsed.get();
+    }
+
+  }
+
+  private class CachingWrapperWeight extends ConstantScoreWeight {
+
+    private final Weight in;
+    private final QueryCachingPolicy policy;
+    // we use an AtomicBoolean because Weight.scorer may be called from multiple
+    // threads when IndexSearcher is created with threads
+    private final AtomicBoolean used;
+
+    CachingWrapperWeight(Weight in, QueryCachingPolicy policy) {
+      super(in.getQuery(), 1f);
+      this.in = in;
+      this.policy = policy;
+      used = new AtomicBoolean(false);
+    }
+
+    @Override
+    public Matches matches(LeafReaderContext context, int doc) throws IOException {
+      return in.matches(context, doc);
+    }
+
+    private boolean cacheEntryHasReasonableWorstCaseSize(int maxDoc) {
+      // The worst-case (dense) is a bit set which needs one bit per document
+      final long worstCaseRamUsage = maxDoc / 8;
+      final long totalRamAvailable = maxRamBytesUsed;
+      // Imagine the worst-case that a cache entry is large than the size of
+      // the cache: not only will this entry be trashed immediately but it
+      // will also evict all current entries from the cache. For this reason
+      // we only cache on an IndexReader if we have available room for
+      // 5 different filters on this reader to avoid excessive trashing
+      return worstCaseRamUsage * 5 < totalRamAvailable;
+    }
+
+    private DocIdSet cache(LeafReaderContext context) throws IOException {
+      final BulkScorer scorer = in.bulkScorer(context);
+      if (scorer == null) {
+        return DocIdSet.EMPTY;
+      } else {
+        return cacheImpl(scorer, context.reader().maxDoc());
+      }
+    }
+
+    /** Check whether this segment is eligible for caching, regardless of the query. */
+    private boolean shouldCache(LeafReaderContext context) throws IOException {
+      return cacheEntryHasReasonableWorstCaseSize(ReaderUtil.getTopLevelContext(context).reader().maxDoc())
+          && leavesToCache.test(context);
+    }
+
+    @Override
+    public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+      if (used.compareAndSet(false, true)) {
+        policy.onUse(getQuery());
+      }
+
+      if (in.isCacheable(context) == false) {
+        // this segment is not suitable for caching
+        return in.scorerSupplier(context);
+      }
+
+      // Short-circuit: Check whether this segment is eligible for caching
+      // before we look up the cache
+      if (shouldCache(context) == false) {
+        return in.scorerSupplier(context);
+      }
+
+      final IndexReader.CacheHelper cacheHelper = context.reader().getCoreCacheHelper();
+      if (cacheHelper == null) {
+        // this reader has no cache helper
+        return in.scorerSupplier(context);
+      }
+
+      DocIdSet docIdSet = get(in.getQuery(), cacheHelper);
+
+      if (docIdSet == null) {
+        if (policy.shouldCache(in.getQuery())) {
+          final ScorerSupplier supplier = in.scorerSupplier(context);
+          if (supplier == null) {
+            putIfAbsent(in.getQuery(), DocIdSet.EMPTY, cacheHelper);
+            return null;
+          }
+
+          final long cost = supplier.cost();
+          return new ScorerSupplier() {
+            @Override
+            public Scorer get(long leadCost) throws IOException {
+              // skip cache operation which would slow query down too much
+              if (cost / skipCacheFactor > leadCost) {
+                return supplier.get(leadCost);
+              }
+
+              Scorer scorer = supplier.get(Long.MAX_VALUE);
+              DocIdSet docIdSet = cacheImpl(new DefaultBulkScorer(scorer), context.reader().maxDoc());
+              putIfAbsent(in.getQuery(), docIdSet, cacheHelper);
+              DocIdSetIterator disi = docIdSet.iterator();
+              if (disi == null) {
+                // docIdSet.iterator() is allowed to return null when empty but we want a non-null iterator here
+                disi = DocIdSetIterator.empty();
+              }
+
+              return new ConstantScoreScorer(CachingWrapperWeight.this, 0f, ScoreMode.COMPLETE_NO_SCORES, disi);
+            }
+
+            @Override
+            public long cost() {
+              return cost;
+            }
+          };
+        } else {
+          return in.scorerSupplier(context);
+        }
+      }
+
+      assert docIdSet != null;
+      if (docIdSet == DocIdSet.EMPTY) {
+        return null;
+      }
+      final DocIdSetIterator disi = docIdSet.iterator();
+      if (disi == null) {
+        return null;
+      }
+
+      return new ScorerSupplier() {
+        @Override
+        public Scorer get(long leadCost) throws IOException {
+          return new ConstantScoreScorer(CachingWrapperWeight.this, 0f, ScoreMode.COMPLETE_NO_SCORES, disi);
+        }
+
+        @Override
+        public long cost() {
+          return disi.cost();
+        }
+      };
+
+    }
+
+    @Override
+    public Scorer scorer(LeafReaderContext context) throws IOException {
+      ScorerSupplier scorerSupplier = scorerSupplier(context);
+      if (scorerSupplier == null) {
+        return null;
+      }
+      return scorerSupplier.get(Long.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isCacheable(LeafReaderContext ctx) {
+      return in.isCacheable(ctx);
+    }
+
+    @Override
+    public BulkScorer bulkScorer(LeafReaderContext context) throws IOException {
+      if (used.compareAndSet(false, true)) {
+        policy.onUse(getQuery());
+      }
+
+      if (in.isCacheable(context) == false) {
+        // this segment is not suitable for caching
+        return in.bulkScorer(context);
+      }
+
+      // Short-circuit: Check whether this segment is eligible for caching
+      // before we look up the cache
+      if (shouldCache(context) == false) {
+        return in.bulkScorer(context);
+      }
+
+      final IndexReader.CacheHelper cacheHelper = context.reader().getCoreCacheHelper();
+      if (cacheHelper == null) {
+        // this reader has no cacheHelper
+        return in.bulkScorer(context);
+      }
+
+      DocIdSet docIdSet = get(in.getQuery(), cacheHelper);
+
+      if (docIdSet == null) {
+        if (policy.shouldCache(in.getQuery())) {
+          docIdSet = cache(context);
+          putIfAbsent(in.getQuery(), docIdSet, cacheHelper);
+        } else {
+          return in.bulkScorer(context);
+        }
+      }
+
+      assert docIdSet != null;
+      if (docIdSet == DocIdSet.EMPTY) {
+        return null;
+      }
+      final DocIdSetIterator disi = docIdSet.iterator();
+      if (disi == null) {
+        return null;
+      }
+
+      return new DefaultBulkScorer(new ConstantScoreScorer(this, 0f, ScoreMode.COMPLETE_NO_SCORES, disi));
+    }
+
+  }
+}
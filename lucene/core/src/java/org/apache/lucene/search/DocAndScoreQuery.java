@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.index.IndexReaderContext;
+import org.apache.lucene.index.LeafReaderContext;
+
+/**
+ * A query that matches a fixed set of documents, each with a precomputed score. It is the result
+ * of rewriting a {@link KnnVectorQuery}, and is only valid for the reader it was rewritten
+ * against.
+ */
+final class DocAndScoreQuery extends Query {
+
+  private final int k;
+  private final int[] docs;
+  private final float[] scores;
+  private final int[] segmentStarts;
+  private final IndexReaderContext readerContext;
+
+  /**
+   * Constructor
+   * @param k the number of documents requested
+   * @param docs the global docids of documents that match, in ascending order
+   * @param scores the scores of the matching documents
+   * @param segmentStarts the indexes in docs and scores corresponding to the first matching
+   *     document in each segment. If a segment has no matching documents, it should be assigned
+   *     the index of the next segment that does. There should be a final entry that is always
+   *     docs.length.
+   * @param readerContext the top-level context of the reader the docids refer to
+   */
+  DocAndScoreQuery(int k, int[] docs, float[] scores, int[] segmentStarts, IndexReaderContext readerContext) {
+    this.k = k;
+    this.docs = docs;
+    this.scores = scores;
+    this.segmentStarts = segmentStarts;
+    this.readerContext = readerContext;
+  }
+
+  @Override
+  public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+    if (searcher.getTopReaderContext() != readerContext) {
+      throw new IllegalStateException("This DocAndScore query was created by a different reader");
+    }
+    return new Weight(this) {
+      @Override
+      public Explanation explain(LeafReaderContext context, int doc) {
+        int found = Arrays.binarySearch(docs, doc + context.docBase);
+        if (found < 0) {
+          return Explanation.noMatch("not in top " + k);
+        }
+        return Explanation.match(scores[found] * boost, "within top " + k);
+      }
+
+      @Override
+      public Scorer scorer(LeafReaderContext context) {
+        if (segmentStarts[context.ord] == segmentStarts[context.ord + 1]) {
+          return null;
+        }
+        return new Scorer(this) {
+          final int lower = segmentStarts[context.ord];
+          final int upper = segmentStarts[context.ord + 1];
+          int upTo = -1;
+
+          @Override
+          public DocIdSetIterator iterator() {
+            return new DocIdSetIterator() {
+              @Override
+              public int docID() {
+                return docIdNoShadow();
+              }
+
+              @Override
+              public int nextDoc() {
+                if (upTo == -1) {
+                  upTo = lower;
+                } else {
+                  ++upTo;
+                }
+                return docIdNoShadow();
+              }
+
+              @Override
+              public int advance(int target) throws IOException {
+                return slowAdvance(target);
+              }
+
+              @Override
+              public long cost() {
+                return upper - lower;
+              }
+            };
+          }
+
+          @Override
+          public float getMaxScore(int docId) {
+            float maxScore = 0;
+            for (int idx = Math.max(lower, upTo); idx < upper && docs[idx] - context.docBase <= docId; idx++) {
+              maxScore = Math.max(maxScore, scores[idx]);
+            }
+            return maxScore * boost;
+          }
+
+          @Override
+          public float score() {
+            return scores[upTo] * boost;
+          }
+
+          @Override
+          public int advanceShallow(int docid) {
+            int start = Math.max(upTo, lower);
+            int docidIndex = Arrays.binarySearch(docs, start, upper, docid + context.docBase);
+            if (docidIndex < 0) {
+              docidIndex = -1 - docidIndex;
+            }
+            if (docidIndex >= upper) {
+              return DocIdSetIterator.NO_MORE_DOCS;
+            }
+            return docs[docidIndex] - context.docBase;
+          }
+
+          /**
+           * move the implementation of docID() into a differently-named method so we can call it
+           * from DocIDSetIterator.docID() even though this class is anonymous
+           *
+           * @return the current docid
+           */
+          private int docIdNoShadow() {
+            if (upTo == -1) {
+              return -1;
+            }
+            if (upTo >= upper) {
+              return DocIdSetIterator.NO_MORE_DOCS;
+            }
+            return docs[upTo] - context.docBase;
+          }
+
+          @Override
+          public int docID() {
+            return docIdNoShadow();
+          }
+        };
+      }
+
+      @Override
+      public boolean isCacheable(LeafReaderContext ctx) {
+        // the matching documents are only valid for the reader the query was rewritten against
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public String toString(String field) {
+    return "DocAndScore[" + k + "]";
+  }
+
+  @Override
+  public void visit(QueryVisitor visitor) {
+    visitor.visitLeaf(this);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (sameClassAs(obj) == false) {
+      return false;
+    }
+    DocAndScoreQuery other = (DocAndScoreQuery) obj;
+    return readerContext == other.readerContext
+        && Arrays.equals(docs, other.docs)
+        && Arrays.equals(scores, other.scores);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * classHash() + 31 * Arrays.hashCode(docs) + Arrays.hashCode(scores);
+  }
+}
@@ -152,8 +152,12 @@ public final class IndexOrDocValuesQuery extends Query {
             // still need to perform one comparison per document while points can
             // do much better than that given how values are organized. So we give
             // an arbitrary 8x penalty to doc values.
-            final long threshold = cost() >>> 3;
-            if (threshold <= leadCost) {
+            final long threshold = indexScorerSupplier.cost() >>> 3;
+            // Doc values need to check at most as many documents as the lead
+            // iterator matches, and may need to check fewer if they can skip
+            // over blocks of documents that can't match.
+            final long dvCost = Math.min(leadCost, dvScorerSupplier.cost());
+            if (threshold <= dvCost) {
               return indexScorerSupplier.get(leadCost);
             } else {
               return dvScorerSupplier.get(leadCost);
@@ -162,7 +166,7 @@ public final class IndexOrDocValuesQuery extends Query {
 
           @Override
           public long cost() {
-            return indexScorerSupplier.cost();
+            return Math.min(indexScorerSupplier.cost(), dvScorerSupplier.cost());
           }
         };
       }
@@ -34,6 +34,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Supplier;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexReaderContext;
@@ -46,6 +47,7 @@ import org.apache.lucene.index.Terms;
 import org.apache.lucene.search.similarities.BM25Similarity;
 import org.apache.lucene.search.similarities.Similarity;
 import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.ThreadInterruptedException;
 import org.apache.lucene.util.automaton.ByteRunAutomaton;
@@ -306,7 +308,9 @@ public class IndexSearcher {
   /**
    * Expert: Creates an array of leaf slices each holding a subset of the given leaves.
    * Each {@link LeafSlice} is executed in a single thread. By default, segments with more than
-   * MAX_DOCS_PER_SLICE will get their own thread
+   * MAX_DOCS_PER_SLICE will get their own thread. Override this method and call
+   * {@link #slices(List, int, int, boolean)} with {@code allowSegmentPartitions=true} in
+   * order to also split large segments across multiple threads.
    */
   protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
     return slices(leaves, MAX_DOCS_PER_SLICE, MAX_SEGMENTS_PER_SLICE);
@@ -317,6 +321,23 @@ public class IndexSearcher {
    */
   public static LeafSlice[] slices (List<LeafReaderContext> leaves, int maxDocsPerSlice,
                                     int maxSegmentsPerSlice) {
+    return slices(leaves, maxDocsPerSlice, maxSegmentsPerSlice, false);
+  }
+
+  /**
+   * Static method to segregate LeafReaderContexts amongst multiple slices. If
+   * {@code allowSegmentPartitions} is true, segments that have more than
+   * {@code maxDocsPerSlice} documents are split into doc ID ranges of roughly equal size that
+   * each get their own slice, so that a single large segment can be searched by several threads
+   * concurrently. Otherwise such segments get a slice of their own.
+   *
+   * @lucene.experimental
+   */
+  public static LeafSlice[] slices (List<LeafReaderContext> leaves, int maxDocsPerSlice,
+                                    int maxSegmentsPerSlice, boolean allowSegmentPartitions) {
+    if (maxDocsPerSlice <= 0) {
+      throw new IllegalArgumentException("maxDocsPerSlice must be > 0, got " + maxDocsPerSlice);
+    }
     // Make a copy so we can sort:
     List<LeafReaderContext> sortedLeaves = new ArrayList<>(leaves);
 
@@ -327,10 +348,22 @@ public class IndexSearcher {
     final List<List<LeafReaderContext>> groupedLeaves = new ArrayList<>();
     long docSum = 0;
     List<LeafReaderContext> group = null;
+    final List<LeafSlice> partitionedSlices = new ArrayList<>();
     for (LeafReaderContext ctx : sortedLeaves) {
-      if (ctx.reader().maxDoc() > maxDocsPerSlice) {
+      final int maxDoc = ctx.reader().maxDoc();
+      if (maxDoc > maxDocsPerSlice) {
         assert group == null;
-        groupedLeaves.add(Collections.singletonList(ctx));
+        if (allowSegmentPartitions) {
+          final int numPartitions = (int) ((maxDoc + (long) maxDocsPerSlice - 1) / maxDocsPerSlice);
+          for (int i = 0; i < numPartitions; ++i) {
+            // spread the remainder across partitions so that none exceeds maxDocsPerSlice
+            final int minDocId = (int) ((long) i * maxDoc / numPartitions);
+            final int maxDocId = (int) ((long) (i + 1) * maxDoc / numPartitions);
+            partitionedSlices.add(new LeafSlice(LeafReaderContextPartition.createFromAndTo(ctx, minDocId, maxDocId)));
+          }
+        } else {
+          groupedLeaves.add(Collections.singletonList(ctx));
+        }
       } else {
         if (group == null) {
           group = new ArrayList<>();
@@ -349,8 +382,12 @@ public class IndexSearcher {
       }
     }
 
-    LeafSlice[] slices = new LeafSlice[groupedLeaves.size()];
+    LeafSlice[] slices = new LeafSlice[partitionedSlices.size() + groupedLeaves.size()];
     int upto = 0;
+    for (LeafSlice partitionedSlice : partitionedSlices) {
+      slices[upto] = partitionedSlice;
+      ++upto;
+    }
     for (List<LeafReaderContext> currentLeaf : groupedLeaves) {
       slices[upto] = new LeafSlice(currentLeaf);
       ++upto;
@@ -388,6 +425,43 @@ public class IndexSearcher {
     return reader.document(docID, fieldsToLoad);
   }
 
+  /**
+   * Returns the stored fields of the given documents, e.g. the hits of a
+   * result page, in the same order as {@code docIDs}. This is more efficient
+   * than calling {@link #doc(int)} for each document, as documents get loaded
+   * in doc ID order through {@link IndexReader#documents}. If the same doc ID
+   * occurs several times, the same {@link Document} instance is returned for
+   * every occurrence.
+   */
+  public Document[] docs(int[] docIDs) throws IOException {
+    return docs(docIDs, null);
+  }
+
+  /**
+   * Like {@link #docs(int[])} but only loads the specified fields.
+   */
+  public Document[] docs(int[] docIDs, Set<String> fieldsToLoad) throws IOException {
+    final int[] sortedDocIDs = ArrayUtil.copyOfSubArray(docIDs, 0, docIDs.length);
+    Arrays.sort(sortedDocIDs);
+    int numUnique = 0;
+    for (int i = 0; i < sortedDocIDs.length; ++i) {
+      if (i == 0 || sortedDocIDs[i] != sortedDocIDs[i - 1]) {
+        sortedDocIDs[numUnique++] = sortedDocIDs[i];
+      }
+    }
+    final int[] uniqueDocIDs = ArrayUtil.copyOfSubArray(sortedDocIDs, 0, numUnique);
+    final DocumentStoredFieldVisitor[] visitors = new DocumentStoredFieldVisitor[numUnique];
+    reader.documents(uniqueDocIDs, docID -> {
+      final int index = Arrays.binarySearch(uniqueDocIDs, docID);
+      return visitors[index] = new DocumentStoredFieldVisitor(fieldsToLoad);
+    });
+    final Document[] docs = new Document[docIDs.length];
+    for (int i = 0; i < docIDs.length; ++i) {
+      docs[i] = visitors[Arrays.binarySearch(uniqueDocIDs, docIDs[i])].getDocument();
+    }
+    return docs;
+  }
+
   /** Expert: Set the Similarity implementation used by this IndexSearcher.
    *
    */
@@ -617,10 +691,12 @@ public class IndexSearcher {
 
       private final MaxScoreAccumulator minScoreAcc = (executor == null || leafSlices.length <= 1) ? null : new MaxScoreAccumulator();
 
+      private final BottomValueAccumulator bottomValueAcc = (executor == null || leafSlices.length <= 1) ? null : new BottomValueAccumulator();
+
       @Override
       public TopFieldCollector newCollector() throws IOException {
         // TODO: don't pay the price for accurate hit counts by default
-        return TopFieldCollector.create(rewrittenSort, cappedNumHits, after, hitsThresholdChecker, minScoreAcc);
+        return TopFieldCollector.create(rewrittenSort, cappedNumHits, after, hitsThresholdChecker, minScoreAcc, bottomValueAcc);
       }
 
       @Override
@@ -676,10 +752,14 @@ public class IndexSearcher {
       final Weight weight = createWeight(query, scoreMode, 1);
       final List<FutureTask<C>> listTasks = new ArrayList<>();
       for (int i = 0; i < leafSlices.length; ++i) {
-        final LeafReaderContext[] leaves = leafSlices[i].leaves;
+        final LeafSlice slice = leafSlices[i];
         final C collector = collectors.get(i);
         FutureTask<C> task = new FutureTask<>(() -> {
-          search(Arrays.asList(leaves), weight, collector);
+          if (slice.isPartitioned()) {
+            search(slice.partitions, weight, collector);
+          } else {
+            search(Arrays.asList(slice.leaves), weight, collector);
+          }
           return collector;
         });
 
@@ -747,6 +827,47 @@ public class IndexSearcher {
     }
   }
 
+  /**
+   * Lower-level search API.
+   *
+   * <p>
+   * Same as {@link #search(List, Weight, Collector)}, but only collects documents whose doc ID
+   * is within the range of each {@link LeafReaderContextPartition}. A new {@link LeafCollector}
+   * is pulled from the collector for every partition, and partitions are expected to be in doc ID
+   * order.
+   *
+   * @param partitions
+   *          the partitions of the searchers leaves to execute the searches on
+   * @param weight
+   *          to match documents
+   * @param collector
+   *          to receive hits
+   * @lucene.experimental
+   */
+  protected void search(LeafReaderContextPartition[] partitions, Weight weight, Collector collector)
+      throws IOException {
+    for (LeafReaderContextPartition partition : partitions) {
+      final LeafReaderContext ctx = partition.ctx;
+      final LeafCollector leafCollector;
+      try {
+        leafCollector = collector.getLeafCollector(ctx);
+      } catch (CollectionTerminatedException e) {
+        // there is no doc of interest in this reader context
+        // continue with the following partition
+        continue;
+      }
+      BulkScorer scorer = weight.bulkScorer(ctx);
+      if (scorer != null) {
+        try {
+          scorer.score(leafCollector, ctx.reader().getLiveDocs(), partition.minDocId, partition.maxDocId);
+        } catch (CollectionTerminatedException e) {
+          // collection was terminated prematurely
+          // continue with the following partition
+        }
+      }
+    }
+  }
+
   /** Expert: called to re-write queries into primitive queries.
    * @throws TooManyClauses If a query would exceed
    *         {@link IndexSearcher#getMaxClauseCount()} clauses.
@@ -874,10 +995,101 @@ public class IndexSearcher {
      *
      *  @lucene.experimental */
     public final LeafReaderContext[] leaves;
-    
+
+    /** The doc ID ranges of {@link #leaves} that this slice is responsible for, in doc ID order.
+     *  Unless this slice was created from partitions, there is exactly one partition per leaf
+     *  which covers the entire leaf.
+     *
+     *  @lucene.experimental */
+    public final LeafReaderContextPartition[] partitions;
+
     public LeafSlice(List<LeafReaderContext> leavesList) {
       Collections.sort(leavesList, Comparator.comparingInt(l -> l.docBase));
       this.leaves = leavesList.toArray(new LeafReaderContext[0]);
+      this.partitions = new LeafReaderContextPartition[leaves.length];
+      for (int i = 0; i < leaves.length; ++i) {
+        partitions[i] = LeafReaderContextPartition.createForEntireSegment(leaves[i]);
+      }
+    }
+
+    /** Create a slice out of the given partitions, which must not overlap.
+     *
+     *  @lucene.experimental */
+    public LeafSlice(LeafReaderContextPartition... partitions) {
+      this.partitions = partitions.clone();
+      Arrays.sort(this.partitions, Comparator.<LeafReaderContextPartition>comparingInt(p -> p.ctx.docBase)
+          .thenComparingInt(p -> p.minDocId));
+      final List<LeafReaderContext> leavesList = new ArrayList<>();
+      for (int i = 0; i < this.partitions.length; ++i) {
+        final LeafReaderContextPartition partition = this.partitions[i];
+        if (i > 0) {
+          final LeafReaderContextPartition previous = this.partitions[i - 1];
+          if (previous.ctx == partition.ctx) {
+            if (previous.maxDocId > partition.minDocId) {
+              throw new IllegalArgumentException("Overlapping partitions: " + previous + " and " + partition);
+            }
+            continue;
+          }
+        }
+        leavesList.add(partition.ctx);
+      }
+      this.leaves = leavesList.toArray(new LeafReaderContext[0]);
+    }
+
+    /** Return whether some of the partitions of this slice only cover a subset of their leaf. */
+    boolean isPartitioned() {
+      for (LeafReaderContextPartition partition : partitions) {
+        if (partition.minDocId != 0 || partition.maxDocId != DocIdSetIterator.NO_MORE_DOCS) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A range of doc IDs {@code [minDocId, maxDocId)} of a {@link LeafReaderContext}. Partitions
+   * allow multiple threads to search different ranges of the same segment concurrently.
+   *
+   * @lucene.experimental
+   */
+  public static final class LeafReaderContextPartition {
+
+    /** The leaf this partition belongs to. */
+    public final LeafReaderContext ctx;
+    /** The first doc ID of this partition, inclusive. */
+    public final int minDocId;
+    /** The last doc ID of this partition, exclusive. */
+    public final int maxDocId;
+
+    private LeafReaderContextPartition(LeafReaderContext ctx, int minDocId, int maxDocId) {
+      if (minDocId < 0) {
+        throw new IllegalArgumentException("minDocId must be >= 0, got " + minDocId);
+      }
+      if (minDocId >= maxDocId) {
+        throw new IllegalArgumentException("minDocId must be < maxDocId, got minDocId=" + minDocId + " maxDocId=" + maxDocId);
+      }
+      this.ctx = Objects.requireNonNull(ctx);
+      this.minDocId = minDocId;
+      this.maxDocId = maxDocId;
+    }
+
+    /** Create a partition that covers the whole leaf. */
+    public static LeafReaderContextPartition createForEntireSegment(LeafReaderContext ctx) {
+      return new LeafReaderContextPartition(ctx, 0, DocIdSetIterator.NO_MORE_DOCS);
+    }
+
+    /** Create a partition that covers doc IDs {@code [minDocId, maxDocId)} of the given leaf. */
+    public static LeafReaderContextPartition createFromAndTo(LeafReaderContext ctx, int minDocId, int maxDocId) {
+      if (maxDocId > ctx.reader().maxDoc()) {
+        throw new IllegalArgumentException("maxDocId must be <= maxDoc=" + ctx.reader().maxDoc() + ", got " + maxDocId);
+      }
+      return new LeafReaderContextPartition(ctx, minDocId, maxDocId);
+    }
+
+    @Override
+    public String toString() {
+      return "LeafReaderContextPartition(ord=" + ctx.ord + ", minDocId=" + minDocId + ", maxDocId=" + maxDocId + ")";
     }
   }
 
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+
+/**
+ * Uses {@link org.apache.lucene.index.LeafReader#searchNearestVectors} to perform nearest
+ * neighbour search.
+ *
+ * <p>This query also allows for performing a kNN search subject to a filter. In this case, it
+ * first executes the filter for each leaf, then chooses a strategy dynamically:
+ *
+ * <ul>
+ *   <li>If the filter matches at most {@code k} documents, perform an exact search over the
+ *       vectors of the matching documents.
+ *   <li>Otherwise, perform an approximate HNSW search that only returns documents that match
+ *       the filter.
+ * </ul>
+ *
+ * <p>The query is rewritten into a query that only matches the top {@code k} documents across
+ * the whole index, so that it can be combined with other queries.
+ *
+ * @lucene.experimental
+ */
+public class KnnVectorQuery extends Query {
+
+  private static final TopDocs NO_RESULTS = new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+
+  private final String field;
+  private final float[] target;
+  private final int k;
+  private final Query filter;
+
+  /**
+   * Find the <code>k</code> nearest documents to the target vector according to the vectors in the
+   * given field.
+   *
+   * @param field a field that has been indexed as a {@link org.apache.lucene.document.VectorField}.
+   * @param target the target of the search
+   * @param k the number of documents to find
+   * @throws IllegalArgumentException if <code>k</code> is less than 1
+   */
+  public KnnVectorQuery(String field, float[] target, int k) {
+    this(field, target, k, null);
+  }
+
+  /**
+   * Find the <code>k</code> nearest documents to the target vector according to the vectors in the
+   * given field, among the documents that match the given filter.
+   *
+   * @param field a field that has been indexed as a {@link org.apache.lucene.document.VectorField}.
+   * @param target the target of the search
+   * @param k the number of documents to find
+   * @param filter a filter applied before the vector search, or null to consider all documents
+   * @throws IllegalArgumentException if <code>k</code> is less than 1
+   */
+  public KnnVectorQuery(String field, float[] target, int k, Query filter) {
+    this.field = Objects.requireNonNull(field, "field");
+    this.target = Objects.requireNonNull(target, "target");
+    if (k < 1) {
+      throw new IllegalArgumentException("k must be at least 1, got: " + k);
+    }
+    this.k = k;
+    this.filter = filter;
+  }
+
+  @Override
+  public Query rewrite(IndexReader reader) throws IOException {
+    TopDocs[] perLeafResults = new TopDocs[reader.leaves().size()];
+
+    Weight filterWeight = null;
+    if (filter != null) {
+      IndexSearcher indexSearcher = new IndexSearcher(reader);
+      indexSearcher.setQueryCache(null);
+      Query rewritten = indexSearcher.rewrite(filter);
+      filterWeight = indexSearcher.createWeight(rewritten, ScoreMode.COMPLETE_NO_SCORES, 1f);
+    }
+
+    for (LeafReaderContext ctx : reader.leaves()) {
+      TopDocs results = searchLeaf(ctx, filterWeight);
+      if (ctx.docBase > 0) {
+        for (ScoreDoc scoreDoc : results.scoreDocs) {
+          scoreDoc.doc += ctx.docBase;
+        }
+      }
+      perLeafResults[ctx.ord] = results;
+    }
+    // Merge sort the results
+    TopDocs topK = TopDocs.merge(k, perLeafResults);
+    if (topK.scoreDocs.length == 0) {
+      return new MatchNoDocsQuery();
+    }
+    return createRewrittenQuery(reader, topK);
+  }
+
+  private TopDocs searchLeaf(LeafReaderContext ctx, Weight filterWeight) throws IOException {
+    Bits liveDocs = ctx.reader().getLiveDocs();
+    if (filterWeight == null) {
+      TopDocs results = ctx.reader().searchNearestVectors(field, target, k, liveDocs);
+      return results == null ? NO_RESULTS : results;
+    }
+
+    Scorer scorer = filterWeight.scorer(ctx);
+    if (scorer == null) {
+      return NO_RESULTS;
+    }
+    FixedBitSet acceptDocs = new FixedBitSet(ctx.reader().maxDoc());
+    int cost = 0;
+    DocIdSetIterator iterator = scorer.iterator();
+    for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+      if (liveDocs == null || liveDocs.get(doc)) {
+        acceptDocs.set(doc);
+        cost++;
+      }
+    }
+    if (cost == 0) {
+      return NO_RESULTS;
+    }
+    if (cost <= k) {
+      // the filter is restrictive enough that a brute-force search is cheaper than the graph search
+      return exactSearch(ctx, acceptDocs);
+    }
+    TopDocs results = ctx.reader().searchNearestVectors(field, target, k, acceptDocs);
+    return results == null ? NO_RESULTS : results;
+  }
+
+  // We allow this to be overridden so that tests can check what search strategy is used
+  TopDocs exactSearch(LeafReaderContext context, FixedBitSet acceptDocs) throws IOException {
+    VectorValues vectorValues = context.reader().getVectorValues(field);
+    if (vectorValues == null) {
+      return NO_RESULTS;
+    }
+    VectorValues.SearchStrategy searchStrategy = vectorValues.searchStrategy();
+    HitQueue queue = new HitQueue(k, false);
+    int count = 0;
+    for (int doc = acceptDocs.nextSetBit(0); doc != DocIdSetIterator.NO_MORE_DOCS;
+         doc = doc + 1 < acceptDocs.length() ? acceptDocs.nextSetBit(doc + 1) : DocIdSetIterator.NO_MORE_DOCS) {
+      if (vectorValues.docID() < doc) {
+        vectorValues.advance(doc);
+      }
+      if (vectorValues.docID() == DocIdSetIterator.NO_MORE_DOCS) {
+        break;
+      }
+      if (vectorValues.docID() == doc) {
+        float score = searchStrategy.similarity(target, vectorValues.vectorValue());
+        queue.insertWithOverflow(new ScoreDoc(doc, score));
+        count++;
+      }
+    }
+    ScoreDoc[] topScoreDocs = new ScoreDoc[queue.size()];
+    for (int i = topScoreDocs.length - 1; i >= 0; i--) {
+      topScoreDocs[i] = queue.pop();
+    }
+    return new TopDocs(new TotalHits(count, TotalHits.Relation.EQUAL_TO), topScoreDocs);
+  }
+
+  private Query createRewrittenQuery(IndexReader reader, TopDocs topK) {
+    int len = topK.scoreDocs.length;
+    Arrays.sort(topK.scoreDocs, (a, b) -> a.doc - b.doc);
+    int[] docs = new int[len];
+    float[] scores = new float[len];
+    for (int i = 0; i < len; i++) {
+      docs[i] = topK.scoreDocs[i].doc;
+      scores[i] = topK.scoreDocs[i].score;
+    }
+    int[] segmentStarts = findSegmentStarts(reader, docs);
+    return new DocAndScoreQuery(k, docs, scores, segmentStarts, reader.getContext());
+  }
+
+  private static int[] findSegmentStarts(IndexReader reader, int[] docs) {
+    int[] starts = new int[reader.leaves().size() + 1];
+    starts[starts.length - 1] = docs.length;
+    if (starts.length == 2) {
+      return starts;
+    }
+    int resultIndex = 0;
+    for (int i = 1; i < starts.length - 1; i++) {
+      int upper = reader.leaves().get(i).docBase;
+      resultIndex = Arrays.binarySearch(docs, resultIndex, docs.length, upper);
+      if (resultIndex < 0) {
+        resultIndex = -1 - resultIndex;
+      }
+      starts[i] = resultIndex;
+    }
+    return starts;
+  }
+
+  /** Returns the field being searched */
+  public String getField() {
+    return field;
+  }
+
+  /** Returns the number of documents to find */
+  public int getK() {
+    return k;
+  }
+
+  /** Returns the filter, or null if none was provided */
+  public Query getFilter() {
+    return filter;
+  }
+
+  @Override
+  public String toString(String field) {
+    StringBuilder buffer = new StringBuilder();
+    buffer.append("<vector:").append(this.field).append("[")
+        .append(target[0]).append(",...][").append(k).append("]");
+    if (filter != null) {
+      buffer.append("[").append(filter).append("]");
+    }
+    buffer.append(">");
+    return buffer.toString();
+  }
+
+  @Override
+  public void visit(QueryVisitor visitor) {
+    if (visitor.acceptField(field)) {
+      visitor.visitLeaf(this);
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return sameClassAs(obj) &&
+        equalsTo(getClass().cast(obj));
+  }
+
+  private boolean equalsTo(KnnVectorQuery other) {
+    return k == other.k &&
+        field.equals(other.field) &&
+        Arrays.equals(target, other.target) &&
+        Objects.equals(filter, other.filter);
+  }
+
+  @Override
+  public int hashCode() {
+    int h = classHash();
+    h = 31 * h + field.hashCode();
+    h = 31 * h + Arrays.hashCode(target);
+    h = 31 * h + k;
+    h = 31 * h + Objects.hashCode(filter);
+    return h;
+  }
+}
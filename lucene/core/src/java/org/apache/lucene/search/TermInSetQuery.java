@@ -270,26 +270,25 @@ public class TermInSetQuery extends Query implements Accountable {
         List<TermAndState> matchingTerms = new ArrayList<>(threshold);
         DocIdSetBuilder builder = null;
 
-        for (BytesRef term = iterator.next(); term != null; term = iterator.next()) {
+        // terms are sorted, so look them up in a single pass over the terms dictionary
+        while (termsEnum.seekExactNext(iterator)) {
           assert field.equals(iterator.field());
-          if (termsEnum.seekExact(term)) {
-            if (matchingTerms == null) {
-              docs = termsEnum.postings(docs, PostingsEnum.NONE);
+          if (matchingTerms == null) {
+            docs = termsEnum.postings(docs, PostingsEnum.NONE);
+            builder.add(docs);
+          } else if (matchingTerms.size() < threshold) {
+            matchingTerms.add(new TermAndState(field, termsEnum));
+          } else {
+            assert matchingTerms.size() == threshold;
+            builder = new DocIdSetBuilder(reader.maxDoc(), terms);
+            docs = termsEnum.postings(docs, PostingsEnum.NONE);
+            builder.add(docs);
+            for (TermAndState t : matchingTerms) {
+              t.termsEnum.seekExact(t.term, t.state);
+              docs = t.termsEnum.postings(docs, PostingsEnum.NONE);
               builder.add(docs);
-            } else if (matchingTerms.size() < threshold) {
-              matchingTerms.add(new TermAndState(field, termsEnum));
-            } else {
-              assert matchingTerms.size() == threshold;
-              builder = new DocIdSetBuilder(reader.maxDoc(), terms);
-              docs = termsEnum.postings(docs, PostingsEnum.NONE);
-              builder.add(docs);
-              for (TermAndState t : matchingTerms) {
-                t.termsEnum.seekExact(t.term, t.state);
-                docs = t.termsEnum.postings(docs, PostingsEnum.NONE);
-                builder.add(docs);
-              }
-              matchingTerms = null;
             }
+            matchingTerms = null;
           }
         }
         if (matchingTerms != null) {
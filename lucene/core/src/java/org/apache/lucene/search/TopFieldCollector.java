@@ -87,6 +87,9 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
       if (minScoreAcc != null && (totalHits & minScoreAcc.modInterval) == 0) {
         updateGlobalMinCompetitiveScore(scorer);
       }
+      if (bottomValueAcc != null && queueFull && (totalHits & bottomValueAcc.modInterval) == 0) {
+        bottomValueAcc.accumulate(fieldComparators, reverseMuls, bottom.slot);
+      }
       if (scoreMode.isExhaustive() == false && totalHitsRelation == TotalHits.Relation.EQUAL_TO &&
               hitsThresholdChecker.isThresholdReached()) {
         // for the first time hitsThreshold is reached, notify comparator about this
@@ -101,6 +104,10 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
         // this document is largest than anything else in the queue, and
         // therefore not competitive.
         if (canEarlyTerminate) {
+          if (bottomValueAcc != null && collectedAllCompetitiveHits == false) {
+            // the local queue won't change anymore for this leaf, share its bottom with other slices
+            bottomValueAcc.accumulate(fieldComparators, reverseMuls, bottom.slot);
+          }
           if (hitsThresholdChecker.isThresholdReached()) {
             totalHitsRelation = Relation.GREATER_THAN_OR_EQUAL_TO;
             throw new CollectionTerminatedException();
@@ -119,10 +126,12 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
 
     void collectCompetitiveHit(int doc) throws IOException {
       // This hit is competitive - replace bottom element in queue & adjustTop
-      comparator.copy(bottom.slot, doc);
+      final int slot = bottom.slot;
+      comparator.copy(slot, doc);
       updateBottom(doc);
       comparator.setBottom(bottom.slot);
       updateMinCompetitiveScore(scorer);
+      checkGlobalBottom(slot);
     }
 
     void collectAnyHit(int doc, int hitsCollected) throws IOException {
@@ -134,6 +143,25 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
       if (queueFull) {
         comparator.setBottom(bottom.slot);
         updateMinCompetitiveScore(scorer);
+        if (bottomValueAcc != null) {
+          bottomValueAcc.accumulate(fieldComparators, reverseMuls, bottom.slot);
+        }
+      }
+      checkGlobalBottom(slot);
+    }
+
+    /**
+     * If the index is sorted by the search sort, hits are collected in sort order so once a
+     * hit compares worse than the bottom of the queue of any other slice, none of the remaining
+     * hits of this leaf can be competitive.
+     */
+    void checkGlobalBottom(int slot) {
+      if (canEarlyTerminate
+          && bottomValueAcc != null
+          && hitsThresholdChecker.isThresholdReached()
+          && bottomValueAcc.isWorseThanBottom(fieldComparators, reverseMuls, slot)) {
+        totalHitsRelation = Relation.GREATER_THAN_OR_EQUAL_TO;
+        throw new CollectionTerminatedException();
       }
     }
 
@@ -190,8 +218,8 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
 
     public SimpleFieldCollector(Sort sort, FieldValueHitQueue<Entry> queue, int numHits,
                                 HitsThresholdChecker hitsThresholdChecker,
-                                MaxScoreAccumulator minScoreAcc) {
-      super(queue, numHits, hitsThresholdChecker, sort.needsScores(), minScoreAcc);
+                                MaxScoreAccumulator minScoreAcc, BottomValueAccumulator bottomValueAcc) {
+      super(queue, numHits, hitsThresholdChecker, sort.needsScores(), minScoreAcc, bottomValueAcc);
       this.sort = sort;
       this.queue = queue;
     }
@@ -230,8 +258,9 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
     final FieldDoc after;
 
     public PagingFieldCollector(Sort sort, FieldValueHitQueue<Entry> queue, FieldDoc after, int numHits,
-                                HitsThresholdChecker hitsThresholdChecker, MaxScoreAccumulator minScoreAcc) {
-      super(queue, numHits, hitsThresholdChecker, sort.needsScores(), minScoreAcc);
+                                HitsThresholdChecker hitsThresholdChecker, MaxScoreAccumulator minScoreAcc,
+                                BottomValueAccumulator bottomValueAcc) {
+      super(queue, numHits, hitsThresholdChecker, sort.needsScores(), minScoreAcc, bottomValueAcc);
       this.sort = sort;
       this.queue = queue;
       this.after = after;
@@ -294,6 +323,11 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
   // the current local minimum competitive score already propagated to the underlying scorer
   float minCompetitiveScore;
 
+  // an accumulator that maintains the most competitive bottom value of the queues of all slices
+  final BottomValueAccumulator bottomValueAcc;
+  final FieldComparator<?>[] fieldComparators;
+  final int[] reverseMuls;
+
   final int numComparators;
   FieldValueHitQueue.Entry bottom = null;
   boolean queueFull;
@@ -308,7 +342,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
   // we want.
   private TopFieldCollector(FieldValueHitQueue<Entry> pq, int numHits,
                             HitsThresholdChecker hitsThresholdChecker, boolean needsScores,
-                            MaxScoreAccumulator minScoreAcc) {
+                            MaxScoreAccumulator minScoreAcc, BottomValueAccumulator bottomValueAcc) {
     super(pq);
     this.needsScores = needsScores;
     this.numHits = numHits;
@@ -333,6 +367,9 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
       }
     }
     this.minScoreAcc = minScoreAcc;
+    this.bottomValueAcc = bottomValueAcc;
+    this.fieldComparators = pq.getComparators();
+    this.reverseMuls = pq.getReverseMul();
   }
 
   @Override
@@ -434,14 +471,16 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
       throw new IllegalArgumentException("totalHitsThreshold must be >= 0, got " + totalHitsThreshold);
     }
 
-    return create(sort, numHits, after, HitsThresholdChecker.create(Math.max(totalHitsThreshold, numHits)), null /* bottomValueChecker */);
+    return create(sort, numHits, after, HitsThresholdChecker.create(Math.max(totalHitsThreshold, numHits)), null, null);
   }
 
   /**
-   * Same as above with additional parameters to allow passing in the threshold checker and the max score accumulator.
+   * Same as above with additional parameters to allow passing in the threshold checker, the max score accumulator
+   * and the bottom value accumulator.
    */
   static TopFieldCollector create(Sort sort, int numHits, FieldDoc after,
-                                         HitsThresholdChecker hitsThresholdChecker, MaxScoreAccumulator minScoreAcc) {
+                                         HitsThresholdChecker hitsThresholdChecker, MaxScoreAccumulator minScoreAcc,
+                                         BottomValueAccumulator bottomValueAcc) {
 
     if (sort.fields.length == 0) {
       throw new IllegalArgumentException("Sort must contain at least one field");
@@ -458,7 +497,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
     FieldValueHitQueue<Entry> queue = FieldValueHitQueue.create(sort.fields, numHits);
 
     if (after == null) {
-      return new SimpleFieldCollector(sort, queue, numHits, hitsThresholdChecker, minScoreAcc);
+      return new SimpleFieldCollector(sort, queue, numHits, hitsThresholdChecker, minScoreAcc, bottomValueAcc);
     } else {
       if (after.fields == null) {
         throw new IllegalArgumentException("after.fields wasn't set; you must pass fillFields=true for the previous search");
@@ -468,14 +507,16 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
         throw new IllegalArgumentException("after.fields has " + after.fields.length + " values but sort has " + sort.getSort().length);
       }
 
-      return new PagingFieldCollector(sort, queue, after, numHits, hitsThresholdChecker, minScoreAcc);
+      return new PagingFieldCollector(sort, queue, after, numHits, hitsThresholdChecker, minScoreAcc, bottomValueAcc);
     }
   }
 
   /**
-   * Create a CollectorManager which uses a shared hit counter to maintain number of hits
-   * and a shared {@link MaxScoreAccumulator} to propagate the minimum score accross segments if
-   * the primary sort is by relevancy.
+   * Create a CollectorManager which uses a shared hit counter to maintain number of hits,
+   * a shared {@link MaxScoreAccumulator} to propagate the minimum score accross segments if
+   * the primary sort is by relevancy, and shares the bottom values of the collectors' queues
+   * so that segments that are sorted by the search sort can terminate collection early
+   * once they only contain hits that are not globally competitive.
    */
   public static CollectorManager<TopFieldCollector, TopFieldDocs> createSharedManager(Sort sort, int numHits, FieldDoc after,
                                                                                  int totalHitsThreshold) {
@@ -483,10 +524,11 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
 
       private final HitsThresholdChecker hitsThresholdChecker = HitsThresholdChecker.createShared(Math.max(totalHitsThreshold, numHits));
       private final MaxScoreAccumulator minScoreAcc = new MaxScoreAccumulator();
+      private final BottomValueAccumulator bottomValueAcc = new BottomValueAccumulator();
 
       @Override
       public TopFieldCollector newCollector() throws IOException {
-        return create(sort, numHits, after, hitsThresholdChecker, minScoreAcc);
+        return create(sort, numHits, after, hitsThresholdChecker, minScoreAcc, bottomValueAcc);
       }
 
       @Override
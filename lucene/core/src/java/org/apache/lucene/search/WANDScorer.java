@@ -39,7 +39,7 @@ import java.util.OptionalInt;
  * {@link DocIdSetIterator#advance} rather than {@link DocIdSetIterator#nextDoc}
  * to move to the next competitive hit.
  * Implementation is similar to {@link MinShouldMatchSumScorer} except that
- * instead of enforcing that {@code freq >= minShouldMatch}, we enforce that
+ * on top of enforcing that {@code freq >= minShouldMatch}, we enforce that
  * {@code ∑ max_score >= minCompetitiveScore}.
  */
 final class WANDScorer extends Scorer {
@@ -108,6 +108,10 @@ final class WANDScorer extends Scorer {
   // scaled min competitive score
   private long minCompetitiveScore = 0;
 
+  // minimum number of clauses that must match
+  final int minShouldMatch;
+  int freq; // number of scorers in 'lead'
+
   // list of scorers which 'lead' the iteration and are currently
   // positioned on 'doc'. This is sometimes called the 'pivot' in
   // some descriptions of WAND (Weak AND).
@@ -131,8 +135,19 @@ final class WANDScorer extends Scorer {
   int upTo; // upper bound for which max scores are valid
 
   WANDScorer(Weight weight, Collection<Scorer> scorers) throws IOException {
+    this(weight, scorers, 0);
+  }
+
+  WANDScorer(Weight weight, Collection<Scorer> scorers, int minShouldMatch) throws IOException {
     super(weight);
 
+    if (minShouldMatch < 0) {
+      throw new IllegalArgumentException("minShouldMatch must be positive, but got: " + minShouldMatch);
+    }
+    if (minShouldMatch >= scorers.size()) {
+      throw new IllegalArgumentException("minShouldMatch must be strictly less than the number of scorers");
+    }
+    this.minShouldMatch = minShouldMatch;
     this.minCompetitiveScore = 0;
     this.doc = -1;
     this.upTo = -1; // will be computed on the first call to nextDoc/advance
@@ -153,13 +168,15 @@ final class WANDScorer extends Scorer {
     // Use a scaling factor of 0 if all max scores are either 0 or +Infty
     this.scalingFactor = scalingFactor.orElse(0);
 
-    long cost = 0;
     for (Scorer scorer : scorers) {
-      DisiWrapper w = new DisiWrapper(scorer);
-      cost += w.cost;
-      addLead(w);
+      addLead(new DisiWrapper(scorer));
+    }
+    if (minShouldMatch > 1) {
+      this.cost = MinShouldMatchSumScorer.cost(scorers.stream().map(Scorer::iterator).mapToLong(DocIdSetIterator::cost),
+          scorers.size(), minShouldMatch);
+    } else {
+      this.cost = scorers.stream().map(Scorer::iterator).mapToLong(DocIdSetIterator::cost).sum();
     }
-    this.cost = cost;
     this.maxScorePropagator = new MaxScoreSumPropagator(scorers);
   }
 
@@ -184,7 +201,13 @@ final class WANDScorer extends Scorer {
       assert w.doc > doc;
     }
 
-    assert minCompetitiveScore == 0 || tailMaxScore < minCompetitiveScore;
+    int leadCount = 0;
+    for (DisiWrapper w = lead; w != null; w = w.next) {
+      ++leadCount;
+    }
+    assert leadCount == freq : leadCount + " " + freq;
+
+    assert tailSize == 0 || tailMaxScore < minCompetitiveScore || tailSize < minShouldMatch;
     assert doc <= upTo;
 
     return true;
@@ -262,8 +285,8 @@ final class WANDScorer extends Scorer {
 
       @Override
       public boolean matches() throws IOException {
-        while (leadMaxScore < minCompetitiveScore) {
-          if (leadMaxScore + tailMaxScore >= minCompetitiveScore) {
+        while (leadMaxScore < minCompetitiveScore || freq < minShouldMatch) {
+          if (leadMaxScore + tailMaxScore >= minCompetitiveScore && freq + tailSize >= minShouldMatch) {
             // a match on doc is still possible, try to
             // advance scorers from the tail
             advanceTail();
@@ -288,6 +311,7 @@ final class WANDScorer extends Scorer {
     lead.next = this.lead;
     this.lead = lead;
     leadMaxScore += lead.maxScore;
+    freq += 1;
   }
 
   /** Move disis that are in 'lead' back to the tail.  */
@@ -301,6 +325,7 @@ final class WANDScorer extends Scorer {
     }
     lead = null;
     leadMaxScore = 0;
+    freq = 0;
   }
 
   /** Make sure all disis in 'head' are on or after 'target'. */
@@ -368,7 +393,7 @@ final class WANDScorer extends Scorer {
 
     // We need to make sure that entries in 'tail' alone cannot match
     // a competitive hit.
-    while (tailSize > 0 && tailMaxScore >= minCompetitiveScore) {
+    while (tailSize > 0 && tailMaxScore >= minCompetitiveScore && tailSize >= minShouldMatch) {
       DisiWrapper w = popTail();
       w.doc = w.iterator.advance(target);
       head.add(w);
@@ -425,20 +450,32 @@ final class WANDScorer extends Scorer {
     lead = head.pop();
     lead.next = null;
     leadMaxScore = lead.maxScore;
+    freq = 1;
     doc = lead.doc;
     while (head.size() > 0 && head.top().doc == doc) {
       addLead(head.pop());
     }
   }
 
-  /** Move iterators to the tail until there is a potential match. */
+  /** Move iterators to the tail until there is a potential match. If
+   *  minShouldMatch is greater than 1, also advance iterators from the tail
+   *  until at least minShouldMatch of them are on the current doc, like
+   *  {@link MinShouldMatchSumScorer} does. */
   private int doNextCompetitiveCandidate() throws IOException {
-    while (leadMaxScore + tailMaxScore < minCompetitiveScore) {
-      // no match on doc is possible, move to the next potential match
-      pushBackLeads(doc + 1);
-      moveToNextCandidate(doc + 1);
-      assert ensureConsistent();
-      if (doc == DocIdSetIterator.NO_MORE_DOCS) {
+    while (true) {
+      if (leadMaxScore + tailMaxScore < minCompetitiveScore || freq + tailSize < minShouldMatch) {
+        // no match on doc is possible, move to the next potential match
+        pushBackLeads(doc + 1);
+        moveToNextCandidate(doc + 1);
+        assert ensureConsistent();
+        if (doc == DocIdSetIterator.NO_MORE_DOCS) {
+          break;
+        }
+      } else if (freq < minShouldMatch) {
+        // a match on doc is still possible, try to
+        // advance scorers from the tail
+        advanceTail();
+      } else {
         break;
       }
     }
@@ -496,7 +533,7 @@ final class WANDScorer extends Scorer {
 
   /** Insert an entry in 'tail' and evict the least-costly scorer if full. */
   private DisiWrapper insertTailWithOverFlow(DisiWrapper s) {
-    if (tailMaxScore + s.maxScore < minCompetitiveScore) {
+    if (tailMaxScore + s.maxScore < minCompetitiveScore || tailSize + 1 < minShouldMatch) {
       // we have free room for this new entry
       addTail(s);
       tailMaxScore += s.maxScore;
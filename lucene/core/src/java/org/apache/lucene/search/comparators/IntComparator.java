@@ -53,6 +53,11 @@ public class IntComparator extends NumericComparator<Integer> {
         return Integer.valueOf(values[slot]);
     }
 
+    @Override
+    protected boolean hasSortableDocValues() {
+        return true;
+    }
+
     @Override
     public LeafFieldComparator getLeafComparator(LeafReaderContext context) throws IOException {
         return new IntLeafComparator(context);
@@ -53,6 +53,11 @@ public class LongComparator extends NumericComparator<Long> {
         return Long.valueOf(values[slot]);
     }
 
+    @Override
+    protected boolean hasSortableDocValues() {
+        return true;
+    }
+
     @Override
     public LeafFieldComparator getLeafComparator(LeafReaderContext context) throws IOException {
         return new LongLeafComparator(context);
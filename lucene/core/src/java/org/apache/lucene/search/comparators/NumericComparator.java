@@ -18,6 +18,7 @@
 package org.apache.lucene.search.comparators;
 
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.PointValues;
@@ -27,6 +28,7 @@ import org.apache.lucene.search.LeafFieldComparator;
 import org.apache.lucene.search.Scorable;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.util.DocIdSetBuilder;
+import org.apache.lucene.util.NumericUtils;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -34,6 +36,8 @@ import java.util.Arrays;
 /**
  * Abstract numeric comparator for comparing numeric values.
  * This comparator provides a skipping functionality – an iterator that can skip over non-competitive documents.
+ * Skipping relies on points if the field is indexed with points, or otherwise on the
+ * {@link DocValuesSkipper doc values skip index} if doc values {@link #hasSortableDocValues() sort like values}.
  */
 public abstract class NumericComparator<T extends Number> extends FieldComparator<T> {
     protected final T missingValue;
@@ -65,12 +69,22 @@ public abstract class NumericComparator<T extends Number> extends FieldComparato
         singleSort = true;
     }
 
+    /**
+     * Returns whether doc values of the field order documents like their sort values, which is
+     * required to skip over non-competitive blocks of documents using a {@link DocValuesSkipper}
+     * when the field is not indexed with points. The default implementation returns {@code false}.
+     */
+    protected boolean hasSortableDocValues() {
+        return false;
+    }
+
     /**
      * Leaf comparator for {@link NumericComparator} that provides skipping functionality
      */
     public abstract class NumericLeafComparator implements LeafFieldComparator {
         protected final NumericDocValues docValues;
         private final PointValues pointValues;
+        private final DocValuesSkipper skipper; // only used if there are no points
         private final boolean enableSkipping; // if skipping functionality should be enabled
         private final int maxDoc;
         private final byte[] minValueAsBytes;
@@ -84,8 +98,9 @@ public abstract class NumericComparator<T extends Number> extends FieldComparato
         public NumericLeafComparator(LeafReaderContext context) throws IOException {
             this.docValues = getNumericDocValues(context, field);
             this.pointValues = primarySort ? context.reader().getPointValues(field) : null;
-            if (pointValues != null) {
-                this.enableSkipping = true; // skipping is enabled on primarySort and when points are available
+            this.skipper = primarySort && pointValues == null && hasSortableDocValues() ? context.reader().getDocValuesSkipper(field) : null;
+            if (pointValues != null || skipper != null) {
+                this.enableSkipping = true; // skipping is enabled on primarySort and when points or a skip index are available
                 this.maxDoc = context.reader().maxDoc();
                 this.maxValueAsBytes = reverse == false ? new byte[bytesCount] : topValueSet ? new byte[bytesCount] : null;
                 this.minValueAsBytes = reverse ? new byte[bytesCount] : topValueSet ? new byte[bytesCount] : null;
@@ -133,10 +148,16 @@ public abstract class NumericComparator<T extends Number> extends FieldComparato
         private void updateCompetitiveIterator() throws IOException {
             if (enableSkipping == false || hitsThresholdReached == false || queueFull == false) return;
             // if some documents have missing points, check that missing values prohibits optimization
-            if ((pointValues.getDocCount() < maxDoc) && isMissingValueCompetitive()) {
+            final int docCount = pointValues != null ? pointValues.getDocCount() : skipper.globalDocCount();
+            if ((docCount < maxDoc) && isMissingValueCompetitive()) {
                 return; // we can't filter out documents, as documents with missing values are competitive
             }
 
+            if (skipper != null) {
+                updateSkipperIterator();
+                return;
+            }
+
             updateCounter++;
             if (updateCounter > 256 && (updateCounter & 0x1f) != 0x1f) { // Start sampling if we get called too much
                 return;
@@ -216,6 +237,49 @@ public abstract class NumericComparator<T extends Number> extends FieldComparato
             iteratorCost = competitiveIterator.cost();
         }
 
+        // skipping with the doc values skip index is lazy, so we don't need to sample updates
+        private void updateSkipperIterator() throws IOException {
+            long minValue = Long.MIN_VALUE;
+            long maxValue = Long.MAX_VALUE;
+            if (reverse == false) {
+                encodeBottom(maxValueAsBytes);
+                maxValue = decode(maxValueAsBytes);
+                if (topValueSet) {
+                    encodeTop(minValueAsBytes);
+                    minValue = decode(minValueAsBytes);
+                }
+            } else {
+                encodeBottom(minValueAsBytes);
+                minValue = decode(minValueAsBytes);
+                if (topValueSet) {
+                    encodeTop(maxValueAsBytes);
+                    maxValue = decode(maxValueAsBytes);
+                }
+            }
+            if (singleSort) {
+                // for single sort, docs whose value is equal to the bottom or top are not competitive either
+                if ((maxValueAsBytes != null && maxValue == Long.MIN_VALUE) || (minValueAsBytes != null && minValue == Long.MAX_VALUE)) {
+                    competitiveIterator = DocIdSetIterator.empty();
+                    return;
+                }
+                if (maxValueAsBytes != null) {
+                    maxValue--;
+                }
+                if (minValueAsBytes != null) {
+                    minValue++;
+                }
+            }
+            if (minValue > maxValue) {
+                competitiveIterator = DocIdSetIterator.empty();
+            } else if (minValue > skipper.globalMinValue() || maxValue < skipper.globalMaxValue()) {
+                competitiveIterator = new SkipperIterator(skipper, maxDoc, maxDocVisited, minValue, maxValue);
+            }
+        }
+
+        private long decode(byte[] packedValue) {
+            return bytesCount == Integer.BYTES ? NumericUtils.sortableBytesToInt(packedValue, 0) : NumericUtils.sortableBytesToLong(packedValue, 0);
+        }
+
         @Override
         public DocIdSetIterator competitiveIterator() {
             if (enableSkipping == false) return null;
@@ -250,4 +314,56 @@ public abstract class NumericComparator<T extends Number> extends FieldComparato
 
         protected abstract void encodeTop(byte[] packedValue);
     }
+
+    /**
+     * Iterator over all documents of the blocks of a {@link DocValuesSkipper} whose values
+     * intersect with a range, starting after a given document.
+     */
+    private static class SkipperIterator extends DocIdSetIterator {
+        private final DocValuesSkipper skipper;
+        private final int maxDoc;
+        private final long minValue;
+        private final long maxValue;
+        private int doc;
+        private int upTo = -1; // last doc of the current competitive block
+
+        SkipperIterator(DocValuesSkipper skipper, int maxDoc, int startAfter, long minValue, long maxValue) {
+            this.skipper = skipper;
+            this.maxDoc = maxDoc;
+            this.doc = startAfter;
+            this.minValue = minValue;
+            this.maxValue = maxValue;
+        }
+
+        @Override
+        public int docID() {
+            return doc;
+        }
+
+        @Override
+        public int nextDoc() throws IOException {
+            return advance(doc + 1);
+        }
+
+        @Override
+        public int advance(int target) throws IOException {
+            if (target > upTo) {
+                if (target >= maxDoc) {
+                    return doc = NO_MORE_DOCS;
+                }
+                skipper.advance(target, minValue, maxValue);
+                if (skipper.minDocID() == NO_MORE_DOCS) {
+                    return doc = NO_MORE_DOCS;
+                }
+                target = Math.max(target, skipper.minDocID());
+                upTo = skipper.maxDocID();
+            }
+            return doc = target;
+        }
+
+        @Override
+        public long cost() {
+            return maxDoc;
+        }
+    }
 }
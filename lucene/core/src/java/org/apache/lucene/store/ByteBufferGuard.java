@@ -40,9 +40,19 @@ final class ByteBufferGuard {
   static interface BufferCleaner {
     void freeBuffer(String resourceDescription, ByteBuffer b) throws IOException;
   }
+
+  /**
+   * Pass in an implementation of this interface to act on prefetch hints.
+   * MMapDirectory uses this to advise the OS that a range of a buffer will be needed soon.
+   */
+  @FunctionalInterface
+  static interface BufferPrefetcher {
+    void prefetch(ByteBuffer b, int offset, int length) throws IOException;
+  }
   
   private final String resourceDescription;
   private final BufferCleaner cleaner;
+  private final BufferPrefetcher prefetcher;
   
   /** Not volatile; see comments on visibility below! */
   private boolean invalidated = false;
@@ -55,8 +65,22 @@ final class ByteBufferGuard {
    * must be shared by all of its clones.
    */
   public ByteBufferGuard(String resourceDescription, BufferCleaner cleaner) {
+    this(resourceDescription, cleaner, null);
+  }
+
+  /**
+   * Creates an instance to be used for a single {@link ByteBufferIndexInput} which
+   * must be shared by all of its clones, passing prefetch hints to the given prefetcher.
+   */
+  public ByteBufferGuard(String resourceDescription, BufferCleaner cleaner, BufferPrefetcher prefetcher) {
     this.resourceDescription = resourceDescription;
     this.cleaner = cleaner;
+    this.prefetcher = prefetcher;
+  }
+
+  /** Returns whether prefetch hints have any effect. */
+  public boolean supportsPrefetch() {
+    return prefetcher != null;
   }
   
   /**
@@ -134,6 +158,13 @@ final class ByteBufferGuard {
     return receiver.getLong(pos);
   }
 
+  public void prefetch(ByteBuffer receiver, int offset, int length) throws IOException {
+    ensureValid();
+    if (prefetcher != null) {
+      prefetcher.prefetch(receiver, offset, length);
+    }
+  }
+
   public void getLongs(LongBuffer receiver, long[] dst, int offset, int length) {
     ensureValid();
     receiver.get(dst, offset, length);
@@ -37,6 +37,8 @@ import java.nio.LongBuffer;
  */
 public abstract class ByteBufferIndexInput extends IndexInput implements RandomAccessInput {
   private static final LongBuffer EMPTY_LONGBUFFER = LongBuffer.allocate(0);
+  /** Granularity at which prefetch hints are de-duplicated; a typical OS page. */
+  private static final long PREFETCH_PAGE_SIZE = 4096;
 
   protected final long length;
   protected final long chunkSizeMask;
@@ -49,6 +51,9 @@ public abstract class ByteBufferIndexInput extends IndexInput implements RandomA
   private LongBuffer[] curLongBufferViews;
 
   protected boolean isClone = false;
+
+  // range (rounded to pages) covered by the last prefetch hint, used to skip redundant hints:
+  private long lastPrefetchStart = -1, lastPrefetchEnd = -1;
   
   public static ByteBufferIndexInput newInstance(String resourceDescription, ByteBuffer[] buffers, long length, int chunkSizePower, ByteBufferGuard guard) {
     if (buffers.length == 1) {
@@ -283,6 +288,42 @@ public abstract class ByteBufferIndexInput extends IndexInput implements RandomA
     }
   }
 
+  @Override
+  public void prefetch(long offset, long length) throws IOException {
+    if (offset < 0 || length < 0 || offset + length > this.length) {
+      throw new IllegalArgumentException("prefetch() out of bounds: offset=" + offset + ",length=" + length + ",fileLength=" + this.length + ": " + this);
+    }
+    if (buffers == null) {
+      throw new AlreadyClosedException("Already closed: " + this);
+    }
+    if (length == 0 || guard.supportsPrefetch() == false) {
+      return;
+    }
+    prefetchAbsolute(offset, length);
+  }
+
+  /** Passes the hint to the guard, one buffer at a time; {@code offset} is relative to the first buffer. */
+  void prefetchAbsolute(long offset, long length) throws IOException {
+    final long end = offset + length;
+    // consecutive hints typically hit the same page; don't bother the OS twice:
+    if (offset >= lastPrefetchStart && end <= lastPrefetchEnd) {
+      return;
+    }
+    try {
+      for (long pos = offset; pos < end; ) {
+        final int bi = (int) (pos >> chunkSizePower);
+        final int chunkOffset = (int) (pos & chunkSizeMask);
+        final int chunkLength = (int) Math.min(end - pos, buffers[bi].limit() - chunkOffset);
+        guard.prefetch(buffers[bi], chunkOffset, chunkLength);
+        pos += chunkLength;
+      }
+    } catch (NullPointerException npe) {
+      throw new AlreadyClosedException("Already closed: " + this);
+    }
+    lastPrefetchStart = offset & ~(PREFETCH_PAGE_SIZE - 1);
+    lastPrefetchEnd = (end + PREFETCH_PAGE_SIZE - 1) & ~(PREFETCH_PAGE_SIZE - 1);
+  }
+
   @Override
   public final long length() {
     return length;
@@ -532,6 +573,20 @@ public abstract class ByteBufferIndexInput extends IndexInput implements RandomA
       return super.readLong(pos + offset);
     }
 
+    @Override
+    public void prefetch(long pos, long length) throws IOException {
+      if (pos < 0 || length < 0 || pos + length > this.length) {
+        throw new IllegalArgumentException("prefetch() out of bounds: offset=" + pos + ",length=" + length + ",fileLength=" + this.length + ": " + this);
+      }
+      if (buffers == null) {
+        throw new AlreadyClosedException("Already closed: " + this);
+      }
+      if (length == 0 || guard.supportsPrefetch() == false) {
+        return;
+      }
+      prefetchAbsolute(pos + offset, length);
+    }
+
     @Override
     protected ByteBufferIndexInput buildSlice(String sliceDescription, long ofs, long length) {
       return super.buildSlice(sliceDescription, this.offset + ofs, length);
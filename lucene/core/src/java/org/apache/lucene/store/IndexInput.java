@@ -112,6 +112,19 @@ public abstract class IndexInput extends DataInput implements Cloneable,Closeabl
     }
   }
 
+  /**
+   * Optional hint that the given range of bytes will be read soon. Implementations may use this to
+   * load the range into memory asynchronously, so that a caller that knows upfront which (sorted)
+   * positions it is about to read can overlap the I/O of the whole batch instead of blocking on
+   * each read in turn. This method must not change the file pointer and may be a no-op, which is
+   * what the default implementation does.
+   *
+   * @param offset start offset of the range, relative to this input
+   * @param length number of bytes in the range
+   */
+  public void prefetch(long offset, long length) throws IOException {
+  }
+
   /**
    * Creates a random-access slice of this index input, with the given offset and length. 
    * <p>
@@ -150,6 +163,11 @@ public abstract class IndexInput extends DataInput implements Cloneable,Closeabl
           return slice.readLong();
         }
 
+        @Override
+        public void prefetch(long pos, long length) throws IOException {
+          slice.prefetch(pos, length);
+        }
+
         @Override
         public String toString() {
           return "RandomAccessInput(" + IndexInput.this.toString() + ")";
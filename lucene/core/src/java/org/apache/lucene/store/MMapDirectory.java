@@ -33,6 +33,8 @@ import java.security.PrivilegedAction;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 
@@ -87,11 +89,36 @@ import org.apache.lucene.util.SuppressForbidden;
  * {@link Future#cancel(boolean)} you should use the legacy {@code RAFDirectory}
  * from the Lucene {@code misc} module in favor of {@link MMapDirectory}.
  * </p>
+ * <p>
+ * Which files get their pages loaded into physical memory when they are opened,
+ * and what access pattern is expected for each file, can be configured per file
+ * name and {@link IOContext} with {@link #setPreload(BiPredicate)} and
+ * {@link #setReadAdvice(BiFunction)}. For instance, the following preloads the
+ * terms index and points index when opened for searching, so that merges or large
+ * scans are less likely to have them evicted from the page cache:
+ * <pre class="prettyprint">
+ * mmapDir.setPreload((name, context) -&gt; context.context != IOContext.Context.MERGE
+ *     &amp;&amp; (name.endsWith(".tip") || name.endsWith(".kdi")));
+ * </pre>
  * @see <a href="http://blog.thetaphi.de/2012/07/use-lucenes-mmapdirectory-on-64bit.html">Blog post about MMapDirectory</a>
  */
 public class MMapDirectory extends FSDirectory {
+  /** Argument for {@link #setPreload(BiPredicate)} that configures all files to be preloaded upon opening them. */
+  public static final BiPredicate<String, IOContext> ALL_FILES = (filename, context) -> true;
+
+  /** Argument for {@link #setPreload(BiPredicate)} that configures no files to be preloaded upon opening them. */
+  public static final BiPredicate<String, IOContext> NO_FILES = (filename, context) -> false;
+
+  /**
+   * Default argument for {@link #setReadAdvice(BiFunction)}: files that are opened for merging are read
+   * {@link ReadAdvice#SEQUENTIAL sequentially}, other files have no specific access pattern.
+   */
+  public static final BiFunction<String, IOContext, ReadAdvice> DEFAULT_READ_ADVICE =
+      (filename, context) -> context.context == IOContext.Context.MERGE ? ReadAdvice.SEQUENTIAL : ReadAdvice.NORMAL;
+
   private boolean useUnmapHack = UNMAP_SUPPORTED;
-  private boolean preload;
+  private BiPredicate<String, IOContext> preload = NO_FILES;
+  private BiFunction<String, IOContext, ReadAdvice> readAdvice = DEFAULT_READ_ADVICE;
 
   /** 
    * Default max chunk size.
@@ -206,18 +233,82 @@ public class MMapDirectory extends FSDirectory {
    * Set to {@code true} to ask mapped pages to be loaded
    * into physical memory on init. The behavior is best-effort 
    * and operating system dependent.
+   * This is equivalent to calling {@link #setPreload(BiPredicate)}
+   * with {@link #ALL_FILES} or {@link #NO_FILES}.
    * @see MappedByteBuffer#load
    */
   public void setPreload(boolean preload) {
-    this.preload = preload;
+    setPreload(preload ? ALL_FILES : NO_FILES);
+  }
+
+  /**
+   * Configure which files to preload in physical memory upon opening. The
+   * predicate is called with the name of the file and the {@link IOContext}
+   * it is opened with. The behavior is best-effort and operating system
+   * dependent.
+   * @see MappedByteBuffer#load
+   */
+  public void setPreload(BiPredicate<String, IOContext> preload) {
+    this.preload = Objects.requireNonNull(preload);
   }
   
   /**
-   * Returns {@code true} if mapped pages should be loaded.
+   * Returns {@code true} if mapped pages of all files should be loaded,
+   * ie. if {@link #setPreload(boolean) setPreload(true)} was called.
    * @see #setPreload
    */
   public boolean getPreload() {
-    return preload;
+    return preload == ALL_FILES;
+  }
+
+  /**
+   * Configure the {@link ReadAdvice} to apply to files, depending on their
+   * name and the {@link IOContext} they are opened with. The default is
+   * {@link #DEFAULT_READ_ADVICE}.
+   * <p>
+   * <b>NOTE</b>: the JDK has no API to pass such advice to the operating
+   * system, so this directory calls {@link #advise} which does nothing by
+   * default. Subclasses that have access to {@code madvise} (e.g. via JNI)
+   * can override it.
+   */
+  public void setReadAdvice(BiFunction<String, IOContext, ReadAdvice> readAdvice) {
+    this.readAdvice = Objects.requireNonNull(readAdvice);
+  }
+
+  /**
+   * Returns the {@link ReadAdvice} that applies to the given file.
+   * @see #setReadAdvice
+   */
+  public ReadAdvice getReadAdvice(String name, IOContext context) {
+    return Objects.requireNonNull(readAdvice.apply(name, context));
+  }
+
+  /**
+   * Expert: gives the operating system a hint about how the given mapped
+   * buffer will be accessed. This is called for each non-empty mapped chunk
+   * of files whose {@link #getReadAdvice read advice} is not
+   * {@link ReadAdvice#NORMAL}, before it gets preloaded. This implementation does nothing.
+   */
+  protected void advise(MappedByteBuffer buffer, ReadAdvice advice) throws IOException {
+  }
+
+  /**
+   * Expert: gives the operating system a hint that the given range of a mapped
+   * buffer will be read soon, as requested by {@link IndexInput#prefetch}.
+   * Inputs only pass hints to this method if {@link #supportsPrefetch()}
+   * returns {@code true}. This implementation does nothing.
+   */
+  protected void prefetch(ByteBuffer buffer, int offset, int length) throws IOException {
+  }
+
+  /**
+   * Returns whether this directory does anything with prefetch hints. If
+   * {@code false}, which is the default, inputs discard hints without calling
+   * {@link #prefetch(ByteBuffer, int, int)}. Subclasses that override that
+   * method should override this one too.
+   */
+  protected boolean supportsPrefetch() {
+    return false;
   }
   
   /**
@@ -237,14 +328,18 @@ public class MMapDirectory extends FSDirectory {
     try (FileChannel c = FileChannel.open(path, StandardOpenOption.READ)) {
       final String resourceDescription = "MMapIndexInput(path=\"" + path.toString() + "\")";
       final boolean useUnmap = getUseUnmap();
+      final ReadAdvice advice = getReadAdvice(name, context);
+      final boolean preload = this.preload.test(name, context);
       return ByteBufferIndexInput.newInstance(resourceDescription,
-          map(resourceDescription, c, 0, c.size()), 
-          c.size(), chunkSizePower, new ByteBufferGuard(resourceDescription, useUnmap ? CLEANER : null));
+          map(resourceDescription, c, 0, c.size(), advice, preload), 
+          c.size(), chunkSizePower, new ByteBufferGuard(resourceDescription, useUnmap ? CLEANER : null,
+              supportsPrefetch() ? this::prefetch : null));
     }
   }
 
   /** Maps a file into a set of buffers */
-  final ByteBuffer[] map(String resourceDescription, FileChannel fc, long offset, long length) throws IOException {
+  final ByteBuffer[] map(String resourceDescription, FileChannel fc, long offset, long length,
+      ReadAdvice advice, boolean preload) throws IOException {
     if ((length >>> chunkSizePower) >= Integer.MAX_VALUE)
       throw new IllegalArgumentException("RandomAccessFile too big for chunk size: " + resourceDescription);
     
@@ -267,6 +362,9 @@ public class MMapDirectory extends FSDirectory {
       } catch (IOException ioe) {
         throw convertMapFailedIOException(ioe, resourceDescription, bufSize);
       }
+      if (advice != ReadAdvice.NORMAL && bufSize > 0) {
+        advise(buffer, advice);
+      }
       if (preload) {
         buffer.load();
       }
@@ -23,7 +23,9 @@ import java.nio.channels.ClosedChannelException; // javadoc @link
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future; // javadoc
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.lucene.util.IOUtils;
 
@@ -51,9 +53,17 @@ import org.apache.lucene.util.IOUtils;
  * {@link Future#cancel(boolean)} you should use the legacy {@code RAFDirectory}
  * from the Lucene {@code misc} module in favor of {@link NIOFSDirectory}.
  * </p>
+ * <p>
+ * {@link IndexInput#prefetch Prefetch hints} are ignored unless an executor
+ * is configured with {@link #setPrefetchExecutor(Executor)}, in which case
+ * the requested ranges are read on that executor so that they are in the OS
+ * cache by the time they are actually read.
+ * </p>
  */
 public class NIOFSDirectory extends FSDirectory {
 
+  private volatile Executor prefetchExecutor;
+
   /** Create a new NIOFSDirectory for the named location.
    *  The directory is created at the named location if it does not yet exist.
    * 
@@ -75,6 +85,28 @@ public class NIOFSDirectory extends FSDirectory {
     this(path, FSLockFactory.getDefault());
   }
 
+  /**
+   * Sets the executor that reads ranges passed to {@link IndexInput#prefetch}
+   * in the background, or {@code null} (the default) to ignore prefetch hints.
+   * This only applies to inputs that are opened after this call. Hints that
+   * the executor rejects, e.g. because it has been shut down, are ignored.
+   * <p>
+   * <b>NOTE</b>: the executor must not interrupt its threads, as interrupting
+   * a thread that reads from a {@link FileChannel} closes the channel.
+   */
+  public void setPrefetchExecutor(Executor prefetchExecutor) {
+    this.prefetchExecutor = prefetchExecutor;
+  }
+
+  /**
+   * Returns the executor that prefetches ranges, or {@code null} if prefetch
+   * hints are ignored.
+   * @see #setPrefetchExecutor(Executor)
+   */
+  public Executor getPrefetchExecutor() {
+    return prefetchExecutor;
+  }
+
   @Override
   public IndexInput openInput(String name, IOContext context) throws IOException {
     ensureOpen();
@@ -83,7 +115,7 @@ public class NIOFSDirectory extends FSDirectory {
     FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
     boolean success = false;
     try {
-      final NIOFSIndexInput indexInput = new NIOFSIndexInput("NIOFSIndexInput(path=\"" + path + "\")", fc, context);
+      final NIOFSIndexInput indexInput = new NIOFSIndexInput("NIOFSIndexInput(path=\"" + path + "\")", fc, context, prefetchExecutor);
       success = true;
       return indexInput;
     } finally {
@@ -110,20 +142,34 @@ public class NIOFSDirectory extends FSDirectory {
     protected final long off;
     /** end offset (start+length) */
     protected final long end;
+    /** executor that reads prefetched ranges, or null to ignore prefetch hints */
+    private final Executor prefetchExecutor;
+    /** range covered by the last prefetch hint, relative to the file */
+    private long lastPrefetchStart = -1, lastPrefetchEnd = -1;
 
     public NIOFSIndexInput(String resourceDesc, FileChannel fc, IOContext context) throws IOException {
+      this(resourceDesc, fc, context, null);
+    }
+
+    public NIOFSIndexInput(String resourceDesc, FileChannel fc, IOContext context, Executor prefetchExecutor) throws IOException {
       super(resourceDesc, context);
       this.channel = fc; 
       this.off = 0L;
       this.end = fc.size();
+      this.prefetchExecutor = prefetchExecutor;
     }
     
     public NIOFSIndexInput(String resourceDesc, FileChannel fc, long off, long length, int bufferSize) {
+      this(resourceDesc, fc, off, length, bufferSize, null);
+    }
+
+    public NIOFSIndexInput(String resourceDesc, FileChannel fc, long off, long length, int bufferSize, Executor prefetchExecutor) {
       super(resourceDesc, bufferSize);
       this.channel = fc;
       this.off = off;
       this.end = off + length;
       this.isClone = true;
+      this.prefetchExecutor = prefetchExecutor;
     }
     
     @Override
@@ -145,7 +191,7 @@ public class NIOFSDirectory extends FSDirectory {
       if (offset < 0 || length < 0 || offset + length > this.length()) {
         throw new IllegalArgumentException("slice() " + sliceDescription + " out of bounds: offset=" + offset + ",length=" + length + ",fileLength="  + this.length() + ": "  + this);
       }
-      return new NIOFSIndexInput(getFullSliceDescription(sliceDescription), channel, off + offset, length, getBufferSize());
+      return new NIOFSIndexInput(getFullSliceDescription(sliceDescription), channel, off + offset, length, getBufferSize(), prefetchExecutor);
     }
 
     @Override
@@ -153,6 +199,43 @@ public class NIOFSDirectory extends FSDirectory {
       return end - off;
     }
 
+    @Override
+    public void prefetch(long offset, long length) throws IOException {
+      if (offset < 0 || length < 0 || offset + length > this.length()) {
+        throw new IllegalArgumentException("prefetch() out of bounds: offset=" + offset + ",length=" + length + ",fileLength="  + this.length() + ": "  + this);
+      }
+      if (prefetchExecutor == null || length == 0) {
+        return;
+      }
+      final long start = off + offset;
+      final long stop = start + length;
+      if (start >= lastPrefetchStart && stop <= lastPrefetchEnd) {
+        return;
+      }
+      lastPrefetchStart = start;
+      lastPrefetchEnd = stop;
+      try {
+        prefetchExecutor.execute(() -> {
+          final ByteBuffer b = ByteBuffer.allocate((int) Math.min(CHUNK_SIZE, stop - start));
+          try {
+            for (long pos = start; pos < stop; ) {
+              b.clear();
+              b.limit((int) Math.min(b.capacity(), stop - pos));
+              final int i = channel.read(b, pos);
+              if (i <= 0) {
+                break;
+              }
+              pos += i;
+            }
+          } catch (IOException ignored) {
+            // only a hint, e.g. the input might have been closed in the meantime
+          }
+        });
+      } catch (RejectedExecutionException ignored) {
+        // only a hint, e.g. the executor might have been shut down
+      }
+    }
+
     @Override
     protected void readInternal(ByteBuffer b) throws IOException {
       long pos = getFilePointer() + off;
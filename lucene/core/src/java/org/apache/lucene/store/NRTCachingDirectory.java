@@ -20,11 +20,18 @@ package org.apache.lucene.store;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -63,6 +70,16 @@ import org.apache.lucene.util.IOUtils;
  * cached bytes exceeds 60 MB at which point all writes will
  * not be cached (until the net bytes falls below 60 MB).</p>
  *
+ * <p>Since the size of a segment is only estimated up-front, the cache
+ * may still grow beyond this budget. When this happens, the least-recently
+ * used cached files are moved to the delegate directory, on the
+ * {@link #NRTCachingDirectory(Directory, double, double, Executor) spill executor}
+ * if one is configured, or on the thread that closed the output otherwise.</p>
+ *
+ * <p>Reads and writes do not take a directory-wide lock: cached files are
+ * tracked in a concurrent map, and only operations that move or delete the same
+ * cached file are serialized.</p>
+ *
  * @lucene.experimental
  */
 
@@ -75,20 +92,31 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
   private final AtomicLong cacheSize = new AtomicLong();
 
   /**
-   * RAM-resident directory that updates {@link #cacheSize} when files are successfully closed.
+   * Files that live in {@link #cacheDirectory}, including the ones that are still being written.
+   */
+  private final Map<String, CachedFile> cachedFiles = new ConcurrentHashMap<>();
+
+  /**
+   * RAM-resident directory that holds the content of {@link #cachedFiles}.
    */
   private final ByteBuffersDirectory cacheDirectory = new ByteBuffersDirectory(
       new SingleInstanceLockFactory(),
       ByteBuffersDataOutput::new,
-      (fileName, content) -> {
-        cacheSize.addAndGet(content.size());
-        return ByteBuffersDirectory.OUTPUT_AS_MANY_BUFFERS_LUCENE.apply(fileName, content);
-      }
+      ByteBuffersDirectory.OUTPUT_AS_MANY_BUFFERS_LUCENE
   );
 
   private final long maxMergeSizeBytes;
   private final long maxCachedBytes;
 
+  private final Executor spillExecutor;
+  private final AtomicBoolean spilling = new AtomicBoolean(false);
+  private final AtomicLong accessClock = new AtomicLong();
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong spillCount = new AtomicLong();
+  private final AtomicLong spilledBytes = new AtomicLong();
+
   private static final boolean VERBOSE = false;
 
   /**
@@ -97,9 +125,20 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
    *  {@code <= maxMergeSizeMB}, and 2) the total cached bytes is 
    *  {@code <= maxCachedMB} */
   public NRTCachingDirectory(Directory delegate, double maxMergeSizeMB, double maxCachedMB) {
+    this(delegate, maxMergeSizeMB, maxCachedMB, null);
+  }
+
+  /**
+   *  Same as {@link #NRTCachingDirectory(Directory, double, double)}, but
+   *  moving least-recently used files to the delegate directory when the
+   *  cache exceeds {@code maxCachedMB} is done asynchronously on the given
+   *  executor, or on the thread that closes the output that made the cache
+   *  exceed its budget if it is {@code null}. */
+  public NRTCachingDirectory(Directory delegate, double maxMergeSizeMB, double maxCachedMB, Executor spillExecutor) {
     super(delegate);
     maxMergeSizeBytes = (long) (maxMergeSizeMB * 1024 * 1024);
     maxCachedBytes = (long) (maxCachedMB * 1024 * 1024);
+    this.spillExecutor = spillExecutor;
   }
 
 
@@ -109,8 +148,10 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
   }
 
   @Override
-  public synchronized String[] listAll() throws IOException {
+  public String[] listAll() throws IOException {
     final Set<String> files = new HashSet<>();
+    // List the cache first: a file that is concurrently moved to the delegate is
+    // copied before it is removed from the cache, so it is always listed once.
     for (String f : cacheDirectory.listAll()) {
       files.add(f);
     }
@@ -123,24 +164,34 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
   }
 
   @Override
-  public synchronized void deleteFile(String name) throws IOException {
+  public void deleteFile(String name) throws IOException {
     if (VERBOSE) {
       System.out.println("nrtdir.deleteFile name=" + name);
     }
-    if (cacheDirectory.fileExists(name)) {
-      cacheDirectory.deleteFile(name);
-    } else {
-      in.deleteFile(name);
+    final CachedFile file = cachedFiles.get(name);
+    if (file != null) {
+      synchronized (file) {
+        if (file.removed == false) {
+          cacheDirectory.deleteFile(name);
+          remove(file);
+          return;
+        }
+      }
+      // else the file was moved to the delegate in the meantime
     }
+    in.deleteFile(name);
   }
 
   @Override
-  public synchronized long fileLength(String name) throws IOException {
-    if (cacheDirectory.fileExists(name)) {
-      return cacheDirectory.fileLength(name);
-    } else {
-      return in.fileLength(name);
+  public long fileLength(String name) throws IOException {
+    if (cachedFiles.containsKey(name)) {
+      try {
+        return cacheDirectory.fileLength(name);
+      } catch (NoSuchFileException | FileNotFoundException e) {
+        // moved to the delegate or deleted in the meantime
+      }
     }
+    return in.fileLength(name);
   }
 
   public String[] listCachedFiles() {
@@ -160,7 +211,20 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
       if (VERBOSE) {
         System.out.println("  to cache");
       }
-      return cacheDirectory.createOutput(name, context);
+      final CachedFile file = new CachedFile(name);
+      if (cachedFiles.putIfAbsent(name, file) != null) {
+        throw new FileAlreadyExistsException(name);
+      }
+      boolean success = false;
+      try {
+        IndexOutput out = new CachedIndexOutput(cacheDirectory.createOutput(name, context), file);
+        success = true;
+        return out;
+      } finally {
+        if (success == false) {
+          cachedFiles.remove(name, file);
+        }
+      }
     } else {
       return in.createOutput(name, context);
     }
@@ -180,25 +244,33 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
   @Override
   public void rename(String source, String dest) throws IOException {
     unCache(source);
-    if (cacheDirectory.fileExists(dest)) {
+    if (cachedFiles.containsKey(dest)) {
       throw new IllegalArgumentException("target file " + dest + " already exists");
     }
     in.rename(source, dest);
   }
 
   @Override
-  public synchronized IndexInput openInput(String name, IOContext context) throws IOException {
+  public IndexInput openInput(String name, IOContext context) throws IOException {
     if (VERBOSE) {
       System.out.println("nrtdir.openInput name=" + name);
     }
-    if (cacheDirectory.fileExists(name)) {
-      if (VERBOSE) {
-        System.out.println("  from cache");
+    final CachedFile file = cachedFiles.get(name);
+    if (file != null) {
+      try {
+        IndexInput input = cacheDirectory.openInput(name, context);
+        if (VERBOSE) {
+          System.out.println("  from cache");
+        }
+        file.lastAccess = accessClock.incrementAndGet();
+        hitCount.incrementAndGet();
+        return input;
+      } catch (NoSuchFileException | FileNotFoundException e) {
+        // moved to the delegate or deleted in the meantime
       }
-      return cacheDirectory.openInput(name, context);
-    } else {
-      return in.openInput(name, context);
     }
+    missCount.incrementAndGet();
+    return in.openInput(name, context);
   }
   
   /** Close this directory, which flushes any cached files
@@ -282,6 +354,12 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
       }
     }
 
+    if (first == cacheDirectory) {
+      // nobody else knows about this name yet
+      CachedFile file = new CachedFile(out.getName());
+      cachedFiles.put(file.name, file);
+      out = new CachedIndexOutput(out, file);
+    }
     return out;
   }
 
@@ -299,21 +377,131 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
   }
 
   private void unCache(String fileName) throws IOException {
-    // Must sync here because other sync methods have
-    // if (cache.fileNameExists(name)) { ... } else { ... }:
-    synchronized (this) {
+    final CachedFile file = cachedFiles.get(fileName);
+    if (file != null) {
+      moveToDelegate(file, false);
+    }
+  }
+
+  /**
+   * Copies the given cached file to the delegate directory and then removes it from the cache.
+   * Returns the number of moved bytes, or -1 if the file was not moved because another thread
+   * beat us, or because it is still being written and {@code onlyIfComplete} is true.
+   */
+  private long moveToDelegate(CachedFile file, boolean onlyIfComplete) throws IOException {
+    // Must sync on the file here because deleteFile and other callers of this method do
+    // if (file.removed == false) { ... }:
+    synchronized (file) {
       if (VERBOSE) {
-        System.out.println("nrtdir.unCache name=" + fileName);
+        System.out.println("nrtdir.unCache name=" + file.name);
       }
-      if (!cacheDirectory.fileExists(fileName)) {
+      if (file.removed || (onlyIfComplete && file.length == -1)) {
         // Another thread beat us...
+        return -1;
+      }
+      assert slowFileExists(in, file.name) == false: "fileName=" + file.name + " exists both in cache and in delegate";
+
+      boolean success = false;
+      try {
+        in.copyFrom(cacheDirectory, file.name, file.name, IOContext.DEFAULT);
+        success = true;
+      } finally {
+        if (success == false) {
+          IOUtils.deleteFilesIgnoringExceptions(in, file.name);
+        }
+      }
+      // Readers that see the file as cached fall back to the delegate once it is deleted from the cache:
+      final long length = cacheDirectory.fileLength(file.name);
+      remove(file);
+      cacheDirectory.deleteFile(file.name);
+      return length;
+    }
+  }
+
+  /** Marks the given file as removed from the cache, the caller must hold the lock on the file. */
+  private void remove(CachedFile file) {
+    assert Thread.holdsLock(file);
+    file.removed = true;
+    cachedFiles.remove(file.name, file);
+    if (file.length != -1) {
+      cacheSize.addAndGet(-file.length);
+    }
+  }
+
+  private void onClose(CachedFile file, long length) {
+    synchronized (file) {
+      if (file.removed || file.length != -1) {
         return;
       }
-      assert slowFileExists(in, fileName) == false: "fileName=" + fileName + " exists both in cache and in delegate";
+      file.length = length;
+      cacheSize.addAndGet(length);
+    }
+    file.lastAccess = accessClock.incrementAndGet();
+    maybeSpill();
+  }
 
-      in.copyFrom(cacheDirectory, fileName, fileName, IOContext.DEFAULT);
-      cacheSize.addAndGet(-cacheDirectory.fileLength(fileName));
-      cacheDirectory.deleteFile(fileName);
+  private void maybeSpill() {
+    if (cacheSize.get() > maxCachedBytes && closed.get() == false && spilling.compareAndSet(false, true)) {
+      if (spillExecutor == null) {
+        spill();
+      } else {
+        try {
+          spillExecutor.execute(this::spill);
+        } catch (RejectedExecutionException e) {
+          spilling.set(false);
+        }
+      }
+    }
+  }
+
+  /** Moves least-recently used files to the delegate until the cache fits in its budget again. */
+  private void spill() {
+    boolean success;
+    do {
+      try {
+        success = spillLeastRecentlyUsed();
+      } finally {
+        spilling.set(false);
+      }
+      // files that were closed while we were spilling may have made the cache exceed its budget again
+    } while (success && cacheSize.get() > maxCachedBytes && closed.get() == false && spilling.compareAndSet(false, true));
+  }
+
+  private boolean spillLeastRecentlyUsed() {
+    try {
+      while (cacheSize.get() > maxCachedBytes && closed.get() == false) {
+        final List<CachedFile> files = new ArrayList<>(cachedFiles.values());
+        // snapshot access times since they may change while sorting
+        final long[] lastAccess = new long[files.size()];
+        final Integer[] order = new Integer[files.size()];
+        for (int i = 0; i < lastAccess.length; ++i) {
+          lastAccess[i] = files.get(i).lastAccess;
+          order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(lastAccess[a], lastAccess[b]));
+        boolean moved = false;
+        for (int i : order) {
+          if (cacheSize.get() <= maxCachedBytes || closed.get()) {
+            break;
+          }
+          final long length = moveToDelegate(files.get(i), true);
+          if (length >= 0) {
+            moved = true;
+            spillCount.incrementAndGet();
+            spilledBytes.addAndGet(length);
+          }
+        }
+        if (moved == false) {
+          break;
+        }
+      }
+      return true;
+    } catch (IOException | AlreadyClosedException e) {
+      // Files that could not be moved stay in the cache, they will be moved again on sync or close
+      if (VERBOSE) {
+        System.out.println("nrtdir.spill failed: " + e);
+      }
+      return false;
     }
   }
 
@@ -321,4 +509,101 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
   public long ramBytesUsed() {
     return cacheSize.get();
   }
+
+  /** Returns the number of times {@link #openInput} was served from the cache. */
+  public long getCacheHitCount() {
+    return hitCount.get();
+  }
+
+  /** Returns the number of times {@link #openInput} was served by the delegate directory. */
+  public long getCacheMissCount() {
+    return missCount.get();
+  }
+
+  /** Returns the number of cached files that were moved to the delegate directory
+   *  before being synced, because the cache exceeded its budget. */
+  public long getSpillCount() {
+    return spillCount.get();
+  }
+
+  /** Returns the total size of the files counted by {@link #getSpillCount()}. */
+  public long getSpilledBytes() {
+    return spilledBytes.get();
+  }
+
+  private static final class CachedFile {
+    final String name;
+    /** Length of the file once its output is closed, -1 until then. Guarded by this. */
+    long length = -1;
+    /** Whether this file was deleted or moved to the delegate. Guarded by this. */
+    boolean removed;
+    volatile long lastAccess;
+
+    CachedFile(String name) {
+      this.name = name;
+    }
+  }
+
+  /** Updates the cache size and maybe spills files once the output is closed. */
+  private final class CachedIndexOutput extends IndexOutput {
+    private final IndexOutput out;
+    private final CachedFile file;
+    private boolean closed;
+
+    CachedIndexOutput(IndexOutput out, CachedFile file) {
+      super("NRTCachingDirectory(" + out.toString() + ")", out.getName());
+      this.out = out;
+      this.file = file;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed == false) {
+        closed = true;
+        final long length = out.getFilePointer();
+        out.close();
+        onClose(file, length);
+      }
+    }
+
+    @Override
+    public long getFilePointer() {
+      return out.getFilePointer();
+    }
+
+    @Override
+    public long getChecksum() throws IOException {
+      return out.getChecksum();
+    }
+
+    @Override
+    public void writeByte(byte b) throws IOException {
+      out.writeByte(b);
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) throws IOException {
+      out.writeBytes(b, offset, length);
+    }
+
+    @Override
+    public void writeShort(short i) throws IOException {
+      out.writeShort(i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+      out.writeInt(i);
+    }
+
+    @Override
+    public void writeLong(long i) throws IOException {
+      out.writeLong(i);
+    }
+
+    @Override
+    public void copyBytes(DataInput input, long numBytes) throws IOException {
+      out.copyBytes(input, numBytes);
+    }
+  }
 }
@@ -46,4 +46,12 @@ public interface RandomAccessInput {
    * @see DataInput#readLong
    */
   public long readLong(long pos) throws IOException;
+
+  /**
+   * Optional hint that the given range of bytes will be read soon.
+   * The default implementation is a no-op.
+   * @see IndexInput#prefetch
+   */
+  public default void prefetch(long pos, long length) throws IOException {
+  }
 }
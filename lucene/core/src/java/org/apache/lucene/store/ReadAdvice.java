@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+/**
+ * Advice regarding the access pattern of a file, which {@link MMapDirectory}
+ * can pass to the operating system to tune read-ahead and page caching.
+ *
+ * @see MMapDirectory#setReadAdvice
+ * @lucene.experimental
+ */
+public enum ReadAdvice {
+  /** No specific access pattern: let the operating system apply its defaults. */
+  NORMAL,
+  /**
+   * Pages are accessed in random order, e.g. stored fields or the terms dictionary
+   * at search time: read-ahead is not useful and may evict hotter pages.
+   */
+  RANDOM,
+  /**
+   * Pages are read sequentially and only once, e.g. when merging: aggressive
+   * read-ahead helps and pages may be reclaimed soon after they have been read.
+   */
+  SEQUENTIAL
+}
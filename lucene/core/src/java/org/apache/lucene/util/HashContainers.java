@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+/**
+ * Helpers shared by the open-addressing hash containers keyed by primitives, such as
+ * {@link IntIntHashMap} and {@link LongHashSet}. Tables have a power-of-two size, use linear
+ * probing and are rehashed when they would become more than 75% full, so that there is always
+ * at least one empty slot to terminate probing.
+ */
+final class HashContainers {
+
+  /** Maximum ratio of used slots before a table is grown. */
+  static final float LOAD_FACTOR = 0.75f;
+
+  /** Minimum size of a table. */
+  static final int MIN_TABLE_SIZE = 4;
+
+  /** Maximum size of a table. */
+  static final int MAX_TABLE_SIZE = 1 << 30;
+
+  private HashContainers() {}
+
+  /** Returns the size of a table that can hold {@code expectedElements} keys without rehashing. */
+  static int tableSize(int expectedElements) {
+    if (expectedElements < 0) {
+      throw new IllegalArgumentException("expectedElements must be >= 0, got " + expectedElements);
+    }
+    final long minSize = (long) Math.ceil(expectedElements / (double) LOAD_FACTOR);
+    long size = Math.max(MIN_TABLE_SIZE, BitUtil.nextHighestPowerOfTwo(minSize));
+    while (size <= MAX_TABLE_SIZE && resizeThreshold((int) size) < expectedElements) {
+      size <<= 1;
+    }
+    if (size > MAX_TABLE_SIZE) {
+      throw new IllegalArgumentException("expectedElements is too large: " + expectedElements);
+    }
+    return (int) size;
+  }
+
+  /** Returns the number of keys that a table of the given size can hold before it is grown. */
+  static int resizeThreshold(int tableSize) {
+    return Math.min(tableSize - 1, (int) Math.ceil(tableSize * LOAD_FACTOR));
+  }
+
+  /** Returns the size of the table that replaces a full table of the given size. */
+  static int nextTableSize(int tableSize) {
+    if (tableSize >= MAX_TABLE_SIZE) {
+      throw new IllegalStateException("Maximum table size exceeded: " + tableSize);
+    }
+    return tableSize << 1;
+  }
+
+  /** Mixes the bits of an int key so that consecutive keys spread over the table. */
+  static int hash(int key) {
+    final int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /** Mixes the bits of a long key so that consecutive keys spread over the table. */
+  static int hash(long key) {
+    final long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from {@code int} keys to object values that does not box its keys.
+ * It uses open addressing with linear probing over power-of-two sized arrays, and is rehashed
+ * when it would become more than 75% full. Entries can not be removed, but the map can be
+ * {@link #clear() cleared}.
+ * <p>
+ * To iterate over the entries of this map, use code like this:
+ * <pre class="prettyprint">
+ * IntObjectHashMap&lt;V&gt; map = ...
+ * IntObjectHashMap&lt;V&gt;.Cursor cursor = map.cursor();
+ * while (cursor.next()) {
+ *   int key = cursor.key();
+ *   V value = cursor.value();
+ *   //use key and value...
+ * }</pre>
+ *
+ * @lucene.internal
+ */
+public final class IntObjectHashMap<V> implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(IntObjectHashMap.class);
+
+  // a key of 0 marks an empty slot, the 0 key itself is stored separately
+  private int[] keys;
+  private Object[] values;
+  private int mask;
+  private int size;
+  private int resizeAt;
+  private boolean hasZeroKey;
+  private V zeroValue;
+
+  /** Create an empty map. */
+  public IntObjectHashMap() {
+    this(0);
+  }
+
+  /** Create an empty map that can hold {@code expectedElements} entries without being rehashed. */
+  public IntObjectHashMap(int expectedElements) {
+    allocate(HashContainers.tableSize(expectedElements));
+  }
+
+  private void allocate(int tableSize) {
+    keys = new int[tableSize];
+    values = new Object[tableSize];
+    mask = tableSize - 1;
+    resizeAt = HashContainers.resizeThreshold(tableSize);
+  }
+
+  /** Returns the slot that holds the given non-zero key, or the empty slot where it would be inserted. */
+  private int slot(int key) {
+    int slot = HashContainers.hash(key) & mask;
+    int existing;
+    while ((existing = keys[slot]) != 0) {
+      if (existing == key) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /** Returns the number of entries in this map. */
+  public int size() {
+    return hasZeroKey ? size + 1 : size;
+  }
+
+  /** Returns true if this map has no entries. */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /** Returns true if this map has an entry for the given key. */
+  public boolean containsKey(int key) {
+    if (key == 0) {
+      return hasZeroKey;
+    }
+    return keys[slot(key)] != 0;
+  }
+
+  /** Returns the value associated with the given key, or null if the key has no value. */
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    if (key == 0) {
+      return zeroValue;
+    }
+    final int slot = slot(key);
+    return keys[slot] != 0 ? (V) values[slot] : null;
+  }
+
+  /** Associates the given value with the given key, and returns the previous value of the key, or null if it had none. */
+  @SuppressWarnings("unchecked")
+  public V put(int key, V value) {
+    if (key == 0) {
+      final V previous = zeroValue;
+      hasZeroKey = true;
+      zeroValue = value;
+      return previous;
+    }
+    final int slot = slot(key);
+    if (keys[slot] != 0) {
+      final V previous = (V) values[slot];
+      values[slot] = value;
+      return previous;
+    }
+    insert(slot, key, value);
+    return null;
+  }
+
+  private void insert(int slot, int key, V value) {
+    if (size == resizeAt) {
+      rehash(HashContainers.nextTableSize(keys.length));
+      slot = slot(key);
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+  }
+
+  private void rehash(int tableSize) {
+    final int[] oldKeys = keys;
+    final Object[] oldValues = values;
+    allocate(tableSize);
+    for (int i = 0; i < oldKeys.length; i++) {
+      final int key = oldKeys[i];
+      if (key != 0) {
+        final int slot = slot(key);
+        keys[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /** Removes all entries from this map, without shrinking it. */
+  public void clear() {
+    Arrays.fill(keys, 0);
+    Arrays.fill(values, null);
+    size = 0;
+    hasZeroKey = false;
+    zeroValue = null;
+  }
+
+  /** Returns a cursor over the entries of this map, in no particular order. The map must not be modified while iterating. */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  /** A cursor over the entries of a {@link IntObjectHashMap}, which is positioned on the next entry by {@link #next()}. */
+  public final class Cursor {
+    private int slot = -1;
+    private int key;
+    private V value;
+
+    private Cursor() {}
+
+    /** Moves to the next entry, and returns false if there are no more entries. */
+    @SuppressWarnings("unchecked")
+    public boolean next() {
+      if (slot == -1) {
+        slot = 0;
+        if (hasZeroKey) {
+          key = 0;
+          value = zeroValue;
+          return true;
+        }
+      }
+      while (slot < keys.length) {
+        final int current = slot++;
+        if (keys[current] != 0) {
+          key = keys[current];
+          value = (V) values[current];
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** Returns the key of the current entry. */
+    public int key() {
+      return key;
+    }
+
+    /** Returns the value of the current entry. */
+    public V value() {
+      return value;
+    }
+  }
+
+  /** Returns the memory used by this map, not including the memory used by its values. */
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(keys) + RamUsageEstimator.shallowSizeOf(values);
+  }
+}
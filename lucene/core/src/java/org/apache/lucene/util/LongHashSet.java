@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash set of {@code long} values that does not box its values. It uses open addressing with
+ * linear probing over a power-of-two sized array, and is rehashed when it would become more than
+ * 75% full. Values can not be removed, but the set can be {@link #clear() cleared}.
+ * <p>
+ * Use {@link #toArray()} to iterate over the values of this set.
+ *
+ * @lucene.internal
+ */
+public final class LongHashSet implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(LongHashSet.class);
+
+  // a value of 0 marks an empty slot, the 0 value itself is tracked separately
+  private long[] values;
+  private int mask;
+  private int size;
+  private int resizeAt;
+  private boolean hasZero;
+
+  /** Create an empty set. */
+  public LongHashSet() {
+    this(0);
+  }
+
+  /** Create an empty set that can hold {@code expectedElements} values without being rehashed. */
+  public LongHashSet(int expectedElements) {
+    allocate(HashContainers.tableSize(expectedElements));
+  }
+
+  private void allocate(int tableSize) {
+    values = new long[tableSize];
+    mask = tableSize - 1;
+    resizeAt = HashContainers.resizeThreshold(tableSize);
+  }
+
+  /** Returns the slot that holds the given non-zero value, or the empty slot where it would be inserted. */
+  private int slot(long value) {
+    int slot = HashContainers.hash(value) & mask;
+    long existing;
+    while ((existing = values[slot]) != 0) {
+      if (existing == value) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /** Returns the number of values in this set. */
+  public int size() {
+    return hasZero ? size + 1 : size;
+  }
+
+  /** Returns true if this set has no values. */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /** Returns true if this set contains the given value. */
+  public boolean contains(long value) {
+    if (value == 0) {
+      return hasZero;
+    }
+    return values[slot(value)] != 0;
+  }
+
+  /** Adds the given value to this set, and returns true if it was not already contained. */
+  public boolean add(long value) {
+    if (value == 0) {
+      final boolean added = hasZero == false;
+      hasZero = true;
+      return added;
+    }
+    int slot = slot(value);
+    if (values[slot] != 0) {
+      return false;
+    }
+    if (size == resizeAt) {
+      rehash(HashContainers.nextTableSize(values.length));
+      slot = slot(value);
+    }
+    values[slot] = value;
+    size++;
+    return true;
+  }
+
+  private void rehash(int tableSize) {
+    final long[] oldValues = values;
+    allocate(tableSize);
+    for (long value : oldValues) {
+      if (value != 0) {
+        values[slot(value)] = value;
+      }
+    }
+  }
+
+  /** Removes all values from this set, without shrinking it. */
+  public void clear() {
+    Arrays.fill(values, 0L);
+    size = 0;
+    hasZero = false;
+  }
+
+  /** Returns a new array holding the values of this set, in no particular order. */
+  public long[] toArray() {
+    final long[] array = new long[size()];
+    int upto = 0;
+    if (hasZero) {
+      array[upto++] = 0;
+    }
+    for (long value : values) {
+      if (value != 0) {
+        array[upto++] = value;
+      }
+    }
+    assert upto == array.length;
+    return array;
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(values);
+  }
+}
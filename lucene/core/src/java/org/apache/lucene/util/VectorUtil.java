@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+/**
+ * Utilities for computations with numeric arrays
+ */
+public final class VectorUtil {
+
+  private VectorUtil() {
+  }
+
+  /**
+   * Returns the vector dot product of the two vectors. IllegalArgumentException is thrown if the vectors'
+   * dimensions differ.
+   */
+  public static float dotProduct(float[] a, float[] b) {
+    if (a.length != b.length) {
+      throw new IllegalArgumentException("vector dimensions differ: " + a.length + "!=" + b.length);
+    }
+    float res = 0f;
+    // if the array size is large (> 2x platform vector size), it's worth the overhead to vectorize
+    int i = 0;
+    if (a.length > 8) {
+      // unroll 4 times so that the JIT can use independent accumulators
+      float acc1 = 0, acc2 = 0, acc3 = 0, acc4 = 0;
+      final int upperBound = a.length & ~3;
+      for (; i < upperBound; i += 4) {
+        acc1 += a[i] * b[i];
+        acc2 += a[i + 1] * b[i + 1];
+        acc3 += a[i + 2] * b[i + 2];
+        acc4 += a[i + 3] * b[i + 3];
+      }
+      res = acc1 + acc2 + acc3 + acc4;
+    }
+    for (; i < a.length; i++) {
+      res += a[i] * b[i];
+    }
+    return res;
+  }
+
+  /**
+   * Returns the sum of squared differences of the two vectors. IllegalArgumentException is thrown if the vectors'
+   * dimensions differ.
+   */
+  public static float squareDistance(float[] v1, float[] v2) {
+    if (v1.length != v2.length) {
+      throw new IllegalArgumentException("vector dimensions differ: " + v1.length + "!=" + v2.length);
+    }
+    float squareSum = 0.0f;
+    int dim = v1.length;
+    for (int i = 0; i < dim; i++) {
+      float diff = v1[i] - v2[i];
+      squareSum += diff * diff;
+    }
+    return squareSum;
+  }
+
+  /**
+   * Modifies the argument to be unit length, dividing by its l2-norm.
+   * IllegalArgumentException is thrown for zero vectors.
+   */
+  public static void l2normalize(float[] v) {
+    double squareSum = 0.0f;
+    int dim = v.length;
+    for (float x : v) {
+      squareSum += x * x;
+    }
+    if (squareSum == 0) {
+      throw new IllegalArgumentException("Cannot normalize a zero-length vector");
+    }
+    double length = Math.sqrt(squareSum);
+    for (int i = 0; i < dim; i++) {
+      v[i] /= length;
+    }
+  }
+
+}
@@ -43,6 +43,7 @@ import java.util.Set;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.IntObjectHashMap;
 import org.apache.lucene.util.IntsRef;
 import org.apache.lucene.util.IntsRefBuilder;
 import org.apache.lucene.util.RamUsageEstimator;
@@ -575,7 +576,7 @@ final public class Operations {
     PointTransitions[] points = new PointTransitions[5];
 
     private final static int HASHMAP_CUTOVER = 30;
-    private final HashMap<Integer,PointTransitions> map = new HashMap<>();
+    private final IntObjectHashMap<PointTransitions> map = new IntObjectHashMap<>();
     private boolean useHash = false;
 
     private PointTransitions next(int point) {
@@ -596,11 +597,10 @@ final public class Operations {
 
     private PointTransitions find(int point) {
       if (useHash) {
-        final Integer pi = point;
-        PointTransitions p = map.get(pi);
+        PointTransitions p = map.get(point);
         if (p == null) {
           p = next(point);
-          map.put(pi, p);
+          map.put(point, p);
         }
         return p;
       } else {
@@ -612,7 +612,7 @@ final public class Operations {
 
         final PointTransitions p = next(point);
         if (count == HASHMAP_CUTOVER) {
-          // switch to HashMap on the fly
+          // switch to a hash map on the fly
           assert map.size() == 0;
           for(int i=0;i<count;i++) {
             map.put(points[i].point, points[i]);
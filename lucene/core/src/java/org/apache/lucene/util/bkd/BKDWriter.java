@@ -22,6 +22,10 @@ import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.IntFunction;
 
 import org.apache.lucene.codecs.CodecUtil;
@@ -43,6 +47,7 @@ import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.NumericUtils;
 import org.apache.lucene.util.PriorityQueue;
+import org.apache.lucene.util.ThreadInterruptedException;
 
 // TODO
 //   - allow variable length byte[] (across docs and dims), but this is quite a bit more hairy
@@ -52,7 +57,6 @@ import org.apache.lucene.util.PriorityQueue;
 //     (monotonic) long[] leafBlockFPs; or we could use MonotonicLongValues ... but then
 //     the index is already plenty small: 60M OSM points --> 1.1 MB with 128 points
 //     per leaf, and you can reduce that by putting more points per leaf
-//   - we could use threads while building; the higher nodes are very parallelizable
 
 /**
  *  Recursively builds a block KD-tree to assign all incoming points in N-dim space to smaller
@@ -69,6 +73,11 @@ import org.apache.lucene.util.PriorityQueue;
  *  a <code>byte[numLeaves*(1+config.bytesPerDim)]</code> and then uses up to the specified
  *  {@code maxMBSortInHeap} heap space for writing.
  *
+ *  <p>If an {@link Executor} is provided, subtrees that have at least {@link #DEFAULT_MIN_POINTS_PER_TASK}
+ *  points are built concurrently. Their leaf blocks are written to temporary files which are then
+ *  appended to the data file in order, so the written tree is the same as with a single thread. The heap
+ *  budget is split between subtrees that are built concurrently.
+ *
  *  <p>
  *  <b>NOTE</b>: This can write at most Integer.MAX_VALUE * <code>config.maxPointsInLeafNode</code> / config.bytesPerDim
  *  total points.
@@ -91,6 +100,10 @@ public class BKDWriter implements Closeable {
   private static final int SPLITS_BEFORE_EXACT_BOUNDS = 4;
   /** Default maximum heap to use, before spilling to (slower) disk */
   public static final float DEFAULT_MAX_MB_SORT_IN_HEAP = 16.0f;
+  /** Default minimum number of points of a subtree for it to be built concurrently with its sibling */
+  public static final int DEFAULT_MIN_POINTS_PER_TASK = 1 << 16;
+  /** Subtrees are not split further across tasks once there are about this many of them */
+  private static final int MAX_CONCURRENT_SUBTREES = 64;
 
   /** BKD tree configuration */
   protected final BKDConfig config;
@@ -99,7 +112,6 @@ public class BKDWriter implements Closeable {
   final String tempFileNamePrefix;
   final double maxMBSortInHeap;
 
-  final byte[] scratchDiff;
   final byte[] scratch1;
   final byte[] scratch2;
   final BytesRef scratchBytesRef1 = new BytesRef();
@@ -127,9 +139,30 @@ public class BKDWriter implements Closeable {
 
   private final int maxDoc;
 
+  /** Executor to build subtrees concurrently, or null */
+  private final Executor executor;
+  /** The writer whose {@link #split} implementation is used, which differs from this writer for subtrees that are built concurrently */
+  private final BKDWriter splitter;
+  /** Minimum number of points of a subtree for it to be built concurrently with its sibling */
+  int minPointsPerTask = DEFAULT_MIN_POINTS_PER_TASK;
+  /** Same as {@link #minPointsPerTask}, but also taking the size of the whole tree into account */
+  private long minSubtreePoints;
+
   public BKDWriter(int maxDoc, Directory tempDir, String tempFileNamePrefix, BKDConfig config,
                    double maxMBSortInHeap, long totalPointCount) {
+    this(maxDoc, tempDir, tempFileNamePrefix, config, maxMBSortInHeap, totalPointCount, null);
+  }
+
+  /**
+   * Creates a writer that builds large subtrees concurrently on the provided executor, or on the
+   * current thread if the executor is {@code null}. Tasks that the executor didn't start yet when
+   * the current thread needs their result are run on the current thread.
+   */
+  public BKDWriter(int maxDoc, Directory tempDir, String tempFileNamePrefix, BKDConfig config,
+                   double maxMBSortInHeap, long totalPointCount, Executor executor) {
     verifyParams(maxMBSortInHeap, totalPointCount);
+    this.executor = executor;
+    this.splitter = this;
     // We use tracking dir to deal with removing files on exception, so each place that
     // creates temp files doesn't need crazy try/finally/sucess logic:
     this.tempDir = new TrackingDirectoryWrapper(tempDir);
@@ -143,7 +176,6 @@ public class BKDWriter implements Closeable {
     
     docsSeen = new FixedBitSet(maxDoc);
     
-    scratchDiff = new byte[config.bytesPerDim];
     scratch1 = new byte[config.packedBytesLength];
     scratch2 = new byte[config.packedBytesLength];
     commonPrefixLengths = new int[config.numDims];
@@ -162,6 +194,30 @@ public class BKDWriter implements Closeable {
     }
   }
 
+  /** Creates a writer that builds a subtree of the tree of {@code parent}, with its own scratch state. */
+  private BKDWriter(BKDWriter parent, int maxPointsSortInHeap) {
+    this.tempDir = parent.tempDir;
+    this.tempFileNamePrefix = parent.tempFileNamePrefix;
+    this.maxMBSortInHeap = parent.maxMBSortInHeap;
+    this.totalPointCount = parent.totalPointCount;
+    this.maxDoc = parent.maxDoc;
+    this.config = parent.config;
+    this.executor = parent.executor;
+    this.splitter = parent.splitter;
+    this.minPointsPerTask = parent.minPointsPerTask;
+    this.minSubtreePoints = parent.minSubtreePoints;
+    this.docsSeen = parent.docsSeen;
+    this.maxPointsSortInHeap = maxPointsSortInHeap;
+    this.finished = true;
+
+    scratch1 = new byte[config.packedBytesLength];
+    scratch2 = new byte[config.packedBytesLength];
+    commonPrefixLengths = new int[config.numDims];
+
+    minPackedValue = new byte[config.packedIndexBytesLength];
+    maxPackedValue = new byte[config.packedIndexBytesLength];
+  }
+
   private static void verifyParams(double maxMBSortInHeap, long totalPointCount) {
     if (maxMBSortInHeap < 0.0) {
       throw new IllegalArgumentException("maxMBSortInHeap must be >= 0.0 (got: " + maxMBSortInHeap + ")");
@@ -402,12 +458,23 @@ public class BKDWriter implements Closeable {
     }
 
     final long dataStartFP = dataOut.getFilePointer();
-    final int[] parentSplits = new int[config.numIndexDims];
-    build(0, numLeaves, values, 0, Math.toIntExact(pointCount), dataOut,
-          minPackedValue.clone(), maxPackedValue.clone(), parentSplits,
-          splitPackedValues, splitDimensionValues, leafBlockFPs,
-          new int[config.maxPointsInLeafNode]);
-    assert Arrays.equals(parentSplits, new int[config.numIndexDims]);
+    minSubtreePoints = Math.max(minPointsPerTask, pointCount / MAX_CONCURRENT_SUBTREES);
+    boolean success = false;
+    try {
+      final int[] parentSplits = new int[config.numIndexDims];
+      final List<PendingLeafBlocks> pendingLeafBlocks = new ArrayList<>();
+      build(0, numLeaves, values, 0, Math.toIntExact(pointCount), dataOut,
+            minPackedValue.clone(), maxPackedValue.clone(), parentSplits,
+            splitPackedValues, splitDimensionValues, leafBlockFPs,
+            new int[config.maxPointsInLeafNode], pendingLeafBlocks);
+      assert Arrays.equals(parentSplits, new int[config.numIndexDims]);
+      appendPendingLeafBlocks(dataOut, pendingLeafBlocks, leafBlockFPs);
+      success = true;
+    } finally {
+      if (success == false) {
+        IOUtils.deleteFilesIgnoringExceptions(tempDir, tempDir.getCreatedFiles());
+      }
+    }
 
     scratchBytesRef1.length = config.bytesPerDim;
     scratchBytesRef1.bytes = splitPackedValues;
@@ -773,6 +840,8 @@ public class BKDWriter implements Closeable {
     try {
 
       final int[] parentSplits = new int[config.numIndexDims];
+      final List<PendingLeafBlocks> pendingLeafBlocks = new ArrayList<>();
+      minSubtreePoints = Math.max(minPointsPerTask, pointCount / MAX_CONCURRENT_SUBTREES);
       build(0, numLeaves, points,
              dataOut, radixSelector,
             minPackedValue.clone(), maxPackedValue.clone(),
@@ -780,8 +849,10 @@ public class BKDWriter implements Closeable {
             splitPackedValues,
             splitDimensionValues,
             leafBlockFPs,
-            new int[config.maxPointsInLeafNode]);
+            new int[config.maxPointsInLeafNode],
+            pendingLeafBlocks);
       assert Arrays.equals(parentSplits, new int[config.numIndexDims]);
+      appendPendingLeafBlocks(dataOut, pendingLeafBlocks, leafBlockFPs);
 
       // If no exception, we should have cleaned everything up:
       assert tempDir.getCreatedFiles().isEmpty();
@@ -1236,12 +1307,15 @@ public class BKDWriter implements Closeable {
       }
     }
 
-    // Find which dim has the largest span so we can split on it:
+    // Find which dim has the largest span so we can split on it. This doesn't use
+    // the shared scratch arrays since subtrees may be built concurrently:
+    final byte[] diff = new byte[config.bytesPerDim];
+    final byte[] maxDiff = new byte[config.bytesPerDim];
     int splitDim = -1;
     for(int dim=0;dim<config.numIndexDims;dim++) {
-      NumericUtils.subtract(config.bytesPerDim, dim, maxPackedValue, minPackedValue, scratchDiff);
-      if (splitDim == -1 || Arrays.compareUnsigned(scratchDiff, 0, config.bytesPerDim, scratch1, 0, config.bytesPerDim) > 0) {
-        System.arraycopy(scratchDiff, 0, scratch1, 0, config.bytesPerDim);
+      NumericUtils.subtract(config.bytesPerDim, dim, maxPackedValue, minPackedValue, diff);
+      if (splitDim == -1 || Arrays.compareUnsigned(diff, 0, config.bytesPerDim, maxDiff, 0, config.bytesPerDim) > 0) {
+        System.arraycopy(diff, 0, maxDiff, 0, config.bytesPerDim);
         splitDim = dim;
       }
     }
@@ -1277,7 +1351,8 @@ public class BKDWriter implements Closeable {
                      byte[] splitPackedValues,
                      byte[] splitDimensionValues,
                      long[] leafBlockFPs,
-                     int[] spareDocIds) throws IOException {
+                     int[] spareDocIds,
+                     List<PendingLeafBlocks> pendingLeafBlocks) throws IOException {
 
     if (numLeaves == 1) {
       // leaf node
@@ -1397,7 +1472,7 @@ public class BKDWriter implements Closeable {
         if (numLeaves != leafBlockFPs.length && config.numIndexDims > 2 && Arrays.stream(parentSplits).sum() % SPLITS_BEFORE_EXACT_BOUNDS == 0) {
           computePackedValueBounds(reader, from, to, minPackedValue, maxPackedValue, scratchBytesRef1);
         }
-        splitDim = split(minPackedValue, maxPackedValue, parentSplits);
+        splitDim = splitter.split(minPackedValue, maxPackedValue, parentSplits);
       }
 
       // How many leaves will be in the left tree:
@@ -1432,12 +1507,25 @@ public class BKDWriter implements Closeable {
 
       // recurse
       parentSplits[splitDim]++;
-      build(leavesOffset, numLeftLeafNodes, reader, from, mid, out,
-          minPackedValue, maxSplitPackedValue, parentSplits,
-          splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds);
-      build(rightOffset, numLeaves - numLeftLeafNodes, reader, mid, to, out,
-          minSplitPackedValue, maxPackedValue, parentSplits,
-          splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds);
+      if (shouldBuildConcurrently(mid - from, to - mid)) {
+        // partitions only swap points within their own range, so both subtrees can share the reader
+        final int[] rightParentSplits = parentSplits.clone();
+        final byte[] rightMaxPackedValue = maxPackedValue.clone();
+        buildConcurrently(rightOffset, out, pendingLeafBlocks,
+            (writer, leftOut, leftPendingLeafBlocks) -> writer.build(leavesOffset, numLeftLeafNodes, reader, from, mid, leftOut,
+                minPackedValue, maxSplitPackedValue, parentSplits,
+                splitPackedValues, splitDimensionValues, leafBlockFPs, new int[config.maxPointsInLeafNode], leftPendingLeafBlocks),
+            (writer, rightOut, rightPendingLeafBlocks) -> writer.build(rightOffset, numLeaves - numLeftLeafNodes, reader, mid, to, rightOut,
+                minSplitPackedValue, rightMaxPackedValue, rightParentSplits,
+                splitPackedValues, splitDimensionValues, leafBlockFPs, new int[config.maxPointsInLeafNode], rightPendingLeafBlocks));
+      } else {
+        build(leavesOffset, numLeftLeafNodes, reader, from, mid, out,
+            minPackedValue, maxSplitPackedValue, parentSplits,
+            splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds, pendingLeafBlocks);
+        build(rightOffset, numLeaves - numLeftLeafNodes, reader, mid, to, out,
+            minSplitPackedValue, maxPackedValue, parentSplits,
+            splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds, pendingLeafBlocks);
+      }
       parentSplits[splitDim]--;
     }
   }
@@ -1477,7 +1565,8 @@ public class BKDWriter implements Closeable {
                      byte[] splitPackedValues,
                      byte[] splitDimensionValues,
                      long[] leafBlockFPs,
-                     int[] spareDocIds) throws IOException {
+                     int[] spareDocIds,
+                     List<PendingLeafBlocks> pendingLeafBlocks) throws IOException {
 
     if (numLeaves == 1) {
 
@@ -1582,7 +1671,7 @@ public class BKDWriter implements Closeable {
         if (numLeaves != leafBlockFPs.length && config.numIndexDims > 2 && Arrays.stream(parentSplits).sum() % SPLITS_BEFORE_EXACT_BOUNDS == 0) {
           computePackedValueBounds(points, minPackedValue, maxPackedValue);
         }
-        splitDim = split(minPackedValue, maxPackedValue, parentSplits);
+        splitDim = splitter.split(minPackedValue, maxPackedValue, parentSplits);
       }
 
       assert numLeaves <= leafBlockFPs.length : "numLeaves=" + numLeaves + " leafBlockFPs.length=" + leafBlockFPs.length;
@@ -1620,20 +1709,132 @@ public class BKDWriter implements Closeable {
       System.arraycopy(splitValue, 0, maxSplitPackedValue, splitDim * config.bytesPerDim, config.bytesPerDim);
 
       parentSplits[splitDim]++;
-      // Recurse on left tree:
-      build(leavesOffset, numLeftLeafNodes, slices[0],
-          out, radixSelector, minPackedValue, maxSplitPackedValue,
-          parentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds);
+      if (shouldBuildConcurrently(slices[0].count, slices[1].count)) {
+        BKDRadixSelector.PathSlice rightSlice = slices[1];
+        if (rightSlice.writer instanceof HeapPointWriter) {
+          // on-heap partitions share the same writer, give the right tree its own scratch state
+          rightSlice = new BKDRadixSelector.PathSlice(new HeapPointWriter((HeapPointWriter) rightSlice.writer), rightSlice.start, rightSlice.count);
+        }
+        final BKDRadixSelector.PathSlice finalRightSlice = rightSlice;
+        final int[] rightParentSplits = parentSplits.clone();
+        final byte[] rightMaxPackedValue = maxPackedValue.clone();
+        buildConcurrently(rightOffset, out, pendingLeafBlocks,
+            (writer, leftOut, leftPendingLeafBlocks) -> writer.build(leavesOffset, numLeftLeafNodes, slices[0],
+                leftOut, writer.newRadixSelector(), minPackedValue, maxSplitPackedValue,
+                parentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, new int[config.maxPointsInLeafNode], leftPendingLeafBlocks),
+            (writer, rightOut, rightPendingLeafBlocks) -> writer.build(rightOffset, numLeaves - numLeftLeafNodes, finalRightSlice,
+                rightOut, writer.newRadixSelector(), minSplitPackedValue, rightMaxPackedValue,
+                rightParentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, new int[config.maxPointsInLeafNode], rightPendingLeafBlocks));
+      } else {
+        // Recurse on left tree:
+        build(leavesOffset, numLeftLeafNodes, slices[0],
+            out, radixSelector, minPackedValue, maxSplitPackedValue,
+            parentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds, pendingLeafBlocks);
 
-      // Recurse on right tree:
-      build(rightOffset, numLeaves - numLeftLeafNodes, slices[1],
-          out, radixSelector, minSplitPackedValue, maxPackedValue,
-          parentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds);
+        // Recurse on right tree:
+        build(rightOffset, numLeaves - numLeftLeafNodes, slices[1],
+            out, radixSelector, minSplitPackedValue, maxPackedValue,
+            parentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds, pendingLeafBlocks);
+      }
 
       parentSplits[splitDim]--;
     }
   }
 
+  /** Leaf blocks of a subtree that were written to a temporary file, starting with the leaf at {@code leavesOffset}. */
+  private static class PendingLeafBlocks {
+    final int leavesOffset;
+    final String fileName;
+
+    PendingLeafBlocks(int leavesOffset, String fileName) {
+      this.leavesOffset = leavesOffset;
+      this.fileName = fileName;
+    }
+  }
+
+  /** Builds a subtree with the given writer, writing its leaf blocks to the given output. */
+  @FunctionalInterface
+  private interface SubtreeBuilder {
+    void build(BKDWriter writer, IndexOutput out, List<PendingLeafBlocks> pendingLeafBlocks) throws IOException;
+  }
+
+  private boolean shouldBuildConcurrently(long leftCount, long rightCount) {
+    return executor != null && Math.min(leftCount, rightCount) >= minSubtreePoints;
+  }
+
+  private BKDRadixSelector newRadixSelector() {
+    return new BKDRadixSelector(config, maxPointsSortInHeap, tempDir, tempFileNamePrefix);
+  }
+
+  /**
+   * Builds the left subtree on the current thread and the right subtree on the executor. Both get their own writer
+   * with half of the heap budget of this writer. The right subtree writes its leaf blocks to a temporary file, which
+   * is recorded in {@code pendingLeafBlocks} so that it gets appended to the data file after the leaf blocks of the
+   * left subtree. This method only returns once both subtrees are done, even if one of them failed.
+   */
+  private void buildConcurrently(int rightLeavesOffset, IndexOutput out, List<PendingLeafBlocks> pendingLeafBlocks,
+                                 SubtreeBuilder left, SubtreeBuilder right) throws IOException {
+    final int subtreeMaxPointsSortInHeap = Math.max(config.maxPointsInLeafNode, maxPointsSortInHeap / 2);
+    final BKDWriter leftWriter = new BKDWriter(this, subtreeMaxPointsSortInHeap);
+    final BKDWriter rightWriter = new BKDWriter(this, subtreeMaxPointsSortInHeap);
+    final List<PendingLeafBlocks> rightPendingLeafBlocks = new ArrayList<>();
+    final FutureTask<String> rightTask = new FutureTask<>(() -> {
+      try (IndexOutput rightOut = tempDir.createTempOutput(tempFileNamePrefix, "bkd_leaves", IOContext.DEFAULT)) {
+        right.build(rightWriter, rightOut, rightPendingLeafBlocks);
+        CodecUtil.writeFooter(rightOut);
+        return rightOut.getName();
+      }
+    });
+    try {
+      executor.execute(rightTask);
+    } catch (@SuppressWarnings("unused") RejectedExecutionException e) {
+      // the right subtree is built on the current thread below
+    }
+
+    Throwable th = null;
+    try {
+      left.build(leftWriter, out, pendingLeafBlocks);
+    } catch (Throwable t) {
+      th = t;
+    }
+    // Build the right subtree on the current thread if the executor didn't start it yet, so
+    // that this doesn't deadlock if all threads of the executor are waiting on subtrees too.
+    // This is a no-op if the task already started:
+    rightTask.run();
+    try {
+      final String rightFileName = rightTask.get();
+      pendingLeafBlocks.add(new PendingLeafBlocks(rightLeavesOffset, rightFileName));
+      pendingLeafBlocks.addAll(rightPendingLeafBlocks);
+    } catch (InterruptedException e) {
+      th = IOUtils.useOrSuppress(th, new ThreadInterruptedException(e));
+    } catch (ExecutionException e) {
+      th = IOUtils.useOrSuppress(th, e.getCause());
+    }
+    if (th != null) {
+      throw IOUtils.rethrowAlways(th);
+    }
+  }
+
+  /**
+   * Appends leaf blocks that subtrees wrote to temporary files to the data file, in order, and makes their file
+   * pointers absolute. Leaves that come before the first pending block were written to the data file directly.
+   */
+  private void appendPendingLeafBlocks(IndexOutput dataOut, List<PendingLeafBlocks> pendingLeafBlocks, long[] leafBlockFPs) throws IOException {
+    for (int i = 0; i < pendingLeafBlocks.size(); ++i) {
+      final PendingLeafBlocks pending = pendingLeafBlocks.get(i);
+      final int leavesEnd = i + 1 < pendingLeafBlocks.size() ? pendingLeafBlocks.get(i + 1).leavesOffset : leafBlockFPs.length;
+      final long startFP = dataOut.getFilePointer();
+      for (int leaf = pending.leavesOffset; leaf < leavesEnd; ++leaf) {
+        leafBlockFPs[leaf] += startFP;
+      }
+      try (ChecksumIndexInput in = tempDir.openChecksumInput(pending.fileName, IOContext.READONCE)) {
+        dataOut.copyBytes(in, in.length() - CodecUtil.footerLength());
+        CodecUtil.checkFooter(in);
+      }
+      tempDir.deleteFile(pending.fileName);
+    }
+  }
+
   private void computeCommonPrefixLength(HeapPointWriter heapPointWriter, byte[] commonPrefix, int from, int to) {
     Arrays.fill(commonPrefixLengths, config.bytesPerDim);
     PointValue value = heapPointWriter.getPackedValueSlice(from);
@@ -49,6 +49,25 @@ public final class HeapPointWriter implements PointWriter {
     }
   }
 
+  /**
+   * Creates a writer over the same points as {@code source}, with its own scratch state, so that
+   * disjoint ranges of points can be sorted and read concurrently. The source must be closed.
+   */
+  HeapPointWriter(HeapPointWriter source) {
+    assert source.closed : "point writer is still open";
+    this.config = source.config;
+    this.block = source.block;
+    this.size = source.size;
+    this.scratch = new byte[config.bytesPerDoc];
+    this.nextWrite = source.nextWrite;
+    this.closed = true;
+    if (size > 0) {
+      pointValue = new HeapPointReader.HeapPointValue(config, block);
+    } else {
+      pointValue = null;
+    }
+  }
+
   /** Returns a reference, in <code>result</code>, to the byte[] slice holding this value */
   public PointValue getPackedValueSlice(int index) {
     assert index < nextWrite : "nextWrite=" + (nextWrite) + " vs index=" + index;
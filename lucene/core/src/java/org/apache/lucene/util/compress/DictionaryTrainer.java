@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.compress;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Trains dictionaries for compression algorithms that support preset
+ * dictionaries, such as {@link LZ4}, on a sample of the data to compress.
+ * <p>
+ * This is a simplified version of the COVER algorithm that zstd uses to train
+ * dictionaries: samples are split into segments, whose score is the sum of the
+ * number of samples that contain each of the short byte sequences (d-mers) of
+ * the segment. Segments are then greedily added to the dictionary by
+ * decreasing score, ignoring the d-mers that the dictionary already contains.
+ * Sequences that only appear in a single sample are ignored since they can't
+ * help compress other data.
+ *
+ * @lucene.internal
+ */
+public final class DictionaryTrainer {
+
+  private DictionaryTrainer() {}
+
+  /** Length of the byte sequences whose frequency is computed. */
+  static final int DMER_LENGTH = 8;
+  /** Length of the segments that get added to the dictionary. */
+  static final int SEGMENT_LENGTH = 64;
+  private static final int HASH_LOG = 16;
+
+  private static final class Segment {
+    final int start, end;
+    long score;
+
+    Segment(int start, int end, long score) {
+      this.start = start;
+      this.end = end;
+      this.score = score;
+    }
+  }
+
+  /**
+   * Train a dictionary of at most {@code maxLength} bytes on the given
+   * samples, which are stored contiguously in {@code samples}, sample
+   * {@code i} ending at offset {@code sampleEnds[i]}. The returned
+   * dictionary may be shorter than {@code maxLength}, or even empty if no
+   * byte sequence occurs in more than one sample. The most useful bytes come
+   * last in the dictionary so that they are closest to the data to compress.
+   */
+  public static byte[] train(byte[] samples, int[] sampleEnds, int numSamples, int maxLength) {
+    if (maxLength < 0) {
+      throw new IllegalArgumentException("maxLength must be >= 0, got " + maxLength);
+    }
+
+    // compute the number of samples that contain each d-mer
+    final int[] frequencies = new int[1 << HASH_LOG];
+    final int[] stamps = new int[1 << HASH_LOG];
+    Arrays.fill(stamps, -1);
+    for (int i = 0, sampleStart = 0; i < numSamples; sampleStart = sampleEnds[i++]) {
+      for (int off = sampleStart; off + DMER_LENGTH <= sampleEnds[i]; ++off) {
+        final int h = hash(samples, off);
+        if (stamps[h] != i) {
+          stamps[h] = i;
+          frequencies[h]++;
+        }
+      }
+    }
+    for (int h = 0; h < frequencies.length; ++h) {
+      if (frequencies[h] == 1) {
+        frequencies[h] = 0;
+      }
+    }
+
+    // split samples into overlapping segments, and score them
+    Arrays.fill(stamps, -1);
+    int stamp = 0;
+    final PriorityQueue<Segment> queue = new PriorityQueue<>((a, b) -> Long.compare(b.score, a.score));
+    for (int i = 0, sampleStart = 0; i < numSamples; sampleStart = sampleEnds[i++]) {
+      final int sampleEnd = sampleEnds[i];
+      for (int start = sampleStart; start + DMER_LENGTH <= sampleEnd; start += SEGMENT_LENGTH / 2) {
+        final int end = Math.min(start + SEGMENT_LENGTH, sampleEnd);
+        final long score = score(samples, start, end, frequencies, stamps, stamp++);
+        if (score > 0) {
+          queue.add(new Segment(start, end, score));
+        }
+        if (end == sampleEnd) {
+          break;
+        }
+      }
+    }
+
+    // greedily pick the best segments, filling the dictionary from the end
+    final byte[] dictionary = new byte[maxLength];
+    int dictStart = maxLength;
+    while (dictStart > 0 && queue.isEmpty() == false) {
+      final Segment top = queue.peek();
+      // lazily recompute the score since d-mers that are already in the dictionary are worthless
+      final long score = score(samples, top.start, top.end, frequencies, stamps, stamp++);
+      if (score == 0) {
+        queue.poll();
+        continue;
+      }
+      if (score < top.score) {
+        top.score = score;
+        queue.poll();
+        queue.add(top);
+        continue;
+      }
+      queue.poll();
+      final int length = Math.min(top.end - top.start, dictStart);
+      dictStart -= length;
+      System.arraycopy(samples, top.end - length, dictionary, dictStart, length);
+      for (int off = top.start; off + DMER_LENGTH <= top.end; ++off) {
+        frequencies[hash(samples, off)] = 0;
+      }
+    }
+    return Arrays.copyOfRange(dictionary, dictStart, maxLength);
+  }
+
+  private static long score(byte[] bytes, int start, int end, int[] frequencies, int[] stamps, int stamp) {
+    long score = 0;
+    for (int off = start; off + DMER_LENGTH <= end; ++off) {
+      final int h = hash(bytes, off);
+      if (stamps[h] != stamp) {
+        // only count each d-mer once per segment
+        stamps[h] = stamp;
+        score += frequencies[h];
+      }
+    }
+    return score;
+  }
+
+  private static int hash(byte[] bytes, int off) {
+    long v = 0;
+    for (int i = 0; i < DMER_LENGTH; ++i) {
+      v = (v << 8) | (bytes[off + i] & 0xFFL);
+    }
+    return (int) ((v * -7046029254386353131L) >>> (64 - HASH_LOG));
+  }
+}
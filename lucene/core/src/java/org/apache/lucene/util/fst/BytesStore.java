@@ -44,6 +44,10 @@ class BytesStore extends DataOutput implements Accountable {
   private byte[] current;
   private int nextWrite;
 
+  // if non-null, completed blocks are written here and dropped from the heap
+  private DataOutput spillOut;
+  private int numSpilledBlocks;
+
   public BytesStore(int blockBits) {
     this.blockBits = blockBits;
     blockSize = 1 << blockBits;
@@ -356,17 +360,51 @@ class BytesStore extends DataOutput implements Accountable {
     assert newLen == getPosition();
   }
 
-  public void finish() {
+  public void finish() throws IOException {
     if (current != null) {
       byte[] lastBuffer = new byte[nextWrite];
       System.arraycopy(current, 0, lastBuffer, 0, nextWrite);
       blocks.set(blocks.size()-1, lastBuffer);
       current = null;
     }
+    if (spillOut != null) {
+      spillBlocks(blocks.size());
+    }
+  }
+
+  /** Writes completed blocks to the given {@link DataOutput} as soon as {@link
+   *  #spillCompletedBlocks} is called, instead of keeping them on heap. Bytes that
+   *  were spilled can no longer be read, written or truncated. */
+  public void spillTo(DataOutput out) {
+    assert spillOut == null;
+    spillOut = out;
+  }
+
+  /** Returns true if completed blocks are written to a spill output. */
+  public boolean isSpilling() {
+    return spillOut != null;
+  }
+
+  /** Writes all blocks but the one being written to the spill output, and drops
+   *  them from the heap. */
+  public void spillCompletedBlocks() throws IOException {
+    assert spillOut != null;
+    spillBlocks(blocks.size() - 1);
+  }
+
+  private void spillBlocks(int upTo) throws IOException {
+    for (; numSpilledBlocks < upTo; numSpilledBlocks++) {
+      final byte[] block = blocks.get(numSpilledBlocks);
+      spillOut.writeBytes(block, 0, block.length);
+      blocks.set(numSpilledBlocks, null);
+    }
   }
 
   /** Writes all of our bytes to the target {@link DataOutput}. */
   public void writeTo(DataOutput out) throws IOException {
+    if (spillOut != null) {
+      throw new IllegalStateException("bytes have already been written to the spill output");
+    }
     for(byte[] block : blocks) {
       out.writeBytes(block, 0, block.length);
     }
@@ -499,7 +537,9 @@ class BytesStore extends DataOutput implements Accountable {
   public long ramBytesUsed() {
     long size = BASE_RAM_BYTES_USED;
     for (byte[] block : blocks) {
-      size += RamUsageEstimator.sizeOf(block);
+      if (block != null) {
+        size += RamUsageEstimator.sizeOf(block);
+      }
     }
     return size;
   }
@@ -473,6 +473,15 @@ public final class FST<T> implements Accountable {
     return size;
   }
 
+  /** Expert: if this FST is read lazily from an index input, loads its bytes into the OS cache
+   *  so that the first lookups don't have to wait for I/O. This is a no-op for FSTs that are
+   *  held on heap. */
+  public void warm() throws IOException {
+    if (fstStore != null) {
+      fstStore.warm();
+    }
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + "(input=" + inputType + ",output=" + outputs;
@@ -503,6 +512,34 @@ public final class FST<T> implements Accountable {
   }
 
   public void save(DataOutput metaOut, DataOutput out) throws IOException {
+    if (bytes != null && bytes.isSpilling()) {
+      throw new IllegalStateException("the bytes of this FST have already been written to the FSTCompiler's data output; call saveMetadata instead");
+    }
+    writeMetadata(metaOut);
+    if (bytes != null) {
+      metaOut.writeVLong(bytes.getPosition());
+      bytes.writeTo(out);
+    } else {
+      assert fstStore != null;
+      fstStore.writeTo(out);
+    }
+  }
+
+  /**
+   * Save the metadata of this FST to a {@link DataOutput}, without its bytes. This is useful
+   * for FSTs whose bytes were written to a {@link DataOutput} while they were being built,
+   * see {@link FSTCompiler.Builder#dataOutput(DataOutput)}: they can be loaded back by passing
+   * the metadata and the bytes to {@link #FST(DataInput, DataInput, Outputs, FSTStore)}.
+   */
+  public void saveMetadata(DataOutput metaOut) throws IOException {
+    if (bytes == null) {
+      throw new IllegalStateException("only FSTs that were built in this JVM can save their metadata separately");
+    }
+    writeMetadata(metaOut);
+    metaOut.writeVLong(bytes.getPosition());
+  }
+
+  private void writeMetadata(DataOutput metaOut) throws IOException {
     if (startNode == -1) {
       throw new IllegalStateException("call finish first");
     }
@@ -543,14 +580,6 @@ public final class FST<T> implements Accountable {
     }
     metaOut.writeByte(t);
     metaOut.writeVLong(startNode);
-    if (bytes != null) {
-      long numBytes = bytes.getPosition();
-      metaOut.writeVLong(numBytes);
-      bytes.writeTo(out);
-    } else {
-      assert fstStore != null;
-      fstStore.writeTo(out);
-    }
   }
   
   /**
@@ -1441,6 +1470,8 @@ public final class FST<T> implements Accountable {
   public BytesReader getBytesReader() {
     if (this.fstStore != null) {
       return this.fstStore.getReverseBytesReader();
+    } else if (bytes.isSpilling()) {
+      throw new IllegalStateException("the bytes of this FST have been written to the FSTCompiler's data output; load it with an FSTStore to read it");
     } else {
       return bytes.getReverseReader();
     }
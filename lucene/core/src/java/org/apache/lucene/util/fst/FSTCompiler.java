@@ -20,6 +20,7 @@ package org.apache.lucene.util.fst;
 import java.io.IOException;
 
 import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.IntsRef;
 import org.apache.lucene.util.IntsRefBuilder;
@@ -54,6 +55,8 @@ public class FSTCompiler<T> {
   static final float DIRECT_ADDRESSING_MAX_OVERSIZING_FACTOR = 1f;
 
   private final NodeHash<T> dedupHash;
+  // used instead of dedupHash when the RAM used for suffix sharing is bounded
+  private final LRUNodeHash<T> lruDedupHash;
   final FST<T> fst;
   private final T NO_OUTPUT;
 
@@ -106,12 +109,13 @@ public class FSTCompiler<T> {
    * For more tuning and tweaking, see {@link Builder}.
    */
   public FSTCompiler(FST.INPUT_TYPE inputType, Outputs<T> outputs) {
-    this(inputType, 0, 0, true, true, Integer.MAX_VALUE, outputs, true, 15, 1f);
+    this(inputType, 0, 0, true, true, Integer.MAX_VALUE, outputs, true, 15, 1f, Double.POSITIVE_INFINITY, null);
   }
 
   private FSTCompiler(FST.INPUT_TYPE inputType, int minSuffixCount1, int minSuffixCount2, boolean doShareSuffix,
                       boolean doShareNonSingletonNodes, int shareMaxTailLength, Outputs<T> outputs,
-                      boolean allowFixedLengthArcs, int bytesPageBits, float directAddressingMaxOversizingFactor) {
+                      boolean allowFixedLengthArcs, int bytesPageBits, float directAddressingMaxOversizingFactor,
+                      double suffixRAMLimitMB, DataOutput dataOutput) {
     this.minSuffixCount1 = minSuffixCount1;
     this.minSuffixCount2 = minSuffixCount2;
     this.doShareNonSingletonNodes = doShareNonSingletonNodes;
@@ -121,10 +125,18 @@ public class FSTCompiler<T> {
     fst = new FST<>(inputType, outputs, bytesPageBits);
     bytes = fst.bytes;
     assert bytes != null;
-    if (doShareSuffix) {
+    if (dataOutput != null) {
+      bytes.spillTo(dataOutput);
+    }
+    if (doShareSuffix == false) {
+      dedupHash = null;
+      lruDedupHash = null;
+    } else if (suffixRAMLimitMB == Double.POSITIVE_INFINITY) {
       dedupHash = new NodeHash<>(fst, bytes.getReverseReader(false));
+      lruDedupHash = null;
     } else {
       dedupHash = null;
+      lruDedupHash = new LRUNodeHash<>(fst, (long) (suffixRAMLimitMB * 1024 * 1024));
     }
     NO_OUTPUT = outputs.getNoOutput();
 
@@ -154,6 +166,8 @@ public class FSTCompiler<T> {
     private boolean allowFixedLengthArcs = true;
     private int bytesPageBits = 15;
     private float directAddressingMaxOversizingFactor = DIRECT_ADDRESSING_MAX_OVERSIZING_FACTOR;
+    private double suffixRAMLimitMB = Double.POSITIVE_INFINITY;
+    private DataOutput dataOutput;
 
     /**
      * @param inputType The input type (transition labels). Can be anything from {@link INPUT_TYPE}
@@ -265,13 +279,47 @@ public class FSTCompiler<T> {
       return this;
     }
 
+    /**
+     * Only used if {@code shouldShareSuffix} is true. Bounds the RAM used to look up shared suffixes.
+     * Once the limit is reached, the least recently used suffixes are forgotten, so the FST is no
+     * longer guaranteed to be minimal, but it is still correct: the smaller the limit, the larger the
+     * FST. {@link Double#POSITIVE_INFINITY} keeps all suffixes, which ensures that the FST is minimal.
+     * <p>
+     * Default = {@link Double#POSITIVE_INFINITY}.
+     */
+    public Builder<T> suffixRAMLimitMB(double mb) {
+      if (mb <= 0 || Double.isNaN(mb)) {
+        throw new IllegalArgumentException("suffixRAMLimitMB must be > 0; got: " + mb);
+      }
+      this.suffixRAMLimitMB = mb;
+      return this;
+    }
+
+    /**
+     * Writes the bytes of the FST to the given {@link DataOutput} while it is being built, so that
+     * they don't need to be held on heap. The compiled FST can then not be read or saved directly:
+     * call {@link FST#saveMetadata(DataOutput)} and load the FST back from the metadata and the
+     * written bytes, e.g. with an {@link OffHeapFSTStore}. This requires that either {@code
+     * shouldShareSuffix} is false or that {@link #suffixRAMLimitMB(double)} is set, since suffixes
+     * otherwise need to be read back from the FST.
+     * <p>
+     * Default = {@code null}, ie. the FST is held on heap.
+     */
+    public Builder<T> dataOutput(DataOutput dataOutput) {
+      this.dataOutput = dataOutput;
+      return this;
+    }
+
     /**
      * Creates a new {@link FSTCompiler}.
      */
     public FSTCompiler<T> build() {
+      if (dataOutput != null && shouldShareSuffix && suffixRAMLimitMB == Double.POSITIVE_INFINITY) {
+        throw new IllegalArgumentException("writing the FST to a DataOutput requires a suffixRAMLimitMB when sharing suffixes");
+      }
       FSTCompiler<T> fstCompiler =  new FSTCompiler<>(inputType, minSuffixCount1, minSuffixCount2, shouldShareSuffix,
           shouldShareNonSingletonNodes, shareMaxTailLength, outputs, allowFixedLengthArcs, bytesPageBits,
-          directAddressingMaxOversizingFactor);
+          directAddressingMaxOversizingFactor, suffixRAMLimitMB, dataOutput);
       return fstCompiler;
     }
   }
@@ -294,18 +342,20 @@ public class FSTCompiler<T> {
   }
 
   public long getMappedStateCount() {
-    return dedupHash == null ? 0 : nodeCount;
+    return dedupHash == null && lruDedupHash == null ? 0 : nodeCount;
   }
 
   private CompiledNode compileNode(UnCompiledNode<T> nodeIn, int tailLength) throws IOException {
     final long node;
     long bytesPosStart = bytes.getPosition();
-    if (dedupHash != null && (doShareNonSingletonNodes || nodeIn.numArcs <= 1) && tailLength <= shareMaxTailLength) {
+    if ((dedupHash != null || lruDedupHash != null) && (doShareNonSingletonNodes || nodeIn.numArcs <= 1) && tailLength <= shareMaxTailLength) {
       if (nodeIn.numArcs == 0) {
         node = fst.addNode(this, nodeIn);
         lastFrozenNode = node;
-      } else {
+      } else if (dedupHash != null) {
         node = dedupHash.add(this, nodeIn);
+      } else {
+        node = lruDedupHash.add(this, nodeIn);
       }
     } else {
       node = fst.addNode(this, nodeIn);
@@ -317,6 +367,9 @@ public class FSTCompiler<T> {
       // The FST added a new node:
       assert bytesPosEnd > bytesPosStart;
       lastFrozenNode = node;
+      if (bytes.isSpilling()) {
+        bytes.spillCompletedBlocks();
+      }
     }
 
     nodeIn.clear();
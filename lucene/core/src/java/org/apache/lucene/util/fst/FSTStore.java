@@ -28,4 +28,9 @@ public interface FSTStore extends Accountable {
     long size();
     FST.BytesReader getReverseBytesReader();
     void writeTo(DataOutput out) throws IOException;
+
+    /** Expert: loads the bytes of this store into memory or the OS cache if they are read lazily,
+     *  so that the first lookups don't have to wait for I/O. The default implementation does nothing. */
+    default void warm() throws IOException {
+    }
 }
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.fst;
+
+import java.io.IOException;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.packed.PackedInts;
+import org.apache.lucene.util.packed.PagedGrowableWriter;
+
+// Used to dedup states (lookup already-frozen states) within a bounded amount of RAM. Unlike
+// NodeHash, this never reads the FST that is being built: it keeps a copy of the bytes of the
+// frozen nodes it knows about, so that the FST bytes may already have been written elsewhere.
+// Nodes are kept in two generations: once the primary generation uses half of the RAM limit, it
+// becomes the fallback generation and the previous fallback generation is dropped. Nodes found in
+// the fallback generation are copied back to the primary generation, so that this approximates
+// an LRU cache. Nodes that were dropped are frozen again when they are seen again, so the FST is
+// only minimal if the hash never drops any node.
+final class LRUNodeHash<T> {
+
+  private final FST<T> fst;
+  private final long ramLimitBytes;
+  private final FST.Arc<T> scratchArc = new FST.Arc<>();
+  private byte[] scratchBytes = new byte[16];
+
+  private Generation primary;
+  private Generation fallback;
+
+  public LRUNodeHash(FST<T> fst, long ramLimitBytes) {
+    this.fst = fst;
+    this.ramLimitBytes = ramLimitBytes;
+    primary = new Generation();
+  }
+
+  public long add(FSTCompiler<T> fstCompiler, FSTCompiler.UnCompiledNode<T> nodeIn) throws IOException {
+    final long h = NodeHash.hash(nodeIn);
+    final long pos = primary.find(nodeIn, h);
+    if (primary.addresses.get(pos) != 0) {
+      // same node is already here
+      return primary.addresses.get(pos);
+    }
+
+    final long node;
+    final int length;
+    final long fallbackPos = fallback == null ? -1 : fallback.find(nodeIn, h);
+    if (fallbackPos != -1 && fallback.addresses.get(fallbackPos) != 0) {
+      // the node was seen a while ago: make it recent again
+      node = fallback.addresses.get(fallbackPos);
+      length = (int) fallback.lengths.get(fallbackPos);
+      scratchBytes = ArrayUtil.grow(scratchBytes, length);
+      fallback.bytes.copyBytes(fallback.copies.get(fallbackPos) - length + 1, scratchBytes, 0, length);
+    } else {
+      // freeze & add
+      final long nodeStart = fst.bytes.getPosition();
+      node = fst.addNode(fstCompiler, nodeIn);
+      assert node == fst.bytes.getPosition() - 1;
+      length = (int) (node - nodeStart + 1);
+      scratchBytes = ArrayUtil.grow(scratchBytes, length);
+      fst.bytes.copyBytes(nodeStart, scratchBytes, 0, length);
+    }
+    primary.add(pos, node, scratchBytes, length);
+
+    if (primary.ramBytesUsed() >= ramLimitBytes / 2) {
+      fallback = primary;
+      primary = new Generation();
+    }
+    return node;
+  }
+
+  /** Holds the addresses of frozen nodes together with a copy of their bytes. */
+  private final class Generation {
+
+    // address of the node in the FST, or 0 for an empty slot
+    private PagedGrowableWriter addresses;
+    // address of the copy of the node in bytes
+    private PagedGrowableWriter copies;
+    // number of bytes of the node
+    private PagedGrowableWriter lengths;
+    private long count;
+    private long mask;
+
+    private final BytesStore bytes = new BytesStore(15);
+    private final NodeCopyReader in = new NodeCopyReader(bytes.getReverseReader(false));
+
+    Generation() {
+      addresses = new PagedGrowableWriter(16, 1<<27, 8, PackedInts.COMPACT);
+      copies = new PagedGrowableWriter(16, 1<<27, 8, PackedInts.COMPACT);
+      lengths = new PagedGrowableWriter(16, 1<<27, 8, PackedInts.COMPACT);
+      mask = 15;
+      // pad: the reader may be positioned right before the first copied node
+      bytes.writeByte((byte) 0);
+    }
+
+    // returns the slot of the given node, or of the empty slot where it would be added
+    long find(FSTCompiler.UnCompiledNode<T> nodeIn, long h) throws IOException {
+      long pos = h & mask;
+      int c = 0;
+      while (true) {
+        final long address = addresses.get(pos);
+        if (address == 0 || nodesEqual(nodeIn, pos)) {
+          return pos;
+        }
+        // quadratic probe
+        pos = (pos + (++c)) & mask;
+      }
+    }
+
+    private boolean nodesEqual(FSTCompiler.UnCompiledNode<T> nodeIn, long pos) throws IOException {
+      final long address = addresses.get(pos);
+      in.delta = copies.get(pos) - address;
+      return NodeHash.nodesEqual(fst, nodeIn, address, scratchArc, in);
+    }
+
+    long hash(long pos) throws IOException {
+      final long address = addresses.get(pos);
+      in.delta = copies.get(pos) - address;
+      return NodeHash.hash(fst, address, scratchArc, in);
+    }
+
+    void add(long pos, long address, byte[] nodeBytes, int length) throws IOException {
+      assert addresses.get(pos) == 0;
+      bytes.writeBytes(nodeBytes, 0, length);
+      set(pos, address, bytes.getPosition() - 1, length);
+      count++;
+      // Rehash at 2/3 occupancy:
+      if (count > 2 * addresses.size() / 3) {
+        rehash();
+      }
+    }
+
+    private void set(long pos, long address, long copy, long length) {
+      addresses.set(pos, address);
+      copies.set(pos, copy);
+      lengths.set(pos, length);
+    }
+
+    private void rehash() throws IOException {
+      final PagedGrowableWriter oldAddresses = addresses;
+      final PagedGrowableWriter oldCopies = copies;
+      final PagedGrowableWriter oldLengths = lengths;
+
+      final long size = 2 * oldAddresses.size();
+      addresses = new PagedGrowableWriter(size, 1<<30, PackedInts.bitsRequired(fst.bytes.getPosition()), PackedInts.COMPACT);
+      copies = new PagedGrowableWriter(size, 1<<30, PackedInts.bitsRequired(bytes.getPosition()), PackedInts.COMPACT);
+      lengths = new PagedGrowableWriter(size, 1<<30, 8, PackedInts.COMPACT);
+      mask = size - 1;
+      for (long idx = 0; idx < oldAddresses.size(); idx++) {
+        final long address = oldAddresses.get(idx);
+        if (address != 0) {
+          final long copy = oldCopies.get(idx);
+          in.delta = copy - address;
+          long pos = NodeHash.hash(fst, address, scratchArc, in) & mask;
+          int c = 0;
+          while (addresses.get(pos) != 0) {
+            // quadratic probe
+            pos = (pos + (++c)) & mask;
+          }
+          set(pos, address, copy, oldLengths.get(idx));
+        }
+      }
+    }
+
+    long ramBytesUsed() {
+      return addresses.ramBytesUsed() + copies.ramBytesUsed() + lengths.ramBytesUsed() + bytes.ramBytesUsed();
+    }
+  }
+
+  // Reads the copy of a node as if it was read at its address in the FST
+  private static final class NodeCopyReader extends FST.BytesReader {
+
+    private final FST.BytesReader in;
+    // position of a byte of the copy minus its position in the FST
+    long delta;
+
+    NodeCopyReader(FST.BytesReader in) {
+      this.in = in;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+      return in.readByte();
+    }
+
+    @Override
+    public void readBytes(byte[] b, int offset, int len) throws IOException {
+      in.readBytes(b, offset, len);
+    }
+
+    @Override
+    public void skipBytes(long numBytes) throws IOException {
+      in.skipBytes(numBytes);
+    }
+
+    @Override
+    public long getPosition() {
+      return in.getPosition() - delta;
+    }
+
+    @Override
+    public void setPosition(long pos) {
+      in.setPosition(pos + delta);
+    }
+
+    @Override
+    public boolean reversed() {
+      return true;
+    }
+  }
+}
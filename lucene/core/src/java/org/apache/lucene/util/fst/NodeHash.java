@@ -40,6 +40,12 @@ final class NodeHash<T> {
   }
 
   private boolean nodesEqual(FSTCompiler.UnCompiledNode<T> node, long address) throws IOException {
+    return nodesEqual(fst, node, address, scratchArc, in);
+  }
+
+  // compares an unfrozen node with the frozen node at the given address, read from the given reader
+  static <T> boolean nodesEqual(FST<T> fst, FSTCompiler.UnCompiledNode<T> node, long address,
+                                FST.Arc<T> scratchArc, FST.BytesReader in) throws IOException {
     fst.readFirstRealTargetArc(address, scratchArc, in);
 
     // Fail fast for a node with fixed length arcs.
@@ -82,7 +88,7 @@ final class NodeHash<T> {
 
   // hash code for an unfrozen node.  This must be identical
   // to the frozen case (below)!!
-  private long hash(FSTCompiler.UnCompiledNode<T> node) {
+  static <T> long hash(FSTCompiler.UnCompiledNode<T> node) {
     final int PRIME = 31;
     //System.out.println("hash unfrozen");
     long h = 0;
@@ -105,6 +111,11 @@ final class NodeHash<T> {
 
   // hash code for a frozen node
   private long hash(long node) throws IOException {
+    return hash(fst, node, scratchArc, in);
+  }
+
+  // hash code for the frozen node at the given address, read from the given reader
+  static <T> long hash(FST<T> fst, long node, FST.Arc<T> scratchArc, FST.BytesReader in) throws IOException {
     final int PRIME = 31;
     //System.out.println("hash frozen node=" + node);
     long h = 0;
@@ -19,6 +19,7 @@ package org.apache.lucene.util.fst;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.RandomAccessInput;
 import org.apache.lucene.util.RamUsageEstimator;
 
 import java.io.IOException;
@@ -32,6 +33,9 @@ public final class OffHeapFSTStore implements FSTStore {
 
     private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(OffHeapFSTStore.class);
 
+    /** Stride used to touch the bytes of the FST when warming; matches the most common OS page size. */
+    private static final int WARM_STRIDE = 4096;
+
     private IndexInput in;
     private long offset;
     private long numBytes;
@@ -67,6 +71,19 @@ public final class OffHeapFSTStore implements FSTStore {
         }
     }
 
+    /** Reads one byte per page of the FST, so that the OS loads the pages that back it. */
+    @Override
+    public void warm() throws IOException {
+        if (numBytes == 0) {
+            return;
+        }
+        RandomAccessInput slice = in.randomAccessSlice(offset, numBytes);
+        for (long pos = 0; pos < numBytes; pos += WARM_STRIDE) {
+            slice.readByte(pos);
+        }
+        slice.readByte(numBytes - 1);
+    }
+
     @Override
     public void writeTo(DataOutput out) throws IOException {
         throw new UnsupportedOperationException("writeToOutput operation is not supported for OffHeapFSTStore");
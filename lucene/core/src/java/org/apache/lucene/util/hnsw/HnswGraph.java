@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.index.RandomAccessVectorValues;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.SparseFixedBitSet;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/**
+ * Hierarchical Navigable Small World graph. Provides efficient approximate nearest neighbor
+ * search for high dimensional vectors.  See <a href="https://arxiv.org/abs/1603.09320">Efficient and
+ * robust approximate nearest neighbor search using Hierarchical Navigable Small World graphs [2018]</a>
+ * paper for details.
+ *
+ * <p>Every node is present on level 0, and each node is additionally present on all levels
+ * below a randomly chosen top level, with exponentially decreasing probability. Searches start
+ * from the {@link #entryNode() entry node} on the top level and greedily descend, level by level,
+ * towards the query; on level 0 a beam search collects the nearest neighbors.</p>
+ *
+ * <p>Nodes are identified by their dense vector ordinals, not by document ids.</p>
+ *
+ * @lucene.experimental
+ */
+public abstract class HnswGraph {
+
+  /** Sole constructor */
+  protected HnswGraph() {}
+
+  /**
+   * Move the pointer to exactly the given {@code level}'s {@code target}. After this method
+   * returns, call {@link #nextNeighbor()} to return successive (ordered) connected node ordinals.
+   * @param level level of the graph
+   * @param target ordinal of a node in the graph, must be &ge; 0 and &lt; {@link #size()}, and
+   *               present on the given level.
+   */
+  public abstract void seek(int level, int target) throws IOException;
+
+  /**
+   * Iterates over the neighbor list. It is illegal to call this method after it returns
+   * NO_MORE_DOCS without calling {@link #seek(int, int)}, which resets the iterator.
+   * @return a node ordinal in the graph, or NO_MORE_DOCS if the iteration is complete.
+   */
+  public abstract int nextNeighbor() throws IOException;
+
+  /** Returns the number of nodes in the graph */
+  public abstract int size();
+
+  /** Returns the number of levels of the graph */
+  public abstract int numLevels();
+
+  /** Returns graph's entry point on the top level */
+  public abstract int entryNode();
+
+  /**
+   * Searches for the nearest neighbors of a query vector.
+   * @param query search query vector
+   * @param topK the number of nodes to be returned
+   * @param numSeed the size of the queue maintained while searching on the bottom level, and
+   *                controls the number of results considered; must be &ge; topK
+   * @param vectors vector values
+   * @param searchStrategy the strategy used to compute vector similarity
+   * @param graph the graph values. May represent the entire graph, or a level in a hierarchical graph.
+   * @param acceptOrds {@link Bits} that represents the allowed document ordinals to match, or
+   *     {@code null} if they are all allowed to match.
+   * @return a queue of the (approximately) nearest neighbors, least similar on top
+   */
+  public static NeighborQueue search(float[] query, int topK, int numSeed, RandomAccessVectorValues vectors,
+                                     VectorValues.SearchStrategy searchStrategy, HnswGraph graph, Bits acceptOrds) throws IOException {
+    int size = graph.size();
+    if (size == 0) {
+      return new NeighborQueue(1, false);
+    }
+    int[] eps = new int[] {graph.entryNode()};
+    int visitedCount = 0;
+    for (int level = graph.numLevels() - 1; level >= 1; level--) {
+      NeighborQueue results = searchLevel(query, 1, level, eps, vectors, searchStrategy, graph, null, new SparseFixedBitSet(size));
+      visitedCount += results.visitedCount();
+      eps[0] = results.topNode();
+    }
+    NeighborQueue results = searchLevel(query, Math.max(topK, numSeed), 0, eps, vectors, searchStrategy, graph, acceptOrds, new SparseFixedBitSet(size));
+    while (results.size() > topK) {
+      results.pop();
+    }
+    results.setVisitedCount(results.visitedCount() + visitedCount);
+    return results;
+  }
+
+  /**
+   * Searches for the nearest neighbors of a query vector on the given level of the graph,
+   * starting from the given entry points.
+   * @param query search query vector
+   * @param topK the number of nearest to query results to return
+   * @param level level to search
+   * @param eps the entry points for search at this level, expressed as vector ordinals
+   * @param vectors vector values
+   * @param searchStrategy the strategy used to compute vector similarity
+   * @param graph the graph values
+   * @param acceptOrds {@link Bits} that represents the allowed ordinals to be returned, or
+   *     {@code null} if they are all allowed. Rejected nodes are still traversed.
+   * @param visited a bit set used to track visited nodes; must be empty
+   * @return a queue holding the topK nearest neighbors found, least similar on top
+   */
+  static NeighborQueue searchLevel(float[] query, int topK, int level, int[] eps, RandomAccessVectorValues vectors,
+                                   VectorValues.SearchStrategy searchStrategy, HnswGraph graph, Bits acceptOrds,
+                                   SparseFixedBitSet visited) throws IOException {
+    NeighborQueue results = new NeighborQueue(topK, false);
+    // candidates is a max-heap: the most similar unexplored node is on top
+    NeighborQueue candidates = new NeighborQueue(topK, true);
+    int visitedCount = 0;
+    for (int ep : eps) {
+      if (visited.get(ep) == false) {
+        visited.set(ep);
+        float score = searchStrategy.similarity(query, vectors.vectorValue(ep));
+        visitedCount++;
+        candidates.add(ep, score);
+        if (acceptOrds == null || acceptOrds.get(ep)) {
+          results.insertWithOverflow(ep, score, topK);
+        }
+      }
+    }
+
+    while (candidates.size() > 0) {
+      // get the best candidate (closest or best scoring)
+      float topCandidateScore = candidates.topScore();
+      if (results.size() >= topK && topCandidateScore < results.topScore()) {
+        // the best remaining candidate is worse than all results: stop exploring
+        break;
+      }
+      int topCandidateNode = candidates.pop();
+      graph.seek(level, topCandidateNode);
+      int friendOrd;
+      while ((friendOrd = graph.nextNeighbor()) != NO_MORE_DOCS) {
+        assert friendOrd < graph.size() : "friendOrd=" + friendOrd + "; size=" + graph.size();
+        if (visited.get(friendOrd)) {
+          continue;
+        }
+        visited.set(friendOrd);
+        float score = searchStrategy.similarity(query, vectors.vectorValue(friendOrd));
+        visitedCount++;
+        if (results.size() < topK || score > results.topScore()) {
+          candidates.add(friendOrd, score);
+          if (acceptOrds == null || acceptOrds.get(friendOrd)) {
+            results.insertWithOverflow(friendOrd, score, topK);
+          }
+        }
+      }
+    }
+    results.setVisitedCount(visitedCount);
+    return results;
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import org.apache.lucene.index.RandomAccessVectorValues;
+import org.apache.lucene.index.RandomAccessVectorValuesProducer;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.SparseFixedBitSet;
+
+/**
+ * Builder for HNSW graph. See {@link HnswGraph} for a gloss on the algorithm and the meaning of the
+ * hyperparameters.
+ *
+ * @lucene.experimental
+ */
+public final class HnswGraphBuilder {
+
+  /** Default random seed for level generation */
+  private static final long DEFAULT_RAND_SEED = 42;
+  /** Component name for InfoStream messages */
+  public static final String HNSW_COMPONENT = "HNSW";
+
+  /** Random seed for level generation; public to expose for testing */
+  public static long randSeed = DEFAULT_RAND_SEED;
+
+  private final int maxConn;
+  private final int beamWidth;
+  private final double ml;
+  private final NeighborArray scratch;
+
+  private final VectorValues.SearchStrategy searchStrategy;
+  private final RandomAccessVectorValues vectorValues;
+  private final SplittableRandom random;
+  private final OnHeapHnswGraph hnsw;
+
+  private InfoStream infoStream = InfoStream.getDefault();
+
+  // we need two sources of vectors in order to perform diversity check comparisons without
+  // colliding
+  private final RandomAccessVectorValues buildVectors;
+
+  /**
+   * Reads all the vectors from a VectorValues, builds a graph connecting them by their dense
+   * ordinals, using the given hyperparameter settings, and returns the resulting graph.
+   *
+   * @param vectors the vectors whose relations are represented by the graph - must provide a
+   *     different view over those vectors than the one used to add via addGraphNode.
+   * @param maxConn the number of connections to make when adding a new graph node; roughly speaking
+   *     the graph fanout.
+   * @param beamWidth the size of the beam search to use when finding nearest neighbors.
+   * @param seed the seed for a random number generator used during graph construction. Provide this
+   *     to ensure repeatable construction.
+   */
+  public HnswGraphBuilder(RandomAccessVectorValuesProducer vectors, VectorValues.SearchStrategy searchStrategy,
+                          int maxConn, int beamWidth, long seed) throws IOException {
+    vectorValues = vectors.randomAccess();
+    buildVectors = vectors.randomAccess();
+    this.searchStrategy = searchStrategy;
+    if (searchStrategy.isHnsw() == false) {
+      throw new IllegalArgumentException("searchStrategy must be an HNSW strategy; got " + searchStrategy);
+    }
+    if (maxConn <= 0) {
+      throw new IllegalArgumentException("maxConn must be positive");
+    }
+    if (beamWidth <= 0) {
+      throw new IllegalArgumentException("beamWidth must be positive");
+    }
+    this.maxConn = maxConn;
+    this.beamWidth = beamWidth;
+    // normalization factor for level generation; avoid dividing by zero when maxConn == 1
+    this.ml = 1 / Math.log(Math.max(maxConn, 2));
+    this.hnsw = new OnHeapHnswGraph(maxConn);
+    this.random = new SplittableRandom(seed);
+    scratch = new NeighborArray(Math.max(beamWidth, maxConn + 1));
+  }
+
+  /**
+   * Reads all the vectors from two copies of a random access VectorValues. Providing two copies
+   * enables efficient retrieval without extra data copying, while avoiding collision of the
+   * returned values.
+   *
+   * @param vectors the vectors for which to build a nearest neighbors graph. Must be an independent
+   *     accessor for the vectors
+   */
+  public OnHeapHnswGraph build(RandomAccessVectorValues vectors) throws IOException {
+    if (vectors == vectorValues) {
+      throw new IllegalArgumentException("Vectors to build must be independent of the source of vectors provided to HnswGraphBuilder()");
+    }
+    if (infoStream.isEnabled(HNSW_COMPONENT)) {
+      infoStream.message(HNSW_COMPONENT, "build graph from " + vectors.size() + " vectors");
+    }
+    long start = System.nanoTime(), t = start;
+    for (int node = 0; node < vectors.size(); node++) {
+      addGraphNode(node, vectors.vectorValue(node));
+      if (node % 10000 == 0 && node > 0 && infoStream.isEnabled(HNSW_COMPONENT)) {
+        long now = System.nanoTime();
+        infoStream.message(HNSW_COMPONENT, String.format(Locale.ROOT, "built %d in %d/%d ms",
+            node, ((now - t) / 1_000_000), ((now - start) / 1_000_000)));
+        t = now;
+      }
+    }
+    return hnsw;
+  }
+
+  /** Set info-stream to output debugging information **/
+  public void setInfoStream(InfoStream infoStream) {
+    this.infoStream = infoStream;
+  }
+
+  /** Inserts a doc with vector value to the graph */
+  void addGraphNode(int node, float[] value) throws IOException {
+    int nodeLevel = getRandomGraphLevel();
+    int curMaxLevel = hnsw.numLevels() - 1;
+    hnsw.addNode(nodeLevel, node);
+    if (node == 0) {
+      // the very first node is the entry point on all levels it was assigned to
+      hnsw.setEntryNode(node);
+      return;
+    }
+
+    int[] eps = new int[] {hnsw.entryNode()};
+
+    // for levels > nodeLevel search with topk = 1
+    for (int level = curMaxLevel; level > nodeLevel; level--) {
+      NeighborQueue candidates = HnswGraph.searchLevel(value, 1, level, eps, vectorValues, searchStrategy, hnsw, null, new SparseFixedBitSet(node));
+      eps = new int[] {candidates.pop()};
+    }
+    // for levels <= nodeLevel search with topk = beamWidth, and add connections
+    for (int level = Math.min(nodeLevel, curMaxLevel); level >= 0; level--) {
+      NeighborQueue candidates = HnswGraph.searchLevel(value, beamWidth, level, eps, vectorValues, searchStrategy, hnsw, null, new SparseFixedBitSet(node));
+      eps = candidates.nodes();
+      addDiverseNeighbors(level, node, candidates);
+    }
+    if (nodeLevel > curMaxLevel) {
+      // the new node is the only one on the new top levels
+      hnsw.setEntryNode(node);
+    }
+  }
+
+  private void addDiverseNeighbors(int level, int node, NeighborQueue candidates) throws IOException {
+    /* For each of the beamWidth nearest candidates (going from best to worst), select it only if it
+     * is closer to target than it is to any of the already-selected neighbors (ie selected in this method,
+     * since the node is new and has no prior neighbors).
+     */
+    NeighborArray neighbors = hnsw.getNeighbors(level, node);
+    assert neighbors.size() == 0; // new node
+    popToScratch(candidates);
+    selectDiverse(neighbors, scratch);
+
+    // Link the selected nodes to the new node, and the new node to the selected nodes (again
+    // applying diversity heuristic)
+    int size = neighbors.size();
+    for (int i = 0; i < size; i++) {
+      int nbr = neighbors.node[i];
+      NeighborArray nbrNbr = hnsw.getNeighbors(level, nbr);
+      nbrNbr.add(node, neighbors.score[i]);
+      if (nbrNbr.size() > maxConn) {
+        diversityUpdate(nbrNbr);
+      }
+    }
+  }
+
+  private void selectDiverse(NeighborArray neighbors, NeighborArray candidates) throws IOException {
+    // Select the best maxConn neighbors of the new node, applying the diversity heuristic
+    for (int i = 0; i < candidates.size() && neighbors.size() < maxConn; i++) {
+      // compare each neighbor (in distance order) against the closer neighbors selected so far,
+      // only adding it if it is closer to the target than to any of the other selected neighbors
+      int cNode = candidates.node[i];
+      float cScore = candidates.score[i];
+      assert cNode < hnsw.size();
+      if (diversityCheck(vectorValues.vectorValue(cNode), cScore, neighbors, buildVectors)) {
+        neighbors.add(cNode, cScore);
+      }
+    }
+  }
+
+  private void popToScratch(NeighborQueue candidates) {
+    scratch.clear();
+    int candidateCount = candidates.size();
+    // extract all the Neighbors from the queue into an array; these will now be
+    // sorted from worst to best
+    for (int i = 0; i < candidateCount; i++) {
+      float score = candidates.topScore();
+      scratch.add(candidates.pop(), score);
+    }
+    // reverse so the best candidates come first
+    for (int i = 0, j = scratch.size() - 1; i < j; i++, j--) {
+      int n = scratch.node[i];
+      scratch.node[i] = scratch.node[j];
+      scratch.node[j] = n;
+      float s = scratch.score[i];
+      scratch.score[i] = scratch.score[j];
+      scratch.score[j] = s;
+    }
+  }
+
+  /**
+   * @param candidate the vector of a new candidate neighbor of a node n
+   * @param score the score of the new candidate and node n, to be compared with scores of the candidate and n's neighbors
+   * @param neighbors the neighbors selected so far
+   * @param vectorValues source of values used for making comparisons between candidate and existing neighbors
+   * @return whether the candidate is diverse given the existing neighbors
+   */
+  private boolean diversityCheck(float[] candidate, float score, NeighborArray neighbors, RandomAccessVectorValues vectorValues) throws IOException {
+    for (int i = 0; i < neighbors.size(); i++) {
+      float diversityCheck = searchStrategy.similarity(candidate, vectorValues.vectorValue(neighbors.node[i]));
+      if (diversityCheck >= score) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Called when a node's neighbor list has overflowed maxConn. Removes the first neighbor (going
+   * from least to most similar) that fails the diversity check against the more similar neighbors;
+   * if all neighbors are diverse, removes the least similar one.
+   */
+  private void diversityUpdate(NeighborArray neighbors) throws IOException {
+    assert neighbors.size() == maxConn + 1;
+    neighbors.sortByScoreDescending();
+    for (int i = neighbors.size() - 1; i > 0; i--) {
+      float[] candidate = vectorValues.vectorValue(neighbors.node[i]);
+      float score = neighbors.score[i];
+      for (int j = 0; j < i; j++) {
+        if (searchStrategy.similarity(candidate, buildVectors.vectorValue(neighbors.node[j])) >= score) {
+          neighbors.removeIndex(i);
+          return;
+        }
+      }
+    }
+    neighbors.removeIndex(neighbors.size() - 1);
+  }
+
+  private int getRandomGraphLevel() {
+    double randDouble;
+    do {
+      randDouble = random.nextDouble();  // avoid 0 value, as log(0) is undefined
+    } while (randDouble == 0.0);
+    return (int) (-Math.log(randDouble) * ml);
+  }
+}
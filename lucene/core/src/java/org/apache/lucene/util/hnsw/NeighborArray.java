@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * NeighborArray encodes the neighbors of a node and their mutual scores in the HNSW graph as a
+ * pair of growable arrays.
+ *
+ * @lucene.internal
+ */
+public class NeighborArray {
+
+  private int size;
+
+  float[] score;
+  int[] node;
+
+  /** Create an empty array with the given initial capacity */
+  public NeighborArray(int maxSize) {
+    node = new int[maxSize];
+    score = new float[maxSize];
+  }
+
+  /** Append a neighbor and its score */
+  public void add(int newNode, float newScore) {
+    if (size == node.length) {
+      node = ArrayUtil.grow(node);
+      score = ArrayUtil.growExact(score, node.length);
+    }
+    node[size] = newNode;
+    score[size] = newScore;
+    ++size;
+  }
+
+  /** Return the number of neighbors */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Direct access to the internal list of node ids; provided for efficient writing of the graph
+   * @lucene.internal
+   */
+  public int[] node() {
+    return node;
+  }
+
+  /**
+   * Direct access to the internal list of scores
+   * @lucene.internal
+   */
+  public float[] score() {
+    return score;
+  }
+
+  /** Remove all neighbors */
+  public void clear() {
+    size = 0;
+  }
+
+  /** Remove the neighbor at the given index, shifting the following ones */
+  public void removeIndex(int idx) {
+    System.arraycopy(node, idx + 1, node, idx, size - idx - 1);
+    System.arraycopy(score, idx + 1, score, idx, size - idx - 1);
+    size--;
+  }
+
+  /** Sorts the neighbors by decreasing score, most similar first */
+  void sortByScoreDescending() {
+    // insertion sort: arrays are short (at most maxConn + 1 entries)
+    for (int i = 1; i < size; i++) {
+      int n = node[i];
+      float s = score[i];
+      int j = i - 1;
+      while (j >= 0 && score[j] < s) {
+        node[j + 1] = node[j];
+        score[j + 1] = score[j];
+        j--;
+      }
+      node[j + 1] = n;
+      score[j + 1] = s;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "NeighborArray[" + size + "]";
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.NumericUtils;
+
+/**
+ * NeighborQueue uses a binary heap of longs to store nodes together with their similarity
+ * scores. The score is encoded in the high bits so that the heap orders by score, and the node
+ * id is encoded in the low bits. The queue is either a min-heap, whose top is the least similar
+ * node, or a max-heap, whose top is the most similar node.
+ */
+public class NeighborQueue {
+
+  private final boolean maxHeap;
+  private long[] heap;
+  private int size;
+
+  // Used to track the number of neighbors visited during a single graph traversal
+  private int visitedCount;
+
+  /**
+   * Create a new queue
+   * @param initialSize the initial capacity of the queue, it grows as needed
+   * @param maxHeap whether the top of the queue is the most similar node (true) or the least similar one (false)
+   */
+  public NeighborQueue(int initialSize, boolean maxHeap) {
+    this.heap = new long[Math.max(initialSize, 1) + 1];
+    this.maxHeap = maxHeap;
+  }
+
+  /**
+   * @return the number of elements in the queue
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Adds a new graph node to the queue.
+   * @param newNode the node id
+   * @param newScore the score of the node
+   */
+  public void add(int newNode, float newScore) {
+    push(encode(newNode, newScore));
+  }
+
+  /**
+   * If the queue has fewer than {@code topK} elements, adds the node. Otherwise, if the node is
+   * more competitive than the top of a min-heap, replaces the top with the node.
+   * @return true if the node was added
+   */
+  public boolean insertWithOverflow(int newNode, float newScore, int topK) {
+    assert maxHeap == false;
+    if (size < topK) {
+      add(newNode, newScore);
+      return true;
+    }
+    long encoded = encode(newNode, newScore);
+    if (size > 0 && encoded > heap[1]) {
+      heap[1] = encoded;
+      downHeap(1);
+      return true;
+    }
+    return false;
+  }
+
+  private long encode(int node, float score) {
+    long encoded = (((long) NumericUtils.floatToSortableInt(score)) << 32) | (0xFFFFFFFFL & ~node);
+    return maxHeap ? -encoded : encoded;
+  }
+
+  private long decoded(long value) {
+    return maxHeap ? -value : value;
+  }
+
+  /** Removes the top element and returns its node id. */
+  public int pop() {
+    assert size > 0;
+    long result = heap[1];
+    heap[1] = heap[size];
+    size--;
+    downHeap(1);
+    return (int) ~decoded(result);
+  }
+
+  /** Returns the top element's node id. */
+  public int topNode() {
+    assert size > 0;
+    return (int) ~decoded(heap[1]);
+  }
+
+  /** Returns the top element's node score. */
+  public float topScore() {
+    assert size > 0;
+    return NumericUtils.sortableIntToFloat((int) (decoded(heap[1]) >> 32));
+  }
+
+  /** Returns a copy of the node ids in this queue, in heap order */
+  public int[] nodes() {
+    int[] nodes = new int[size];
+    for (int i = 0; i < size; i++) {
+      nodes[i] = (int) ~decoded(heap[i + 1]);
+    }
+    return nodes;
+  }
+
+  /** Removes all elements from the queue. */
+  public void clear() {
+    size = 0;
+    visitedCount = 0;
+  }
+
+  /** Returns the number of nodes whose similarity was computed while filling this queue. */
+  public int visitedCount() {
+    return visitedCount;
+  }
+
+  void setVisitedCount(int visitedCount) {
+    this.visitedCount = visitedCount;
+  }
+
+  private void push(long element) {
+    size++;
+    if (size == heap.length) {
+      heap = ArrayUtil.grow(heap, size + 1);
+    }
+    heap[size] = element;
+    upHeap(size);
+  }
+
+  private void upHeap(int origPos) {
+    int i = origPos;
+    long value = heap[i];
+    int j = i >>> 1;
+    while (j > 0 && value < heap[j]) {
+      heap[i] = heap[j];
+      i = j;
+      j = j >>> 1;
+    }
+    heap[i] = value;
+  }
+
+  private void downHeap(int i) {
+    long value = heap[i];
+    int j = i << 1;
+    int k = j + 1;
+    if (k <= size && heap[k] < heap[j]) {
+      j = k;
+    }
+    while (j <= size && heap[j] < value) {
+      heap[i] = heap[j];
+      i = j;
+      j = i << 1;
+      k = j + 1;
+      if (k <= size && heap[k] < heap[j]) {
+        j = k;
+      }
+    }
+    heap[i] = value;
+  }
+
+  @Override
+  public String toString() {
+    return "Neighbors[" + size + "]";
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.util.ArrayUtil;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/**
+ * An {@link HnswGraph} where all nodes and connections are held in memory. This class is used to
+ * construct the HNSW graph before it's written to the index.
+ *
+ * <p>Level 0 holds a neighbor array for every node. Higher levels only hold the nodes that were
+ * assigned to them; since nodes are always added in increasing ordinal order, those node lists
+ * are sorted and can be searched with a binary search.</p>
+ *
+ * @lucene.internal
+ */
+public final class OnHeapHnswGraph extends HnswGraph {
+
+  private final int maxConn;
+  // neighbors of each node on each level; graph.get(0) is indexed by node ordinal, higher levels
+  // by the position of the node in nodesByLevel
+  private final List<List<NeighborArray>> graph;
+  // the sorted list of nodes present on each level > 0; nodesByLevel[0] is unused
+  private final List<int[]> nodesByLevel;
+  private final List<Integer> nodeCounts;
+
+  private int entryNode;
+
+  // Iterator state
+  private int upto;
+  private NeighborArray cur;
+
+  OnHeapHnswGraph(int maxConn) {
+    this.maxConn = maxConn;
+    graph = new ArrayList<>();
+    nodesByLevel = new ArrayList<>();
+    nodeCounts = new ArrayList<>();
+    addLevel();
+  }
+
+  private void addLevel() {
+    graph.add(new ArrayList<>());
+    nodesByLevel.add(new int[0]);
+    nodeCounts.add(0);
+  }
+
+  /**
+   * Adds the given node to all levels from 0 up to and including {@code level}. Nodes must be
+   * added in increasing ordinal order.
+   */
+  void addNode(int level, int node) {
+    assert node == graph.get(0).size() : "nodes must be added in order";
+    while (level >= graph.size()) {
+      addLevel();
+    }
+    graph.get(0).add(new NeighborArray(maxConn + 1));
+    for (int l = 1; l <= level; l++) {
+      int count = nodeCounts.get(l);
+      int[] nodes = nodesByLevel.get(l);
+      if (count == nodes.length) {
+        nodes = ArrayUtil.grow(nodes, count + 1);
+        nodesByLevel.set(l, nodes);
+      }
+      nodes[count] = node;
+      nodeCounts.set(l, count + 1);
+      graph.get(l).add(new NeighborArray(maxConn + 1));
+    }
+  }
+
+  /** Sets the node that searches start from; it must be present on the top level. */
+  void setEntryNode(int node) {
+    entryNode = node;
+  }
+
+  /**
+   * Returns the {@link NeighborArray} connected to the given node on the given level.
+   * @param level level of the graph
+   * @param node the node whose neighbors are returned, represented as an ordinal on level 0.
+   */
+  public NeighborArray getNeighbors(int level, int node) {
+    if (level == 0) {
+      return graph.get(0).get(node);
+    }
+    int idx = Arrays.binarySearch(nodesByLevel.get(level), 0, nodeCounts.get(level), node);
+    assert idx >= 0 : "node " + node + " is not present on level " + level;
+    return graph.get(level).get(idx);
+  }
+
+  /**
+   * Returns the nodes present on the given level, in increasing order.
+   */
+  public int[] getNodesOnLevel(int level) {
+    if (level == 0) {
+      int[] nodes = new int[size()];
+      for (int i = 0; i < nodes.length; i++) {
+        nodes[i] = i;
+      }
+      return nodes;
+    }
+    return ArrayUtil.copyOfSubArray(nodesByLevel.get(level), 0, nodeCounts.get(level));
+  }
+
+  @Override
+  public void seek(int level, int targetNode) {
+    cur = getNeighbors(level, targetNode);
+    upto = -1;
+  }
+
+  @Override
+  public int nextNeighbor() {
+    if (++upto < cur.size()) {
+      return cur.node[upto];
+    }
+    return NO_MORE_DOCS;
+  }
+
+  @Override
+  public int size() {
+    return graph.get(0).size();
+  }
+
+  @Override
+  public int numLevels() {
+    return graph.size();
+  }
+
+  @Override
+  public int entryNode() {
+    return entryNode;
+  }
+
+  /** Returns the maximum number of connections of a node on a single level */
+  public int maxConn() {
+    return maxConn;
+  }
+}
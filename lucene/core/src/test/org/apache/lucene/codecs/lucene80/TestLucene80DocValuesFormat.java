@@ -45,6 +45,7 @@ import org.apache.lucene.index.BaseCompressingDocValuesFormatTestCase;
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
@@ -61,6 +62,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.index.TermsEnum.SeekStatus;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.ByteBuffersDataInput;
 import org.apache.lucene.store.ByteBuffersDataOutput;
 import org.apache.lucene.store.Directory;
@@ -73,7 +75,7 @@ import org.apache.lucene.util.TestUtil;
  * Copied directly from the lucene70 package for separation of codec-code
  */
 public class TestLucene80DocValuesFormat extends BaseCompressingDocValuesFormatTestCase {
-  private final Codec codec = TestUtil.alwaysDocValuesFormat(new Lucene80DocValuesFormat());
+  private final Codec codec = TestUtil.alwaysDocValuesFormat(new Lucene80DocValuesFormat(true));
 
   @Override
   protected Codec getCodec() {
@@ -744,4 +746,148 @@ public class TestLucene80DocValuesFormat extends BaseCompressingDocValuesFormatT
     ir.close();
   }
 
+
+  public void testSkipIndex() throws IOException {
+    final Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(newLogMergePolicy()));
+    final int maxDoc = TestUtil.nextInt(random(), 1, 3 * Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SIZE);
+    final double density = random().nextDouble();
+    for (int i = 0; i < maxDoc; ++i) {
+      Document doc = new Document();
+      // clustered values, so that blocks have different ranges
+      final long value = i / 100 + random().nextInt(10);
+      if (random().nextDouble() < density) {
+        doc.add(new NumericDocValuesField("numeric", value));
+        doc.add(new SortedDocValuesField("sorted", new BytesRef(Long.toString(value))));
+      }
+      if (random().nextDouble() < density) {
+        for (int j = TestUtil.nextInt(random(), 1, 3); j > 0; --j) {
+          doc.add(new SortedNumericDocValuesField("sorted_numeric", value - random().nextInt(5)));
+          doc.add(new SortedSetDocValuesField("sorted_set", new BytesRef(Long.toString(value + random().nextInt(5)))));
+        }
+      }
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    DirectoryReader r = DirectoryReader.open(w);
+    w.close();
+    LeafReader reader = getOnlyLeafReader(r);
+
+    assertSkipIndex(reader.getDocValuesSkipper("numeric"), DocValues.singleton(reader.getNumericDocValues("numeric")), maxDoc);
+    assertSkipIndex(reader.getDocValuesSkipper("sorted_numeric"), reader.getSortedNumericDocValues("sorted_numeric"), maxDoc);
+    assertSkipIndex(reader.getDocValuesSkipper("sorted"), DocValues.singleton(reader.getSortedDocValues("sorted")), maxDoc);
+    assertSkipIndex(reader.getDocValuesSkipper("sorted_set"), reader.getSortedSetDocValues("sorted_set"), maxDoc);
+
+    r.close();
+    dir.close();
+  }
+
+  public void testNoSkipIndexByDefault() throws IOException {
+    final Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setCodec(TestUtil.alwaysDocValuesFormat(new Lucene80DocValuesFormat())));
+    Document doc = new Document();
+    doc.add(new NumericDocValuesField("numeric", 42));
+    doc.add(new SortedDocValuesField("sorted", new BytesRef("foo")));
+    doc.add(new SortedNumericDocValuesField("sorted_numeric", 42));
+    doc.add(new SortedSetDocValuesField("sorted_set", new BytesRef("foo")));
+    w.addDocument(doc);
+    DirectoryReader r = DirectoryReader.open(w);
+    w.close();
+    LeafReader reader = getOnlyLeafReader(r);
+
+    assertNull(reader.getDocValuesSkipper("numeric"));
+    assertNull(reader.getDocValuesSkipper("sorted"));
+    assertNull(reader.getDocValuesSkipper("sorted_numeric"));
+    assertNull(reader.getDocValuesSkipper("sorted_set"));
+    NumericDocValues values = reader.getNumericDocValues("numeric");
+    assertEquals(0, values.nextDoc());
+    assertEquals(42, values.longValue());
+
+    r.close();
+    dir.close();
+  }
+
+  private static void assertSkipIndex(DocValuesSkipper skipper, SortedNumericDocValues values, int maxDoc) throws IOException {
+    final long[] mins = new long[maxDoc];
+    final long[] maxs = new long[maxDoc];
+    final boolean[] hasValue = new boolean[maxDoc];
+    if (values != null) {
+      for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+        hasValue[doc] = true;
+        mins[doc] = values.nextValue();
+        maxs[doc] = mins[doc];
+        for (int i = 1; i < values.docValueCount(); ++i) {
+          maxs[doc] = values.nextValue();
+        }
+      }
+    }
+    assertSkipIndex(skipper, mins, maxs, hasValue);
+  }
+
+  private static void assertSkipIndex(DocValuesSkipper skipper, SortedSetDocValues values, int maxDoc) throws IOException {
+    final long[] mins = new long[maxDoc];
+    final long[] maxs = new long[maxDoc];
+    final boolean[] hasValue = new boolean[maxDoc];
+    if (values != null) {
+      for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+        hasValue[doc] = true;
+        mins[doc] = values.nextOrd();
+        maxs[doc] = mins[doc];
+        for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
+          maxs[doc] = ord;
+        }
+      }
+    }
+    assertSkipIndex(skipper, mins, maxs, hasValue);
+  }
+
+  private static void assertSkipIndex(DocValuesSkipper skipper, long[] mins, long[] maxs, boolean[] hasValue) throws IOException {
+    final int maxDoc = hasValue.length;
+    int globalDocCount = 0;
+    long globalMin = Long.MAX_VALUE, globalMax = Long.MIN_VALUE;
+    for (int doc = 0; doc < maxDoc; ++doc) {
+      if (hasValue[doc]) {
+        globalDocCount++;
+        globalMin = Math.min(globalMin, mins[doc]);
+        globalMax = Math.max(globalMax, maxs[doc]);
+      }
+    }
+    if (globalDocCount == 0) {
+      assertNull(skipper);
+      return;
+    }
+    assertNotNull(skipper);
+    assertEquals(-1, skipper.minDocID());
+    assertEquals(globalDocCount, skipper.globalDocCount());
+    assertEquals(globalMin, skipper.globalMinValue());
+    assertEquals(globalMax, skipper.globalMaxValue());
+
+    for (int target = random().nextInt(Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SIZE);
+         target < maxDoc; target = skipper.maxDocID() + 1 + random().nextInt(Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SIZE)) {
+      skipper.advance(target);
+      // find the next block that has values
+      int blockStart = target - target % Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SIZE;
+      int docCount = 0;
+      long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+      for (; blockStart < maxDoc && docCount == 0; blockStart += Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SIZE) {
+        for (int doc = blockStart; doc < Math.min(maxDoc, blockStart + Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SIZE); ++doc) {
+          if (hasValue[doc]) {
+            docCount++;
+            min = Math.min(min, mins[doc]);
+            max = Math.max(max, maxs[doc]);
+          }
+        }
+      }
+      if (docCount == 0) {
+        assertEquals(DocIdSetIterator.NO_MORE_DOCS, skipper.minDocID());
+        return;
+      }
+      blockStart -= Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SIZE;
+      assertEquals(blockStart, skipper.minDocID());
+      assertEquals(Math.min(maxDoc, blockStart + Lucene80DocValuesFormat.SKIP_INDEX_BLOCK_SIZE) - 1, skipper.maxDocID());
+      assertEquals(docCount, skipper.docCount());
+      assertEquals(min, skipper.minValue());
+      assertEquals(max, skipper.maxValue());
+    }
+  }
 }
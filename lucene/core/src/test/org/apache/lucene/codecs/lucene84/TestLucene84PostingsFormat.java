@@ -24,9 +24,13 @@ import java.util.List;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.CompetitiveImpactAccumulator;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsWriter;
 import org.apache.lucene.codecs.blocktree.FieldReader;
 import org.apache.lucene.codecs.blocktree.Stats;
 import org.apache.lucene.codecs.lucene84.Lucene84ScoreSkipReader.MutableImpactList;
+import org.apache.lucene.codecs.lucene87.Lucene87Codec;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.BasePostingsFormatTestCase;
@@ -34,11 +38,14 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.Impact;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.store.ByteArrayDataInput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.TestUtil;
 
 public class TestLucene84PostingsFormat extends BasePostingsFormatTestCase {
@@ -73,6 +80,50 @@ public class TestLucene84PostingsFormat extends BasePostingsFormatTestCase {
     d.close();
   }
 
+  public void testFSTLoadMode() throws Exception {
+    final PostingsFormat onHeap = new Lucene84PostingsFormat(BlockTreeTermsWriter.DEFAULT_MIN_BLOCK_SIZE,
+        BlockTreeTermsWriter.DEFAULT_MAX_BLOCK_SIZE, FSTLoadMode.ON_HEAP);
+    final PostingsFormat offHeap = new Lucene84PostingsFormat();
+    Directory d = newDirectory();
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setCodec(new Lucene87Codec() {
+      @Override
+      public PostingsFormat getPostingsFormatForField(String field) {
+        return field.equals("id") ? onHeap : offHeap;
+      }
+    });
+    IndexWriter w = new IndexWriter(d, iwc);
+    int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(newStringField("id", Integer.toString(i), Field.Store.NO));
+      doc.add(newStringField("body", Integer.toString(i % 7), Field.Store.NO));
+      w.addDocument(doc);
+      if (random().nextInt(20) == 0) {
+        w.commit();
+      }
+    }
+    if (random().nextBoolean()) {
+      w.forceMerge(1);
+    }
+
+    DirectoryReader r = DirectoryReader.open(w);
+    r.warmTerms("id", "body", "missing");
+    for (LeafReaderContext context : r.leaves()) {
+      FieldReader id = (FieldReader) context.reader().terms("id");
+      assertEquals(FSTLoadMode.ON_HEAP, id.getFSTLoadMode());
+      FieldReader body = (FieldReader) context.reader().terms("body");
+      assertEquals(FSTLoadMode.OFF_HEAP, body.getFSTLoadMode());
+    }
+    for (int i = 0; i < numDocs; i++) {
+      assertEquals(1, r.docFreq(new Term("id", Integer.toString(i))));
+    }
+    assertEquals(0, r.docFreq(new Term("id", new BytesRef("foo"))));
+    r.close();
+    w.close();
+    d.close();
+  }
+
   private void shouldFail(int minItemsInBlock, int maxItemsInBlock) {
     expectThrows(IllegalArgumentException.class, () -> {
       new Lucene84PostingsFormat(minItemsInBlock, maxItemsInBlock);
@@ -18,6 +18,7 @@ package org.apache.lucene.codecs.lucene86;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.FilterCodec;
@@ -26,6 +27,10 @@ import org.apache.lucene.codecs.PointsReader;
 import org.apache.lucene.codecs.PointsWriter;
 import org.apache.lucene.document.BinaryPoint;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.BasePointsFormatTestCase;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
@@ -38,7 +43,13 @@ import org.apache.lucene.index.PointValues.IntersectVisitor;
 import org.apache.lucene.index.PointValues.Relation;
 import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.util.TestUtil;
 import org.apache.lucene.util.bkd.BKDConfig;
 
@@ -308,6 +319,59 @@ public class TestLucene86PointsFormat extends BasePointsFormatTestCase {
     dir.close();
   }
 
+  public void testOneDimMergeDoesNotUseTempFiles() throws IOException {
+    AtomicInteger tempOutputs = new AtomicInteger();
+    Directory dir = new FilterDirectory(newDirectory()) {
+      @Override
+      public IndexOutput createTempOutput(String prefix, String suffix, IOContext context) throws IOException {
+        if (suffix.startsWith("bkd_")) {
+          tempOutputs.incrementAndGet();
+        }
+        return super.createTempOutput(prefix, suffix, context);
+      }
+    };
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    iwc.setMaxBufferedDocs(TestUtil.nextInt(random(), 10, 100));
+    iwc.setMergePolicy(newLogMergePolicy());
+    if (random().nextBoolean()) {
+      iwc.setIndexSort(new Sort(new SortField("sort", SortField.Type.LONG)));
+    }
+    IndexWriter w = new IndexWriter(dir, iwc);
+    final int numDocs = atLeast(1000);
+    final boolean[] deleted = new boolean[numDocs];
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Store.NO));
+      doc.add(new NumericDocValuesField("sort", random().nextInt(100)));
+      // few distinct values so that ties are common
+      doc.add(new LongPoint("f", random().nextInt(10)));
+      w.addDocument(doc);
+      if (random().nextInt(5) == 0) {
+        int id = random().nextInt(i + 1);
+        w.deleteDocuments(new Term("id", Integer.toString(id)));
+        deleted[id] = true;
+      }
+    }
+    w.forceMerge(1);
+    final IndexReader r = DirectoryReader.open(w);
+    w.close();
+    assertEquals(0, tempOutputs.get());
+
+    int numLiveDocs = 0;
+    for (boolean d : deleted) {
+      if (d == false) {
+        numLiveDocs++;
+      }
+    }
+    final LeafReader lr = getOnlyLeafReader(r);
+    assertEquals(numLiveDocs, lr.numDocs());
+    PointValues points = lr.getPointValues("f");
+    assertEquals(numLiveDocs, points.size());
+    assertEquals(numLiveDocs, points.getDocCount());
+    r.close();
+    dir.close();
+  }
+
   public void testDocCountEdgeCases() {
     PointValues values = getPointValues(Long.MAX_VALUE, 1, Long.MAX_VALUE);
     long docs = values.estimateDocCount(null);
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene87;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.lucene87.Lucene87StoredFieldsFormat.Mode;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.BaseStoredFieldsFormatTestCase;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.TestUtil;
+
+public class TestLucene87StoredFieldsFormatSmallDocs extends BaseStoredFieldsFormatTestCase {
+  @Override
+  protected Codec getCodec() {
+    return new Lucene87Codec(Mode.SMALL_DOCS);
+  }
+
+  private static String randomRecord() {
+    return "{\"id\":" + random().nextInt(1000000) +
+        ",\"user\":\"" + TestUtil.randomSimpleString(random(), 4, 12) +
+        "\",\"status\":\"" + (random().nextBoolean() ? "active" : "inactive") +
+        "\",\"message\":\"" + TestUtil.randomSimpleString(random(), 20, 200) + "\"}";
+  }
+
+  /**
+   * Index many small records, which requires training the dictionary on the
+   * first documents of each segment, both on flush and on merge.
+   */
+  public void testManySmallDocs() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    iwc.setCodec(getCodec());
+    iwc.setMergePolicy(newLogMergePolicy()); // preserve doc ID order
+    IndexWriter iw = new IndexWriter(dir, iwc);
+    int numDocs = atLeast(3000);
+    String[] records = new String[numDocs];
+    for (int i = 0; i < numDocs; ++i) {
+      records[i] = randomRecord();
+      Document doc = new Document();
+      doc.add(new StoredField("record", records[i]));
+      iw.addDocument(doc);
+      if (random().nextInt(1000) == 0) {
+        iw.commit();
+      }
+    }
+    iw.forceMerge(1);
+    iw.close();
+
+    DirectoryReader ir = DirectoryReader.open(dir);
+    assertEquals(numDocs, ir.maxDoc());
+    for (int iter = 0; iter < 100; ++iter) {
+      int docID = random().nextInt(numDocs);
+      assertEquals(records[docID], ir.document(docID).get("record"));
+    }
+    ir.close();
+    dir.close();
+  }
+}
@@ -19,6 +19,8 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -27,14 +29,19 @@ import com.carrotsearch.randomizedtesting.generators.RandomStrings;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.MockDirectoryWrapper;
 import org.apache.lucene.util.InfoStream;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.TestUtil;
 
 public class TestConcurrentMergeScheduler extends LuceneTestCase {
@@ -749,4 +756,61 @@ public class TestConcurrentMergeScheduler extends LuceneTestCase {
       }
     }
   }
+
+  public void testIntraMergeExecutor() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2, new NamedThreadFactory("TestIntraMergeExecutor"));
+    AtomicInteger numTasks = new AtomicInteger();
+    try (Directory dir = newDirectory()) {
+      ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler();
+      cms.setIntraMergeExecutor(task -> {
+        numTasks.incrementAndGet();
+        executor.execute(task);
+      });
+      assertNotNull(cms.getIntraMergeExecutor(null));
+      // throttle force merges so that concurrent writers of the same merge get paused
+      cms.setForceMergeMBPerSec(10);
+      IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()))
+          .setMergeScheduler(cms)
+          .setMergePolicy(newLogMergePolicy());
+      IndexWriter w = new IndexWriter(dir, iwc);
+      FieldType vectorsType = new FieldType(TextField.TYPE_STORED);
+      vectorsType.setStoreTermVectors(true);
+      int numDocs = atLeast(500);
+      long sum = 0;
+      for (int i = 0; i < numDocs; i++) {
+        Document doc = new Document();
+        doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+        doc.add(new Field("body", "a " + TestUtil.randomSimpleString(random(), 20), vectorsType));
+        doc.add(new NumericDocValuesField("dv", i));
+        doc.add(new IntPoint("point", i));
+        sum += i;
+        w.addDocument(doc);
+        if (random().nextInt(100) == 0) {
+          w.commit();
+        }
+      }
+      w.commit();
+      w.forceMerge(1);
+      w.close();
+      assertTrue(numTasks.get() > 0);
+
+      try (DirectoryReader reader = DirectoryReader.open(dir)) {
+        assertEquals(1, reader.leaves().size());
+        LeafReader leaf = reader.leaves().get(0).reader();
+        assertEquals(numDocs, leaf.numDocs());
+        assertEquals(numDocs, leaf.getPointValues("point").size());
+        NumericDocValues dv = leaf.getNumericDocValues("dv");
+        long actualSum = 0;
+        for (int doc = dv.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = dv.nextDoc()) {
+          actualSum += dv.longValue();
+          assertEquals(Long.toString(dv.longValue()), leaf.document(doc).get("id"));
+          assertNotNull(leaf.getTermVectors(doc).terms("body"));
+        }
+        assertEquals(sum, actualSum);
+      }
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+  }
 }
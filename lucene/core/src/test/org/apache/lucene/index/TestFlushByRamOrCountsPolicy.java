@@ -20,6 +20,7 @@ package org.apache.lucene.index;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.analysis.MockAnalyzer;
@@ -157,6 +158,98 @@ public class TestFlushByRamOrCountsPolicy extends LuceneTestCase {
     }
   }
 
+  public void testFlushByAge() throws IOException, InterruptedException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setRAMBufferSizeMB(256.d);
+    iwc.setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    iwc.setMaxBufferedAgeMillis(TimeUnit.HOURS.toMillis(1));
+    IndexWriter writer = new IndexWriter(dir, iwc);
+    FlushByRamOrCountsPolicy flushPolicy = (FlushByRamOrCountsPolicy) writer.getConfig().getFlushPolicy();
+    assertTrue(flushPolicy.flushOnAge());
+    assertFalse(flushPolicy.flushOnHeapUsage());
+    final int numDocs = atLeast(10);
+    for (int i = 0; i < numDocs; i++) {
+      writer.addDocument(lineDocFile.nextDoc());
+    }
+    assertEquals(0, writer.getFlushCount());
+
+    // takes effect on the next added document
+    writer.getConfig().setMaxBufferedAgeMillis(1);
+    Thread.sleep(5);
+    writer.addDocument(lineDocFile.nextDoc());
+    assertEquals(1, writer.getFlushCount());
+    assertEquals(0, writer.getFlushingBytes());
+    assertEquals(0, writer.getDocsWriter().flushControl.activeBytes());
+
+    writer.getConfig().setMaxBufferedAgeMillis(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    assertFalse(flushPolicy.flushOnAge());
+    Thread.sleep(5);
+    writer.addDocument(lineDocFile.nextDoc());
+    writer.addDocument(lineDocFile.nextDoc());
+    assertEquals(1, writer.getFlushCount());
+    assertEquals(numDocs + 3, writer.getDocStats().maxDoc);
+    writer.close();
+    dir.close();
+  }
+
+  public void testFlushOldBuffers() throws IOException, InterruptedException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setRAMBufferSizeMB(256.d);
+    iwc.setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    IndexWriter writer = new IndexWriter(dir, iwc);
+    final int numDocs = atLeast(10);
+    for (int i = 0; i < numDocs; i++) {
+      writer.addDocument(lineDocFile.nextDoc());
+    }
+    // the age check is a no-op when flushing by age is disabled
+    assertFalse(writer.flushOldBuffers());
+    assertEquals(0, writer.getFlushCount());
+
+    // documents are flushed once old enough, without adding another document
+    writer.getConfig().setMaxBufferedAgeMillis(TimeUnit.HOURS.toMillis(1));
+    assertFalse(writer.flushOldBuffers());
+    assertEquals(0, writer.getFlushCount());
+    writer.getConfig().setMaxBufferedAgeMillis(1);
+    Thread.sleep(5);
+    assertTrue(writer.flushOldBuffers());
+    assertEquals(1, writer.getFlushCount());
+    assertEquals(0, writer.getFlushingBytes());
+    assertEquals(0, writer.getDocsWriter().flushControl.activeBytes());
+    assertEquals(0, writer.getDocsWriter().getNumDocs());
+    assertFalse(writer.flushOldBuffers());
+    assertEquals(numDocs, writer.getDocStats().maxDoc);
+    writer.close();
+    dir.close();
+  }
+
+  public void testFlushByHeapUsage() throws IOException, InterruptedException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setRAMBufferSizeMB(256.d);
+    iwc.setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    IndexWriter writer = new IndexWriter(dir, iwc);
+    FlushByRamOrCountsPolicy flushPolicy = (FlushByRamOrCountsPolicy) writer.getConfig().getFlushPolicy();
+    assertFalse(flushPolicy.flushOnHeapUsage());
+    final int numDocs = atLeast(10);
+    for (int i = 0; i < numDocs; i++) {
+      writer.addDocument(lineDocFile.nextDoc());
+    }
+    assertEquals(0, writer.getFlushCount());
+
+    // any heap usage exceeds this threshold, the heap usage is sampled on the next added document
+    writer.getConfig().setHeapUsageFlushThreshold(Double.MIN_VALUE);
+    assertTrue(flushPolicy.flushOnHeapUsage());
+    writer.addDocument(lineDocFile.nextDoc());
+    assertEquals(1, writer.getFlushCount());
+    assertEquals(0, writer.getFlushingBytes());
+    assertEquals(0, writer.getDocsWriter().flushControl.activeBytes());
+    assertEquals(numDocs + 1, writer.getDocStats().maxDoc);
+    writer.close();
+    dir.close();
+  }
+
   public void testRandom() throws IOException, InterruptedException {
     final int numThreads = 1 + random().nextInt(8);
     final int numDocumentsToIndex = 50 + atLeast(70);
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
+import org.apache.lucene.util.ThreadInterruptedException;
+
+public class TestIOTasks extends LuceneTestCase {
+
+  public void testWaitsForTasksWhenInterrupted() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("TestIOTasks"));
+    try {
+      AtomicBoolean done = new AtomicBoolean();
+      IOTasks.IOTask slowTask = () -> {
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException e) {
+          throw new ThreadInterruptedException(e);
+        }
+        done.set(true);
+      };
+      IOTasks.IOTask interrupt = () -> Thread.currentThread().interrupt();
+      expectThrows(ThreadInterruptedException.class, () -> IOTasks.run(executor, Arrays.asList(interrupt, slowTask)));
+      assertTrue(done.get());
+
+      // another failure is rethrown, but the interrupt must not be lost
+      done.set(false);
+      IOTasks.IOTask interruptAndFail = () -> {
+        Thread.currentThread().interrupt();
+        throw new IOException("boom");
+      };
+      expectThrows(IOException.class, () -> IOTasks.run(executor, Arrays.asList(interruptAndFail, slowTask)));
+      assertTrue(done.get());
+      assertTrue(Thread.interrupted());
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+  }
+}
@@ -28,6 +28,9 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -82,6 +85,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.NumericUtils;
 import org.apache.lucene.util.TestUtil;
 
@@ -1755,6 +1759,62 @@ public class TestIndexSorting extends LuceneTestCase {
     dir.close();
   }
 
+  public void testConcurrentFlush() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 1, 4), new NamedThreadFactory("TestIndexSorting"));
+    try {
+      Directory dir = newDirectory();
+      IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()));
+      Sort indexSort = new Sort(new SortField("foo", SortField.Type.LONG));
+      iwc.setIndexSort(indexSort);
+      iwc.setFlushExecutor(executor);
+      IndexWriter w = new IndexWriter(dir, iwc);
+      final int numDocs = atLeast(500);
+      for (int i = 0; i < numDocs; ++i) {
+        Document doc = new Document();
+        doc.add(new NumericDocValuesField("foo", random().nextInt(20)));
+        doc.add(new StringField("id", Integer.toString(i), Store.YES));
+        doc.add(new NumericDocValuesField("id", i));
+        doc.add(new IntPoint("id", i));
+        doc.add(new TextField("text", "a b " + (i % 3 == 0 ? "c" : "d"), Store.NO));
+        w.addDocument(doc);
+        if (random().nextInt(50) == 0) {
+          w.flush();
+        }
+      }
+
+      DirectoryReader reader = DirectoryReader.open(w);
+      for (LeafReaderContext ctx : reader.leaves()) {
+        final LeafReader leaf = ctx.reader();
+        final NumericDocValues foo = leaf.getNumericDocValues("foo");
+        final NumericDocValues ids = leaf.getNumericDocValues("id");
+        long previous = Long.MIN_VALUE;
+        for (int doc = 0; doc < leaf.maxDoc(); ++doc) {
+          assertEquals(doc, foo.nextDoc());
+          assertTrue(foo.longValue() >= previous);
+          previous = foo.longValue();
+          assertEquals(doc, ids.nextDoc());
+          String id = Long.toString(ids.longValue());
+          assertEquals(id, leaf.document(doc).get("id"));
+          PostingsEnum postings = leaf.postings(new Term("id", id));
+          assertEquals(doc, postings.nextDoc());
+          assertEquals(NO_MORE_DOCS, postings.nextDoc());
+        }
+      }
+      IndexSearcher searcher = newSearcher(reader);
+      for (int i = 0; i < numDocs; ++i) {
+        assertEquals(1, searcher.count(IntPoint.newExactQuery("id", i)));
+      }
+      assertEquals((numDocs + 2) / 3, searcher.count(new TermQuery(new Term("text", "c"))));
+
+      reader.close();
+      w.close();
+      dir.close();
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+  }
+
   public void testMultiValuedRandom1() throws IOException {
     boolean withDeletes = random().nextBoolean();
     Directory dir = newDirectory();
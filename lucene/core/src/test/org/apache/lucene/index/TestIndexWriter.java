@@ -41,7 +41,10 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -56,6 +59,7 @@ import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.analysis.MockTokenFilter;
 import org.apache.lucene.analysis.MockTokenizer;
 import org.apache.lucene.analysis.Token;
+import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
@@ -109,6 +113,7 @@ import org.apache.lucene.util.IOSupplier;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.SetOnce;
 import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.TestUtil;
@@ -4238,4 +4243,111 @@ public class TestIndexWriter extends LuceneTestCase {
     }
     IOUtils.close(w, dir);
   }
+
+  public void testConcurrentAnalysis() throws Exception {
+    Analyzer analyzer = new MockAnalyzer(random());
+    FieldType vectorsType = new FieldType(TextField.TYPE_STORED);
+    vectorsType.setStoreTermVectors(true);
+    vectorsType.setStoreTermVectorPositions(true);
+    vectorsType.setStoreTermVectorOffsets(true);
+    final String[] words = new String[] {"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta"};
+    final int numFields = TestUtil.nextInt(random(), 2, 20);
+    final int numDocs = atLeast(100);
+    List<Document> docs = new ArrayList<>();
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+      for (int j = 0; j < numFields; j++) {
+        FieldType type = j % 3 == 0 ? vectorsType : TextField.TYPE_NOT_STORED;
+        // some fields are multi-valued
+        final int numValues = TestUtil.nextInt(random(), 1, 3);
+        for (int k = 0; k < numValues; k++) {
+          StringBuilder value = new StringBuilder();
+          final int numWords = random().nextInt(50);
+          for (int l = 0; l < numWords; l++) {
+            value.append(words[random().nextInt(words.length)]).append(' ');
+          }
+          doc.add(new Field("field" + j, value.toString(), type));
+        }
+      }
+      docs.add(doc);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 1, 4), new NamedThreadFactory("TestIndexWriter"));
+    final int maxBufferedDocs = TestUtil.nextInt(random(), 10, 50);
+    try (Directory dir1 = newDirectory(); Directory dir2 = newDirectory()) {
+      for (Directory dir : new Directory[] {dir1, dir2}) {
+        IndexWriterConfig iwc = new IndexWriterConfig(analyzer)
+            .setMergePolicy(NoMergePolicy.INSTANCE)
+            .setMaxBufferedDocs(maxBufferedDocs)
+            .setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+        if (dir == dir2) {
+          iwc.setAnalysisExecutor(executor);
+        }
+        try (IndexWriter w = new IndexWriter(dir, iwc)) {
+          for (Document doc : docs) {
+            w.addDocument(doc);
+          }
+        }
+      }
+      try (DirectoryReader r1 = DirectoryReader.open(dir1);
+           DirectoryReader r2 = DirectoryReader.open(dir2)) {
+        assertReaderEquals("concurrent analysis must not change the index", r1, r2);
+      }
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+  }
+
+  public void testConcurrentAnalysisException() throws Exception {
+    Analyzer analyzer = new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName) {
+        Tokenizer tokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+        return new TokenStreamComponents(tokenizer, new TokenFilter(tokenizer) {
+          final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+
+          @Override
+          public boolean incrementToken() throws IOException {
+            if (input.incrementToken() == false) {
+              return false;
+            }
+            if (termAtt.toString().equals("boom")) {
+              throw new IllegalStateException("boom");
+            }
+            return true;
+          }
+        });
+      }
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(2, new NamedThreadFactory("TestIndexWriter"));
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(analyzer).setAnalysisExecutor(executor))) {
+      Document doc = new Document();
+      doc.add(new TextField("a", "foo bar", Field.Store.NO));
+      doc.add(new TextField("b", "baz boom", Field.Store.NO));
+      doc.add(new TextField("c", "qux", Field.Store.NO));
+      IllegalStateException e = expectThrows(IllegalStateException.class, () -> w.addDocument(doc));
+      assertEquals("boom", e.getMessage());
+
+      Document doc2 = new Document();
+      doc2.add(new TextField("a", "foo", Field.Store.NO));
+      doc2.add(new TextField("c", "qux quux", Field.Store.NO));
+      w.addDocument(doc2);
+
+      try (DirectoryReader r = DirectoryReader.open(w)) {
+        assertEquals(2, r.maxDoc());
+        assertEquals(1, r.numDocs());
+        IndexSearcher searcher = newSearcher(r);
+        assertEquals(1, searcher.count(new TermQuery(new Term("a", "foo"))));
+        assertEquals(1, searcher.count(new TermQuery(new Term("c", "qux"))));
+        assertEquals(0, searcher.count(new TermQuery(new Term("a", "bar"))));
+      }
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+  }
 }
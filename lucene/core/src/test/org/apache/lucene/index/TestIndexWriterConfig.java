@@ -53,6 +53,8 @@ public class TestIndexWriterConfig extends LuceneTestCase {
     assertTrue(IndexSearcher.getDefaultSimilarity() == conf.getSimilarity());
     assertEquals(IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB, conf.getRAMBufferSizeMB(), 0.0);
     assertEquals(IndexWriterConfig.DEFAULT_MAX_BUFFERED_DOCS, conf.getMaxBufferedDocs());
+    assertEquals(IndexWriterConfig.DISABLE_AUTO_FLUSH, conf.getMaxBufferedAgeMillis());
+    assertEquals(IndexWriterConfig.DISABLE_AUTO_FLUSH, conf.getHeapUsageFlushThreshold(), 0.0);
     assertEquals(IndexWriterConfig.DEFAULT_READER_POOLING, conf.getReaderPooling());
     assertNull(conf.getMergedSegmentWarmer());
     assertEquals(TieredMergePolicy.class, conf.getMergePolicy().getClass());
@@ -62,6 +64,9 @@ public class TestIndexWriterConfig extends LuceneTestCase {
     assertEquals(InfoStream.getDefault(), conf.getInfoStream());
     assertEquals(IndexWriterConfig.DEFAULT_USE_COMPOUND_FILE_SYSTEM, conf.getUseCompoundFile());
     assertTrue(conf.isCheckPendingFlushOnUpdate());
+    assertNull(conf.getFlushExecutor());
+    assertNull(conf.getAnalysisExecutor());
+    assertEquals(IndexingBlockAllocator.class, conf.getIndexingBlockAllocator().getClass());
     // Sanity check - validate that all getters are covered.
     Set<String> getters = new HashSet<>();
     getters.add("getAnalyzer");
@@ -76,6 +81,8 @@ public class TestIndexWriterConfig extends LuceneTestCase {
     getters.add("getMaxBufferedDeleteTerms");
     getters.add("getRAMBufferSizeMB");
     getters.add("getMaxBufferedDocs");
+    getters.add("getMaxBufferedAgeMillis");
+    getters.add("getHeapUsageFlushThreshold");
     getters.add("getIndexingChain");
     getters.add("getMergedSegmentWarmer");
     getters.add("getMergePolicy");
@@ -88,6 +95,9 @@ public class TestIndexWriterConfig extends LuceneTestCase {
     getters.add("getUseCompoundFile");
     getters.add("isCheckPendingFlushOnUpdate");
     getters.add("getSoftDeletesField");
+    getters.add("getFlushExecutor");
+    getters.add("getAnalysisExecutor");
+    getters.add("getIndexingBlockAllocator");
     
     for (Method m : IndexWriterConfig.class.getDeclaredMethods()) {
       if (m.getDeclaringClass() == IndexWriterConfig.class && m.getName().startsWith("get")) {
@@ -235,6 +245,18 @@ public class TestIndexWriterConfig extends LuceneTestCase {
       conf.setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH);
     });
     
+    expectThrows(IllegalArgumentException.class, () -> {
+      conf.setMaxBufferedAgeMillis(0);
+    });
+
+    expectThrows(IllegalArgumentException.class, () -> {
+      conf.setHeapUsageFlushThreshold(0.0);
+    });
+
+    expectThrows(IllegalArgumentException.class, () -> {
+      conf.setHeapUsageFlushThreshold(1.5);
+    });
+
     expectThrows(IllegalArgumentException.class, () -> {
       conf.setRAMPerThreadHardLimitMB(2048);
     });
@@ -106,6 +106,16 @@ public class TestIndexableField extends LuceneTestCase {
         return 0;
       }
 
+      @Override
+      public int vectorDimension() {
+        return 0;
+      }
+
+      @Override
+      public VectorValues.SearchStrategy vectorSearchStrategy() {
+        return VectorValues.SearchStrategy.NONE;
+      }
+
       @Override
       public Map<String, String> getAttributes() {
         return null;
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.ByteBlockPool;
+import org.apache.lucene.util.Counter;
+import org.apache.lucene.util.IntBlockPool;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestRecyclingIndexingBlockAllocator extends LuceneTestCase {
+
+  public void testRecycleByteBlocks() {
+    RecyclingIndexingBlockAllocator allocator = new RecyclingIndexingBlockAllocator(1);
+    Counter bytesUsed = Counter.newCounter();
+    ByteBlockPool.Allocator byteAllocator = allocator.newByteBlockAllocator(bytesUsed);
+
+    byte[][] blocks = new byte[][] { byteAllocator.getByteBlock(), byteAllocator.getByteBlock() };
+    assertEquals(2 * ByteBlockPool.BYTE_BLOCK_SIZE, bytesUsed.get());
+    blocks[0][42] = 1;
+    blocks[1][ByteBlockPool.BYTE_BLOCK_SIZE - 1] = 2;
+    byte[] first = blocks[0];
+
+    byteAllocator.recycleByteBlocks(blocks, 0, 1);
+    assertNull(blocks[0]);
+    assertEquals(ByteBlockPool.BYTE_BLOCK_SIZE, bytesUsed.get());
+    assertEquals(ByteBlockPool.BYTE_BLOCK_SIZE, allocator.ramBytesUsed());
+
+    // blocks are shared across allocators
+    Counter otherBytesUsed = Counter.newCounter();
+    byte[] block = allocator.newByteBlockAllocator(otherBytesUsed).getByteBlock();
+    assertSame(first, block);
+    assertEquals(0, block[42]);
+    assertEquals(ByteBlockPool.BYTE_BLOCK_SIZE, otherBytesUsed.get());
+    assertEquals(0, allocator.ramBytesUsed());
+  }
+
+  public void testRecycleIntBlocks() {
+    RecyclingIndexingBlockAllocator allocator = new RecyclingIndexingBlockAllocator(1);
+    Counter bytesUsed = Counter.newCounter();
+    IntBlockPool.Allocator intAllocator = allocator.newIntBlockAllocator(bytesUsed);
+
+    int[][] blocks = new int[][] { intAllocator.getIntBlock() };
+    assertEquals(IntBlockPool.INT_BLOCK_SIZE * Integer.BYTES, bytesUsed.get());
+    blocks[0][7] = 42;
+    int[] first = blocks[0];
+
+    intAllocator.recycleIntBlocks(blocks, 0, 1);
+    assertEquals(0, bytesUsed.get());
+    assertEquals(IntBlockPool.INT_BLOCK_SIZE * Integer.BYTES, allocator.ramBytesUsed());
+
+    int[] block = intAllocator.getIntBlock();
+    assertSame(first, block);
+    assertEquals(0, block[7]);
+    assertEquals(0, allocator.ramBytesUsed());
+  }
+
+  public void testMaxRetained() {
+    RecyclingIndexingBlockAllocator allocator = new RecyclingIndexingBlockAllocator(0.1);
+    final int maxBlocks = (int) (0.1 * 1024 * 1024) / ByteBlockPool.BYTE_BLOCK_SIZE;
+    Counter bytesUsed = Counter.newCounter();
+    ByteBlockPool.Allocator byteAllocator = allocator.newByteBlockAllocator(bytesUsed);
+
+    byte[][] blocks = new byte[maxBlocks + 2][];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = byteAllocator.getByteBlock();
+    }
+    byteAllocator.recycleByteBlocks(blocks, 0, blocks.length);
+    assertEquals(0, bytesUsed.get());
+    assertEquals(maxBlocks * ByteBlockPool.BYTE_BLOCK_SIZE, allocator.ramBytesUsed());
+
+    expectThrows(IllegalArgumentException.class, () -> new RecyclingIndexingBlockAllocator(-1));
+  }
+
+  public void testIndexing() throws IOException {
+    RecyclingIndexingBlockAllocator allocator = new RecyclingIndexingBlockAllocator(16);
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setIndexingBlockAllocator(allocator);
+    iwc.setMaxBufferedDocs(atLeast(20));
+    IndexWriter w = new IndexWriter(dir, iwc);
+
+    FieldType vectorsType = new FieldType(TextField.TYPE_NOT_STORED);
+    vectorsType.setStoreTermVectors(true);
+    vectorsType.setStoreTermVectorPositions(random().nextBoolean());
+    final int numDocs = atLeast(200);
+    int numEven = 0;
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Field.Store.NO));
+      String parity = i % 2 == 0 ? "even" : "odd";
+      if (i % 2 == 0) {
+        numEven++;
+      }
+      doc.add(new TextField("body", "doc " + parity + " number " + i, Field.Store.NO));
+      doc.add(new Field("vectors", "doc " + parity, vectorsType));
+      doc.add(new IntPoint("point", i));
+      w.addDocument(doc);
+    }
+    w.commit();
+    // flushed segments gave their blocks back
+    assertTrue(allocator.ramBytesUsed() > 0);
+    assertTrue(allocator.ramBytesUsed() <= 16 * 1024 * 1024);
+    assertTrue(w.ramBytesUsed() >= allocator.ramBytesUsed());
+
+    // index more documents with the recycled blocks
+    for (int i = numDocs; i < 2 * numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Field.Store.NO));
+      String parity = i % 2 == 0 ? "even" : "odd";
+      if (i % 2 == 0) {
+        numEven++;
+      }
+      doc.add(new TextField("body", "doc " + parity + " number " + i, Field.Store.NO));
+      doc.add(new Field("vectors", "doc " + parity, vectorsType));
+      doc.add(new IntPoint("point", i));
+      w.addDocument(doc);
+    }
+
+    DirectoryReader reader = DirectoryReader.open(w);
+    w.close();
+    assertEquals(2 * numDocs, reader.numDocs());
+    assertEquals(numEven, reader.docFreq(new Term("body", "even")));
+    assertEquals(2 * numDocs - numEven, reader.docFreq(new Term("body", "odd")));
+    assertEquals(2 * numDocs, reader.docFreq(new Term("vectors", "doc")));
+    for (int i = 0; i < 2 * numDocs; i += 1 + random().nextInt(10)) {
+      assertEquals(1, reader.docFreq(new Term("id", Integer.toString(i))));
+      assertEquals(1, reader.docFreq(new Term("body", Integer.toString(i))));
+    }
+    assertEquals(2 * numDocs, PointValues.size(reader, "point"));
+    reader.close();
+    dir.close();
+  }
+}
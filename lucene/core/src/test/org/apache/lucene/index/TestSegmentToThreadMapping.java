@@ -27,9 +27,11 @@ import java.util.concurrent.TimeUnit;
 
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.IOUtils;
@@ -106,6 +108,16 @@ public class TestSegmentToThreadMapping extends LuceneTestCase {
         return null;
       }
 
+      @Override
+      public VectorValues getVectorValues(String field) {
+        return null;
+      }
+
+      @Override
+      public TopDocs searchNearestVectors(String field, float[] target, int k, Bits acceptDocs) {
+        return null;
+      }
+
       @Override
       protected void doClose() {
       }
@@ -251,6 +263,58 @@ public class TestSegmentToThreadMapping extends LuceneTestCase {
     IOUtils.close(r, dir);
   }
 
+  public void testLargeSegmentPartitions() {
+    LeafReader largeSegmentReader = dummyIndexReader(1_000_001);
+    LeafReader firstMediumSegmentReader = dummyIndexReader(100_000);
+    LeafReader secondMediumSegmentReader = dummyIndexReader(100_000);
+    List<LeafReaderContext> leafReaderContexts = new ArrayList<>();
+
+    leafReaderContexts.add(new LeafReaderContext(largeSegmentReader));
+    leafReaderContexts.add(new LeafReaderContext(firstMediumSegmentReader));
+    leafReaderContexts.add(new LeafReaderContext(secondMediumSegmentReader));
+
+    IndexSearcher.LeafSlice[] resultSlices = IndexSearcher.slices(leafReaderContexts, 250_000, 5, false);
+    assertEquals(2, resultSlices.length);
+    assertEquals(1, resultSlices[0].leaves.length);
+    assertEquals(1, resultSlices[0].partitions.length);
+    assertEquals(0, resultSlices[0].partitions[0].minDocId);
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, resultSlices[0].partitions[0].maxDocId);
+
+    resultSlices = IndexSearcher.slices(leafReaderContexts, 250_000, 5, true);
+    // the large segment is split in 5 partitions, the medium ones are grouped together
+    assertEquals(6, resultSlices.length);
+    int expectedMinDocId = 0;
+    for (int i = 0; i < 5; ++i) {
+      assertEquals(1, resultSlices[i].leaves.length);
+      assertSame(leafReaderContexts.get(0), resultSlices[i].leaves[0]);
+      assertEquals(1, resultSlices[i].partitions.length);
+      IndexSearcher.LeafReaderContextPartition partition = resultSlices[i].partitions[0];
+      assertEquals(expectedMinDocId, partition.minDocId);
+      assertTrue(partition.maxDocId - partition.minDocId <= 250_000);
+      expectedMinDocId = partition.maxDocId;
+    }
+    assertEquals(1_000_001, expectedMinDocId);
+    assertEquals(2, resultSlices[5].leaves.length);
+  }
+
+  public void testOverlappingPartitions() {
+    LeafReaderContext ctx = new LeafReaderContext(dummyIndexReader(100));
+    IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new IndexSearcher.LeafSlice(
+        IndexSearcher.LeafReaderContextPartition.createFromAndTo(ctx, 0, 50),
+        IndexSearcher.LeafReaderContextPartition.createFromAndTo(ctx, 40, 100)));
+    assertTrue(e.getMessage().contains("Overlapping partitions"));
+
+    IndexSearcher.LeafSlice slice = new IndexSearcher.LeafSlice(
+        IndexSearcher.LeafReaderContextPartition.createFromAndTo(ctx, 50, 100),
+        IndexSearcher.LeafReaderContextPartition.createFromAndTo(ctx, 0, 50));
+    assertEquals(1, slice.leaves.length);
+    assertEquals(0, slice.partitions[0].minDocId);
+    assertEquals(50, slice.partitions[1].minDocId);
+
+    expectThrows(IllegalArgumentException.class, () -> IndexSearcher.LeafReaderContextPartition.createFromAndTo(ctx, 50, 101));
+    expectThrows(IllegalArgumentException.class, () -> IndexSearcher.LeafReaderContextPartition.createFromAndTo(ctx, 50, 50));
+  }
+
   public void testRandom() {
     List<LeafReaderContext> leafReaderContexts = new ArrayList<>();
     int max = 500_000;
@@ -261,7 +325,7 @@ public class TestSegmentToThreadMapping extends LuceneTestCase {
       leafReaderContexts.add(new LeafReaderContext(dummyIndexReader(random().nextInt((max - min) + 1) + min)));
     }
 
-    IndexSearcher.LeafSlice[] resultSlices = IndexSearcher.slices(leafReaderContexts, 250_000, 5);
+    IndexSearcher.LeafSlice[] resultSlices = IndexSearcher.slices(leafReaderContexts, 250_000, 5, random().nextBoolean());
 
     assertTrue(resultSlices.length > 0);
   }
@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -37,6 +38,7 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
 import org.apache.lucene.util.LineFileDocs;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.LuceneTestCase.SuppressCodecs;
@@ -1027,6 +1029,81 @@ public class TestTermsEnum extends LuceneTestCase {
     d.close();
   }
 
+  /** Looks up random sorted term lists, mixing seekExact, seekExactNext, next and seekCeil */
+  public void testSortedLookups() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    TreeSet<BytesRef> terms = new TreeSet<>();
+    int numTerms = atLeast(2000);
+    for (int i = 0; i < numTerms; i++) {
+      // short alphabet so that terms share prefixes and we get floor blocks
+      String term = TestUtil.randomSimpleStringRange(random(), 'a', 'e', 12);
+      if (terms.add(new BytesRef(term))) {
+        Document doc = new Document();
+        doc.add(newStringField(FIELD, term, Field.Store.NO));
+        w.addDocument(doc);
+      }
+    }
+    w.forceMerge(1);
+    IndexReader r = w.getReader();
+    w.close();
+    LeafReader leaf = getOnlyLeafReader(r);
+    List<BytesRef> allTerms = new ArrayList<>(terms);
+
+    int iters = atLeast(20);
+    for (int iter = 0; iter < iters; iter++) {
+      TreeSet<BytesRef> targets = new TreeSet<>();
+      int numTargets = TestUtil.nextInt(random(), 1, 500);
+      for (int i = 0; i < numTargets; i++) {
+        if (random().nextBoolean()) {
+          targets.add(allTerms.get(random().nextInt(allTerms.size())));
+        } else {
+          targets.add(new BytesRef(TestUtil.randomSimpleStringRange(random(), 'a', 'e', 12)));
+        }
+      }
+
+      TermsEnum te = leaf.terms(FIELD).iterator();
+      for (BytesRef target : targets) {
+        boolean exists = terms.contains(target);
+        assertEquals(target.utf8ToString(), exists, te.seekExact(target));
+        if (exists) {
+          assertEquals(target, te.term());
+          assertEquals(1, te.docFreq());
+          if (random().nextInt(5) == 0) {
+            assertEquals(terms.higher(target), te.next());
+          }
+        } else if (random().nextInt(5) == 0) {
+          BytesRef ceil = terms.ceiling(target);
+          TermsEnum.SeekStatus status = te.seekCeil(target);
+          if (ceil == null) {
+            assertEquals(TermsEnum.SeekStatus.END, status);
+          } else {
+            assertEquals(TermsEnum.SeekStatus.NOT_FOUND, status);
+            assertEquals(ceil, te.term());
+          }
+        }
+      }
+
+      te = leaf.terms(FIELD).iterator();
+      Iterator<BytesRef> it = targets.iterator();
+      BytesRefIterator sortedTargets = () -> it.hasNext() ? it.next() : null;
+      List<BytesRef> found = new ArrayList<>();
+      while (te.seekExactNext(sortedTargets)) {
+        found.add(BytesRef.deepCopyOf(te.term()));
+        assertEquals(1, te.docFreq());
+      }
+      List<BytesRef> expected = new ArrayList<>();
+      for (BytesRef target : targets) {
+        if (terms.contains(target)) {
+          expected.add(target);
+        }
+      }
+      assertEquals(expected, found);
+    }
+    r.close();
+    dir.close();
+  }
+
   // LUCENE-7576
   public void testInvalidAutomatonTermsEnum() throws Exception {
     expectThrows(IllegalArgumentException.class,
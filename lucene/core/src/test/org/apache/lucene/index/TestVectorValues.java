@@ -0,0 +1,403 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.VectorField;
+import org.apache.lucene.index.VectorValues.SearchStrategy;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/** Test Indexing/IndexWriter with vectors */
+public class TestVectorValues extends LuceneTestCase {
+
+  private IndexWriterConfig createIndexWriterConfig() {
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    // not all codecs support vectors
+    iwc.setCodec(TestUtil.getDefaultCodec());
+    return iwc;
+  }
+
+  public void testFieldConstructor() {
+    float[] v = new float[1];
+    VectorField field = new VectorField("f", v);
+    assertEquals(1, field.fieldType().vectorDimension());
+    assertEquals(SearchStrategy.EUCLIDEAN_HNSW, field.fieldType().vectorSearchStrategy());
+    assertSame(v, field.vectorValue());
+  }
+
+  public void testFieldConstructorExceptions() {
+    expectThrows(IllegalArgumentException.class, () -> new VectorField(null, new float[1]));
+    expectThrows(IllegalArgumentException.class, () -> new VectorField("f", null));
+    expectThrows(IllegalArgumentException.class, () -> new VectorField("f", new float[1], (SearchStrategy) null));
+    expectThrows(IllegalArgumentException.class, () -> new VectorField("f", new float[0]));
+    expectThrows(IllegalArgumentException.class, () -> new VectorField("f", new float[VectorValues.MAX_DIMENSIONS + 1]));
+  }
+
+  public void testFieldWithoutSearchStrategy() {
+    // vectors may be indexed without a graph, in which case they can be read but not searched
+    VectorField field = new VectorField("f", new float[2], SearchStrategy.NONE);
+    assertEquals(2, field.fieldType().vectorDimension());
+    assertEquals(SearchStrategy.NONE, field.fieldType().vectorSearchStrategy());
+    expectThrows(IllegalArgumentException.class, () -> VectorField.createHnswType(2, SearchStrategy.NONE));
+  }
+
+  public void testFieldSetValue() {
+    VectorField field = new VectorField("f", new float[1]);
+    float[] v1 = new float[1];
+    field.setVectorValue(v1);
+    assertSame(v1, field.vectorValue());
+    expectThrows(IllegalArgumentException.class, () -> field.setVectorValue(new float[2]));
+    expectThrows(IllegalArgumentException.class, () -> field.setVectorValue(null));
+  }
+
+  public void testFieldTypeValidation() {
+    FieldType ft = new FieldType();
+    expectThrows(IllegalArgumentException.class, () -> ft.setVectorDimensionsAndSearchStrategy(0, SearchStrategy.EUCLIDEAN_HNSW));
+    expectThrows(IllegalArgumentException.class,
+        () -> ft.setVectorDimensionsAndSearchStrategy(VectorValues.MAX_DIMENSIONS + 1, SearchStrategy.EUCLIDEAN_HNSW));
+    ft.setVectorDimensionsAndSearchStrategy(3, SearchStrategy.DOT_PRODUCT_HNSW);
+    assertEquals(3, ft.vectorDimension());
+    assertEquals(SearchStrategy.DOT_PRODUCT_HNSW, ft.vectorSearchStrategy());
+    ft.freeze();
+    expectThrows(IllegalStateException.class, () -> ft.setVectorDimensionsAndSearchStrategy(4, SearchStrategy.EUCLIDEAN_HNSW));
+  }
+
+  // Illegal schema change tests:
+
+  public void testIllegalDimChangeTwoDocs() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      Document doc = new Document();
+      doc.add(new VectorField("f", new float[4], SearchStrategy.DOT_PRODUCT_HNSW));
+      w.addDocument(doc);
+      if (random().nextBoolean()) {
+        // sometimes test with two segments
+        w.commit();
+      }
+
+      Document doc2 = new Document();
+      doc2.add(new VectorField("f", new float[3], SearchStrategy.DOT_PRODUCT_HNSW));
+      IllegalArgumentException expected = expectThrows(IllegalArgumentException.class, () -> w.addDocument(doc2));
+      assertTrue(expected.getMessage().contains("cannot change vector dimension"));
+    }
+  }
+
+  public void testIllegalSearchStrategyChange() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      Document doc = new Document();
+      doc.add(new VectorField("f", new float[4], SearchStrategy.DOT_PRODUCT_HNSW));
+      w.addDocument(doc);
+      if (random().nextBoolean()) {
+        // sometimes test with two segments
+        w.commit();
+      }
+
+      Document doc2 = new Document();
+      doc2.add(new VectorField("f", new float[4], SearchStrategy.EUCLIDEAN_HNSW));
+      IllegalArgumentException expected = expectThrows(IllegalArgumentException.class, () -> w.addDocument(doc2));
+      assertTrue(expected.getMessage().contains("cannot change vector search strategy"));
+    }
+  }
+
+  public void testIllegalDimChangeViaAddIndexesCodecReader() throws Exception {
+    try (Directory dir = newDirectory();
+         Directory dir2 = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+        Document doc = new Document();
+        doc.add(new VectorField("f", new float[4], SearchStrategy.DOT_PRODUCT_HNSW));
+        w.addDocument(doc);
+      }
+      try (IndexWriter w2 = new IndexWriter(dir2, createIndexWriterConfig())) {
+        Document doc = new Document();
+        doc.add(new VectorField("f", new float[5], SearchStrategy.DOT_PRODUCT_HNSW));
+        w2.addDocument(doc);
+        try (DirectoryReader r = DirectoryReader.open(dir)) {
+          IllegalArgumentException expected = expectThrows(IllegalArgumentException.class,
+              () -> w2.addIndexes(new CodecReader[]{(CodecReader) getOnlyLeafReader(r)}));
+          assertTrue(expected.getMessage().contains("cannot change vector dimension"));
+        }
+      }
+    }
+  }
+
+  public void testIllegalMultipleValues() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      Document doc = new Document();
+      doc.add(new VectorField("f", new float[4], SearchStrategy.DOT_PRODUCT_HNSW));
+      doc.add(new VectorField("f", new float[4], SearchStrategy.DOT_PRODUCT_HNSW));
+      IllegalArgumentException expected = expectThrows(IllegalArgumentException.class, () -> w.addDocument(doc));
+      assertTrue(expected.getMessage().contains("appears more than once"));
+    }
+  }
+
+  public void testIllegalVectorValueOnNonVectorField() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      FieldType ft = new FieldType(StringField.TYPE_NOT_STORED);
+      ft.setVectorDimensionsAndSearchStrategy(4, SearchStrategy.EUCLIDEAN_HNSW);
+      Document doc = new Document();
+      doc.add(new Field("f", "value", ft));
+      expectThrows(IllegalArgumentException.class, () -> w.addDocument(doc));
+    }
+  }
+
+  public void testIndexedValueNotAliased() throws Exception {
+    // We copy incoming values into the buffer, so changes to the value after adding the document
+    // must not affect the indexed value
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      Document doc = new Document();
+      float[] v = new float[] {1};
+      VectorField field = new VectorField("field", v);
+      doc.add(field);
+      w.addDocument(doc);
+      v[0] = 2;
+      w.addDocument(doc);
+      w.forceMerge(1);
+      try (IndexReader reader = DirectoryReader.open(w)) {
+        VectorValues vectorValues = getOnlyLeafReader(reader).getVectorValues("field");
+        assertEquals(0, vectorValues.nextDoc());
+        assertEquals(1, vectorValues.vectorValue()[0], 0);
+        assertEquals(1, vectorValues.nextDoc());
+        assertEquals(2, vectorValues.vectorValue()[0], 0);
+        assertEquals(NO_MORE_DOCS, vectorValues.nextDoc());
+      }
+    }
+  }
+
+  public void testMissingField() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "0", Field.Store.NO));
+      w.addDocument(doc);
+      try (IndexReader reader = DirectoryReader.open(w)) {
+        LeafReader leaf = getOnlyLeafReader(reader);
+        assertNull(leaf.getVectorValues("field"));
+        assertNull(leaf.searchNearestVectors("field", new float[] {1}, 1, null));
+      }
+    }
+  }
+
+  /**
+   * Index random vectors, sometimes skipping documents, sometimes deleting a document, sometimes
+   * merging, sometimes sorting the index, and verify that the expected values can be read back
+   * consistently.
+   */
+  public void testRandom() throws Exception {
+    IndexWriterConfig iwc = createIndexWriterConfig();
+    if (random().nextBoolean()) {
+      iwc.setIndexSort(new Sort(new SortField("sortkey", SortField.Type.INT)));
+    }
+    String fieldName = "field";
+    try (Directory dir = newDirectory();
+         IndexWriter iw = new IndexWriter(dir, iwc)) {
+      int numDoc = atLeast(100);
+      int dimension = atLeast(10);
+      float[] scratch = new float[dimension];
+      int numValues = 0;
+      float[][] values = new float[numDoc][];
+      for (int i = 0; i < numDoc; i++) {
+        if (random().nextInt(7) != 3) {
+          // usually index a vector value for a doc
+          values[i] = randomVector(dimension);
+          ++numValues;
+        }
+        if (random().nextBoolean() && values[i] != null) {
+          // sometimes use a shared scratch array
+          System.arraycopy(values[i], 0, scratch, 0, scratch.length);
+          add(iw, fieldName, i, scratch);
+        } else {
+          add(iw, fieldName, i, values[i]);
+        }
+        if (random().nextInt(10) == 2) {
+          // sometimes delete a random document
+          int idToDelete = random().nextInt(i + 1);
+          iw.deleteDocuments(new Term("id", Integer.toString(idToDelete)));
+          // and remember that it was deleted
+          if (values[idToDelete] != null) {
+            values[idToDelete] = null;
+            --numValues;
+          }
+        }
+        if (random().nextInt(10) == 3) {
+          iw.commit();
+        }
+      }
+      int numDeletes = 0;
+      try (IndexReader reader = DirectoryReader.open(iw)) {
+        int valueCount = 0, totalSize = 0;
+        for (LeafReaderContext ctx : reader.leaves()) {
+          VectorValues vectorValues = ctx.reader().getVectorValues(fieldName);
+          if (vectorValues == null) {
+            continue;
+          }
+          totalSize += vectorValues.size();
+          StoredFields storedFields = new StoredFields(ctx.reader());
+          int docId;
+          while ((docId = vectorValues.nextDoc()) != NO_MORE_DOCS) {
+            float[] v = vectorValues.vectorValue();
+            assertEquals(dimension, v.length);
+            String idString = storedFields.id(docId);
+            int id = Integer.parseInt(idString);
+            if (ctx.reader().getLiveDocs() == null || ctx.reader().getLiveDocs().get(docId)) {
+              assertArrayEquals(idString, values[id], v, 0);
+              ++valueCount;
+            } else {
+              ++numDeletes;
+              assertNull(values[id]);
+            }
+          }
+        }
+        assertEquals(numValues, valueCount);
+        assertEquals(numValues, totalSize - numDeletes);
+      }
+      iw.forceMerge(1);
+      try (IndexReader reader = DirectoryReader.open(iw)) {
+        LeafReader leaf = getOnlyLeafReader(reader);
+        VectorValues vectorValues = leaf.getVectorValues(fieldName);
+        int valueCount = 0;
+        if (vectorValues != null) {
+          assertEquals(numValues, vectorValues.size());
+          StoredFields storedFields = new StoredFields(leaf);
+          for (int docId = vectorValues.nextDoc(); docId != NO_MORE_DOCS; docId = vectorValues.nextDoc()) {
+            String idString = storedFields.id(docId);
+            assertArrayEquals(idString, values[Integer.parseInt(idString)], vectorValues.vectorValue(), 0);
+            ++valueCount;
+          }
+        }
+        assertEquals(numValues, valueCount);
+      }
+    }
+  }
+
+  /** Nearest neighbor search returns live documents, best matches first. */
+  public void testSearchNearestVectors() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter iw = new IndexWriter(dir, createIndexWriterConfig())) {
+      // a tiny 1-d index where the nearest neighbors are obvious
+      for (int i = 0; i < 10; i++) {
+        add(iw, "field", i, new float[] {i});
+      }
+      iw.deleteDocuments(new Term("id", "5"));
+      iw.forceMerge(1);
+      try (IndexReader reader = DirectoryReader.open(iw)) {
+        LeafReader leaf = getOnlyLeafReader(reader);
+        TopDocs results = leaf.searchNearestVectors("field", new float[] {5}, 3, leaf.getLiveDocs());
+        assertEquals(3, results.scoreDocs.length);
+        StoredFields storedFields = new StoredFields(leaf);
+        int[] ids = new int[3];
+        for (int i = 0; i < ids.length; i++) {
+          ids[i] = Integer.parseInt(storedFields.id(results.scoreDocs[i].doc));
+        }
+        // 4 and 6 are equidistant from the (deleted) target, so either may come first; 3 and 7 tie for third
+        Arrays.sort(ids, 0, 2);
+        assertEquals(Arrays.toString(ids), 4, ids[0]);
+        assertEquals(Arrays.toString(ids), 6, ids[1]);
+        assertTrue(Arrays.toString(ids), ids[2] == 3 || ids[2] == 7);
+        expectThrows(IllegalArgumentException.class,
+            () -> leaf.searchNearestVectors("field", new float[] {1, 2}, 3, null));
+      }
+    }
+  }
+
+  public void testSortedIndex() throws Exception {
+    IndexWriterConfig iwc = createIndexWriterConfig();
+    iwc.setIndexSort(new Sort(new SortField("sortkey", SortField.Type.INT)));
+    String fieldName = "field";
+    try (Directory dir = newDirectory();
+         IndexWriter iw = new IndexWriter(dir, iwc)) {
+      add(iw, fieldName, 1, 1, new float[]{-1, 0});
+      add(iw, fieldName, 4, 4, new float[]{0, 1});
+      add(iw, fieldName, 3, 3, null);
+      add(iw, fieldName, 2, 2, new float[]{1, 0});
+      try (IndexReader reader = DirectoryReader.open(iw)) {
+        LeafReader leaf = getOnlyLeafReader(reader);
+        StoredFields storedFields = new StoredFields(leaf);
+        VectorValues vectorValues = leaf.getVectorValues(fieldName);
+        assertEquals(2, vectorValues.dimension());
+        assertEquals(3, vectorValues.size());
+        assertEquals("1", storedFields.id(vectorValues.nextDoc()));
+        assertEquals(-1f, vectorValues.vectorValue()[0], 0);
+        assertEquals("2", storedFields.id(vectorValues.nextDoc()));
+        assertEquals(1, vectorValues.vectorValue()[0], 0);
+        assertEquals("4", storedFields.id(vectorValues.nextDoc()));
+        assertEquals(0, vectorValues.vectorValue()[0], 0);
+        assertEquals(NO_MORE_DOCS, vectorValues.nextDoc());
+      }
+    }
+  }
+
+  public void testCodecSupport() {
+    // SimpleText and the backwards-compatibility codecs do not record vectors
+    Codec codec = TestUtil.getDefaultCodec();
+    assertNotNull(codec.vectorFormat());
+  }
+
+  private void add(IndexWriter iw, String field, int id, float[] vector) throws IOException {
+    add(iw, field, id, random().nextInt(100), vector);
+  }
+
+  private void add(IndexWriter iw, String field, int id, int sortkey, float[] vector) throws IOException {
+    Document doc = new Document();
+    if (vector != null) {
+      doc.add(new VectorField(field, vector));
+    }
+    doc.add(new NumericDocValuesField("sortkey", sortkey));
+    String idString = Integer.toString(id);
+    doc.add(new StringField("id", idString, Field.Store.YES));
+    iw.updateDocument(new Term("id", idString), doc);
+  }
+
+  private static float[] randomVector(int dim) {
+    float[] v = new float[dim];
+    for (int i = 0; i < dim; i++) {
+      v[i] = random().nextFloat();
+    }
+    return v;
+  }
+
+  /** Looks up the id field of a document. */
+  private static class StoredFields {
+    private final LeafReader reader;
+
+    StoredFields(LeafReader reader) {
+      this.reader = reader;
+    }
+
+    String id(int docId) throws IOException {
+      return reader.document(docId).get("id");
+    }
+  }
+}
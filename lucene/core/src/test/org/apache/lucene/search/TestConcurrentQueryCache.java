@@ -0,0 +1,580 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.carrotsearch.randomizedtesting.generators.RandomPicks;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.RamUsageEstimator;
+
+public class TestConcurrentQueryCache extends LuceneTestCase {
+
+  private static final QueryCachingPolicy ALWAYS_CACHE = new QueryCachingPolicy() {
+
+    @Override
+    public void onUse(Query query) {}
+
+    @Override
+    public boolean shouldCache(Query query) throws IOException {
+      return true;
+    }
+
+  };
+
+  private static final QueryCachingPolicy NEVER_CACHE = new QueryCachingPolicy() {
+
+    @Override
+    public void onUse(Query query) {}
+
+    @Override
+    public boolean shouldCache(Query query) throws IOException {
+      return false;
+    }
+
+  };
+
+  public void testConcurrency() throws Throwable {
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(1 + random().nextInt(20), 1 + random().nextInt(10000), context -> random().nextBoolean(), Float.POSITIVE_INFINITY);
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final SearcherFactory searcherFactory = new SearcherFactory() {
+      @Override
+      public IndexSearcher newSearcher(IndexReader reader, IndexReader previous) throws IOException {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        searcher.setQueryCachingPolicy(MAYBE_CACHE_POLICY);
+        searcher.setQueryCache(queryCache);
+        return searcher;
+      }
+    };
+    final boolean applyDeletes = random().nextBoolean();
+    final SearcherManager mgr = new SearcherManager(w.w, applyDeletes, false, searcherFactory);
+    final AtomicBoolean indexing = new AtomicBoolean(true);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    final int numDocs = atLeast(1000);
+    final String[] colors = new String[] {"blue", "red", "yellow", "green", "purple", "orange", "pink"};
+    Thread[] threads = new Thread[2 + random().nextInt(4)];
+    threads[0] = new Thread() {
+      public void run() {
+        Document doc = new Document();
+        StringField f = new StringField("color", "", Store.NO);
+        doc.add(f);
+        for (int i = 0; indexing.get() && i < numDocs; ++i) {
+          f.setStringValue(RandomPicks.randomFrom(random(), colors));
+          try {
+            w.addDocument(doc);
+            if ((i & 63) == 0) {
+              mgr.maybeRefresh();
+              if (rarely()) {
+                queryCache.clear();
+              }
+              if (rarely()) {
+                final String color = RandomPicks.randomFrom(random(), colors);
+                w.deleteDocuments(new Term("color", color));
+              }
+            }
+          } catch (Throwable t) {
+            error.compareAndSet(null, t);
+            break;
+          }
+        }
+        indexing.set(false);
+      }
+    };
+    for (int i = 1; i < threads.length; ++i) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          while (indexing.get()) {
+            try {
+              final IndexSearcher searcher = mgr.acquire();
+              try {
+                final String value = RandomPicks.randomFrom(random(), colors);
+                final Query q = new TermQuery(new Term("color", value));
+                TotalHitCountCollector collector = new TotalHitCountCollector();
+                searcher.search(q, collector); // will use the cache
+                final int totalHits1 = collector.getTotalHits();
+                TotalHitCountCollector collector2 = new TotalHitCountCollector();
+                searcher.search(q, new FilterCollector(collector2) {
+                  public ScoreMode scoreMode() {
+                    return ScoreMode.COMPLETE; // will not use the cache because of scores
+                  }
+                });
+                final long totalHits2 = collector2.getTotalHits();
+                assertEquals(totalHits2, totalHits1);
+              } finally {
+                mgr.release(searcher);
+              }
+            } catch (Throwable t) {
+              error.compareAndSet(null, t);
+            }
+          }
+        }
+      };
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    try {
+      if (error.get() != null) {
+        throw error.get();
+      }
+      queryCache.assertConsistent();
+    } finally {
+      mgr.close();
+      w.close();
+      dir.close();
+      queryCache.assertConsistent();
+    }
+    assertEquals(0, queryCache.getCacheSize());
+  }
+
+  public void testLRUEviction() throws Exception {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+
+    Document doc = new Document();
+    StringField f = new StringField("color", "blue", Store.NO);
+    doc.add(f);
+    w.addDocument(doc);
+    f.setStringValue("red");
+    w.addDocument(doc);
+    f.setStringValue("green");
+    w.addDocument(doc);
+    final DirectoryReader reader = w.getReader();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(2, 100000, context -> true, Float.POSITIVE_INFINITY);
+
+    final Query blue = new TermQuery(new Term("color", "blue"));
+    final Query red = new TermQuery(new Term("color", "red"));
+    final Query green = new TermQuery(new Term("color", "green"));
+
+    assertEquals(Collections.emptyList(), queryCache.cachedQueries());
+
+    searcher.setQueryCache(queryCache);
+    // the filter is not cached on any segment: no changes
+    searcher.setQueryCachingPolicy(NEVER_CACHE);
+    searcher.search(new ConstantScoreQuery(green), 1);
+    assertEquals(Collections.emptyList(), queryCache.cachedQueries());
+
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+    searcher.search(new ConstantScoreQuery(red), 1);
+    assertEquals(Arrays.asList(red), queryCache.cachedQueries());
+
+    searcher.search(new ConstantScoreQuery(green), 1);
+    assertEquals(Arrays.asList(red, green), queryCache.cachedQueries());
+
+    searcher.search(new ConstantScoreQuery(red), 1);
+    assertEquals(Arrays.asList(green, red), queryCache.cachedQueries());
+
+    searcher.search(new ConstantScoreQuery(blue), 1);
+    assertEquals(Arrays.asList(red, blue), queryCache.cachedQueries());
+
+    searcher.search(new ConstantScoreQuery(blue), 1);
+    assertEquals(Arrays.asList(red, blue), queryCache.cachedQueries());
+
+    searcher.search(new ConstantScoreQuery(green), 1);
+    assertEquals(Arrays.asList(blue, green), queryCache.cachedQueries());
+
+    searcher.setQueryCachingPolicy(NEVER_CACHE);
+    searcher.search(new ConstantScoreQuery(red), 1);
+    assertEquals(Arrays.asList(blue, green), queryCache.cachedQueries());
+
+    queryCache.assertConsistent();
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testClearFilter() throws IOException {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    final int numDocs = atLeast(10);
+    for (int i = 0; i < numDocs; ++i) {
+      f.setStringValue(random().nextBoolean() ? "red" : "blue");
+      w.addDocument(doc);
+    }
+    final DirectoryReader reader = w.getReader();
+    final IndexSearcher searcher = newSearcher(reader);
+
+    final Query query1 = new TermQuery(new Term("color", "blue"));
+    // different instance yet equal
+    final Query query2 = new TermQuery(new Term("color", "blue"));
+
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(Integer.MAX_VALUE, Long.MAX_VALUE, context -> true, 1);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+
+    searcher.search(new BoostQuery(new ConstantScoreQuery(query1), random().nextFloat()), 1);
+    assertEquals(1, queryCache.cachedQueries().size());
+
+    queryCache.clearQuery(query2);
+
+    assertTrue(queryCache.cachedQueries().isEmpty());
+    assertEquals(0, queryCache.getCacheSize());
+    queryCache.assertConsistent();
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testStats() throws IOException {
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(1, 10000000, context -> true, 1);
+
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+
+    final List<String> colors = Arrays.asList("blue", "red", "green", "yellow");
+
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    for (int i = 0; i < 10; ++i) {
+      f.setStringValue(RandomPicks.randomFrom(random(), colors));
+      w.addDocument(doc);
+      if (random().nextBoolean()) {
+        w.getReader().close();
+      }
+    }
+
+    final DirectoryReader reader = w.getReader();
+    final int segmentCount = reader.leaves().size();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    final Query query = new TermQuery(new Term("color", "red"));
+    final Query query2 = new TermQuery(new Term("color", "blue"));
+
+    searcher.setQueryCache(queryCache);
+    // first pass, lookups without caching that all miss
+    searcher.setQueryCachingPolicy(NEVER_CACHE);
+    for (int i = 0; i < 10; ++i) {
+      searcher.search(new ConstantScoreQuery(query), 1);
+    }
+    assertEquals(10 * segmentCount, queryCache.getTotalCount());
+    assertEquals(0, queryCache.getHitCount());
+    assertEquals(10 * segmentCount, queryCache.getMissCount());
+    assertEquals(0, queryCache.getCacheCount());
+    assertEquals(0, queryCache.getEvictionCount());
+    assertEquals(0, queryCache.getCacheSize());
+
+    // second pass, lookups + caching, only the first one is a miss
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+    for (int i = 0; i < 10; ++i) {
+      searcher.search(new ConstantScoreQuery(query), 1);
+    }
+    assertEquals(20 * segmentCount, queryCache.getTotalCount());
+    assertEquals(9 * segmentCount, queryCache.getHitCount());
+    assertEquals(11 * segmentCount, queryCache.getMissCount());
+    assertEquals(1 * segmentCount, queryCache.getCacheCount());
+    assertEquals(0, queryCache.getEvictionCount());
+    assertEquals(1 * segmentCount, queryCache.getCacheSize());
+
+    // third pass with a different filter which will trigger evictions since the size is 1
+    for (int i = 0; i < 10; ++i) {
+      searcher.search(new ConstantScoreQuery(query2), 1);
+    }
+    assertEquals(30 * segmentCount, queryCache.getTotalCount());
+    assertEquals(18 * segmentCount, queryCache.getHitCount());
+    assertEquals(12 * segmentCount, queryCache.getMissCount());
+    assertEquals(2 * segmentCount, queryCache.getCacheCount());
+    assertEquals(1 * segmentCount, queryCache.getEvictionCount());
+    assertEquals(1 * segmentCount, queryCache.getCacheSize());
+    queryCache.assertConsistent();
+
+    // now close, causing evictions due to the closing of segment cores
+    reader.close();
+    w.close();
+    assertEquals(2 * segmentCount, queryCache.getCacheCount());
+    assertEquals(2 * segmentCount, queryCache.getEvictionCount());
+    assertEquals(0, queryCache.getCacheSize());
+    queryCache.assertConsistent();
+
+    dir.close();
+  }
+
+  public void testFineGrainedStats() throws IOException {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+
+    final List<String> colors = Arrays.asList("blue", "red", "green", "yellow");
+
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    for (int i = 0; i < 10; ++i) {
+      f.setStringValue(RandomPicks.randomFrom(random(), colors));
+      w.addDocument(doc);
+      if (random().nextBoolean()) {
+        w.getReader().close();
+      }
+    }
+
+    final DirectoryReader reader = w.getReader();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+
+    final AtomicLong hitCount = new AtomicLong();
+    final AtomicLong missCount = new AtomicLong();
+    final AtomicLong ramBytesUsage = new AtomicLong();
+    final AtomicLong cacheSize = new AtomicLong();
+    final AtomicLong clearCount = new AtomicLong();
+
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(2, 10000000, context -> true, 1) {
+      @Override
+      protected void onHit(Object readerCoreKey, Query query) {
+        super.onHit(readerCoreKey, query);
+        hitCount.incrementAndGet();
+      }
+
+      @Override
+      protected void onMiss(Object readerCoreKey, Query query) {
+        super.onMiss(readerCoreKey, query);
+        missCount.incrementAndGet();
+      }
+
+      @Override
+      protected void onQueryCache(Query query, long ramBytesUsed) {
+        super.onQueryCache(query, ramBytesUsed);
+        assertNotNull("cached query is null", query);
+        ramBytesUsage.addAndGet(ramBytesUsed);
+      }
+
+      @Override
+      protected void onQueryEviction(Query query, long ramBytesUsed) {
+        super.onQueryEviction(query, ramBytesUsed);
+        assertNotNull("evicted query is null", query);
+        ramBytesUsage.addAndGet(-ramBytesUsed);
+      }
+
+      @Override
+      protected void onDocIdSetCache(Object readerCoreKey, long ramBytesUsed) {
+        super.onDocIdSetCache(readerCoreKey, ramBytesUsed);
+        ramBytesUsage.addAndGet(ramBytesUsed);
+        cacheSize.incrementAndGet();
+      }
+
+      @Override
+      protected void onDocIdSetEviction(Object readerCoreKey, int numEntries, long sumRamBytesUsed) {
+        super.onDocIdSetEviction(readerCoreKey, numEntries, sumRamBytesUsed);
+        ramBytesUsage.addAndGet(-sumRamBytesUsed);
+        cacheSize.addAndGet(-numEntries);
+      }
+
+      @Override
+      protected void onClear() {
+        super.onClear();
+        clearCount.incrementAndGet();
+      }
+    };
+
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+
+    for (int i = 0; i < 20; ++i) {
+      final Query query = new TermQuery(new Term("color", RandomPicks.randomFrom(random(), colors)));
+      searcher.search(new ConstantScoreQuery(query), 1);
+    }
+
+    assertEquals(queryCache.getHitCount(), hitCount.get());
+    assertEquals(queryCache.getMissCount(), missCount.get());
+    assertEquals(queryCache.getCacheSize(), cacheSize.get());
+    // the leaf caches are accounted outside of the callbacks
+    assertEquals(queryCache.ramBytesUsed() - RamUsageEstimator.HASHTABLE_RAM_BYTES_PER_ENTRY * reader.leaves().size(),
+        ramBytesUsage.get());
+    queryCache.assertConsistent();
+
+    queryCache.clear();
+    assertEquals(1, clearCount.get());
+    assertEquals(0, cacheSize.get());
+    assertEquals(0, ramBytesUsage.get());
+    queryCache.assertConsistent();
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testRamBytesUsedOfAccountableQueries() throws IOException {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    doc.add(new StringField("color", "red", Store.NO));
+    w.addDocument(doc);
+    final DirectoryReader reader = w.getReader();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(Integer.MAX_VALUE, Long.MAX_VALUE, context -> true, Float.POSITIVE_INFINITY);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+
+    final long queryRamBytesUsed = 1 << 20;
+    final Query query = new AccountableQuery(new TermQuery(new Term("color", "red")), queryRamBytesUsed);
+    assertEquals(ConcurrentQueryCache.QUERY_ENTRY_RAM_BYTES_USED + queryRamBytesUsed, ConcurrentQueryCache.getRamBytesUsed(query));
+    searcher.search(new ConstantScoreQuery(query), 1);
+    assertEquals(1, queryCache.cachedQueries().size());
+    assertTrue(queryCache.ramBytesUsed() > queryRamBytesUsed);
+    queryCache.assertConsistent();
+
+    queryCache.clearQuery(query);
+    assertTrue(queryCache.ramBytesUsed() < queryRamBytesUsed);
+    queryCache.assertConsistent();
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  private static class AccountableQuery extends Query implements Accountable {
+
+    private final Query in;
+    private final long ramBytesUsed;
+
+    AccountableQuery(Query in, long ramBytesUsed) {
+      this.in = in;
+      this.ramBytesUsed = ramBytesUsed;
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+      // cache this query rather than the wrapped one
+      return new FilterWeight(this, in.createWeight(searcher, scoreMode, boost)) {};
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+      in.visit(visitor);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return ramBytesUsed;
+    }
+
+    @Override
+    public String toString(String field) {
+      return "AccountableQuery(" + in.toString(field) + ")";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return sameClassAs(other) && in.equals(((AccountableQuery) other).in);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * classHash() + in.hashCode();
+    }
+  }
+
+  public void testRamBytesUsedBound() throws IOException {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    final int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; ++i) {
+      f.setStringValue(Integer.toString(random().nextInt(50)));
+      w.addDocument(doc);
+    }
+    final DirectoryReader reader = w.getReader();
+    final IndexSearcher searcher = newSearcher(reader);
+    final long maxRamBytesUsed = 1 + random().nextInt(50000);
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(Integer.MAX_VALUE, maxRamBytesUsed, context -> true, Float.POSITIVE_INFINITY);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+
+    final int numQueries = atLeast(100);
+    for (int i = 0; i < numQueries; ++i) {
+      BooleanQuery.Builder bq = new BooleanQuery.Builder();
+      bq.add(new TermQuery(new Term("color", Integer.toString(random().nextInt(50)))), Occur.SHOULD);
+      bq.add(new TermQuery(new Term("color", Integer.toString(random().nextInt(50)))), Occur.SHOULD);
+      searcher.search(new ConstantScoreQuery(bq.build()), 1);
+      assertTrue(queryCache.ramBytesUsed() <= maxRamBytesUsed || queryCache.cachedQueries().isEmpty());
+      queryCache.assertConsistent();
+    }
+
+    queryCache.clear();
+    assertEquals(0, queryCache.ramBytesUsed());
+    assertEquals(0, queryCache.getCacheSize());
+    queryCache.assertConsistent();
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testSameResultsAsLRUQueryCache() throws IOException {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    final int numDocs = atLeast(200);
+    for (int i = 0; i < numDocs; ++i) {
+      f.setStringValue(Integer.toString(random().nextInt(10)));
+      w.addDocument(doc);
+      if (rarely()) {
+        w.commit();
+      }
+    }
+    final DirectoryReader reader = w.getReader();
+    final IndexSearcher uncachedSearcher = newSearcher(reader);
+    uncachedSearcher.setQueryCache(null);
+    final IndexSearcher searcher = newSearcher(reader);
+    searcher.setQueryCache(new ConcurrentQueryCache(1 + random().nextInt(5), Long.MAX_VALUE, context -> true, Float.POSITIVE_INFINITY));
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+
+    final int numQueries = atLeast(50);
+    for (int i = 0; i < numQueries; ++i) {
+      BooleanQuery.Builder bq = new BooleanQuery.Builder();
+      bq.add(new TermQuery(new Term("color", Integer.toString(random().nextInt(10)))), Occur.SHOULD);
+      bq.add(new TermQuery(new Term("color", Integer.toString(random().nextInt(10)))), Occur.FILTER);
+      final Query query = new ConstantScoreQuery(bq.build());
+      assertEquals(uncachedSearcher.count(query), searcher.count(query));
+    }
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+}
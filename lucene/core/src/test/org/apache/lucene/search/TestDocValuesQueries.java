@@ -19,13 +19,16 @@ package org.apache.lucene.search;
 import java.io.IOException;
 import java.util.Arrays;
 
+import org.apache.lucene.codecs.lucene80.Lucene80DocValuesFormat;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
@@ -171,6 +174,69 @@ public class TestDocValuesQueries extends LuceneTestCase {
     doTestDuelPointRangeSortedRangeQuery(false, 1);
   }
 
+  public void testDuelPointRangeNumericRangeQueryWithSkipIndex() throws IOException {
+    doTestDuelPointRangeQueryWithSkipIndex(false);
+  }
+
+  public void testDuelPointRangeSortedSetRangeQueryWithSkipIndex() throws IOException {
+    doTestDuelPointRangeQueryWithSkipIndex(true);
+  }
+
+  private void doTestDuelPointRangeQueryWithSkipIndex(boolean sortedSet) throws IOException {
+    Directory dir = newDirectory();
+    // the skip index is only written if enabled, and blocks only make sense if docs are not reordered
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig()
+        .setCodec(TestUtil.alwaysDocValuesFormat(new Lucene80DocValuesFormat(true)))
+        .setMergePolicy(newLogMergePolicy()));
+    // values are clustered by doc ID so that some blocks are entirely within or outside of the ranges
+    final int numDocs = TestUtil.nextInt(random(), 10000, 20000);
+    final boolean dense = random().nextBoolean();
+    long value = 0;
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      value += TestUtil.nextInt(random(), 0, 2);
+      if (dense || random().nextInt(10) != 0) {
+        if (sortedSet) {
+          byte[] encoded = new byte[Long.BYTES];
+          LongPoint.encodeDimension(value, encoded, 0);
+          doc.add(new SortedSetDocValuesField("dv", new BytesRef(encoded)));
+        } else {
+          doc.add(new NumericDocValuesField("dv", value));
+        }
+        doc.add(new LongPoint("idx", value));
+      }
+      w.addDocument(doc);
+    }
+    if (random().nextBoolean()) {
+      w.deleteDocuments(LongPoint.newRangeQuery("idx", 0L, 10L));
+    }
+    w.forceMerge(1);
+    final IndexReader reader = DirectoryReader.open(w);
+    final IndexSearcher searcher = newSearcher(reader, false);
+    w.close();
+
+    for (int i = 0; i < 50; ++i) {
+      final long min = random().nextInt(5) == 0 ? Long.MIN_VALUE : TestUtil.nextLong(random(), -100, value + 100);
+      final long max = random().nextInt(5) == 0 ? Long.MAX_VALUE : TestUtil.nextLong(random(), min, value + 100);
+      final Query q1 = LongPoint.newRangeQuery("idx", min, max);
+      final Query q2;
+      if (sortedSet) {
+        byte[] encodedMin = new byte[Long.BYTES];
+        byte[] encodedMax = new byte[Long.BYTES];
+        LongPoint.encodeDimension(min, encodedMin, 0);
+        LongPoint.encodeDimension(max, encodedMax, 0);
+        q2 = SortedSetDocValuesField.newSlowRangeQuery("dv", new BytesRef(encodedMin), new BytesRef(encodedMax), true, true);
+      } else {
+        q2 = NumericDocValuesField.newSlowRangeQuery("dv", min, max);
+      }
+      assertSameMatches(searcher, q1, q2, false);
+      assertEquals(searcher.count(q1), searcher.count(new IndexOrDocValuesQuery(q1, q2)));
+    }
+
+    reader.close();
+    dir.close();
+  }
+
   private void assertSameMatches(IndexSearcher searcher, Query q1, Query q2, boolean scores) throws IOException {
     final int maxDoc = searcher.getIndexReader().maxDoc();
     final TopDocs td1 = searcher.search(q1, maxDoc, scores ? Sort.RELEVANCE : Sort.INDEXORDER);
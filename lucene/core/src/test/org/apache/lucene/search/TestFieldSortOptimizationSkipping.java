@@ -16,6 +16,7 @@
  */
 package org.apache.lucene.search;
 
+import org.apache.lucene.codecs.lucene80.Lucene80DocValuesFormat;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FloatDocValuesField;
@@ -32,6 +33,7 @@ import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
 
 import java.io.IOException;
 
@@ -152,6 +154,71 @@ public class TestFieldSortOptimizationSkipping extends LuceneTestCase {
     dir.close();
   }
 
+  /**
+   * test that if a field is not indexed with points, optimized sort relies on the doc values skip index
+   */
+  public void testLongSortOptimizationWithDocValuesSkipIndex() throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setCodec(TestUtil.alwaysDocValuesFormat(new Lucene80DocValuesFormat(true))));
+    final int numDocs = atLeast(20000);
+    // my_field is not indexed with points
+    for (int i = 0; i < numDocs; ++i) {
+      final Document doc = new Document();
+      if ((i % 500) != 0) { // miss values on every 500th document
+        doc.add(new NumericDocValuesField("my_field", i));
+      }
+      writer.addDocument(doc);
+      if (i == 7000) writer.flush(); // two segments
+    }
+    final IndexReader reader = DirectoryReader.open(writer);
+    IndexSearcher searcher = new IndexSearcher(reader);
+    final int numHits = 3;
+    final int totalHitsThreshold = 3;
+
+    { // ascending sort, missing values are not competitive
+      final SortField sortField = new SortField("my_field", SortField.Type.LONG);
+      sortField.setMissingValue(Long.MAX_VALUE);
+      final TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField), numHits, null, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(topDocs.scoreDocs.length, numHits);
+      for (int i = 0; i < numHits; i++) {
+        FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+        assertEquals(i + 1, ((Long) fieldDoc.fields[0]).intValue());
+      }
+      assertTrue(topDocs.totalHits.value < numDocs);
+    }
+
+    { // descending sort on an int field
+      final SortField sortField = new SortField("my_field", SortField.Type.INT, true);
+      final TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField), numHits, null, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(topDocs.scoreDocs.length, numHits);
+      int expected = numDocs - 1;
+      for (int i = 0; i < numHits; i++, expected--) {
+        if (expected % 500 == 0) {
+          expected--;
+        }
+        FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+        assertEquals(expected, ((Integer) fieldDoc.fields[0]).intValue());
+      }
+    }
+
+    { // missing values are competitive: no optimization
+      final SortField sortField = new SortField("my_field", SortField.Type.LONG);
+      sortField.setMissingValue(0L);
+      final TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField), numHits, null, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(topDocs.scoreDocs.length, numHits);
+      assertEquals(topDocs.totalHits.value, numDocs);
+    }
+
+    writer.close();
+    reader.close();
+    dir.close();
+  }
 
   public void testSortOptimizationWithMissingValues() throws IOException {
     final Directory dir = newDirectory();
@@ -279,6 +279,61 @@ public class TestIndexSearcher extends LuceneTestCase {
     }
   }
 
+  public void testSegmentPartitions() throws Exception {
+    ExecutorService service = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+                                   new LinkedBlockingQueue<Runnable>(),
+                                   new NamedThreadFactory("TestIndexSearcher"));
+    final int maxDocsPerSlice = TestUtil.nextInt(random(), 1, 30);
+    IndexSearcher partitioned = new IndexSearcher(reader, service) {
+      @Override
+      protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+        return slices(leaves, maxDocsPerSlice, 5, true);
+      }
+    };
+    partitioned.setQueryCache(null);
+    IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(null);
+
+    boolean hasPartition = false;
+    for (IndexSearcher.LeafSlice slice : partitioned.getSlices()) {
+      for (IndexSearcher.LeafReaderContextPartition partition : slice.partitions) {
+        if (partition.maxDocId != DocIdSetIterator.NO_MORE_DOCS) {
+          hasPartition = true;
+          assertTrue(partition.maxDocId - partition.minDocId <= maxDocsPerSlice);
+        }
+      }
+    }
+    assertEquals(reader.maxDoc() > maxDocsPerSlice, hasPartition);
+
+    Query[] queries = new Query[] {
+        new MatchAllDocsQuery(),
+        new TermQuery(new Term("field", "1")),
+        new TermQuery(new Term("field2", "true")),
+        new BooleanQuery.Builder()
+            .add(new TermQuery(new Term("field", "7")), Occur.SHOULD)
+            .add(new TermQuery(new Term("field", "42")), Occur.SHOULD)
+            .add(new TermQuery(new Term("field2", "true")), Occur.SHOULD)
+            .build()
+    };
+    Sort sort = new Sort(new SortField("field2", SortField.Type.STRING), SortField.FIELD_DOC);
+    for (Query query : queries) {
+      int numHits = TestUtil.nextInt(random(), 1, 120);
+      TopDocs expected = searcher.search(query, numHits);
+      TopDocs actual = partitioned.search(query, numHits);
+      CheckHits.checkEqual(query, expected.scoreDocs, actual.scoreDocs);
+      assertEquals(searcher.count(query), partitioned.count(query));
+
+      TopFieldDocs expectedSorted = searcher.search(query, numHits, sort);
+      TopFieldDocs actualSorted = partitioned.search(query, numHits, sort);
+      assertEquals(expectedSorted.scoreDocs.length, actualSorted.scoreDocs.length);
+      for (int i = 0; i < expectedSorted.scoreDocs.length; ++i) {
+        assertEquals(expectedSorted.scoreDocs[i].doc, actualSorted.scoreDocs[i].doc);
+      }
+    }
+
+    TestUtil.shutdownExecutorService(service);
+  }
+
   public void testRejectedExecution() throws IOException {
     ExecutorService service = new RejectingMockExecutor();
 
@@ -0,0 +1,370 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.VectorField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+/** TestKnnVectorQuery tests KnnVectorQuery. */
+public class TestKnnVectorQuery extends LuceneTestCase {
+
+  public void testEquals() {
+    KnnVectorQuery q1 = new KnnVectorQuery("f1", new float[] {0, 1}, 10);
+    Query filter1 = new TermQuery(new Term("id", "id1"));
+    KnnVectorQuery q2 = new KnnVectorQuery("f1", new float[] {0, 1}, 10, filter1);
+
+    assertNotEquals(q2, q1);
+    assertNotEquals(q1, q2);
+    assertEquals(q2, new KnnVectorQuery("f1", new float[] {0, 1}, 10, filter1));
+
+    Query filter2 = new TermQuery(new Term("id", "id2"));
+    assertNotEquals(q2, new KnnVectorQuery("f1", new float[] {0, 1}, 10, filter2));
+
+    assertEquals(q1, new KnnVectorQuery("f1", new float[] {0, 1}, 10));
+    assertEquals(q1.hashCode(), new KnnVectorQuery("f1", new float[] {0, 1}, 10).hashCode());
+
+    assertNotEquals(null, q1);
+    assertNotEquals(q1, new TermQuery(new Term("f1", "x")));
+    assertNotEquals(q1, new KnnVectorQuery("f2", new float[] {0, 1}, 10));
+    assertNotEquals(q1, new KnnVectorQuery("f1", new float[] {1, 1}, 10));
+    assertNotEquals(q1, new KnnVectorQuery("f1", new float[] {0, 1}, 2));
+    assertNotEquals(q1, new KnnVectorQuery("f1", new float[] {0}, 10));
+  }
+
+  public void testToString() {
+    KnnVectorQuery query = new KnnVectorQuery("field", new float[] {0, 1}, 10);
+    assertEquals("<vector:field[0.0,...][10]>", query.toString("ignored"));
+  }
+
+  public void testIllegalArguments() {
+    expectThrows(IllegalArgumentException.class, () -> new KnnVectorQuery("f", new float[] {1}, 0));
+    expectThrows(NullPointerException.class, () -> new KnnVectorQuery(null, new float[] {1}, 10));
+    expectThrows(NullPointerException.class, () -> new KnnVectorQuery("f", null, 10));
+  }
+
+  /** Tests that a KnnVectorQuery whose topK &gt;= numDocs returns all the documents in score order */
+  public void testFindAll() throws IOException {
+    try (Directory indexStore = getIndexStore("field", new float[] {0, 1}, new float[] {1, 2}, new float[] {0, 0});
+         IndexReader reader = DirectoryReader.open(indexStore)) {
+      IndexSearcher searcher = newSearcher(reader);
+      KnnVectorQuery kvq = new KnnVectorQuery("field", new float[] {0, 0}, 10);
+      assertMatches(searcher, kvq, 3);
+      ScoreDoc[] scoreDocs = searcher.search(kvq, 3).scoreDocs;
+      assertIdMatches(reader, "id2", scoreDocs[0]);
+      assertIdMatches(reader, "id0", scoreDocs[1]);
+      assertIdMatches(reader, "id1", scoreDocs[2]);
+    }
+  }
+
+  /** Tests that a KnnVectorQuery applies the filter and still returns the nearest matches */
+  public void testSimpleFilter() throws IOException {
+    try (Directory indexStore = getIndexStore("field", new float[] {0, 1}, new float[] {1, 2}, new float[] {0, 0});
+         IndexReader reader = DirectoryReader.open(indexStore)) {
+      IndexSearcher searcher = newSearcher(reader);
+      Query filter = new TermQuery(new Term("id", "id2"));
+      Query kvq = new KnnVectorQuery("field", new float[] {0, 0}, 10, filter);
+      TopDocs topDocs = searcher.search(kvq, 3);
+      assertEquals(1, topDocs.totalHits.value);
+      assertIdMatches(reader, "id2", topDocs.scoreDocs[0]);
+    }
+  }
+
+  public void testFilterWithNoVectorMatches() throws IOException {
+    try (Directory indexStore = getIndexStore("field", new float[] {0, 1}, new float[] {1, 2}, new float[] {0, 0});
+         IndexReader reader = DirectoryReader.open(indexStore)) {
+      IndexSearcher searcher = newSearcher(reader);
+      Query filter = new TermQuery(new Term("other", "value"));
+      Query kvq = new KnnVectorQuery("field", new float[] {0, 0}, 10, filter);
+      TopDocs topDocs = searcher.search(kvq, 3);
+      assertEquals(0, topDocs.totalHits.value);
+    }
+  }
+
+  /** testDimensionMismatch */
+  public void testDimensionMismatch() throws IOException {
+    try (Directory indexStore = getIndexStore("field", new float[] {0, 1}, new float[] {1, 2}, new float[] {0, 0});
+         IndexReader reader = DirectoryReader.open(indexStore)) {
+      IndexSearcher searcher = newSearcher(reader);
+      KnnVectorQuery kvq = new KnnVectorQuery("field", new float[] {0}, 10);
+      IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> searcher.search(kvq, 10));
+      assertTrue(e.getMessage().contains("vector dimensions differ"));
+    }
+  }
+
+  /** testNonVectorField */
+  public void testNonVectorField() throws IOException {
+    try (Directory indexStore = getIndexStore("field", new float[] {0, 1}, new float[] {1, 2}, new float[] {0, 0});
+         IndexReader reader = DirectoryReader.open(indexStore)) {
+      IndexSearcher searcher = newSearcher(reader);
+      assertMatches(searcher, new KnnVectorQuery("xyzzy", new float[] {0}, 10), 0);
+      assertMatches(searcher, new KnnVectorQuery("id", new float[] {0}, 10), 0);
+    }
+  }
+
+  /** Test bad parameters */
+  public void testIllegalStrategy() throws IOException {
+    try (Directory d = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(d, createIndexWriterConfig())) {
+        Document doc = new Document();
+        doc.add(new VectorField("field", new float[] {1, 1}, VectorValues.SearchStrategy.NONE));
+        w.addDocument(doc);
+      }
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        KnnVectorQuery query = new KnnVectorQuery("field", new float[] {1, 1}, 10);
+        expectThrows(IllegalArgumentException.class, () -> searcher.search(query, 10));
+      }
+    }
+  }
+
+  public void testScoreEuclidean() throws IOException {
+    try (Directory d = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(d, createIndexWriterConfig())) {
+        for (int j = 0; j < 5; j++) {
+          Document doc = new Document();
+          doc.add(new VectorField("field", new float[] {j, j}, VectorValues.SearchStrategy.EUCLIDEAN_HNSW));
+          w.addDocument(doc);
+        }
+      }
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        KnnVectorQuery query = new KnnVectorQuery("field", new float[] {2, 2.5f}, 3);
+        Query rewritten = query.rewrite(reader);
+        Weight weight = searcher.createWeight(rewritten, ScoreMode.COMPLETE, 1);
+        Scorer scorer = weight.scorer(reader.leaves().get(0));
+
+        // prior to advancing, score is undefined
+        assertEquals(-1, scorer.docID());
+        expectThrows(ArrayIndexOutOfBoundsException.class, scorer::score);
+
+        // test getMaxScore
+        assertEquals(0, scorer.getMaxScore(-1), 0);
+        assertEquals(0, scorer.getMaxScore(0), 0);
+        // This is 1 / ((l2distance((2,2.5), (1,1)) = 3.25) + 1)
+        assertEquals(1 / 4.25f, scorer.getMaxScore(1), 1e-6);
+        // This is 1 / ((l2distance((2,2.5), (2,2)) = 0.25) + 1)
+        assertEquals(1 / 1.25f, scorer.getMaxScore(2), 1e-6);
+        assertEquals(1 / 1.25f, scorer.getMaxScore(Integer.MAX_VALUE), 1e-6);
+
+        DocIdSetIterator it = scorer.iterator();
+        assertEquals(3, it.cost());
+        assertEquals(1, it.nextDoc());
+        assertEquals(1 / 4.25f, scorer.score(), 1e-6);
+        assertEquals(3, it.advance(3));
+        assertEquals(1 / 2.25f, scorer.score(), 1e-6);
+        assertEquals(DocIdSetIterator.NO_MORE_DOCS, it.advance(4));
+        expectThrows(ArrayIndexOutOfBoundsException.class, scorer::score);
+      }
+    }
+  }
+
+  public void testExplain() throws IOException {
+    try (Directory d = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(d, createIndexWriterConfig())) {
+        for (int j = 0; j < 5; j++) {
+          Document doc = new Document();
+          doc.add(new VectorField("field", new float[] {j, j}));
+          w.addDocument(doc);
+        }
+      }
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        KnnVectorQuery query = new KnnVectorQuery("field", new float[] {2, 2.5f}, 3);
+        Explanation matched = searcher.explain(query, 2);
+        assertTrue(matched.isMatch());
+        assertEquals(1 / 1.25f, matched.getValue().floatValue(), 1e-6);
+        assertEquals(0, matched.getDetails().length);
+
+        Explanation nomatch = searcher.explain(query, 4);
+        assertFalse(nomatch.isMatch());
+        assertEquals(0, nomatch.getValue().floatValue(), 0);
+      }
+    }
+  }
+
+  /** Test that the query rewrites to a query that is bound to the reader it was rewritten against */
+  public void testDifferentReader() throws IOException {
+    try (Directory indexStore = getIndexStore("field", new float[] {0, 1}, new float[] {1, 2}, new float[] {0, 0});
+         IndexReader reader = DirectoryReader.open(indexStore)) {
+      KnnVectorQuery query = new KnnVectorQuery("field", new float[] {2, 3}, 3);
+      Query dasq = query.rewrite(reader);
+      IndexSearcher leafSearcher = newSearcher(reader.leaves().get(0).reader());
+      expectThrows(IllegalStateException.class,
+          () -> dasq.createWeight(leafSearcher, ScoreMode.COMPLETE, 1));
+    }
+  }
+
+  /** Tests with random vectors, number of documents, etc. */
+  public void testRandom() throws IOException {
+    int numDocs = atLeast(100);
+    int dimension = atLeast(5);
+    int numIters = atLeast(10);
+    boolean everyDocHasAVector = random().nextBoolean();
+    try (Directory d = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(d, createIndexWriterConfig())) {
+        for (int i = 0; i < numDocs; i++) {
+          Document doc = new Document();
+          if (everyDocHasAVector || random().nextInt(10) != 2) {
+            doc.add(new VectorField("field", randomVector(dimension)));
+          }
+          doc.add(new StringField("id", "id" + i, Field.Store.YES));
+          w.addDocument(doc);
+          if (random().nextInt(20) == 3) {
+            w.commit();
+          }
+        }
+      }
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = newSearcher(reader);
+        for (int i = 0; i < numIters; i++) {
+          int k = random().nextInt(80) + 1;
+          KnnVectorQuery query = new KnnVectorQuery("field", randomVector(dimension), k);
+          int n = random().nextInt(100) + 1;
+          TopDocs results = searcher.search(query, n);
+          int expected = Math.min(Math.min(n, k), reader.numDocs());
+          // we may get fewer results than requested if there are deletions, but this test doesn't test that
+          assert reader.hasDeletions() == false;
+          assertTrue(results.scoreDocs.length <= expected);
+          if (everyDocHasAVector) {
+            assertEquals(expected, results.scoreDocs.length);
+          }
+          assertTrue(results.totalHits.value > 0);
+          for (int j = 1; j < results.scoreDocs.length; j++) {
+            assertTrue(results.scoreDocs[j].score <= results.scoreDocs[j - 1].score);
+          }
+        }
+      }
+    }
+  }
+
+  /** Tests that a restrictive filter uses an exact search, and a permissive one uses the graph */
+  public void testRandomWithFilter() throws IOException {
+    int numDocs = 200;
+    int dimension = atLeast(5);
+    int numIters = atLeast(10);
+    try (Directory d = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(d, createIndexWriterConfig())) {
+        for (int i = 0; i < numDocs; i++) {
+          Document doc = new Document();
+          doc.add(new VectorField("field", randomVector(dimension)));
+          doc.add(new StringField("tag", i % 2 == 0 ? "even" : "odd", Field.Store.NO));
+          doc.add(new StringField("id", "id" + i, Field.Store.YES));
+          w.addDocument(doc);
+        }
+        w.forceMerge(1);
+      }
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        Query filter = new TermQuery(new Term("tag", "even"));
+        for (int i = 0; i < numIters; i++) {
+          float[] target = randomVector(dimension);
+          int k = random().nextInt(10) + 1;
+          Set<Integer> exactSearches = new HashSet<>();
+          KnnVectorQuery query = new KnnVectorQuery("field", target, k, filter) {
+            @Override
+            TopDocs exactSearch(LeafReaderContext context, FixedBitSet acceptDocs) throws IOException {
+              exactSearches.add(context.ord);
+              return super.exactSearch(context, acceptDocs);
+            }
+          };
+          TopDocs results = searcher.search(query, numDocs);
+          assertEquals(k, results.scoreDocs.length);
+          for (ScoreDoc scoreDoc : results.scoreDocs) {
+            assertEquals(0, scoreDoc.doc % 2);
+          }
+          // the filter matches far more than k documents, so the graph is used
+          assertTrue(exactSearches.isEmpty());
+
+          // a filter matching fewer than k documents falls back to an exact search
+          Query restrictive = new TermQuery(new Term("id", "id" + (2 * random().nextInt(numDocs / 2))));
+          query = new KnnVectorQuery("field", target, k, restrictive) {
+            @Override
+            TopDocs exactSearch(LeafReaderContext context, FixedBitSet acceptDocs) throws IOException {
+              exactSearches.add(context.ord);
+              return super.exactSearch(context, acceptDocs);
+            }
+          };
+          results = searcher.search(query, numDocs);
+          assertEquals(1, results.scoreDocs.length);
+          assertEquals(1, exactSearches.size());
+          exactSearches.clear();
+        }
+      }
+    }
+  }
+
+  private IndexWriterConfig createIndexWriterConfig() {
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    // not all codecs support vectors
+    iwc.setCodec(TestUtil.getDefaultCodec());
+    return iwc;
+  }
+
+  private Directory getIndexStore(String field, float[]... contents) throws IOException {
+    Directory indexStore = newDirectory();
+    try (IndexWriter writer = new IndexWriter(indexStore, createIndexWriterConfig())) {
+      for (int i = 0; i < contents.length; ++i) {
+        Document doc = new Document();
+        doc.add(new VectorField(field, contents[i]));
+        doc.add(new StringField("id", "id" + i, Field.Store.YES));
+        writer.addDocument(doc);
+      }
+      // Add some documents without a vector
+      for (int i = 0; i < 5; i++) {
+        Document doc = new Document();
+        doc.add(new StringField("other", "value", Field.Store.NO));
+        writer.addDocument(doc);
+      }
+    }
+    return indexStore;
+  }
+
+  private void assertMatches(IndexSearcher searcher, Query q, int expectedMatches) throws IOException {
+    ScoreDoc[] result = searcher.search(q, 1000).scoreDocs;
+    assertEquals(expectedMatches, result.length);
+  }
+
+  private void assertIdMatches(IndexReader reader, String expectedId, ScoreDoc scoreDoc) throws IOException {
+    String actualId = reader.document(scoreDoc.doc).get("id");
+    assertEquals(expectedId, actualId);
+  }
+
+  private static float[] randomVector(int dim) {
+    float[] v = new float[dim];
+    for (int i = 0; i < dim; i++) {
+      v[i] = random().nextFloat();
+    }
+    return v;
+  }
+}
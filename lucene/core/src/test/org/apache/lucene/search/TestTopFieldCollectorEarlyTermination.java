@@ -18,6 +18,7 @@ package org.apache.lucene.search;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
@@ -166,6 +167,54 @@ public class TestTopFieldCollectorEarlyTermination extends LuceneTestCase {
     }
   }
   
+  public void testEarlyTerminationAcrossSlices() throws IOException {
+    final int iters = atLeast(1);
+    for (int i = 0; i < iters; ++i) {
+      createRandomIndex(false);
+      for (int j = 0; j < iters; ++j) {
+        final IndexSearcher searcher = newSearcher(reader, false);
+        final int numHits = TestUtil.nextInt(random(), 1, numDocs);
+        final Query query;
+        if (random().nextBoolean()) {
+          query = new TermQuery(new Term("s", RandomPicks.randomFrom(random(), terms)));
+        } else {
+          query = new MatchAllDocsQuery();
+        }
+        final TopFieldCollector exhaustive = TopFieldCollector.create(sort, numHits, null, Integer.MAX_VALUE);
+        searcher.search(query, exhaustive);
+
+        // cut leaves into random slices that share their bottom value, each slice keeps
+        // its leaves in docBase order but slices are collected in random order
+        final CollectorManager<TopFieldCollector, TopFieldDocs> manager = TopFieldCollector.createSharedManager(sort, numHits, null, 1);
+        final Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.TOP_DOCS, 1);
+        final List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        final List<List<LeafReaderContext>> slices = new ArrayList<>();
+        int start = 0;
+        while (start < leaves.size()) {
+          final int end = TestUtil.nextInt(random(), start + 1, leaves.size());
+          slices.add(leaves.subList(start, end));
+          start = end;
+        }
+        Collections.shuffle(slices, random());
+        final List<TopFieldCollector> collectors = new ArrayList<>();
+        for (List<LeafReaderContext> slice : slices) {
+          final TopFieldCollector collector = manager.newCollector();
+          searcher.search(slice, weight, collector);
+          collectors.add(collector);
+        }
+        final TopFieldDocs merged = manager.reduce(collectors);
+
+        final TopDocs expected = exhaustive.topDocs();
+        assertEquals(expected.scoreDocs.length, merged.scoreDocs.length);
+        for (int k = 0; k < expected.scoreDocs.length; ++k) {
+          // ties may be broken differently across slices, but sort values must be the same
+          assertArrayEquals(((FieldDoc) expected.scoreDocs[k]).fields, ((FieldDoc) merged.scoreDocs[k]).fields);
+        }
+      }
+      closeIndex();
+    }
+  }
+
   public void testCanEarlyTerminateOnDocId() {
     assertTrue(TopFieldCollector.canEarlyTerminate(
         new Sort(SortField.FIELD_DOC),
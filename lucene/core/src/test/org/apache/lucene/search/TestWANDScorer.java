@@ -206,6 +206,80 @@ public class TestWANDScorer extends LuceneTestCase {
     dir.close();
   }
 
+  public void testBasicsWithMinShouldMatch() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(newLogMergePolicy()));
+    for (String[] values : Arrays.asList(
+        new String[]{ "A", "B" },       // 0
+        new String[]{ "A" },            // 1
+        new String[]{ },                // 2
+        new String[]{ "A", "B", "C" },  // 3
+        new String[]{ "B" },            // 4
+        new String[]{ "B", "C" }        // 5
+        )) {
+      Document doc = new Document();
+      for (String value : values) {
+        doc.add(new StringField("foo", value, Store.NO));
+      }
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    w.close();
+
+    IndexReader reader = DirectoryReader.open(dir);
+    IndexSearcher searcher = newSearcher(reader);
+
+    Query query = new BooleanQuery.Builder()
+        .add(new BoostQuery(new ConstantScoreQuery(new TermQuery(new Term("foo", "A"))), 2), Occur.SHOULD)
+        .add(new ConstantScoreQuery(new TermQuery(new Term("foo", "B"))), Occur.SHOULD)
+        .add(new BoostQuery(new ConstantScoreQuery(new TermQuery(new Term("foo", "C"))), 3), Occur.SHOULD)
+        .setMinimumNumberShouldMatch(2)
+        .build();
+
+    Scorer scorer = searcher
+        .createWeight(searcher.rewrite(query), ScoreMode.TOP_SCORES, 1)
+        .scorer(searcher.getIndexReader().leaves().get(0));
+
+    assertEquals(0, scorer.iterator().nextDoc());
+    assertEquals(2 + 1, scorer.score(), 0);
+
+    assertEquals(3, scorer.iterator().nextDoc());
+    assertEquals(2 + 1 + 3, scorer.score(), 0);
+
+    assertEquals(5, scorer.iterator().nextDoc());
+    assertEquals(1 + 3, scorer.score(), 0);
+
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, scorer.iterator().nextDoc());
+
+    scorer = searcher
+        .createWeight(searcher.rewrite(query), ScoreMode.TOP_SCORES, 1)
+        .scorer(searcher.getIndexReader().leaves().get(0));
+    scorer.setMinCompetitiveScore(4);
+
+    assertEquals(3, scorer.iterator().nextDoc());
+    assertEquals(2 + 1 + 3, scorer.score(), 0);
+
+    assertEquals(5, scorer.iterator().nextDoc());
+    assertEquals(1 + 3, scorer.score(), 0);
+
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, scorer.iterator().nextDoc());
+
+    scorer = searcher
+        .createWeight(searcher.rewrite(query), ScoreMode.TOP_SCORES, 1)
+        .scorer(searcher.getIndexReader().leaves().get(0));
+    assertEquals(0, scorer.iterator().nextDoc());
+    scorer.setMinCompetitiveScore(5);
+
+    // doc 5 only scores 4
+    assertEquals(3, scorer.iterator().nextDoc());
+    assertEquals(2 + 1 + 3, scorer.score(), 0);
+
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, scorer.iterator().nextDoc());
+
+    reader.close();
+    dir.close();
+  }
+
   public void testRandom() throws IOException {
     Directory dir = newDirectory();
     IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
@@ -246,6 +320,47 @@ public class TestWANDScorer extends LuceneTestCase {
     dir.close();
   }
 
+  public void testRandomWithMinShouldMatch() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+    int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      int numValues = random().nextInt(1 << random().nextInt(5));
+      int start = random().nextInt(10);
+      for (int j = 0; j < numValues; ++j) {
+        doc.add(new StringField("foo", Integer.toString(start + j), Store.NO));
+      }
+      w.addDocument(doc);
+    }
+    IndexReader reader = DirectoryReader.open(w);
+    w.close();
+    IndexSearcher searcher = newSearcher(reader);
+
+    for (int iter = 0; iter < 100; ++iter) {
+      int start = random().nextInt(10);
+      int numClauses = TestUtil.nextInt(random(), 2, 1 << TestUtil.nextInt(random(), 1, 4));
+      BooleanQuery.Builder builder = new BooleanQuery.Builder();
+      for (int i = 0; i < numClauses; ++i) {
+        builder.add(maybeWrap(new TermQuery(new Term("foo", Integer.toString(start + i)))), Occur.SHOULD);
+      }
+      builder.setMinimumNumberShouldMatch(TestUtil.nextInt(random(), 1, numClauses - 1));
+      Query query = builder.build();
+
+      CheckHits.checkTopScores(random(), query, searcher);
+
+      int filterTerm = random().nextInt(30);
+      Query filteredQuery = new BooleanQuery.Builder()
+          .add(query, Occur.MUST)
+          .add(new TermQuery(new Term("foo", Integer.toString(filterTerm))), Occur.FILTER)
+          .build();
+
+      CheckHits.checkTopScores(random(), filteredQuery, searcher);
+    }
+    reader.close();
+    dir.close();
+  }
+
   public void testRandomWithInfiniteMaxScore() throws IOException {
     Directory dir = newDirectory();
     IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
@@ -18,7 +18,11 @@ package org.apache.lucene.store;
 
 
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 
@@ -33,7 +37,16 @@ public class TestMmapDirectory extends BaseDirectoryTestCase {
   @Override
   protected Directory getDirectory(Path path) throws IOException {
     MMapDirectory m = new MMapDirectory(path);
-    m.setPreload(random().nextBoolean());
+    switch (random().nextInt(3)) {
+      case 0:
+        m.setPreload(random().nextBoolean());
+        break;
+      case 1:
+        m.setPreload((name, context) -> name.hashCode() % 2 == 0);
+        break;
+      default:
+        break;
+    }
     return m;
   }
   
@@ -77,4 +90,56 @@ public class TestMmapDirectory extends BaseDirectoryTestCase {
       dir.close();
     }
   }
+
+  public void testPreloadAndReadAdvice() throws Exception {
+    List<ReadAdvice> advices = Collections.synchronizedList(new ArrayList<>());
+    try (MMapDirectory dir = new MMapDirectory(createTempDir("testPreloadAndReadAdvice"), 1 << 10) {
+      @Override
+      protected void advise(MappedByteBuffer buffer, ReadAdvice advice) {
+        advices.add(advice);
+      }
+    }) {
+      assertFalse(dir.getPreload());
+      dir.setPreload(true);
+      assertTrue(dir.getPreload());
+      dir.setPreload((name, context) -> name.endsWith(".tip") && context.context != IOContext.Context.MERGE);
+      assertFalse(dir.getPreload());
+      dir.setReadAdvice((name, context) -> {
+        if (name.endsWith(".fdt")) {
+          return ReadAdvice.RANDOM;
+        }
+        return MMapDirectory.DEFAULT_READ_ADVICE.apply(name, context);
+      });
+
+      for (String name : new String[] {"_0.tip", "_0.fdt"}) {
+        try (IndexOutput out = dir.createOutput(name, IOContext.DEFAULT)) {
+          for (int i = 0; i < 1500; i++) {
+            out.writeByte((byte) i);
+          }
+        }
+      }
+      IOContext mergeContext = new IOContext(new MergeInfo(1, 1500, false, 1));
+
+      assertEquals(ReadAdvice.NORMAL, dir.getReadAdvice("_0.tip", IOContext.DEFAULT));
+      try (IndexInput in = dir.openInput("_0.tip", IOContext.DEFAULT)) {
+        assertEquals(1500, in.length());
+      }
+      assertEquals(Collections.emptyList(), advices);
+
+      assertEquals(ReadAdvice.SEQUENTIAL, dir.getReadAdvice("_0.tip", mergeContext));
+      try (IndexInput in = dir.openInput("_0.tip", mergeContext)) {
+        assertEquals(1500, in.length());
+      }
+      // two chunks of 1kB, the last one is not empty
+      assertEquals(Collections.nCopies(2, ReadAdvice.SEQUENTIAL), advices);
+
+      advices.clear();
+      assertEquals(ReadAdvice.RANDOM, dir.getReadAdvice("_0.fdt", mergeContext));
+      try (IndexInput in = dir.openInput("_0.fdt", mergeContext)) {
+        in.seek(1200);
+        assertEquals((byte) 1200, in.readByte());
+      }
+      assertEquals(Collections.nCopies(2, ReadAdvice.RANDOM), advices);
+    }
+  }
 }
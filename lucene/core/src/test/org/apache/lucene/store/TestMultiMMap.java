@@ -17,7 +17,9 @@
 package org.apache.lucene.store;
 
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.Random;
 
@@ -26,6 +28,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.TestUtil;
 
@@ -409,4 +412,44 @@ public class TestMultiMMap extends BaseDirectoryTestCase {
     }
   }
 
+  public void testPrefetchCrossBoundary() throws Exception {
+    final ByteArrayOutputStream prefetched = new ByteArrayOutputStream();
+    try (Directory dir = new MMapDirectory(createTempDir("testPrefetchCrossBoundary"), 16) {
+      @Override
+      protected boolean supportsPrefetch() {
+        return true;
+      }
+
+      @Override
+      protected void prefetch(ByteBuffer buffer, int offset, int length) {
+        assertTrue(length > 0);
+        assertTrue(offset + length <= buffer.limit());
+        for (int i = offset; i < offset + length; ++i) {
+          prefetched.write(buffer.get(i));
+        }
+      }
+    }) {
+      final byte[] bytes = new byte[100];
+      random().nextBytes(bytes);
+      try (IndexOutput out = dir.createOutput("bytes", newIOContext(random()))) {
+        out.writeBytes(bytes, bytes.length);
+      }
+      try (IndexInput input = dir.openInput("bytes", newIOContext(random()))) {
+        input.prefetch(5, 50);
+        assertArrayEquals(ArrayUtil.copyOfSubArray(bytes, 5, 55), prefetched.toByteArray());
+        assertEquals(0, input.getFilePointer());
+
+        prefetched.reset();
+        IndexInput slice = input.slice("slice", 7, 80);
+        slice.prefetch(30, 50);
+        assertArrayEquals(ArrayUtil.copyOfSubArray(bytes, 37, 87), prefetched.toByteArray());
+
+        prefetched.reset();
+        input.randomAccessSlice(20, 40).prefetch(3, 33);
+        assertArrayEquals(ArrayUtil.copyOfSubArray(bytes, 23, 56), prefetched.toByteArray());
+
+        expectThrows(IllegalArgumentException.class, () -> slice.prefetch(50, 31));
+      }
+    }
+  }
 }
@@ -25,10 +25,15 @@ import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileAttribute;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.mockfile.FilterFileChannel;
 import org.apache.lucene.mockfile.FilterPath;
 import org.apache.lucene.mockfile.LeakFS;
+import org.apache.lucene.util.NamedThreadFactory;
 
 /**
  * Tests NIOFSDirectory
@@ -64,4 +69,60 @@ public class TestNIOFSDirectory extends BaseDirectoryTestCase {
       assertEquals("simulated", error.getMessage());
     }
   }
+
+  public void testPrefetchExecutor() throws Exception {
+    try (NIOFSDirectory dir = new NIOFSDirectory(createTempDir())) {
+      try (IndexOutput out = dir.createOutput("test.bin", IOContext.DEFAULT)) {
+        for (int i = 0; i < 100_000; ++i) {
+          out.writeByte((byte) i);
+        }
+      }
+      // no executor: hints are ignored
+      try (IndexInput in = dir.openInput("test.bin", IOContext.DEFAULT)) {
+        in.prefetch(0, 100);
+      }
+
+      final AtomicInteger tasks = new AtomicInteger();
+      dir.setPrefetchExecutor(task -> {
+        tasks.incrementAndGet();
+        task.run();
+      });
+      try (IndexInput in = dir.openInput("test.bin", IOContext.DEFAULT)) {
+        in.prefetch(0, 100);
+        assertEquals(1, tasks.get());
+        // already covered by the previous hint
+        in.prefetch(10, 50);
+        assertEquals(1, tasks.get());
+        in.prefetch(50_000, 50_000);
+        assertEquals(2, tasks.get());
+        IndexInput slice = in.slice("slice", 1000, 2000);
+        slice.prefetch(0, 2000);
+        assertEquals(3, tasks.get());
+        expectThrows(IllegalArgumentException.class, () -> slice.prefetch(1000, 1001));
+        assertEquals(0, in.getFilePointer());
+        assertEquals(0, slice.getFilePointer());
+        slice.seek(10);
+        assertEquals((byte) 1010, slice.readByte());
+      }
+    }
+  }
+
+  public void testPrefetchRejected() throws Exception {
+    try (NIOFSDirectory dir = new NIOFSDirectory(createTempDir())) {
+      try (IndexOutput out = dir.createOutput("test.bin", IOContext.DEFAULT)) {
+        for (int i = 0; i < 1000; ++i) {
+          out.writeByte((byte) i);
+        }
+      }
+      final ExecutorService executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("TestNIOFSDirectory"));
+      dir.setPrefetchExecutor(executor);
+      executor.shutdown();
+      try (IndexInput in = dir.openInput("test.bin", IOContext.DEFAULT)) {
+        // rejected hints are ignored
+        in.prefetch(0, 100);
+        assertEquals((byte) 0, in.readByte());
+      }
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+  }
 }
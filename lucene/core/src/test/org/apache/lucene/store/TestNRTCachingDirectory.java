@@ -20,7 +20,11 @@ package org.apache.lucene.store;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.MockAnalyzer;
@@ -35,6 +39,7 @@ import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.LineFileDocs;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.TestUtil;
 
 public class TestNRTCachingDirectory extends BaseDirectoryTestCase {
@@ -166,4 +171,74 @@ public class TestNRTCachingDirectory extends BaseDirectoryTestCase {
 
     dir.close();
   }
+
+  private static void writeFile(Directory dir, String name, int length, IOContext context) throws IOException {
+    try (IndexOutput out = dir.createOutput(name, context)) {
+      for (int i = 0; i < length; i++) {
+        out.writeByte((byte) i);
+      }
+    }
+  }
+
+  public void testSpillLeastRecentlyUsedFiles() throws IOException {
+    Directory dir = newDirectory();
+    // 1.5kB budget
+    NRTCachingDirectory nrtDir = new NRTCachingDirectory(dir, 1, 1.5 / 1024);
+    IOContext context = new IOContext(new FlushInfo(1, 100));
+
+    writeFile(nrtDir, "a", 700, context);
+    writeFile(nrtDir, "b", 700, context);
+    assertEquals(1400, nrtDir.ramBytesUsed());
+    nrtDir.openInput("a", IOContext.DEFAULT).close();
+    assertEquals(1, nrtDir.getCacheHitCount());
+
+    // the cache exceeds its budget, "b" is the least recently used file
+    writeFile(nrtDir, "c", 700, context);
+    assertArrayEquals(new String[] {"a", "c"}, nrtDir.listCachedFiles());
+    assertEquals(1400, nrtDir.ramBytesUsed());
+    assertEquals(1, nrtDir.getSpillCount());
+    assertEquals(700, nrtDir.getSpilledBytes());
+    assertTrue(NRTCachingDirectory.slowFileExists(dir, "b"));
+    assertArrayEquals(new String[] {"a", "b", "c"}, nrtDir.listAll());
+
+    try (IndexInput in = nrtDir.openInput("b", IOContext.DEFAULT)) {
+      assertEquals(700, in.length());
+      in.seek(699);
+      assertEquals((byte) 699, in.readByte());
+    }
+    assertEquals(1, nrtDir.getCacheHitCount());
+    assertEquals(1, nrtDir.getCacheMissCount());
+
+    nrtDir.deleteFile("b");
+    nrtDir.deleteFile("c");
+    assertEquals(700, nrtDir.ramBytesUsed());
+    assertArrayEquals(new String[] {"a"}, nrtDir.listAll());
+    nrtDir.close();
+  }
+
+  public void testAsyncSpill() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("TestAsyncSpill"));
+    Directory dir = newDirectory();
+    // 4kB budget
+    NRTCachingDirectory nrtDir = new NRTCachingDirectory(dir, 1, 4.0 / 1024, executor);
+    IOContext context = new IOContext(new FlushInfo(1, 10));
+    int numFiles = atLeast(20);
+    for (int i = 0; i < numFiles; i++) {
+      writeFile(nrtDir, "file" + i, 1000, context);
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertTrue(nrtDir.ramBytesUsed() <= 4096);
+    assertEquals(nrtDir.ramBytesUsed(), 1000L * nrtDir.listCachedFiles().length);
+    assertEquals(1000L * nrtDir.getSpillCount(), nrtDir.getSpilledBytes());
+    // the 5th file made the cache exceed its budget, later files may have been written to the delegate directly
+    assertTrue(nrtDir.getSpillCount() > 0);
+    String[] files = nrtDir.listAll();
+    assertEquals(Arrays.toString(files), numFiles, files.length);
+    for (String file : files) {
+      assertEquals(1000, nrtDir.fileLength(file));
+    }
+    nrtDir.close();
+  }
 }
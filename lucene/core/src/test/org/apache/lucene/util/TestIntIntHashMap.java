@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestIntIntHashMap extends LuceneTestCase {
+
+  public void testBasics() {
+    IntIntHashMap map = new IntIntHashMap();
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey(0));
+    assertEquals(0, map.get(42));
+    assertEquals(-1, map.getOrDefault(42, -1));
+    assertEquals(0, map.put(42, 3));
+    assertEquals(3, map.put(42, 5));
+    assertEquals(5, map.get(42));
+    assertEquals(0, map.put(0, 7));
+    assertTrue(map.containsKey(0));
+    assertEquals(7, map.getOrDefault(0, -1));
+    assertEquals(9, map.addTo(0, 2));
+    assertEquals(4, map.addTo(-1, 4));
+    assertEquals(3, map.size());
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey(0));
+    assertFalse(map.containsKey(42));
+    assertEquals(-1, map.getOrDefault(0, -1));
+  }
+
+  public void testRandom() {
+    final int iters = atLeast(100);
+    for (int iter = 0; iter < iters; iter++) {
+      final int maxKey = random().nextBoolean() ? TestUtil.nextInt(random(), 1, 100) : Integer.MAX_VALUE;
+      Map<Integer,Integer> expected = new HashMap<>();
+      IntIntHashMap map = new IntIntHashMap(random().nextInt(50));
+      final int numOps = atLeast(200);
+      for (int i = 0; i < numOps; i++) {
+        final int key = random().nextInt(maxKey) - (maxKey == Integer.MAX_VALUE ? maxKey / 2 : 0);
+        final int value = random().nextInt();
+        switch (random().nextInt(3)) {
+          case 0:
+            assertEquals(expected.getOrDefault(key, 0).intValue(), map.put(key, value));
+            expected.put(key, value);
+            break;
+          case 1:
+            expected.merge(key, value, Integer::sum);
+            assertEquals(expected.get(key).intValue(), map.addTo(key, value));
+            break;
+          default:
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+            assertEquals(expected.getOrDefault(key, -1).intValue(), map.getOrDefault(key, -1));
+            break;
+        }
+        assertEquals(expected.size(), map.size());
+      }
+      Map<Integer,Integer> actual = new HashMap<>();
+      IntIntHashMap.Cursor cursor = map.cursor();
+      while (cursor.next()) {
+        assertNull(actual.put(cursor.key(), cursor.value()));
+      }
+      assertEquals(expected, actual);
+      assertTrue(map.ramBytesUsed() > RamUsageEstimator.sizeOf(new int[2 * map.size()]));
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestIntObjectHashMap extends LuceneTestCase {
+
+  public void testBasics() {
+    IntObjectHashMap<String> map = new IntObjectHashMap<>();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(0));
+    assertNull(map.put(42, "foo"));
+    assertEquals("foo", map.put(42, "bar"));
+    assertEquals("bar", map.get(42));
+    assertNull(map.put(0, "baz"));
+    assertTrue(map.containsKey(0));
+    assertEquals("baz", map.get(0));
+    assertEquals(2, map.size());
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(0));
+    assertNull(map.get(42));
+  }
+
+  public void testRandom() {
+    final int iters = atLeast(100);
+    for (int iter = 0; iter < iters; iter++) {
+      final int maxKey = random().nextBoolean() ? TestUtil.nextInt(random(), 1, 100) : Integer.MAX_VALUE;
+      Map<Integer,Integer> expected = new HashMap<>();
+      IntObjectHashMap<Integer> map = new IntObjectHashMap<>(random().nextInt(50));
+      final int numOps = atLeast(200);
+      for (int i = 0; i < numOps; i++) {
+        final int key = random().nextInt(maxKey) - (maxKey == Integer.MAX_VALUE ? maxKey / 2 : 0);
+        if (random().nextBoolean()) {
+          final Integer value = random().nextInt();
+          assertEquals(expected.put(key, value), map.put(key, value));
+        } else {
+          assertEquals(expected.containsKey(key), map.containsKey(key));
+          assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected.size(), map.size());
+      }
+      Map<Integer,Integer> actual = new HashMap<>();
+      IntObjectHashMap<Integer>.Cursor cursor = map.cursor();
+      while (cursor.next()) {
+        assertNull(actual.put(cursor.key(), cursor.value()));
+      }
+      assertEquals(expected, actual);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class TestLongHashSet extends LuceneTestCase {
+
+  public void testBasics() {
+    LongHashSet set = new LongHashSet();
+    assertTrue(set.isEmpty());
+    assertFalse(set.contains(0L));
+    assertTrue(set.add(0L));
+    assertFalse(set.add(0L));
+    assertTrue(set.add(Long.MIN_VALUE));
+    assertTrue(set.add(Long.MAX_VALUE));
+    assertFalse(set.add(Long.MAX_VALUE));
+    assertEquals(3, set.size());
+    long[] values = set.toArray();
+    Arrays.sort(values);
+    assertArrayEquals(new long[] {Long.MIN_VALUE, 0L, Long.MAX_VALUE}, values);
+    set.clear();
+    assertTrue(set.isEmpty());
+    assertFalse(set.contains(0L));
+    assertEquals(0, set.toArray().length);
+  }
+
+  public void testRandom() {
+    final int iters = atLeast(100);
+    for (int iter = 0; iter < iters; iter++) {
+      final boolean smallValues = random().nextBoolean();
+      Set<Long> expected = new HashSet<>();
+      LongHashSet set = new LongHashSet(random().nextInt(50));
+      final int numOps = atLeast(200);
+      for (int i = 0; i < numOps; i++) {
+        final long value = smallValues ? random().nextInt(100) - 50 : random().nextLong();
+        if (random().nextBoolean()) {
+          assertEquals(expected.add(value), set.add(value));
+        } else {
+          assertEquals(expected.contains(value), set.contains(value));
+        }
+        assertEquals(expected.size(), set.size());
+      }
+      Set<Long> actual = new HashSet<>();
+      for (long value : set.toArray()) {
+        assertTrue(actual.add(value));
+      }
+      assertEquals(expected, actual);
+      assertTrue(set.ramBytesUsed() > RamUsageEstimator.sizeOf(new long[set.size()]));
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestLongIntHashMap extends LuceneTestCase {
+
+  public void testBasics() {
+    LongIntHashMap map = new LongIntHashMap();
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey(0L));
+    assertEquals(0, map.get(42L));
+    assertEquals(-1, map.getOrDefault(42L, -1));
+    assertEquals(0, map.put(Long.MIN_VALUE, 3));
+    assertEquals(3, map.put(Long.MIN_VALUE, 5));
+    assertEquals(5, map.get(Long.MIN_VALUE));
+    assertEquals(0, map.put(0L, 7));
+    assertTrue(map.containsKey(0L));
+    assertEquals(9, map.addTo(0L, 2));
+    assertEquals(4, map.addTo(Long.MAX_VALUE, 4));
+    assertEquals(3, map.size());
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey(0L));
+    assertFalse(map.containsKey(Long.MIN_VALUE));
+  }
+
+  public void testRandom() {
+    final int iters = atLeast(100);
+    for (int iter = 0; iter < iters; iter++) {
+      final boolean smallKeys = random().nextBoolean();
+      Map<Long,Integer> expected = new HashMap<>();
+      LongIntHashMap map = new LongIntHashMap(random().nextInt(50));
+      final int numOps = atLeast(200);
+      for (int i = 0; i < numOps; i++) {
+        final long key = smallKeys ? random().nextInt(100) : random().nextLong();
+        final int value = random().nextInt();
+        switch (random().nextInt(3)) {
+          case 0:
+            assertEquals(expected.getOrDefault(key, 0).intValue(), map.put(key, value));
+            expected.put(key, value);
+            break;
+          case 1:
+            expected.merge(key, value, Integer::sum);
+            assertEquals(expected.get(key).intValue(), map.addTo(key, value));
+            break;
+          default:
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+            assertEquals(expected.getOrDefault(key, -1).intValue(), map.getOrDefault(key, -1));
+            break;
+        }
+        assertEquals(expected.size(), map.size());
+      }
+      Map<Long,Integer> actual = new HashMap<>();
+      LongIntHashMap.Cursor cursor = map.cursor();
+      while (cursor.next()) {
+        assertNull(actual.put(cursor.key(), cursor.value()));
+      }
+      assertEquals(expected, actual);
+    }
+  }
+}
@@ -24,6 +24,10 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.codecs.MutablePointValues;
 import org.apache.lucene.index.CorruptIndexException;
@@ -43,6 +47,7 @@ import org.apache.lucene.store.MockDirectoryWrapper;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.NumericUtils;
 import org.apache.lucene.util.TestUtil;
 
@@ -1114,6 +1119,164 @@ public class TestBKD extends LuceneTestCase {
     }
   }
 
+  public void testConcurrentBuild() throws Exception {
+    final int numDims = TestUtil.nextInt(random(), 2, 5);
+    final int numIndexDims = TestUtil.nextInt(random(), 1, numDims);
+    final int numBytesPerDim = TestUtil.nextInt(random(), 1, 4);
+    final int maxPointsInLeafNode = TestUtil.nextInt(random(), 10, 100);
+    final int numPoints = atLeast(10000);
+    // a small heap budget forces some subtrees to be built offline
+    final double maxMB = random().nextBoolean() ? 0.1 : BKDWriter.DEFAULT_MAX_MB_SORT_IN_HEAP;
+    final int minPointsPerTask = TestUtil.nextInt(random(), maxPointsInLeafNode, 1000);
+    final BKDConfig config = new BKDConfig(numDims, numIndexDims, numBytesPerDim, maxPointsInLeafNode);
+
+    final byte[][] values = new byte[numPoints][];
+    final int[] docIDs = new int[numPoints];
+    for (int i = 0; i < numPoints; i++) {
+      values[i] = new byte[config.packedBytesLength];
+      if (i > 0 && random().nextInt(10) == 0) {
+        // duplicates
+        System.arraycopy(values[random().nextInt(i)], 0, values[i], 0, config.packedBytesLength);
+      } else {
+        random().nextBytes(values[i]);
+      }
+      docIDs[i] = i;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 1, 4), new NamedThreadFactory("TestBKD"));
+    try (Directory dir = getDirectory(numPoints)) {
+      for (boolean mutable : new boolean[] {false, true}) {
+        byte[] expected = null;
+        for (Executor e : new Executor[] {null, executor}) {
+          BKDWriter w = new BKDWriter(numPoints, dir, "tmp", config, maxMB, numPoints, e);
+          w.minPointsPerTask = minPointsPerTask;
+          try (IndexOutput out = dir.createOutput("bkd", IOContext.DEFAULT)) {
+            Runnable finalizer;
+            if (mutable) {
+              finalizer = w.writeField(out, out, out, "field", new ArrayMutablePointValues(config, values, docIDs));
+            } else {
+              for (int i = 0; i < numPoints; i++) {
+                w.add(values[i], docIDs[i]);
+              }
+              finalizer = w.finish(out, out, out);
+            }
+            finalizer.run();
+          } finally {
+            w.close();
+          }
+
+          // all temporary leaf files must have been merged back and deleted
+          for (String file : dir.listAll()) {
+            assertTrue(file, file.equals("bkd") || ExtrasFS.isExtra(file));
+          }
+
+          byte[] actual;
+          try (IndexInput in = dir.openInput("bkd", IOContext.DEFAULT)) {
+            actual = new byte[Math.toIntExact(in.length())];
+            in.readBytes(actual, 0, actual.length);
+          }
+          dir.deleteFile("bkd");
+          if (expected == null) {
+            expected = actual;
+          } else {
+            // building subtrees concurrently must not change the written tree
+            assertArrayEquals(expected, actual);
+          }
+        }
+      }
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+  }
+
+  /** Simple {@link MutablePointValues} over parallel arrays, which are copied so that sorting does not modify them. */
+  private static class ArrayMutablePointValues extends MutablePointValues {
+    private final BKDConfig config;
+    private final byte[][] values;
+    private final int[] docIDs;
+
+    ArrayMutablePointValues(BKDConfig config, byte[][] values, int[] docIDs) {
+      this.config = config;
+      this.values = values.clone();
+      this.docIDs = docIDs.clone();
+    }
+
+    @Override
+    public void intersect(IntersectVisitor visitor) throws IOException {
+      for (int i = 0; i < values.length; i++) {
+        visitor.visit(docIDs[i], values[i]);
+      }
+    }
+
+    @Override
+    public long estimatePointCount(IntersectVisitor visitor) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte[] getMinPackedValue() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte[] getMaxPackedValue() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getNumDimensions() {
+      return config.numDims;
+    }
+
+    @Override
+    public int getNumIndexDimensions() {
+      return config.numIndexDims;
+    }
+
+    @Override
+    public int getBytesPerDimension() {
+      return config.bytesPerDim;
+    }
+
+    @Override
+    public long size() {
+      return values.length;
+    }
+
+    @Override
+    public int getDocCount() {
+      return values.length;
+    }
+
+    @Override
+    public void swap(int i, int j) {
+      byte[] tmpValue = values[i];
+      values[i] = values[j];
+      values[j] = tmpValue;
+      int tmpDoc = docIDs[i];
+      docIDs[i] = docIDs[j];
+      docIDs[j] = tmpDoc;
+    }
+
+    @Override
+    public int getDocID(int i) {
+      return docIDs[i];
+    }
+
+    @Override
+    public void getValue(int i, BytesRef packedValue) {
+      packedValue.bytes = values[i];
+      packedValue.offset = 0;
+      packedValue.length = values[i].length;
+    }
+
+    @Override
+    public byte getByteAt(int i, int k) {
+      return values[i][k];
+    }
+  }
+
   public void testCheckDataDimOptimalOrder() throws IOException {
     Directory dir = newDirectory();
     final int numValues = atLeast(5000);
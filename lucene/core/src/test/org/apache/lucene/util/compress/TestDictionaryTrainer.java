@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.compress;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestDictionaryTrainer extends LuceneTestCase {
+
+  public void testEmpty() {
+    assertEquals(0, DictionaryTrainer.train(new byte[0], new int[0], 0, 1024).length);
+    byte[] samples = "abcdefghijklmnop".getBytes(StandardCharsets.UTF_8);
+    assertEquals(0, DictionaryTrainer.train(samples, new int[] { samples.length }, 1, 0).length);
+  }
+
+  public void testUniqueSamples() {
+    // no byte sequence occurs in more than one sample: nothing to share
+    byte[] samples = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.UTF_8);
+    int[] sampleEnds = new int[] { 12, 24, 36 };
+    assertEquals(0, DictionaryTrainer.train(samples, sampleEnds, sampleEnds.length, 1024).length);
+  }
+
+  public void testCommonSequences() {
+    StringBuilder sb = new StringBuilder();
+    int numSamples = atLeast(100);
+    int[] sampleEnds = new int[numSamples];
+    for (int i = 0; i < numSamples; ++i) {
+      sb.append("{\"title\":\"").append(TestUtil.randomSimpleString(random(), 5, 20))
+        .append("\",\"category\":\"books\",\"id\":").append(random().nextInt(100000)).append("}");
+      sampleEnds[i] = sb.length();
+    }
+    byte[] samples = sb.toString().getBytes(StandardCharsets.UTF_8);
+    byte[] dictionary = DictionaryTrainer.train(samples, sampleEnds, numSamples, 256);
+    assertTrue(dictionary.length > 0);
+    assertTrue(dictionary.length <= 256);
+    String dict = new String(dictionary, StandardCharsets.UTF_8);
+    assertTrue(dict, dict.contains("\",\"category\":\"books\",\"id\":"));
+  }
+
+  public void testMaxLength() {
+    int numSamples = atLeast(50);
+    int[] sampleEnds = new int[numSamples];
+    byte[] samples = new byte[0];
+    byte[] common = new byte[TestUtil.nextInt(random(), 100, 500)];
+    random().nextBytes(common);
+    for (int i = 0; i < numSamples; ++i) {
+      byte[] sample = new byte[TestUtil.nextInt(random(), 0, 100)];
+      random().nextBytes(sample);
+      int start = samples.length;
+      samples = ArrayUtil.growExact(samples, start + sample.length + common.length);
+      System.arraycopy(sample, 0, samples, start, sample.length);
+      System.arraycopy(common, 0, samples, start + sample.length, common.length);
+      sampleEnds[i] = samples.length;
+    }
+    int maxLength = TestUtil.nextInt(random(), 1, 1000);
+    byte[] dictionary = DictionaryTrainer.train(samples, sampleEnds, numSamples, maxLength);
+    assertTrue(dictionary.length <= maxLength);
+    if (maxLength <= common.length / 2) {
+      // there are more useful bytes than fit in the dictionary
+      assertEquals(maxLength, dictionary.length);
+    }
+  }
+
+  public void testInvalidMaxLength() {
+    expectThrows(IllegalArgumentException.class, () -> DictionaryTrainer.train(new byte[0], new int[0], 0, -1));
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.fst;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestFSTDataOutput extends LuceneTestCase {
+
+  private static List<BytesRef> randomTerms(int count) {
+    TreeSet<BytesRef> terms = new TreeSet<>();
+    while (terms.size() < count) {
+      // few distinct bytes so that many suffixes get shared
+      byte[] bytes = new byte[TestUtil.nextInt(random(), 1, 12)];
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = (byte) ('a' + random().nextInt(4));
+      }
+      terms.add(new BytesRef(bytes));
+    }
+    return new ArrayList<>(terms);
+  }
+
+  private static FST<Long> buildFST(List<BytesRef> terms, FSTCompiler.Builder<Long> builder) throws IOException {
+    FSTCompiler<Long> fstCompiler = builder.build();
+    IntsRefBuilder scratch = new IntsRefBuilder();
+    for (int i = 0; i < terms.size(); i++) {
+      fstCompiler.add(Util.toIntsRef(terms.get(i), scratch), (long) i);
+    }
+    return fstCompiler.compile();
+  }
+
+  private static FSTCompiler.Builder<Long> newBuilder() {
+    return new FSTCompiler.Builder<>(FST.INPUT_TYPE.BYTE1, PositiveIntOutputs.getSingleton());
+  }
+
+  private static void assertOutputs(List<BytesRef> terms, FST<Long> fst) throws IOException {
+    for (int i = 0; i < terms.size(); i++) {
+      assertEquals(Long.valueOf(i), Util.get(fst, terms.get(i)));
+    }
+  }
+
+  private static byte[] fstBytes(FST<Long> fst) throws IOException {
+    ByteBuffersDataOutput metaOut = new ByteBuffersDataOutput();
+    ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+    fst.save(metaOut, out);
+    return out.toArrayCopy();
+  }
+
+  public void testBoundedSuffixSharing() throws Exception {
+    List<BytesRef> terms = randomTerms(atLeast(5000));
+    FST<Long> minimal = buildFST(terms, newBuilder());
+
+    FST<Long> small = buildFST(terms, newBuilder().suffixRAMLimitMB(0.01));
+    assertOutputs(terms, small);
+    assertTrue(fstBytes(small).length >= fstBytes(minimal).length);
+
+    // with enough RAM, no suffix is forgotten and the FST is the same as with the unbounded hash
+    FST<Long> large = buildFST(terms, newBuilder().suffixRAMLimitMB(1024));
+    assertArrayEquals(fstBytes(minimal), fstBytes(large));
+  }
+
+  public void testOffHeap() throws Exception {
+    List<BytesRef> terms = randomTerms(atLeast(5000));
+    final double suffixRAMLimitMB = random().nextBoolean() ? 0.01 : 1024;
+    final int bytesPageBits = TestUtil.nextInt(random(), 4, 15);
+    FST<Long> onHeap = buildFST(terms, newBuilder().suffixRAMLimitMB(suffixRAMLimitMB).bytesPageBits(bytesPageBits));
+
+    try (Directory dir = newDirectory()) {
+      try (IndexOutput metaOut = dir.createOutput("fst.meta", IOContext.DEFAULT);
+           IndexOutput out = dir.createOutput("fst.data", IOContext.DEFAULT)) {
+        FST<Long> fst = buildFST(terms, newBuilder().suffixRAMLimitMB(suffixRAMLimitMB).bytesPageBits(bytesPageBits).dataOutput(out));
+        expectThrows(IllegalStateException.class, fst::getBytesReader);
+        fst.saveMetadata(metaOut);
+      }
+
+      byte[] expected = fstBytes(onHeap);
+      try (IndexInput metaIn = dir.openInput("fst.meta", IOContext.DEFAULT);
+           IndexInput in = dir.openInput("fst.data", IOContext.DEFAULT)) {
+        assertEquals(expected.length, in.length());
+        byte[] actual = new byte[expected.length];
+        in.readBytes(actual, 0, actual.length);
+        assertArrayEquals(expected, actual);
+
+        in.seek(0);
+        FST<Long> offHeap = new FST<>(metaIn, in, PositiveIntOutputs.getSingleton(), new OffHeapFSTStore());
+        assertOutputs(terms, offHeap);
+      }
+    }
+  }
+
+  public void testDataOutputRequiresBoundedSuffixSharing() {
+    ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+    expectThrows(IllegalArgumentException.class, () -> newBuilder().dataOutput(out).build());
+    expectThrows(IllegalArgumentException.class, () -> newBuilder().suffixRAMLimitMB(0));
+    // no suffix sharing: nothing needs to be read back
+    assertNotNull(newBuilder().shouldShareSuffix(false).dataOutput(out).build());
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.index.RandomAccessVectorValues;
+import org.apache.lucene.index.RandomAccessVectorValuesProducer;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+import org.apache.lucene.util.VectorUtil;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/** Tests HNSW KNN graphs */
+public class TestHnswGraph extends LuceneTestCase {
+
+  public void testBuildIllegalArguments() throws IOException {
+    RandomVectors vectors = new RandomVectors(10, 4);
+    expectThrows(IllegalArgumentException.class,
+        () -> new HnswGraphBuilder(vectors, VectorValues.SearchStrategy.NONE, 4, 10, random().nextLong()));
+    expectThrows(IllegalArgumentException.class,
+        () -> new HnswGraphBuilder(vectors, VectorValues.SearchStrategy.EUCLIDEAN_HNSW, 0, 10, random().nextLong()));
+    expectThrows(IllegalArgumentException.class,
+        () -> new HnswGraphBuilder(vectors, VectorValues.SearchStrategy.EUCLIDEAN_HNSW, 4, 0, random().nextLong()));
+  }
+
+  public void testEmptyGraph() throws IOException {
+    RandomVectors vectors = new RandomVectors(0, 4);
+    OnHeapHnswGraph graph = new HnswGraphBuilder(vectors, VectorValues.SearchStrategy.EUCLIDEAN_HNSW, 4, 10, random().nextLong())
+        .build(vectors.randomAccess());
+    assertEquals(0, graph.size());
+    NeighborQueue nn = HnswGraph.search(new float[] {0, 0, 0, 0}, 10, 10, vectors.randomAccess(),
+        VectorValues.SearchStrategy.EUCLIDEAN_HNSW, graph, null);
+    assertEquals(0, nn.size());
+  }
+
+  public void testGraphStructure() throws IOException {
+    int size = atLeast(100);
+    int maxConn = TestUtil.nextInt(random(), 2, 16);
+    RandomVectors vectors = new RandomVectors(size, TestUtil.nextInt(random(), 2, 16));
+    OnHeapHnswGraph graph = new HnswGraphBuilder(vectors, VectorValues.SearchStrategy.EUCLIDEAN_HNSW, maxConn, 30, random().nextLong())
+        .build(vectors.randomAccess());
+    assertEquals(size, graph.size());
+    assertTrue(graph.numLevels() >= 1);
+    for (int level = 0; level < graph.numLevels(); level++) {
+      int[] nodes = graph.getNodesOnLevel(level);
+      if (level == 0) {
+        assertEquals(size, nodes.length);
+      }
+      for (int node : nodes) {
+        NeighborArray neighbors = graph.getNeighbors(level, node);
+        assertTrue(neighbors.size() <= maxConn);
+        for (int i = 0; i < neighbors.size(); i++) {
+          assertNotEquals("self-loop at node " + node, node, neighbors.node()[i]);
+        }
+      }
+    }
+    // the entry node must be present on the top level
+    int topLevel = graph.numLevels() - 1;
+    boolean found = false;
+    for (int node : graph.getNodesOnLevel(topLevel)) {
+      found |= node == graph.entryNode();
+    }
+    assertTrue(found);
+    // the iterator view agrees with the neighbor arrays
+    int node = random().nextInt(size);
+    graph.seek(0, node);
+    NeighborArray neighbors = graph.getNeighbors(0, node);
+    for (int i = 0; i < neighbors.size(); i++) {
+      assertEquals(neighbors.node()[i], graph.nextNeighbor());
+    }
+    assertEquals(NO_MORE_DOCS, graph.nextNeighbor());
+  }
+
+  public void testRecall() throws IOException {
+    int size = atLeast(500);
+    int dim = TestUtil.nextInt(random(), 2, 32);
+    int topK = 10;
+    for (VectorValues.SearchStrategy strategy : new VectorValues.SearchStrategy[] {
+        VectorValues.SearchStrategy.EUCLIDEAN_HNSW, VectorValues.SearchStrategy.DOT_PRODUCT_HNSW}) {
+      RandomVectors vectors = new RandomVectors(size, dim);
+      OnHeapHnswGraph graph = new HnswGraphBuilder(vectors, strategy, 16, 100, random().nextLong())
+          .build(vectors.randomAccess());
+      int totalMatches = 0;
+      int numQueries = 10;
+      for (int i = 0; i < numQueries; i++) {
+        float[] query = randomVector(dim);
+        NeighborQueue nn = HnswGraph.search(query, topK, 100, vectors.randomAccess(), strategy, graph, null);
+        assertEquals(topK, nn.size());
+        Set<Integer> expected = bruteForce(query, topK, vectors, strategy);
+        for (int node : nn.nodes()) {
+          if (expected.contains(node)) {
+            totalMatches++;
+          }
+        }
+      }
+      // HNSW is approximate, but with a wide beam over random data it should find most true neighbors
+      assertTrue("recall too low: " + totalMatches, totalMatches >= numQueries * topK * 0.8);
+    }
+  }
+
+  public void testSearchWithAcceptOrds() throws IOException {
+    int size = atLeast(200);
+    RandomVectors vectors = new RandomVectors(size, 8);
+    OnHeapHnswGraph graph = new HnswGraphBuilder(vectors, VectorValues.SearchStrategy.EUCLIDEAN_HNSW, 8, 50, random().nextLong())
+        .build(vectors.randomAccess());
+    FixedBitSet acceptOrds = new FixedBitSet(size);
+    for (int i = 0; i < size; i += 2) {
+      acceptOrds.set(i);
+    }
+    NeighborQueue nn = HnswGraph.search(randomVector(8), 10, 20, vectors.randomAccess(),
+        VectorValues.SearchStrategy.EUCLIDEAN_HNSW, graph, acceptOrds);
+    assertEquals(10, nn.size());
+    for (int node : nn.nodes()) {
+      assertTrue("node " + node + " should have been filtered", acceptOrds.get(node));
+    }
+  }
+
+  public void testNeighborQueue() {
+    NeighborQueue minHeap = new NeighborQueue(2, false);
+    // keep only the best two
+    assertTrue(minHeap.insertWithOverflow(1, 0.5f, 2));
+    assertTrue(minHeap.insertWithOverflow(2, 0.2f, 2));
+    assertEquals(2, minHeap.topNode());
+    assertEquals(0.2f, minHeap.topScore(), 0);
+    assertTrue(minHeap.insertWithOverflow(3, 0.9f, 2));
+    assertEquals(2, minHeap.size());
+    assertFalse(minHeap.insertWithOverflow(4, 0.1f, 2));
+    assertEquals(1, minHeap.pop());
+    assertEquals(3, minHeap.pop());
+
+    NeighborQueue maxHeap = new NeighborQueue(2, true);
+    maxHeap.add(1, 0.5f);
+    maxHeap.add(2, 0.2f);
+    maxHeap.add(3, 0.9f);
+    assertEquals(3, maxHeap.pop());
+    assertEquals(1, maxHeap.pop());
+    assertEquals(2, maxHeap.pop());
+  }
+
+  private static Set<Integer> bruteForce(float[] query, int topK, RandomVectors vectors, VectorValues.SearchStrategy strategy) {
+    NeighborQueue queue = new NeighborQueue(topK, false);
+    for (int i = 0; i < vectors.size(); i++) {
+      queue.insertWithOverflow(i, strategy.similarity(query, vectors.values[i]), topK);
+    }
+    Set<Integer> result = new HashSet<>();
+    for (int node : queue.nodes()) {
+      result.add(node);
+    }
+    return result;
+  }
+
+  private static float[] randomVector(int dim) {
+    float[] vec = new float[dim];
+    for (int i = 0; i < dim; i++) {
+      vec[i] = random().nextFloat();
+    }
+    VectorUtil.l2normalize(vec);
+    return vec;
+  }
+
+  /** In-memory random vectors, normalized so that dot-product is a valid similarity */
+  private static class RandomVectors implements RandomAccessVectorValues, RandomAccessVectorValuesProducer {
+    final float[][] values;
+    final int dim;
+
+    RandomVectors(int size, int dim) {
+      this.dim = dim;
+      values = new float[size][];
+      for (int i = 0; i < size; i++) {
+        values[i] = randomVector(dim);
+      }
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @Override
+    public int dimension() {
+      return dim;
+    }
+
+    @Override
+    public float[] vectorValue(int targetOrd) {
+      return values[targetOrd];
+    }
+
+    @Override
+    public RandomAccessVectorValues randomAccess() {
+      // values are never modified, so sharing the backing arrays is safe
+      return new RandomVectors(values, dim);
+    }
+
+    private RandomVectors(float[][] values, int dim) {
+      this.values = values;
+      this.dim = dim;
+    }
+  }
+}
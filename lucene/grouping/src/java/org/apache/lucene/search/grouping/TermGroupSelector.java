@@ -19,8 +19,6 @@ package org.apache.lucene.search.grouping;
 
 import java.io.IOException;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
@@ -28,6 +26,7 @@ import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.search.Scorable;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefHash;
+import org.apache.lucene.util.IntIntHashMap;
 
 /**
  * A GroupSelector implementation that groups via SortedDocValues
@@ -36,7 +35,7 @@ public class TermGroupSelector extends GroupSelector<BytesRef> {
 
   private final String field;
   private final BytesRefHash values = new BytesRefHash();
-  private final Map<Integer, Integer> ordsToGroupIds = new HashMap<>();
+  private final IntIntHashMap ordsToGroupIds = new IntIntHashMap();
 
   private SortedDocValues docValues;
   private int groupId;
@@ -75,8 +74,8 @@ public class TermGroupSelector extends GroupSelector<BytesRef> {
       return includeEmpty ? State.ACCEPT : State.SKIP;
     }
     int ord = docValues.ordValue();
-    if (ordsToGroupIds.containsKey(ord)) {
-      groupId = ordsToGroupIds.get(ord);
+    groupId = ordsToGroupIds.getOrDefault(ord, -1);
+    if (groupId != -1) {
       return State.ACCEPT;
     }
     if (secondPass)
@@ -17,13 +17,9 @@
 package org.apache.lucene.search.join;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.Locale;
-import java.util.Map;
-import java.util.TreeSet;
-import java.util.function.BiConsumer;
-import java.util.function.LongFunction;
+import java.util.PrimitiveIterator;
 
 import org.apache.lucene.document.DoublePoint;
 import org.apache.lucene.document.FloatPoint;
@@ -47,7 +43,10 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorable;
 import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.join.DocValuesTermsCollector.Function;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LongHashSet;
+import org.apache.lucene.util.LongIntHashMap;
 
 /**
  * Utility for query time joining.
@@ -135,60 +134,9 @@ public final class JoinUtil {
                                       Query fromQuery,
                                       IndexSearcher fromSearcher,
                                       ScoreMode scoreMode) throws IOException {
-    TreeSet<Long> joinValues = new TreeSet<>();
-    Map<Long, Float> aggregatedScores = new HashMap<>();
-    Map<Long, Integer> occurrences = new HashMap<>();
+    LongHashSet joinValues = new LongHashSet();
+    JoinValueScores aggregatedScores = new JoinValueScores(scoreMode);
     boolean needsScore = scoreMode != ScoreMode.None;
-    BiConsumer<Long, Float> scoreAggregator;
-    if (scoreMode == ScoreMode.Max) {
-      scoreAggregator = (key, score) -> {
-        Float currentValue = aggregatedScores.putIfAbsent(key, score);
-        if (currentValue != null) {
-          aggregatedScores.put(key, Math.max(currentValue, score));
-        }
-      };
-    } else if (scoreMode == ScoreMode.Min) {
-      scoreAggregator = (key, score) -> {
-        Float currentValue = aggregatedScores.putIfAbsent(key, score);
-        if (currentValue != null) {
-          aggregatedScores.put(key, Math.min(currentValue, score));
-        }
-      };
-    } else if (scoreMode == ScoreMode.Total) {
-      scoreAggregator = (key, score) -> {
-        Float currentValue = aggregatedScores.putIfAbsent(key, score);
-        if (currentValue != null) {
-          aggregatedScores.put(key, currentValue + score);
-        }
-      };
-    } else if (scoreMode == ScoreMode.Avg) {
-      scoreAggregator = (key, score) -> {
-        Float currentSore = aggregatedScores.putIfAbsent(key, score);
-        if (currentSore != null) {
-          aggregatedScores.put(key, currentSore + score);
-        }
-        Integer currentOccurrence = occurrences.putIfAbsent(key, 1);
-        if (currentOccurrence != null) {
-          occurrences.put(key, ++currentOccurrence);
-        }
-
-      };
-    } else {
-      scoreAggregator = (key, score) -> {
-        throw new UnsupportedOperationException();
-      };
-    }
-
-    LongFunction<Float> joinScorer;
-    if (scoreMode == ScoreMode.Avg) {
-      joinScorer = (joinValue) -> {
-        Float aggregatedScore = aggregatedScores.get(joinValue);
-        Integer occurrence = occurrences.get(joinValue);
-        return aggregatedScore / occurrence;
-      };
-    } else {
-      joinScorer = aggregatedScores::get;
-    }
 
     Collector collector;
     if (multipleValuesPerDocument) {
@@ -204,7 +152,7 @@ public final class JoinUtil {
               long value = sortedNumericDocValues.nextValue();
               joinValues.add(value);
               if (needsScore) {
-                scoreAggregator.accept(value, scorer.score());
+                aggregatedScores.add(value, scorer.score());
               }
             }
           }
@@ -249,7 +197,7 @@ public final class JoinUtil {
           }
           joinValues.add(value);
           if (needsScore) {
-            scoreAggregator.accept(value, scorer.score());
+            aggregatedScores.add(value, scorer.score());
           }
         }
 
@@ -272,7 +220,9 @@ public final class JoinUtil {
     }
     fromSearcher.search(fromQuery, collector);
 
-    Iterator<Long> iterator = joinValues.iterator();
+    final long[] sortedJoinValues = joinValues.toArray();
+    Arrays.sort(sortedJoinValues);
+    PrimitiveIterator.OfLong iterator = Arrays.stream(sortedJoinValues).iterator();
 
     final int bytesPerDim;
     final BytesRef encoded = new BytesRef();
@@ -283,10 +233,10 @@ public final class JoinUtil {
         @Override
         public BytesRef next() {
           if (iterator.hasNext()) {
-            long value = iterator.next();
+            long value = iterator.nextLong();
             IntPoint.encodeDimension((int) value, encoded.bytes, 0);
             if (needsScore) {
-              score = joinScorer.apply(value);
+              score = aggregatedScores.get(value);
             }
             return encoded;
           } else {
@@ -300,10 +250,10 @@ public final class JoinUtil {
         @Override
         public BytesRef next() {
           if (iterator.hasNext()) {
-            long value = iterator.next();
+            long value = iterator.nextLong();
             LongPoint.encodeDimension(value, encoded.bytes, 0);
             if (needsScore) {
-              score = joinScorer.apply(value);
+              score = aggregatedScores.get(value);
             }
             return encoded;
           } else {
@@ -317,10 +267,10 @@ public final class JoinUtil {
         @Override
         public BytesRef next() {
           if (iterator.hasNext()) {
-            long value = iterator.next();
+            long value = iterator.nextLong();
             FloatPoint.encodeDimension(Float.intBitsToFloat((int) value), encoded.bytes, 0);
             if (needsScore) {
-              score = joinScorer.apply(value);
+              score = aggregatedScores.get(value);
             }
             return encoded;
           } else {
@@ -334,10 +284,10 @@ public final class JoinUtil {
         @Override
         public BytesRef next() {
           if (iterator.hasNext()) {
-            long value = iterator.next();
+            long value = iterator.nextLong();
             DoublePoint.encodeDimension(Double.longBitsToDouble(value), encoded.bytes, 0);
             if (needsScore) {
-              score = joinScorer.apply(value);
+              score = aggregatedScores.get(value);
             }
             return encoded;
           } else {
@@ -513,4 +463,56 @@ public final class JoinUtil {
         rewrittenFromQuery, min, max, searcher.getTopReaderContext().id());
   }
 
+
+  /**
+   * Aggregates the scores of numeric join values without boxing: a {@link LongIntHashMap} maps
+   * each join value to its index in a float array of scores.
+   */
+  private static final class JoinValueScores {
+
+    private final ScoreMode scoreMode;
+    private final LongIntHashMap indexes = new LongIntHashMap();
+    private float[] scores = new float[16];
+    private int[] occurrences = new int[16];
+
+    JoinValueScores(ScoreMode scoreMode) {
+      this.scoreMode = scoreMode;
+    }
+
+    void add(long joinValue, float score) {
+      // indexes are stored plus one since LongIntHashMap returns 0 for missing keys
+      int index = indexes.get(joinValue) - 1;
+      if (index == -1) {
+        index = indexes.size();
+        indexes.put(joinValue, index + 1);
+        scores = ArrayUtil.grow(scores, index + 1);
+        occurrences = ArrayUtil.grow(occurrences, index + 1);
+        scores[index] = score;
+      } else {
+        switch (scoreMode) {
+          case Max:
+            scores[index] = Math.max(scores[index], score);
+            break;
+          case Min:
+            scores[index] = Math.min(scores[index], score);
+            break;
+          case Total:
+          case Avg:
+            scores[index] += score;
+            break;
+          default:
+            throw new UnsupportedOperationException();
+        }
+      }
+      occurrences[index]++;
+    }
+
+    float get(long joinValue) {
+      final int index = indexes.get(joinValue) - 1;
+      if (scoreMode == ScoreMode.Avg) {
+        return scores[index] / occurrences[index];
+      }
+      return scores[index];
+    }
+  }
 }
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * An {@link MMapDirectory} that passes the configured {@link ReadAdvice} of
+ * each file to the operating system with {@code posix_madvise}, e.g. so that
+ * pages read by merges are reclaimed before the pages of the terms index that
+ * searches need. {@link IndexInput#prefetch Prefetch hints} are passed on as
+ * {@code POSIX_MADV_WILLNEED} so that the kernel starts reading them in the
+ * background.
+ *
+ * <p>Like {@link NativeUnixDirectory}, this requires the
+ * <code>libNativePosixUtil.so</code> library on the dynamic linker search path.
+ *
+ * @see MMapDirectory#setReadAdvice
+ * @lucene.experimental
+ */
+public class NativeMMapDirectory extends MMapDirectory {
+
+  /** Create a new NativeMMapDirectory for the named location and {@link FSLockFactory#getDefault()}.
+   *  The directory is created at the named location if it does not yet exist.
+   *
+   * @param path the path of the directory
+   * @throws IOException if there is a low-level I/O error
+   */
+  public NativeMMapDirectory(Path path) throws IOException {
+    super(path);
+  }
+
+  /** Create a new NativeMMapDirectory for the named location.
+   *  The directory is created at the named location if it does not yet exist.
+   *
+   * @param path the path of the directory
+   * @param lockFactory the lock factory to use
+   * @throws IOException if there is a low-level I/O error
+   */
+  public NativeMMapDirectory(Path path, LockFactory lockFactory) throws IOException {
+    super(path, lockFactory);
+  }
+
+  @Override
+  protected void advise(MappedByteBuffer buffer, ReadAdvice advice) throws IOException {
+    final int nativeAdvice;
+    switch (advice) {
+      case NORMAL:
+        nativeAdvice = NativePosixUtil.NORMAL;
+        break;
+      case RANDOM:
+        nativeAdvice = NativePosixUtil.RANDOM;
+        break;
+      case SEQUENTIAL:
+        nativeAdvice = NativePosixUtil.SEQUENTIAL;
+        break;
+      default:
+        throw new AssertionError("Unknown advice: " + advice);
+    }
+    final int code = NativePosixUtil.posix_madvise(buffer, nativeAdvice);
+    if (code != 0) {
+      throw new IOException("posix_madvise failed code=" + code);
+    }
+  }
+
+  @Override
+  protected boolean supportsPrefetch() {
+    return true;
+  }
+
+  @Override
+  protected void prefetch(ByteBuffer buffer, int offset, int length) throws IOException {
+    final ByteBuffer range = buffer.duplicate();
+    range.limit(offset + length).position(offset);
+    final int code = NativePosixUtil.posix_madvise(range.slice(), NativePosixUtil.WILLNEED);
+    if (code != 0) {
+      throw new IOException("posix_madvise failed code=" + code);
+    }
+  }
+}
@@ -24,6 +24,7 @@ import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.DocValuesProducer;
 import org.apache.lucene.index.AssertingLeafReader;
 import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.NumericDocValues;
@@ -287,6 +288,16 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
       assert values != null;
       return AssertingLeafReader.AssertingSortedSetDocValues.create(values, maxDoc);
     }
+
+    @Override
+    public DocValuesSkipper getSkipper(FieldInfo field) throws IOException {
+      if (merging) {
+        AssertingCodec.assertThread("DocValuesProducer", creationThread);
+      }
+      assert field.getDocValuesType() != DocValuesType.NONE && field.getDocValuesType() != DocValuesType.BINARY;
+      DocValuesSkipper skipper = in.getSkipper(field);
+      return skipper == null ? null : new AssertingLeafReader.AssertingDocValuesSkipper(skipper, maxDoc);
+    }
     
     @Override
     public void close() throws IOException {
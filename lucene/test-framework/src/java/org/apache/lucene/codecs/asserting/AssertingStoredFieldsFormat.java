@@ -18,6 +18,7 @@ package org.apache.lucene.codecs.asserting;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.function.IntFunction;
 
 import org.apache.lucene.codecs.StoredFieldsFormat;
 import org.apache.lucene.codecs.StoredFieldsReader;
@@ -78,6 +79,23 @@ public class AssertingStoredFieldsFormat extends StoredFieldsFormat {
       in.visitDocument(n, visitor);
     }
 
+    @Override
+    public void visitDocuments(int[] docIDs, IntFunction<? extends StoredFieldVisitor> visitors) throws IOException {
+      AssertingCodec.assertThread("StoredFieldsReader", creationThread);
+      for (int i = 0; i < docIDs.length; ++i) {
+        assert docIDs[i] >= 0 && docIDs[i] < maxDoc;
+        assert i == 0 || docIDs[i] >= docIDs[i - 1];
+      }
+      in.visitDocuments(docIDs, visitors);
+    }
+
+    @Override
+    public void prefetch(int n) throws IOException {
+      AssertingCodec.assertThread("StoredFieldsReader", creationThread);
+      assert n >= 0 && n < maxDoc;
+      in.prefetch(n);
+    }
+
     @Override
     public StoredFieldsReader clone() {
       assert merging == false : "Merge instances do not support cloning";
@@ -1046,6 +1046,90 @@ public class AssertingLeafReader extends FilterLeafReader {
     }
   }
 
+  /** Wraps a DocValuesSkipper but with additional asserts */
+  public static class AssertingDocValuesSkipper extends DocValuesSkipper {
+    private final Thread creationThread = Thread.currentThread();
+    private final DocValuesSkipper in;
+    private final int maxDoc;
+
+    /** Sole constructor. */
+    public AssertingDocValuesSkipper(DocValuesSkipper in, int maxDoc) {
+      this.in = in;
+      this.maxDoc = maxDoc;
+      assert in.minDocID() == -1;
+      assert in.globalDocCount() > 0 && in.globalDocCount() <= maxDoc;
+      assert in.globalMinValue() <= in.globalMaxValue();
+    }
+
+    @Override
+    public void advance(int target) throws IOException {
+      assertThread("Doc values skipper", creationThread);
+      assert target >= 0;
+      in.advance(target);
+      final int minDocID = in.minDocID();
+      if (minDocID != DocIdSetIterator.NO_MORE_DOCS) {
+        final int maxDocID = in.maxDocID();
+        assert minDocID <= maxDocID && maxDocID < maxDoc;
+        assert maxDocID >= target;
+        assert in.docCount() > 0 && in.docCount() <= maxDocID - minDocID + 1;
+        assert in.minValue() <= in.maxValue();
+        assert in.minValue() >= in.globalMinValue() && in.maxValue() <= in.globalMaxValue();
+      }
+    }
+
+    @Override
+    public int minDocID() {
+      assertThread("Doc values skipper", creationThread);
+      return in.minDocID();
+    }
+
+    @Override
+    public int maxDocID() {
+      assertThread("Doc values skipper", creationThread);
+      assert in.minDocID() != -1 && in.minDocID() != DocIdSetIterator.NO_MORE_DOCS;
+      return in.maxDocID();
+    }
+
+    @Override
+    public long minValue() {
+      assertThread("Doc values skipper", creationThread);
+      assert in.minDocID() != -1 && in.minDocID() != DocIdSetIterator.NO_MORE_DOCS;
+      return in.minValue();
+    }
+
+    @Override
+    public long maxValue() {
+      assertThread("Doc values skipper", creationThread);
+      assert in.minDocID() != -1 && in.minDocID() != DocIdSetIterator.NO_MORE_DOCS;
+      return in.maxValue();
+    }
+
+    @Override
+    public int docCount() {
+      assertThread("Doc values skipper", creationThread);
+      assert in.minDocID() != -1 && in.minDocID() != DocIdSetIterator.NO_MORE_DOCS;
+      return in.docCount();
+    }
+
+    @Override
+    public long globalMinValue() {
+      assertThread("Doc values skipper", creationThread);
+      return in.globalMinValue();
+    }
+
+    @Override
+    public long globalMaxValue() {
+      assertThread("Doc values skipper", creationThread);
+      return in.globalMaxValue();
+    }
+
+    @Override
+    public int globalDocCount() {
+      assertThread("Doc values skipper", creationThread);
+      return in.globalDocCount();
+    }
+  }
+
   /** Wraps a SortedSetDocValues but with additional asserts */
   public static class AssertingPointValues extends PointValues {
     private final Thread creationThread = Thread.currentThread();
@@ -1293,6 +1377,18 @@ public class AssertingLeafReader extends FilterLeafReader {
     }
   }
 
+  @Override
+  public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    DocValuesSkipper skipper = in.getDocValuesSkipper(field);
+    if (skipper == null) {
+      return null;
+    }
+    FieldInfo fi = getFieldInfos().fieldInfo(field);
+    assert fi != null;
+    assert fi.getDocValuesType() != DocValuesType.NONE && fi.getDocValuesType() != DocValuesType.BINARY;
+    return new AssertingDocValuesSkipper(skipper, maxDoc());
+  }
+
   @Override
   public PointValues getPointValues(String field) throws IOException {
     PointValues values = in.getPointValues(field);
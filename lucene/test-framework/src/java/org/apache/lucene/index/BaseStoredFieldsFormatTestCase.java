@@ -33,6 +33,7 @@ import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.StoredFieldsFormat;
 import org.apache.lucene.codecs.simpletext.SimpleTextCodec;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.IntPoint;
@@ -370,6 +371,67 @@ public abstract class BaseStoredFieldsFormatTestCase extends BaseIndexFileFormat
     dir.close();
   }
   
+  public void testVisitDocuments() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwConf = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwConf.setMaxBufferedDocs(RandomNumbers.randomIntBetween(random(), 2, 100));
+    RandomIndexWriter iw = new RandomIndexWriter(random(), dir, iwConf);
+
+    final int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      if (random().nextInt(10) != 0) {
+        doc.add(new StoredField("id", i));
+        final int numValues = random().nextInt(4);
+        for (int j = 0; j < numValues; ++j) {
+          doc.add(new StoredField("text", TestUtil.randomSimpleString(random(), random().nextInt(random().nextBoolean() ? 20 : 2000))));
+        }
+      }
+      iw.addDocument(doc);
+    }
+    iw.commit();
+    final DirectoryReader reader = maybeWrapWithMergingReader(DirectoryReader.open(dir));
+
+    final int iters = atLeast(5);
+    for (int iter = 0; iter < iters; ++iter) {
+      final int[] docIDs = new int[random().nextInt(200)];
+      for (int i = 0; i < docIDs.length; ++i) {
+        docIDs[i] = random().nextInt(numDocs);
+      }
+      Arrays.sort(docIDs);
+      final List<Integer> visited = new ArrayList<>();
+      final DocumentStoredFieldVisitor[] visitors = new DocumentStoredFieldVisitor[docIDs.length];
+      reader.documents(docIDs, docID -> {
+        final int index = visited.size();
+        assertEquals(docIDs[index], docID);
+        visited.add(docID);
+        return visitors[index] = new DocumentStoredFieldVisitor();
+      });
+      assertEquals(docIDs.length, visited.size());
+      for (int i = 0; i < docIDs.length; ++i) {
+        assertEquals(reader.document(docIDs[i]).toString(), visitors[i].getDocument().toString());
+      }
+
+      // unsorted doc IDs, with duplicates, through IndexSearcher
+      final int[] shuffled = new int[docIDs.length];
+      for (int i = 0; i < shuffled.length; ++i) {
+        shuffled[i] = docIDs[random().nextInt(docIDs.length)];
+      }
+      final Document[] docs = new IndexSearcher(reader).docs(shuffled);
+      for (int i = 0; i < shuffled.length; ++i) {
+        assertEquals(reader.document(shuffled[i]).toString(), docs[i].toString());
+      }
+    }
+
+    expectThrows(IllegalArgumentException.class, () -> {
+      reader.documents(new int[] {1, 0}, docID -> new DocumentStoredFieldVisitor());
+    });
+
+    reader.close();
+    iw.close();
+    dir.close();
+  }
+
   public void testEmptyDocs() throws IOException {
     Directory dir = newDirectory();
     IndexWriterConfig iwConf = newIndexWriterConfig(new MockAnalyzer(random()));
@@ -80,6 +80,8 @@ public class MismatchedLeafReader extends FilterLeafReader {
                                         oldInfo.getPointDimensionCount(),      // data dimension count
                                         oldInfo.getPointIndexDimensionCount(),      // index dimension count
                                         oldInfo.getPointNumBytes(),  // dimension numBytes
+                                        oldInfo.getVectorDimension(), // number of dimensions of the field's vector
+                                        oldInfo.getVectorSearchStrategy(), // distance function for calculating similarity of the field's vector
                                         oldInfo.isSoftDeletesField()); // used as soft-deletes field
       shuffled.set(i, newInfo);
     }
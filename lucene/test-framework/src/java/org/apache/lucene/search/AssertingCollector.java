@@ -26,6 +26,7 @@ import org.apache.lucene.index.LeafReaderContext;
 class AssertingCollector extends FilterCollector {
 
   private int maxDoc = -1;
+  private int previousLeafDocBase = -1;
   private int previousLeafMaxDoc = 0;
 
   /** Wrap the given collector in order to add assertions. */
@@ -42,7 +43,9 @@ class AssertingCollector extends FilterCollector {
 
   @Override
   public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
-    assert context.docBase >= previousLeafMaxDoc;
+    // the same leaf may be collected several times in a row if it is partitioned
+    assert context.docBase >= previousLeafMaxDoc || context.docBase == previousLeafDocBase;
+    previousLeafDocBase = context.docBase;
     previousLeafMaxDoc = context.docBase + context.reader().maxDoc();
 
     final LeafCollector in = super.getLeafCollector(context);
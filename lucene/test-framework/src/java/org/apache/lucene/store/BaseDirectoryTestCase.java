@@ -44,6 +44,7 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexNotFoundException;
 import org.apache.lucene.mockfile.ExtrasFS;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.TestUtil;
@@ -1153,6 +1154,39 @@ public abstract class BaseDirectoryTestCase extends LuceneTestCase {
     }
   }
 
+  public void testPrefetch() throws IOException {
+    try (Directory dir = getDirectory(createTempDir())) {
+      final int len = TestUtil.nextInt(random(), 1, 1 << 16);
+      final byte[] bytes = new byte[len];
+      random().nextBytes(bytes);
+      try (IndexOutput out = dir.createOutput("a", IOContext.DEFAULT)) {
+        out.writeBytes(bytes, bytes.length);
+      }
+      try (IndexInput in = dir.openInput("a", IOContext.DEFAULT)) {
+        final int sliceOffset = random().nextInt(len);
+        final IndexInput slice = in.slice("slice", sliceOffset, len - sliceOffset);
+        in.randomAccessSlice(sliceOffset, len - sliceOffset).prefetch(0, len - sliceOffset);
+        final int iters = atLeast(10);
+        for (int i = 0; i < iters; ++i) {
+          final IndexInput input = random().nextBoolean() ? in : slice;
+          final int start = random().nextInt((int) input.length() + 1);
+          final int end = TestUtil.nextInt(random(), start, (int) input.length());
+          final long fp = input.getFilePointer();
+          input.prefetch(start, end - start);
+          // prefetch is only a hint and must not move the file pointer
+          assertEquals(fp, input.getFilePointer());
+          if (end > start) {
+            input.seek(start);
+            final byte[] actual = new byte[end - start];
+            input.readBytes(actual, 0, actual.length);
+            final int base = input == in ? 0 : sliceOffset;
+            assertArrayEquals(ArrayUtil.copyOfSubArray(bytes, base + start, base + end), actual);
+          }
+        }
+      }
+    }
+  }
+
   // Make sure the FSDirectory impl properly "emulates" deletions on filesystems (Windows) with buggy deleteFile:
   public void testPendingDeletions() throws IOException {
     try (Directory dir = getDirectory(addVirusChecker(createTempDir()))) {
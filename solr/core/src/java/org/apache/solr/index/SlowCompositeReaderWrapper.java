@@ -23,6 +23,8 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.lucene.index.*;
 import org.apache.lucene.index.MultiDocValues.MultiSortedDocValues;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.Version;
 
@@ -276,6 +278,18 @@ public final class SlowCompositeReaderWrapper extends LeafReader {
     return null; // because not supported.  Throw UOE?
   }
 
+  @Override
+  public VectorValues getVectorValues(String field) {
+    ensureOpen();
+    return null; // because not supported.  Throw UOE?
+  }
+
+  @Override
+  public TopDocs searchNearestVectors(String field, float[] target, int k, Bits acceptDocs) {
+    ensureOpen();
+    return null; // because not supported.  Throw UOE?
+  }
+
   @Override
   public FieldInfos getFieldInfos() {
     return fieldInfos;
@@ -18,6 +18,7 @@ package org.apache.solr.response;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -71,6 +72,13 @@ public class DocsStreamer implements Iterator<SolrDocument> {
 
   private int idx = -1;
 
+  // documents are fetched in batches so that stored fields are loaded in doc id order
+  private static final int BATCH_SIZE = 64;
+  private final int[] batchIds;
+  private final float[] batchScores;
+  private SolrDocument[] batchDocs;
+  private int batchIdx, batchSize;
+
   public DocsStreamer(ResultContext rctx) {
     this.rctx = rctx;
     this.docs = rctx.getDocList();
@@ -78,6 +86,8 @@ public class DocsStreamer implements Iterator<SolrDocument> {
     docIterator = this.docs.iterator();
     docFetcher = rctx.getSearcher().getDocFetcher();
     solrReturnFields = (SolrReturnFields)rctx.getReturnFields();
+    batchIds = new int[Math.min(BATCH_SIZE, docs.size())];
+    batchScores = new float[batchIds.length];
 
     if (transformer != null) transformer.setContext(rctx);
   }
@@ -87,19 +97,38 @@ public class DocsStreamer implements Iterator<SolrDocument> {
   }
 
   public boolean hasNext() {
-    return docIterator.hasNext();
+    return batchIdx < batchSize || docIterator.hasNext();
+  }
+
+  private void nextBatch() {
+    final boolean doScore = rctx.wantsScores();
+    batchSize = 0;
+    while (batchSize < batchIds.length && docIterator.hasNext()) {
+      batchIds[batchSize] = docIterator.nextDoc();
+      if (doScore) {
+        batchScores[batchSize] = docIterator.score();
+      }
+      batchSize++;
+    }
+    batchDocs = docFetcher.solrDocs(batchSize == batchIds.length ? batchIds : Arrays.copyOf(batchIds, batchSize), solrReturnFields);
+    batchIdx = 0;
   }
 
   public SolrDocument next() {
-    int id = docIterator.nextDoc();
+    if (batchIdx == batchSize) {
+      nextBatch();
+    }
+    final int id = batchIds[batchIdx];
+    final SolrDocument sdoc = batchDocs[batchIdx];
+    final float score = batchScores[batchIdx];
+    batchDocs[batchIdx++] = null;
     idx++;
-    SolrDocument sdoc = docFetcher.solrDoc(id, solrReturnFields);
 
     if (transformer != null) {
       boolean doScore = rctx.wantsScores();
       try {
         if (doScore) {
-          transformer.transform(sdoc, id, docIterator.score());
+          transformer.transform(sdoc, id, score);
         } else {
           transformer.transform(sdoc, id);
         }
@@ -26,6 +26,7 @@ import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.IndexableFieldType;
+import org.apache.lucene.index.VectorValues;
 import org.apache.lucene.search.SortField;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.util.SimpleOrderedMap;
@@ -447,6 +448,16 @@ public final class SchemaField extends FieldProperties implements IndexableField
     return 0;
   }
 
+  @Override
+  public int vectorDimension() {
+    return 0;
+  }
+
+  @Override
+  public VectorValues.SearchStrategy vectorSearchStrategy() {
+    return VectorValues.SearchStrategy.NONE;
+  }
+
   @Override
   public Map<String, String> getAttributes() {
     return null;
@@ -450,6 +450,8 @@ public class CollapsingQParserPlugin extends QParserPlugin {
               fieldInfo.getPointDimensionCount(),
               fieldInfo.getPointIndexDimensionCount(),
               fieldInfo.getPointNumBytes(),
+              fieldInfo.getVectorDimension(),
+              fieldInfo.getVectorSearchStrategy(),
               fieldInfo.isSoftDeletesField());
           newInfos.add(f);
         } else {
@@ -244,6 +244,61 @@ public class SolrDocumentFetcher {
     }
   }
 
+  /**
+   * Retrieve the {@link Document} instances corresponding to a batch of document ids, e.g. a page of results,
+   * in the same order as {@code docIds}. Documents that are not in the document cache are loaded in a single
+   * pass over the stored fields, in doc id order, which is cheaper than loading them one by one since
+   * documents that are stored in the same compressed block only need to be decompressed once.
+   *
+   * @see #doc(int, Set)
+   */
+  public Document[] docs(int[] docIds, Set<String> fields) throws IOException {
+    final Document[] docs = new Document[docIds.length];
+    final int[] missing = new int[docIds.length];
+    int numMissing = 0;
+    for (int i = 0; i < docIds.length; ++i) {
+      final Document cached = documentCache == null ? null : documentCache.get(docIds[i]);
+      if (cached == null) {
+        missing[numMissing++] = docIds[i];
+      } else {
+        docs[i] = cached;
+      }
+    }
+    if (numMissing == 0) {
+      return docs;
+    }
+
+    Arrays.sort(missing, 0, numMissing);
+    int numUnique = 0;
+    for (int i = 0; i < numMissing; ++i) {
+      if (i == 0 || missing[i] != missing[i - 1]) {
+        missing[numUnique++] = missing[i];
+      }
+    }
+    final int[] uniqueIds = Arrays.copyOf(missing, numUnique);
+    final Document[] loaded = new Document[numUnique];
+    // same as doc(int, Set): cached documents need all fields unless lazy loading is enabled
+    final Set<String> getFields = documentCache == null || enableLazyFieldLoading ? fields : null;
+    final DirectoryReader reader = searcher.getIndexReader();
+    reader.documents(uniqueIds, docId -> {
+      final SolrDocumentStoredFieldVisitor visitor = new SolrDocumentStoredFieldVisitor(getFields, reader, docId);
+      loaded[Arrays.binarySearch(uniqueIds, docId)] = visitor.getDocument();
+      return visitor;
+    });
+
+    for (int i = 0; i < docIds.length; ++i) {
+      if (docs[i] == null) {
+        docs[i] = loaded[Arrays.binarySearch(uniqueIds, docIds[i])];
+      }
+    }
+    if (documentCache != null) {
+      for (int i = 0; i < numUnique; ++i) {
+        documentCache.put(uniqueIds[i], loaded[i]);
+      }
+    }
+    return docs;
+  }
+
   private Document docNC(int i, Set<String> fields) throws IOException {
     final DirectoryReader reader = searcher.getIndexReader();
     final SolrDocumentStoredFieldVisitor visitor = new SolrDocumentStoredFieldVisitor(fields, reader, i);
@@ -288,6 +343,16 @@ public class SolrDocumentFetcher {
     return solrReturnFields.getFetchOptimizer(rfoSupplier).getSolrDoc(luceneDocId);
   }
 
+  /**
+   * Like {@link #solrDoc(int, SolrReturnFields)}, but for a batch of documents, e.g. a page of results. The
+   * documents are returned in the same order as {@code luceneDocIds}, and stored fields are loaded with
+   * {@link #docs(int[], Set)}.
+   */
+  public SolrDocument[] solrDocs(int[] luceneDocIds, SolrReturnFields solrReturnFields) {
+    Supplier<RetrieveFieldsOptimizer> rfoSupplier = () -> new RetrieveFieldsOptimizer(solrReturnFields);
+    return solrReturnFields.getFetchOptimizer(rfoSupplier).getSolrDocs(luceneDocIds);
+  }
+
   /** {@link StoredFieldVisitor} which loads the specified fields eagerly (or all if null).
    * If {@link #enableLazyFieldLoading} then the rest get special lazy field entries.  Designated "large"
    * fields will always get a special field entry. */
@@ -796,11 +861,32 @@ public class SolrDocumentFetcher {
     }
 
     private SolrDocument getSolrDoc(int luceneDocId) {
+      try {
+        return getSolrDoc(luceneDocId, returnStoredFields() ? doc(luceneDocId, getStoredFields()) : null);
+      } catch (IOException e) {
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Error reading document with docId " + luceneDocId, e);
+      }
+    }
+
+    private SolrDocument[] getSolrDocs(int[] luceneDocIds) {
+      final SolrDocument[] sdocs = new SolrDocument[luceneDocIds.length];
+      try {
+        final Document[] docs = returnStoredFields() ? docs(luceneDocIds, getStoredFields()) : null;
+        for (int i = 0; i < luceneDocIds.length; ++i) {
+          sdocs[i] = getSolrDoc(luceneDocIds[i], docs == null ? null : docs[i]);
+        }
+      } catch (IOException e) {
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Error reading documents with docIds " + Arrays.toString(luceneDocIds), e);
+      }
+      return sdocs;
+    }
+
+    /** @param doc the stored fields of the document, or null if {@link #returnStoredFields()} is false */
+    private SolrDocument getSolrDoc(int luceneDocId, Document doc) {
 
       SolrDocument sdoc = null;
       try {
         if (returnStoredFields()) {
-          Document doc = doc(luceneDocId, getStoredFields());
           // make sure to use the schema from the searcher and not the request (cross-core)
           sdoc = DocsStreamer.convertLuceneDocToSolrDoc(doc, searcher.getSchema(), getReturnFields());
           if (returnDVFields() == false) {